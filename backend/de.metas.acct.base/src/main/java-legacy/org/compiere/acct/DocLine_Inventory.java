@@ -86,22 +86,26 @@ public class DocLine_Inventory extends DocLine<Doc_Inventory>
 		}
 		else
 		{
-			return services.createCostDetail(
-					CostDetailCreateRequest.builder()
-							.acctSchemaId(as.getId())
-							.clientId(getClientId())
-							.orgId(getOrgId())
-							.productId(getProductId())
-							.attributeSetInstanceId(getAttributeSetInstanceId())
-							.documentRef(CostingDocumentRef.ofInventoryLineId(get_ID()))
-							.qty(getQty())
-							.amt(CostAmount.of(this.costPrice, as.getCurrencyId()))
-							.date(getDateAcct())
-							.build())
+			return services.createCostDetail(createCostDetailCreateRequest(as))
 					.getTotalAmountToPost(as);
 		}
 	}
 
+	CostDetailCreateRequest createCostDetailCreateRequest(final AcctSchema as)
+	{
+		return CostDetailCreateRequest.builder()
+				.acctSchemaId(as.getId())
+				.clientId(getClientId())
+				.orgId(getOrgId())
+				.productId(getProductId())
+				.attributeSetInstanceId(getAttributeSetInstanceId())
+				.documentRef(CostingDocumentRef.ofInventoryLineId(get_ID()))
+				.qty(getQty())
+				.amt(CostAmount.of(this.costPrice, as.getCurrencyId()))
+				.date(getDateAcct())
+				.build();
+	}
+
 	/**
 	 * @param qty inventory quantity
 	 * @param inventoryUOMId UOM used for the inventory process
@@ -29,6 +29,7 @@ import de.metas.acct.api.PostingType;
 import de.metas.acct.api.ProductAcctType;
 import de.metas.acct.doc.AcctDocContext;
 import de.metas.costing.CostAmount;
+import de.metas.costing.CostDetailCreateRequest;
 import de.metas.inventory.IInventoryDAO;
 import de.metas.inventory.InventoryId;
 import de.metas.util.Services;
@@ -104,11 +105,43 @@ public class Doc_Inventory extends Doc<DocLine_Inventory>
 		setC_Currency_ID(as.getCurrencyId());
 
 		final Fact fact = new Fact(this, as, PostingType.Actual);
-		getDocLines().forEach(line -> createFactsForInventoryLine(fact, line));
+
+		final List<DocLine_Inventory> docLines = getDocLines();
+		final List<CostAmount> costs = getCreateCosts(docLines, as);
+		for (int i = 0; i < docLines.size(); i++)
+		{
+			createFactsForInventoryLine(fact, docLines.get(i), costs.get(i));
+		}
 
 		return ImmutableList.of(fact);
 	}
 
+	/**
+	 * Creates the costs of all lines in one batch, so the current costs are loaded and saved only once per product and not once per line.
+	 * <p>
+	 * Reversal lines are costed line by line, because they are reversing the cost details of the initial document.
+	 *
+	 * @return the costs, in the same order as the given lines
+	 */
+	private List<CostAmount> getCreateCosts(final List<DocLine_Inventory> docLines, final AcctSchema as)
+	{
+		if (docLines.stream().anyMatch(DocLine_Inventory::isReversalLine))
+		{
+			return docLines.stream()
+					.map(line -> line.getCreateCosts(as))
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		final ImmutableList<CostDetailCreateRequest> requests = docLines.stream()
+				.map(line -> line.createCostDetailCreateRequest(as))
+				.collect(ImmutableList.toImmutableList());
+
+		return services.createCostDetails(requests)
+				.stream()
+				.map(aggregatedCostAmount -> aggregatedCostAmount.getTotalAmountToPost(as))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	/**
 	 * <pre>
 	 *  Inventory
@@ -116,12 +149,10 @@ public class Doc_Inventory extends Doc<DocLine_Inventory>
 	 *      InventoryDiff   DR      CR   (or Charge)
 	 * </pre>
 	 */
-	private void createFactsForInventoryLine(final Fact fact, final DocLine_Inventory line)
+	private void createFactsForInventoryLine(final Fact fact, final DocLine_Inventory line, final CostAmount costs)
 	{
 		final AcctSchema as = fact.getAcctSchema();
 
-		final CostAmount costs = line.getCreateCosts(as);
-
 		//
 		// Inventory DR/CR
 		fact.createLine()
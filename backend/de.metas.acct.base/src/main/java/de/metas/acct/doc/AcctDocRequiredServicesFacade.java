@@ -1,6 +1,7 @@
 package de.metas.acct.doc;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.Nullable;
@@ -17,6 +18,8 @@ import org.compiere.model.PO;
 import org.compiere.util.TrxRunnable2;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.acct.api.AccountId;
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.AcctSchemaId;
@@ -263,6 +266,11 @@ public class AcctDocRequiredServicesFacade
 		return costingService.createCostDetail(request);
 	}
 
+	public ImmutableList<AggregatedCostAmount> createCostDetails(@NonNull final List<CostDetailCreateRequest> requests)
+	{
+		return costingService.createCostDetails(requests);
+	}
+
 	public AggregatedCostAmount createReversalCostDetails(@NonNull final CostDetailReverseRequest request)
 	{
 		return costingService.createReversalCostDetails(request);
@@ -1,5 +1,7 @@
 package de.metas.acct.posting;
 
+import lombok.NonNull;
+
 /*
  * #%L
  * de.metas.acct.base
@@ -25,4 +27,15 @@ package de.metas.acct.posting;
 public interface DocumentPostRequestHandler
 {
 	void handleRequest(final DocumentPostRequest request);
+
+	/**
+	 * Runs the given {@code handling} of the given request. The handling calls {@link #handleRequest(DocumentPostRequest)} and records the outcome in the event log.
+	 * <p>
+	 * Implementations may run it on another thread, but they must never run the handlings of the same document concurrently and they must keep their order.
+	 * The default implementation runs it right away on the caller's thread.
+	 */
+	default void execute(@NonNull final DocumentPostRequest request, @NonNull final Runnable handling)
+	{
+		handling.run();
+	}
 }
@@ -20,6 +20,7 @@ import de.metas.event.IEventBusFactory;
 import de.metas.event.IEventListener;
 import de.metas.event.SimpleObjectSerializer;
 import de.metas.event.Topic;
+import de.metas.event.log.EventLogEntryCollector;
 import de.metas.event.log.EventLogUserService;
 import de.metas.event.log.EventLogUserService.InvokeHandlerAndLogRequest;
 import de.metas.logging.LogManager;
@@ -136,7 +137,26 @@ public class DocumentPostingBusService
 		public void onEvent(@NonNull final IEventBus eventBus, @NonNull final Event event)
 		{
 			final DocumentPostRequest request = extractDocumentPostRequest(event);
+			final Thread eventBusThread = Thread.currentThread();
+
+			handler.execute(request, () -> {
+				if (Thread.currentThread() == eventBusThread)
+				{
+					handleRequestAndLog(request);
+				}
+				else
+				{
+					// the handler moved us to another thread, where the event bus did not set up an event log collector
+					try (final EventLogEntryCollector eventLogCollector = EventLogEntryCollector.createThreadLocalForEvent(event))
+					{
+						handleRequestAndLog(request);
+					}
+				}
+			});
+		}
 
+		private void handleRequestAndLog(@NonNull final DocumentPostRequest request)
+		{
 			try (final IAutoCloseable ctx = switchCtx(request);
 					final MDCCloseable requestRecordMDC = TableRecordMDC.putTableRecordReference(request.getRecord());
 					final MDCCloseable eventHandlerMDC = MDC.putCloseable("eventHandler.className", handler.getClass().getName());)
@@ -1,6 +1,11 @@
 package de.metas.acct.posting.server;
 
+import javax.annotation.PreDestroy;
+
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
@@ -12,6 +17,7 @@ import de.metas.acct.posting.DocumentPostRequest;
 import de.metas.acct.posting.DocumentPostRequestHandler;
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -41,15 +47,43 @@ public class AccountingService implements DocumentPostRequestHandler
 {
 	private static final Logger logger = LogManager.getLogger(AccountingService.class);
 
-	public AccountingService(final AcctDocRegistry acctDocFactory)
+	private final PartitionedDocumentPostExecutor executor;
+
+	/**
+	 * @param postingLanes how many documents shall be posted in parallel. If it's 1 (the default), the documents are posted on the caller's thread.
+	 *            Note that documents which depend on other documents' postings are posted after all requests which were submitted before them; see {@link PartitionedDocumentPostExecutor}.
+	 */
+	public AccountingService(
+			final AcctDocRegistry acctDocFactory,
+			@Value("${metasfresh.acct.posting.lanes:1}") final int postingLanes)
+	{
+		executor = new PartitionedDocumentPostExecutor(Math.max(postingLanes, 1), this::postNow);
+		JMXRegistry.get().registerJMX(new JMXAccountingService(executor), OnJMXAlreadyExistsPolicy.Replace);
+
+		logger.info("Posting documents using {} lane(s)", executor.getLanesCount());
+	}
+
+	@PreDestroy
+	public void shutdown()
 	{
+		executor.shutdown();
+	}
+
+	@Override
+	public void execute(@NonNull final DocumentPostRequest request, @NonNull final Runnable handling)
+	{
+		executor.submit(request, handling);
 	}
 
 	@Override
 	public void handleRequest(final DocumentPostRequest request)
 	{
 		logger.debug("Posting: {}", request);
+		executor.post(request);
+	}
 
+	private void postNow(@NonNull final DocumentPostRequest request)
+	{
 		final IPostingService postingService = Services.get(IPostingService.class);
 		postingService.newPostingRequest()
 				.setClientId(request.getClientId())
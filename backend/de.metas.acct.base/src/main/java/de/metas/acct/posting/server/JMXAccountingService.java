@@ -0,0 +1,91 @@
+package de.metas.acct.posting.server;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public final class JMXAccountingService implements JMXAccountingServiceMBean, IJMXNameAware
+{
+	private final PartitionedDocumentPostExecutor executor;
+
+	public JMXAccountingService(@NonNull final PartitionedDocumentPostExecutor executor)
+	{
+		this.executor = executor;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "de.metas.acct:type=AccountingService";
+	}
+
+	@Override
+	public int getLanesCount()
+	{
+		return executor.getLanesCount();
+	}
+
+	@Override
+	public int getCountQueued()
+	{
+		return executor.getCountQueued();
+	}
+
+	@Override
+	public long getCountPosted()
+	{
+		return executor.getCountPosted();
+	}
+
+	@Override
+	public long getCountFailed()
+	{
+		return executor.getCountFailed();
+	}
+
+	@Override
+	public long getPostingTimeAvgMillis()
+	{
+		return executor.getPostingTimeAvgMillis();
+	}
+
+	@Override
+	public long getPostingTimeMaxMillis()
+	{
+		return executor.getPostingTimeMaxMillis();
+	}
+
+	@Override
+	public long getQueueWaitTimeAvgMillis()
+	{
+		return executor.getQueueWaitTimeAvgMillis();
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		executor.resetStatistics();
+	}
+}
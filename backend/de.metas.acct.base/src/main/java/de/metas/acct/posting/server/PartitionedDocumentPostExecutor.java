@@ -0,0 +1,363 @@
+package de.metas.acct.posting.server;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_AllocationHdr;
+import org.compiere.model.I_C_ProjectIssue;
+import org.compiere.model.I_M_InOut;
+import org.compiere.model.I_M_Inventory;
+import org.compiere.model.I_M_MatchInv;
+import org.compiere.model.I_M_MatchPO;
+import org.compiere.model.I_M_Movement;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.acct.posting.DocumentPostRequest;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Executes the handlings of {@link DocumentPostRequest}s on a fixed number of single threaded lanes.
+ * <p>
+ * The lane is chosen by the request's document table and record ID, so requests for the same document are always posted on the same thread, in the order they were submitted.
+ * Requests for different documents are posted concurrently, except for:
+ * <ul>
+ * <li>documents which create cost details ({@link #COSTING_TABLE_NAMES}). They share the product costs, so they all go to the same lane and are posted in the order they were submitted.</li>
+ * <li>documents whose posting reads the postings or costs of other documents ({@link #DEPENDENT_TABLE_NAMES}), e.g. an allocation needs the facts of its invoices.
+ * They are posted after all requests which were submitted before them, and no request which was submitted after them is started until they are done.</li>
+ * </ul>
+ * If there is only one lane, the requests are executed directly on the caller's thread.
+ */
+final class PartitionedDocumentPostExecutor
+{
+	private static final Logger logger = LogManager.getLogger(PartitionedDocumentPostExecutor.class);
+
+	@VisibleForTesting
+	static final ImmutableSet<String> COSTING_TABLE_NAMES = ImmutableSet.of(
+			I_M_InOut.Table_Name,
+			I_M_Inventory.Table_Name,
+			I_M_Movement.Table_Name,
+			I_C_ProjectIssue.Table_Name,
+			"PP_Cost_Collector");
+
+	@VisibleForTesting
+	static final ImmutableSet<String> DEPENDENT_TABLE_NAMES = ImmutableSet.of(
+			I_C_AllocationHdr.Table_Name,
+			I_M_MatchInv.Table_Name,
+			I_M_MatchPO.Table_Name);
+
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofMinutes(2);
+
+	private final Consumer<DocumentPostRequest> postingAction;
+	private final ExecutorService[] lanes;
+
+	private final AtomicInteger countQueued = new AtomicInteger(0);
+	private final AtomicLong countStarted = new AtomicLong(0);
+	private final AtomicLong countPosted = new AtomicLong(0);
+	private final AtomicLong countFailed = new AtomicLong(0);
+	private final AtomicLong postingTimeTotalMillis = new AtomicLong(0);
+	private final AtomicLong postingTimeMaxMillis = new AtomicLong(0);
+	private final AtomicLong queueWaitTimeTotalMillis = new AtomicLong(0);
+
+	/**
+	 * @param postingAction the actual posting; see {@link #post(DocumentPostRequest)}
+	 */
+	public PartitionedDocumentPostExecutor(
+			final int lanesCount,
+			@NonNull final Consumer<DocumentPostRequest> postingAction)
+	{
+		Check.assumeGreaterThanZero(lanesCount, "lanesCount");
+		this.postingAction = postingAction;
+
+		if (lanesCount > 1)
+		{
+			final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(getClass().getSimpleName())
+					.setDaemon(true)
+					.build();
+
+			lanes = new ExecutorService[lanesCount];
+			for (int i = 0; i < lanesCount; i++)
+			{
+				lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+			}
+		}
+		else
+		{
+			lanes = null;
+		}
+	}
+
+	public int getLanesCount()
+	{
+		return lanes != null ? lanes.length : 1;
+	}
+
+	/**
+	 * Runs the given {@code handling} on the request's lane.
+	 * <p>
+	 * The handling is expected to deal with its own failures (i.e. record them in the event log).
+	 * If it fails nevertheless, the exception is propagated if we are running on the caller's thread and logged otherwise.
+	 */
+	public void submit(@NonNull final DocumentPostRequest request, @NonNull final Runnable handling)
+	{
+		if (lanes == null)
+		{
+			countStarted.incrementAndGet();
+			handling.run();
+			return;
+		}
+
+		final Stopwatch queueStopwatch = Stopwatch.createStarted();
+		final Runnable task = () -> {
+			countQueued.decrementAndGet();
+			countStarted.incrementAndGet();
+			queueWaitTimeTotalMillis.addAndGet(queueStopwatch.elapsed(TimeUnit.MILLISECONDS));
+
+			try
+			{
+				handling.run();
+			}
+			catch (final RuntimeException ex)
+			{
+				// we are on a lane thread, there is nobody to propagate the exception to
+				logger.warn("Failed handling {}", request, ex);
+			}
+		};
+
+		countQueued.incrementAndGet();
+		try
+		{
+			final TableRecordReference record = request.getRecord();
+			if (DEPENDENT_TABLE_NAMES.contains(record.getTableName()))
+			{
+				submitAfterAllLanes(getLaneIndex(record, lanes.length), task);
+			}
+			else
+			{
+				lanes[getLaneIndex(record, lanes.length)].execute(task);
+			}
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			countQueued.decrementAndGet();
+			throw ex;
+		}
+	}
+
+	@VisibleForTesting
+	static int getLaneIndex(@NonNull final TableRecordReference record, final int lanesCount)
+	{
+		final String tableName = record.getTableName();
+		final int hash = COSTING_TABLE_NAMES.contains(tableName)
+				? COSTING_TABLE_NAMES.hashCode()
+				: Objects.hash(tableName, record.getRecord_ID());
+		return Math.floorMod(hash, lanesCount);
+	}
+
+	/**
+	 * Enqueues the given task on the given lane, and a barrier on every other lane.
+	 * The task starts when all other lanes reached their barrier, and the other lanes continue when the task is done.
+	 * <p>
+	 * Synchronized because the barriers need to be enqueued in the same order on all lanes; otherwise two lanes could wait for each other.
+	 * For the same reason, we may not enqueue on some lanes only because {@link #shutdown()} was called in the meantime.
+	 */
+	private synchronized void submitAfterAllLanes(final int laneIndex, @NonNull final Runnable task)
+	{
+		if (lanes[0].isShutdown())
+		{
+			throw new RejectedExecutionException("Executor was shut down");
+		}
+
+		final CountDownLatch otherLanesArrived = new CountDownLatch(lanes.length - 1);
+		final CountDownLatch taskDone = new CountDownLatch(1);
+
+		for (int i = 0; i < lanes.length; i++)
+		{
+			if (i == laneIndex)
+			{
+				lanes[i].execute(() -> {
+					try
+					{
+						awaitUninterruptibly(otherLanesArrived);
+						task.run();
+					}
+					finally
+					{
+						taskDone.countDown();
+					}
+				});
+			}
+			else
+			{
+				lanes[i].execute(() -> {
+					otherLanesArrived.countDown();
+					awaitUninterruptibly(taskDone);
+				});
+			}
+		}
+	}
+
+	private static void awaitUninterruptibly(@NonNull final CountDownLatch latch)
+	{
+		boolean interrupted = false;
+		while (true)
+		{
+			try
+			{
+				latch.await();
+				break;
+			}
+			catch (final InterruptedException ex)
+			{
+				interrupted = true;
+			}
+		}
+
+		if (interrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Does the actual posting on the current thread and updates the statistics. Exceptions are propagated.
+	 */
+	public void post(@NonNull final DocumentPostRequest request)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			postingAction.accept(request);
+			countPosted.incrementAndGet();
+		}
+		catch (final RuntimeException ex)
+		{
+			countFailed.incrementAndGet();
+			throw ex;
+		}
+		finally
+		{
+			final long durationMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+			postingTimeTotalMillis.addAndGet(durationMillis);
+			postingTimeMaxMillis.accumulateAndGet(durationMillis, Math::max);
+		}
+	}
+
+	/**
+	 * Stops accepting new requests and waits until the already submitted ones are done.
+	 */
+	public void shutdown()
+	{
+		if (lanes == null)
+		{
+			return;
+		}
+
+		synchronized (this)
+		{
+			for (final ExecutorService lane : lanes)
+			{
+				lane.shutdown();
+			}
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			for (final ExecutorService lane : lanes)
+			{
+				final long remainingMillis = SHUTDOWN_TIMEOUT.toMillis() - stopwatch.elapsed(TimeUnit.MILLISECONDS);
+				if (!lane.awaitTermination(Math.max(remainingMillis, 0), TimeUnit.MILLISECONDS))
+				{
+					logger.warn("Lanes did not finish within {}; {} request(s) are still queued and won't be posted", SHUTDOWN_TIMEOUT, countQueued.get());
+					break;
+				}
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			logger.warn("Got interrupted while waiting for the lanes to finish; {} request(s) are still queued and won't be posted", countQueued.get());
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public int getCountQueued()
+	{
+		return countQueued.get();
+	}
+
+	public long getCountPosted()
+	{
+		return countPosted.get();
+	}
+
+	public long getCountFailed()
+	{
+		return countFailed.get();
+	}
+
+	public long getPostingTimeAvgMillis()
+	{
+		final long count = countPosted.get() + countFailed.get();
+		return count > 0 ? postingTimeTotalMillis.get() / count : 0;
+	}
+
+	public long getPostingTimeMaxMillis()
+	{
+		return postingTimeMaxMillis.get();
+	}
+
+	public long getQueueWaitTimeAvgMillis()
+	{
+		final long count = countStarted.get();
+		return count > 0 ? queueWaitTimeTotalMillis.get() / count : 0;
+	}
+
+	public void resetStatistics()
+	{
+		countStarted.set(0);
+		countPosted.set(0);
+		countFailed.set(0);
+		postingTimeTotalMillis.set(0);
+		postingTimeMaxMillis.set(0);
+		queueWaitTimeTotalMillis.set(0);
+	}
+}
@@ -0,0 +1,253 @@
+package de.metas.acct.posting.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.Test;
+
+import de.metas.acct.posting.DocumentPostRequest;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PartitionedDocumentPostExecutorTest
+{
+	private static DocumentPostRequest request(final String tableName, final int recordId)
+	{
+		return DocumentPostRequest.builder()
+				.record(TableRecordReference.of(tableName, recordId))
+				.clientId(ClientId.ofRepoId(1000))
+				.build();
+	}
+
+	/** Submits the given request the way DocumentPostingBusService does it, i.e. the handling calls {@link PartitionedDocumentPostExecutor#post(DocumentPostRequest)} */
+	private static void submitAndPost(final PartitionedDocumentPostExecutor executor, final DocumentPostRequest request)
+	{
+		executor.submit(request, () -> executor.post(request));
+	}
+
+	@Test
+	public void sameDocument_alwaysSameLane()
+	{
+		final TableRecordReference record = TableRecordReference.of("C_Invoice", 1234);
+		final int laneIndex = PartitionedDocumentPostExecutor.getLaneIndex(record, 8);
+
+		assertThat(laneIndex).isBetween(0, 7);
+		assertThat(PartitionedDocumentPostExecutor.getLaneIndex(TableRecordReference.of("C_Invoice", 1234), 8)).isEqualTo(laneIndex);
+	}
+
+	@Test
+	public void costingDocuments_alwaysSameLane()
+	{
+		final int laneIndex = PartitionedDocumentPostExecutor.getLaneIndex(TableRecordReference.of("M_InOut", 1), 8);
+
+		assertThat(PartitionedDocumentPostExecutor.getLaneIndex(TableRecordReference.of("M_InOut", 2), 8)).isEqualTo(laneIndex);
+		assertThat(PartitionedDocumentPostExecutor.getLaneIndex(TableRecordReference.of("M_Inventory", 3), 8)).isEqualTo(laneIndex);
+		assertThat(PartitionedDocumentPostExecutor.getLaneIndex(TableRecordReference.of("PP_Cost_Collector", 4), 8)).isEqualTo(laneIndex);
+	}
+
+	@Test
+	public void singleLane_postsOnCallerThread()
+	{
+		final List<Thread> threads = new CopyOnWriteArrayList<>();
+		final PartitionedDocumentPostExecutor executor = new PartitionedDocumentPostExecutor(1, request -> threads.add(Thread.currentThread()));
+
+		submitAndPost(executor, request("C_Invoice", 1));
+
+		assertThat(threads).containsExactly(Thread.currentThread());
+		assertThat(executor.getCountPosted()).isEqualTo(1);
+	}
+
+	@Test
+	public void singleLane_failureIsPropagated()
+	{
+		final PartitionedDocumentPostExecutor executor = new PartitionedDocumentPostExecutor(1, request -> {
+			throw new RuntimeException("posting failed");
+		});
+
+		assertThatThrownBy(() -> submitAndPost(executor, request("C_Invoice", 1)))
+				.hasMessage("posting failed");
+		assertThat(executor.getCountFailed()).isEqualTo(1);
+	}
+
+	@Test
+	public void multipleLanes_sameDocumentIsNeverPostedConcurrently() throws Exception
+	{
+		final int documentsCount = 10;
+		final int repostsPerDocument = 20;
+		final CountDownLatch done = new CountDownLatch(documentsCount * repostsPerDocument);
+		final Set<TableRecordReference> inProgress = ConcurrentHashMap.newKeySet();
+		final AtomicBoolean concurrentPostingDetected = new AtomicBoolean(false);
+
+		final PartitionedDocumentPostExecutor executor = new PartitionedDocumentPostExecutor(4, request -> {
+			if (!inProgress.add(request.getRecord()))
+			{
+				concurrentPostingDetected.set(true);
+			}
+			Thread.yield();
+			inProgress.remove(request.getRecord());
+		});
+
+		try
+		{
+			for (int i = 0; i < repostsPerDocument; i++)
+			{
+				for (int recordId = 1; recordId <= documentsCount; recordId++)
+				{
+					final DocumentPostRequest request = request("C_Invoice", recordId);
+					executor.submit(request, () -> {
+						executor.post(request);
+						done.countDown(); // only now the statistics were updated
+					});
+				}
+			}
+
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(concurrentPostingDetected).isFalse();
+			assertThat(executor.getCountPosted()).isEqualTo(documentsCount * repostsPerDocument);
+			assertThat(executor.getCountFailed()).isZero();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void multipleLanes_failureIsCountedAndDoesNotStopTheLane() throws Exception
+	{
+		final AtomicBoolean firstCall = new AtomicBoolean(true);
+		final PartitionedDocumentPostExecutor executor = new PartitionedDocumentPostExecutor(2, request -> {
+			if (firstCall.getAndSet(false))
+			{
+				throw new RuntimeException("posting failed");
+			}
+		});
+
+		final CountDownLatch secondPostingDone = new CountDownLatch(1);
+		try
+		{
+			final DocumentPostRequest request = request("C_Invoice", 1);
+			submitAndPost(executor, request);
+			executor.submit(request, () -> {
+				executor.post(request);
+				secondPostingDone.countDown();
+			});
+
+			assertThat(secondPostingDone.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(executor.getCountFailed()).isEqualTo(1);
+			assertThat(executor.getCountPosted()).isEqualTo(1);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void multipleLanes_dependentDocumentIsPostedAfterEarlierAndBeforeLaterRequests() throws Exception
+	{
+		final int invoicesCount = 8;
+		final AtomicInteger invoicesPosted = new AtomicInteger(0);
+		final AtomicInteger invoicesPostedWhenAllocationStarted = new AtomicInteger(-1);
+		final AtomicBoolean allocationDone = new AtomicBoolean(false);
+		final AtomicBoolean laterInvoiceStartedBeforeAllocationDone = new AtomicBoolean(false);
+
+		final Consumer<DocumentPostRequest> postingAction = request -> {
+			if ("C_AllocationHdr".equals(request.getRecord().getTableName()))
+			{
+				invoicesPostedWhenAllocationStarted.set(invoicesPosted.get());
+				sleep(50);
+				allocationDone.set(true);
+			}
+			else if (request.getRecord().getRecord_ID() > invoicesCount)
+			{
+				laterInvoiceStartedBeforeAllocationDone.compareAndSet(false, !allocationDone.get());
+			}
+			else
+			{
+				sleep(20);
+				invoicesPosted.incrementAndGet();
+			}
+		};
+		final PartitionedDocumentPostExecutor executor = new PartitionedDocumentPostExecutor(4, postingAction);
+
+		for (int recordId = 1; recordId <= invoicesCount; recordId++)
+		{
+			submitAndPost(executor, request("C_Invoice", recordId));
+		}
+		submitAndPost(executor, request("C_AllocationHdr", 1));
+		for (int recordId = invoicesCount + 1; recordId <= 2 * invoicesCount; recordId++)
+		{
+			submitAndPost(executor, request("C_Invoice", recordId));
+		}
+
+		executor.shutdown();
+
+		assertThat(invoicesPostedWhenAllocationStarted).hasValue(invoicesCount);
+		assertThat(laterInvoiceStartedBeforeAllocationDone).isFalse();
+		assertThat(executor.getCountPosted()).isEqualTo(2 * invoicesCount + 1);
+	}
+
+	@Test
+	public void shutdown_waitsForQueuedRequests()
+	{
+		final PartitionedDocumentPostExecutor executor = new PartitionedDocumentPostExecutor(2, request -> sleep(10));
+		for (int recordId = 1; recordId <= 20; recordId++)
+		{
+			submitAndPost(executor, request("C_Invoice", recordId));
+		}
+
+		executor.shutdown();
+
+		assertThat(executor.getCountQueued()).isZero();
+		assertThat(executor.getCountPosted()).isEqualTo(20);
+		assertThatThrownBy(() -> submitAndPost(executor, request("C_Invoice", 1)))
+				.isInstanceOf(RejectedExecutionException.class);
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException ex)
+		{
+			throw new RuntimeException(ex);
+		}
+	}
+}
@@ -27,28 +27,32 @@ import java.sql.Statement;
 import java.sql.Types;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
 import org.adempiere.ad.trx.api.ITrx;
-import org.adempiere.exceptions.DBConnectionAcquireTimeoutException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.exceptions.DBNoConnectionException;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.compiere.dbPort.Convert;
 import org.compiere.dbPort.Convert_PostgreSQL;
 import org.compiere.dbPort.Convert_PostgreSQL_Native;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
-import org.compiere.util.Ini;
 import org.slf4j.Logger;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
-import com.google.common.collect.ImmutableList;
-import com.mchange.v2.c3p0.ComboPooledDataSource;
-import com.mchange.v2.resourcepool.BasicResourcePool_MetasfreshObserver;
 
-import de.metas.connection.impl.DB_PostgreSQL_ConnectionCustomizer;
+import de.metas.connection.pool.C3P0ConnectionPool;
+import de.metas.connection.pool.ConnectionCheckoutStatistics;
+import de.metas.connection.pool.DBConnectionPool;
+import de.metas.connection.pool.DBConnectionPoolType;
+import de.metas.connection.pool.HikariConnectionPool;
+import de.metas.connection.pool.JMXConnectionPool;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.SystemUtils;
@@ -70,8 +74,6 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	private static final String CONFIG_UseNativeConverter = "org.compiere.db.DB_PostgreSQL.UseNativeConverter";
 	private static final String CONFIG_UseNativeConverter_DefaultValue = "true";
 
-	private static final String CONFIG_CheckoutTimeout_SwingClient = "org.compiere.db.DB_PostgreSQL.CheckoutTimeout";
-
 	private static final String CONFIG_UnreturnedConnectionTimeoutMillis = "db.postgresql.unreturnedConnectionTimeoutMillis";
 	private static final Duration CONFIG_UnreturnedConnectionTimeoutMillis_DefaultValue = Duration.ofHours(2);
 
@@ -108,9 +110,10 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	/** Default Port */
 	public static final int DEFAULT_PORT = 5432;
 
-	/** Data Source */
-	private transient ComboPooledDataSource _dataSource = null;
+	/** Connection pool */
+	private transient DBConnectionPool _connectionPool = null;
 	private transient volatile boolean _dataSourceInitialized = false;
+	private final ConnectionCheckoutStatistics checkoutStatistics = new ConnectionCheckoutStatistics();
 	private final Object _dataSourceLock = new Object();
 
 	/** Cached Database Name */
@@ -322,8 +325,8 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	@Override
 	public String getStatus()
 	{
-		final ComboPooledDataSource dataSource = getDataSourceOrNull();
-		if (dataSource == null)
+		final DBConnectionPool connectionPool = getConnectionPoolOrNull();
+		if (connectionPool == null)
 		{
 			return "No datasource";
 		}
@@ -331,28 +334,15 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		final StringBuilder sb = new StringBuilder();
 		try
 		{
-			sb.append("# Connections: ").append(dataSource.getNumConnections());
-			sb.append(" , # Busy Connections: ").append(dataSource.getNumBusyConnections()).append("/").append(m_maxBusyConnectionsThreshold);
-			sb.append(" , # Idle Connections: ").append(dataSource.getNumIdleConnections());
-			sb.append(" , # Orphaned Connections: ").append(dataSource.getNumUnclosedOrphanedConnections());
+			sb.append("# Connections: ").append(connectionPool.getNumConnections());
+			sb.append(" , # Busy Connections: ").append(connectionPool.getNumBusyConnections()).append("/").append(m_maxBusyConnectionsThreshold);
+			sb.append(" , # Idle Connections: ").append(connectionPool.getNumIdleConnections());
+			sb.append(" , # Threads awaiting Connection: ").append(connectionPool.getNumThreadsAwaitingConnection());
 
-			if (dataSource.isDebugUnreturnedConnectionStackTraces())
+			final String poolStatus = connectionPool.getStatus();
+			if (!Check.isEmpty(poolStatus))
 			{
-				try
-				{
-					int index = 1;
-					final List<String> connectionInfos = getAquiredConnectionInfos(dataSource);
-					for (final String info : connectionInfos)
-					{
-						sb.append("\n\t\t " + index + ": " + info);
-						index++;
-					}
-				}
-				catch (final Exception ex)
-				{
-					log.warn("Failed fetching connections debug info. Ignored.", ex);
-				}
-
+				sb.append(" , ").append(poolStatus);
 			}
 		}
 		catch (Exception e)
@@ -457,17 +447,28 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		boolean connOk = false;
 		try
 		{
-			final ComboPooledDataSource m_ds = getDataSource(connection);
-			if (m_ds == null)
+			final DBConnectionPool connectionPool = getConnectionPool(connection);
+			if (connectionPool == null)
 			{
 				throw new DBNoConnectionException("Data source could not be retrieved for " + connection);
 			}
 
-			conn = m_ds.getConnection();
+			final Stopwatch checkoutStopwatch = Stopwatch.createStarted();
+			try
+			{
+				conn = connectionPool.getConnection();
+			}
+			catch (final SQLException | RuntimeException ex)
+			{
+				checkoutStatistics.recordFailedCheckout();
+				throw ex;
+			}
+			checkoutStatistics.recordCheckout(checkoutStopwatch.elapsed(TimeUnit.MILLISECONDS));
+
 			conn.setAutoCommit(autoCommit);
 			conn.setTransactionIsolation(transactionIsolation);
 
-			final int numConnections = m_ds.getNumBusyConnections();
+			final int numConnections = connectionPool.getNumBusyConnections();
 			final int maxBusyconnectionsThreshold = this.m_maxBusyConnectionsThreshold;
 			if (numConnections >= maxBusyconnectionsThreshold && maxBusyconnectionsThreshold > 0)
 			{
@@ -492,16 +493,6 @@ public class DB_PostgreSQL implements AdempiereDatabase
 			connOk = true;
 			return conn;
 		}
-		catch (final SQLException sqlException)
-		{
-			final Throwable cause = sqlException.getCause();
-			if (cause instanceof com.mchange.v2.resourcepool.TimeoutException)
-			{
-				throw new DBConnectionAcquireTimeoutException(sqlException);
-			}
-
-			throw sqlException;
-		}
 		finally
 		{
 			if (!connOk)
@@ -512,22 +503,22 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	}	// getCachedConnection
 
 	/**
-	 * Gets current {@link DataSource}.
+	 * Gets current {@link DBConnectionPool}.
 	 *
-	 * NOTE: this method is not initializing the {@link DataSource}.
+	 * NOTE: this method is not initializing the {@link DBConnectionPool}.
 	 *
-	 * @return current data source our null
+	 * @return current connection pool our null
 	 */
-	private final ComboPooledDataSource getDataSourceOrNull()
+	private final DBConnectionPool getConnectionPoolOrNull()
 	{
 		if (!_dataSourceInitialized)
 		{
 			synchronized (_dataSourceLock)
 			{
-				return _dataSource;
+				return _connectionPool;
 			}
 		}
-		return _dataSource;
+		return _connectionPool;
 	}
 
 	/**
@@ -537,7 +528,12 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	 * @return data source or null if database could not be initialized
 	 */
 	@Override
-	public ComboPooledDataSource getDataSource(final CConnection connection)
+	public DataSource getDataSource(final CConnection connection)
+	{
+		return getConnectionPool(connection).getDataSource();
+	}
+
+	private DBConnectionPool getConnectionPool(final CConnection connection)
 	{
 		if (!_dataSourceInitialized)
 		{
@@ -545,89 +541,50 @@ public class DB_PostgreSQL implements AdempiereDatabase
 			{
 				if (!_dataSourceInitialized)
 				{
-					final ComboPooledDataSource dataSource = this._dataSource = createDataSource(connection);
-					log.info("Data source: {}", dataSource.toString(/* show_config */true));
+					final DBConnectionPoolType poolType = DBConnectionPoolType.getConfigured();
+					final DBConnectionPool connectionPool = this._connectionPool = createConnectionPool(poolType, connection);
+					log.info("Data source: {}", connectionPool);
 
-					final int maxBusyConnectionsThreshold = this.m_maxBusyConnectionsThreshold = (int)(dataSource.getMaxPoolSize() * 0.80);
+					final int maxBusyConnectionsThreshold = this.m_maxBusyConnectionsThreshold = (int)(connectionPool.getMaxPoolSize() * 0.80);
 					log.info("MaxBusyConnectionsThreshold={}", maxBusyConnectionsThreshold);
 
+					JMXRegistry.get().registerJMX(new JMXConnectionPool(poolType, connectionPool, checkoutStatistics), OnJMXAlreadyExistsPolicy.Replace);
+
 					_dataSourceInitialized = true;
 				}
 			}
 		}
-		return _dataSource;
+		return _connectionPool;
 	}
 
 	/**
-	 * Creates {@link DataSource} based on {@link CConnection} properties.
-	 *
-	 * NOTE: this method never throws exception but just logs it.
+	 * Creates {@link DBConnectionPool} based on {@link CConnection} properties.
 	 *
 	 * @param connection
-	 * @return {@link DataSource}
+	 * @return {@link DBConnectionPool}
 	 */
 	@NonNull
-	private ComboPooledDataSource createDataSource(final CConnection connection)
-	{
-		try
-		{
-			System.setProperty("com.mchange.v2.log.MLog", com.mchange.v2.log.slf4j.Slf4jMLog.class.getName());
-			// System.setProperty("com.mchange.v2.log.FallbackMLog.DEFAULT_CUTOFF_LEVEL", "ALL");
-			final ComboPooledDataSource cpds = new ComboPooledDataSource();
-			cpds.setDataSourceName("metasfreshDS");
-			cpds.setDriverClass(DRIVER);
-			// loads the jdbc driver
-			cpds.setJdbcUrl(getConnectionURL(connection));
-			cpds.setUser(connection.getDbUid());
-			cpds.setPassword(connection.getDbPwd());
-			cpds.setPreferredTestQuery(DEFAULT_CONN_TEST_SQL);
-			cpds.setIdleConnectionTestPeriod(1200);
-			// cpds.setTestConnectionOnCheckin(true);
-			// cpds.setTestConnectionOnCheckout(true);
-			cpds.setAcquireRetryAttempts(2);
-
-			if (Ini.isSwingClient())
-			{
-				// Set checkout timeout to avoid forever locking when trying to connect to a not existing host.
-				cpds.setCheckoutTimeout(SystemUtils.getSystemProperty(CONFIG_CheckoutTimeout_SwingClient, 20 * 1000));
-
-				cpds.setInitialPoolSize(1);
-				cpds.setMinPoolSize(1);
-				cpds.setMaxPoolSize(20);
-				cpds.setMaxIdleTimeExcessConnections(1200);
-				cpds.setMaxIdleTime(900);
-			}
-			else
-			{
-				// these are set in c3p0.properties files
-				// cpds.setInitialPoolSize(10);
-				// cpds.setMinPoolSize(5);
-				// cpds.setMaxPoolSize(150);
-				cpds.setMaxIdleTimeExcessConnections(1200);
-				cpds.setMaxIdleTime(1200);
-			}
-
-			//
-			// Timeout unreturned connections
-			// i.e. kill them and get them back to the pool.
-			final Duration unreturnedConnectionTimeout = getUnreturnedConnectionTimeout();
-			if (unreturnedConnectionTimeout.getSeconds() > 0)
-			{
-				// IMPORTANT: unreturnedConnectionTimeout is in seconds, see https://www.mchange.com/projects/c3p0/#unreturnedConnectionTimeout
-				cpds.setUnreturnedConnectionTimeout((int)unreturnedConnectionTimeout.getSeconds());
-				cpds.setDebugUnreturnedConnectionStackTraces(true);
-			}
-
-			// 04006: add a customizer to set the log level for message that are send to the client
-			// background: if there are too many messages sent (e.g. from a verbose and long-running DB function)
-			// then the whole JVM might suffer an OutOfMemoryError
-			cpds.setConnectionCustomizerClassName(DB_PostgreSQL_ConnectionCustomizer.class.getName());
-
-			return cpds;
-		}
-		catch (Exception ex)
-		{
-			throw new DBNoConnectionException("Could not initialise C3P0 Datasource", ex);
+	private DBConnectionPool createConnectionPool(@NonNull final DBConnectionPoolType poolType, final CConnection connection)
+	{
+		switch (poolType)
+		{
+			case HIKARI:
+				getDriver(); // make sure the driver is registered because HikariCP is going to use the DriverManager
+				return HikariConnectionPool.builder()
+						.jdbcUrl(getConnectionURL(connection))
+						.user(connection.getDbUid())
+						.password(connection.getDbPwd())
+						.build();
+			case C3P0:
+				return C3P0ConnectionPool.builder()
+						.driverClassName(DRIVER)
+						.jdbcUrl(getConnectionURL(connection))
+						.user(connection.getDbUid())
+						.password(connection.getDbPwd())
+						.unreturnedConnectionTimeout(getUnreturnedConnectionTimeout())
+						.build();
+			default:
+				throw new DBNoConnectionException("Unknown connection pool type: " + poolType);
 		}
 	}
 
@@ -642,19 +599,19 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	{
 		synchronized (_dataSourceLock)
 		{
-			if (_dataSource != null)
+			if (_connectionPool != null)
 			{
 				try
 				{
-					_dataSource.close();
-					log.info("Datasource closed: {}", _dataSource);
+					_connectionPool.close();
+					log.info("Datasource closed: {}", _connectionPool);
 				}
 				catch (Exception e)
 				{
 					// NOTE: don't use logger because it might involve database connection
 					e.printStackTrace();
 				}
-				_dataSource = null;
+				_connectionPool = null;
 				_dataSourceInitialized = false;
 			}
 		}
@@ -1052,10 +1009,4 @@ public class DB_PostgreSQL implements AdempiereDatabase
 	{
 		return "oid";
 	}
-
-	private static List<String> getAquiredConnectionInfos(final ComboPooledDataSource dataSource) throws Exception
-	{
-		final List<String> infos = BasicResourcePool_MetasfreshObserver.getAquiredConnectionInfos(dataSource);
-		return infos != null ? infos : ImmutableList.of();
-	}
 }   // DB_PostgreSQL
@@ -113,4 +113,10 @@ public interface AdempiereProcessor
 	 * @return model's table name
 	 */
 	public String get_TableName();
+
+	/**
+	 * Gets model's ID (i.e. the value of the key column of {@link #get_TableName()})
+	 * @return model's ID
+	 */
+	public int get_ID();
 }	//	AdempiereProcessor
@@ -90,6 +90,7 @@ import org.w3c.dom.Element;
 
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.IModelCacheInvalidationService;
+import de.metas.cache.model.IModelCacheService;
 import de.metas.cache.model.ModelCacheInvalidationTiming;
 import de.metas.cache.model.POCacheSourceModel;
 import de.metas.cache.model.impl.TableRecordCacheLocal;
@@ -3134,6 +3135,9 @@ public abstract class PO
 		{
 			try
 			{
+				// Don't serve the committed version of this record in our transaction anymore (also when it was just created, because there is none yet)
+				Services.get(IModelCacheService.class).onRecordChanged(get_TableName(), get_ID(), get_TrxName());
+
 				final IModelCacheInvalidationService cacheInvalidationService = Services.get(IModelCacheInvalidationService.class);
 				cacheInvalidationService.invalidateForModel(
 						POCacheSourceModel.of(this),
@@ -4189,6 +4193,7 @@ public abstract class PO
 
 		// Save ID
 		m_idOld = get_ID();
+		final int deletedRecordId = get_ID();
 
 		//
 		// Create cache invalidation request
@@ -4236,6 +4241,7 @@ public abstract class PO
 		{
 			try
 			{
+				Services.get(IModelCacheService.class).onRecordChanged(get_TableName(), deletedRecordId, get_TrxName());
 				cacheInvalidationService.invalidate(cacheInvalidateRequest, ModelCacheInvalidationTiming.DELETE);
 			}
 			catch (final Exception ex)
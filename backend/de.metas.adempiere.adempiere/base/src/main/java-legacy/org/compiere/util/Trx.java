@@ -29,6 +29,7 @@ import org.adempiere.ad.trx.api.ITrxSavepoint;
 import org.adempiere.ad.trx.api.impl.AbstractTrx;
 import org.adempiere.ad.trx.api.impl.JdbcTrxSavepoint;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.sql.impl.PreparedStatementCache;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
@@ -159,6 +160,7 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 			if (isClosed)
 			{
 				log.info("Connection is closed. Trying to create another connection.");
+				PreparedStatementCache.instance.evict(m_connection);
 				m_connection = null;
 			}
 		}
@@ -367,6 +369,8 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 			// it will be performed in a separate thread so here we don't have to wait.
 			// m_connection.setClientInfo("ApplicationName", "adempiere/CLOSED"); // task 08353
 
+			PreparedStatementCache.instance.evict(m_connection);
+
 			// Note: c3p0 makes sure that uncommitted changes are rolled by (=>default) or committed
 			// See https://www.mchange.com/projects/c3p0/index.html#autoCommitOnClose
 			m_connection.close();
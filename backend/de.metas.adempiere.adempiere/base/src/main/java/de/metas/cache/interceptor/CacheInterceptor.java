@@ -26,6 +26,7 @@ package de.metas.cache.interceptor;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -40,10 +41,6 @@ import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import com.google.common.base.Supplier;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 
 import de.metas.cache.CCache;
 import de.metas.logging.LogManager;
@@ -114,37 +111,38 @@ class CacheInterceptor implements Serializable
 	private static final transient Logger logger = LogManager.getLogger(CacheInterceptor.class);
 	private final transient ITrxManager trxManager = Services.get(ITrxManager.class);
 
-	private static final LoadingCache<Method, CachedMethodDescriptor> cachedMethodsDescriptor = CacheBuilder.newBuilder()
-			.build(new CacheLoader<Method, CachedMethodDescriptor>()
-			{
-
-				@Override
-				public CachedMethodDescriptor load(final Method method) throws Exception
-				{
-					try
-					{
-						return new CachedMethodDescriptor(method);
-					}
-					catch (Exception e)
-					{
-						throw CacheIntrospectionException.wrapIfNeeded(e)
-								.setMethod(method);
-					}
-				}
-			});
+	private static final ConcurrentHashMap<Method, CachedMethodDescriptor> cachedMethodsDescriptor = new ConcurrentHashMap<>();
 
-	private static final CacheBuilder<Object, Object> _cacheStorageBuilder = CacheBuilder.newBuilder();
-	private final Cache<String, CCache<ArrayKey, Object>> _cacheStorage = _cacheStorageBuilder.build();
+	/** Cache name to method level cache container */
+	private final ConcurrentHashMap<String, CCache<ArrayKey, Object>> _cacheStorage = new ConcurrentHashMap<>();
 
 	private static final String TRX_PROPERTY_CacheStorage = CacheInterceptor.class.getName() + ".CacheStorage";
-	private static final Supplier<Cache<String, CCache<ArrayKey, Object>>> TRX_PROPERTY_CacheStorageInitializer = new Supplier<Cache<String, CCache<ArrayKey, Object>>>()
+	private static final Supplier<ConcurrentHashMap<String, CCache<ArrayKey, Object>>> TRX_PROPERTY_CacheStorageInitializer = ConcurrentHashMap::new;
+
+	private static CachedMethodDescriptor getCachedMethodDescriptor(final Method method)
 	{
-		@Override
-		public Cache<String, CCache<ArrayKey, Object>> get()
+		// NOTE: first try a plain get, because computeIfAbsent might lock even if the descriptor is already there
+		final CachedMethodDescriptor methodDescriptor = cachedMethodsDescriptor.get(method);
+		if (methodDescriptor != null)
 		{
-			return _cacheStorageBuilder.build();
+			return methodDescriptor;
 		}
-	};
+
+		return cachedMethodsDescriptor.computeIfAbsent(method, CacheInterceptor::createCachedMethodDescriptor);
+	}
+
+	private static CachedMethodDescriptor createCachedMethodDescriptor(final Method method)
+	{
+		try
+		{
+			return new CachedMethodDescriptor(method);
+		}
+		catch (Exception e)
+		{
+			throw CacheIntrospectionException.wrapIfNeeded(e)
+					.setMethod(method);
+		}
+	}
 
 	/**
 	 * 
@@ -177,7 +175,7 @@ class CacheInterceptor implements Serializable
 		final CachedMethodDescriptor methodDescriptor;
 		try
 		{
-			methodDescriptor = cachedMethodsDescriptor.get(method);
+			methodDescriptor = getCachedMethodDescriptor(method);
 		}
 		catch (Exception e)
 		{
@@ -209,7 +207,7 @@ class CacheInterceptor implements Serializable
 		//
 		// Get the Cache Storage.
 		// In case the cache storage could not be retrieved, we are invoking the cached method directly (by-pass the cache).
-		final Cache<String, CCache<ArrayKey, Object>> cacheStorage = getCacheStorage(cacheKeyBuilder.getTrxName());
+		final ConcurrentHashMap<String, CCache<ArrayKey, Object>> cacheStorage = getCacheStorage(cacheKeyBuilder.getTrxName());
 		if (cacheStorage == null)
 		{
 			final CacheGetException ex = new CacheGetException("Could not get the cache storage, maybe because transaction was not found"
@@ -228,7 +226,7 @@ class CacheInterceptor implements Serializable
 		//
 		// Get the method level cache container (Method's parameters key -> cached value) 
 		final ArrayKey cacheKey = cacheKeyBuilder.buildKey();
-		final CCache<ArrayKey, Object> methodCache = cacheStorage.get(methodDescriptor.getCacheName(), methodDescriptor.createCCacheCallable());
+		final CCache<ArrayKey, Object> methodCache = getMethodCache(cacheStorage, methodDescriptor);
 
 		//
 		// Get method's cached value / update method's cached value
@@ -247,11 +245,27 @@ class CacheInterceptor implements Serializable
 		return cacheResult == IInvocationContext.NullResult ? null : cacheResult;
 	}
 
+	private static CCache<ArrayKey, Object> getMethodCache(
+			final ConcurrentHashMap<String, CCache<ArrayKey, Object>> cacheStorage,
+			final CachedMethodDescriptor methodDescriptor)
+	{
+		final String cacheName = methodDescriptor.getCacheName();
+
+		// NOTE: first try a plain get, because computeIfAbsent might lock even if the cache is already there
+		final CCache<ArrayKey, Object> methodCache = cacheStorage.get(cacheName);
+		if (methodCache != null)
+		{
+			return methodCache;
+		}
+
+		return cacheStorage.computeIfAbsent(cacheName, methodDescriptor.createCCacheFunction());
+	}
+
 	/**
 	 * @param trxName
 	 * @return cache storage or null if not found
 	 */
-	private final Cache<String, CCache<ArrayKey, Object>> getCacheStorage(final String trxName)
+	private final ConcurrentHashMap<String, CCache<ArrayKey, Object>> getCacheStorage(final String trxName)
 	{
 		//
 		// If we have a transaction, we shall use transaction's cache
@@ -23,11 +23,9 @@ package de.metas.cache.interceptor;
  */
 
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.adempiere.util.lang.ObjectUtils;
-import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 
 /**
@@ -39,25 +37,42 @@ import org.compiere.util.Util.ArrayKey;
  */
 final class CacheKeyBuilder
 {
-	private final List<Object> keyParts = new ArrayList<>();
+	private Object[] keyParts;
+	private int keyPartsCount = 0;
 	private String trxName;
 	private boolean skipCaching;
 	private boolean cacheReload = false;
 
+	/**
+	 * @param expectedKeyPartsCount how many key parts we expect; if it's correct, the key parts array is neither resized nor copied when the key is built.
+	 */
+	CacheKeyBuilder(final int expectedKeyPartsCount)
+	{
+		keyParts = new Object[Math.max(expectedKeyPartsCount, 1)];
+	}
+
 	@Override
 	public String toString()
 	{
 		return ObjectUtils.toString(this);
 	}
 
+	/**
+	 * Builds the key. After calling this method, no more key parts shall be added.
+	 */
 	public final ArrayKey buildKey()
 	{
-		return Util.mkKey(keyParts.toArray());
+		final Object[] keyPartsToUse = keyPartsCount == keyParts.length ? keyParts : Arrays.copyOf(keyParts, keyPartsCount);
+		return new ArrayKey(keyPartsToUse);
 	}
 
 	public void add(final Object keyPart)
 	{
-		keyParts.add(keyPart);
+		if (keyPartsCount >= keyParts.length)
+		{
+			keyParts = Arrays.copyOf(keyParts, keyParts.length * 2);
+		}
+		keyParts[keyPartsCount++] = keyPart;
 	}
 
 	public void setTrxName(String trxName)
@@ -28,7 +28,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 import org.adempiere.util.lang.EqualsBuilder;
 import org.adempiere.util.lang.HashcodeBuilder;
@@ -59,15 +59,15 @@ import de.metas.util.Check;
 	private final boolean staticMethod;
 	private final String cacheName;
 	private final List<ICachedMethodPartDescriptor> descriptors;
-	
-	private final Callable<CCache<ArrayKey, Object>> createCCacheCallable = new Callable<CCache<ArrayKey,Object>>()
-	{
-		@Override
-		public CCache<ArrayKey, Object> call() throws Exception
-		{
-			return createCCache();
-		}
-	};
+
+	/**
+	 * Key part which identifies the method (declaring class, name, return type).
+	 * NOTE: avoid adding Class/Field/Method etc to key => would lead to ClassLoader(s) memory leaks/fucked-up
+	 */
+	private final String methodSignatureKeyPart;
+	private final int expectedKeyPartsCount;
+
+	private final Function<String, CCache<ArrayKey, Object>> createCCacheFunction = cacheName -> createCCache();
 
 	CachedMethodDescriptor(final Method method)
 	{
@@ -165,6 +165,26 @@ import de.metas.util.Check;
 		}
 
 		descriptors = descriptorsBuilder.build();
+
+		methodSignatureKeyPart = method.getDeclaringClass().getName() + ArrayKey.SEPARATOR + method.getName() + ArrayKey.SEPARATOR + method.getReturnType().getName();
+		expectedKeyPartsCount = 1 + descriptors.stream().mapToInt(CachedMethodDescriptor::getExpectedKeyPartsCount).sum();
+	}
+
+	/** @return how many key parts the given descriptor is adding to the key, usually */
+	private static int getExpectedKeyPartsCount(final ICachedMethodPartDescriptor descriptor)
+	{
+		if (descriptor instanceof CacheTrxParamDescriptor || descriptor instanceof CacheReloadIfTrueParamDescriptor)
+		{
+			return 0;
+		}
+		else if (descriptor instanceof TargetPOPartDescriptor)
+		{
+			return 3;
+		}
+		else
+		{
+			return 1;
+		}
 	}
 
 	private static final String mkCacheName(final Cached annotation)
@@ -252,17 +272,13 @@ import de.metas.util.Check;
 
 	public CacheKeyBuilder createKeyBuilder(final Object targetObject, final Object[] methodArgs)
 	{
-		final Class<?> methodDeclaringClass = method.getDeclaringClass();
-		final Object targetObjToUse = staticMethod ? methodDeclaringClass : targetObject;
+		final Object targetObjToUse = staticMethod ? method.getDeclaringClass() : targetObject;
 
-		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder();
+		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder(expectedKeyPartsCount);
 
 		//
 		// Key: Method signature
-		// NOTE: avoid adding Class/Field/Method etc to key => would lead to ClassLoader(s) memory leaks/fucked-up
-		keyBuilder.add(methodDeclaringClass.getName());
-		keyBuilder.add(method.getName());
-		keyBuilder.add(method.getReturnType().getName());
+		keyBuilder.add(methodSignatureKeyPart);
 
 		for (final ICachedMethodPartDescriptor descriptor : descriptors)
 		{
@@ -307,10 +323,10 @@ import de.metas.util.Check;
 	}
 
 	/**
-	 * Callable used to create method level cache container.
+	 * Function used to create method level cache container, for a given cache name.
 	 */
-	public Callable<CCache<ArrayKey, Object>> createCCacheCallable()
+	public Function<String, CCache<ArrayKey, Object>> createCCacheFunction()
 	{
-		return createCCacheCallable;
+		return createCCacheFunction;
 	}
 }
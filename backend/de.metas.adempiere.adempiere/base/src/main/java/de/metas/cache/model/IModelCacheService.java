@@ -23,6 +23,7 @@ package de.metas.cache.model;
  */
 
 import java.util.Properties;
+import java.util.function.Supplier;
 
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.PO;
@@ -86,6 +87,15 @@ public interface IModelCacheService extends ISingletonService
 	 */
 	PO retrieveObject(Properties ctx, String tableName, int Record_ID, String trxName);
 
+	/**
+	 * Same as {@link #retrieveObject(Properties, String, int, String)}, but if the object is not cached, we are in a transaction and the table is configured to be read through
+	 * (see {@link ITableCacheConfig#isReadThrough()}), the object is loaded out of transaction using given loader and it's added to the out-of-transaction cache.
+	 *
+	 * @param outOfTrxLoader loads the object out of transaction; might return null
+	 * @return cached or read-through loaded {@link PO} object (having given <code>trxName</code>) or null
+	 */
+	PO retrieveObjectOrLoadOutOfTrx(Properties ctx, String tableName, int Record_ID, String trxName, Supplier<PO> outOfTrxLoader);
+
 	/**
 	 * Add given {@link PO} object to cache.
 	 *
@@ -95,5 +105,13 @@ public interface IModelCacheService extends ISingletonService
 	 */
 	void addToCache(PO po);
 
+	/**
+	 * To be called when a record was created, changed or deleted in given transaction.
+	 * <p>
+	 * From now on, that transaction is not served the out-of-transaction (i.e. committed) version of the record anymore,
+	 * and the out-of-transaction version is invalidated when the transaction is committed.
+	 */
+	void onRecordChanged(String tableName, int recordId, String trxName);
+
 	void invalidate(CacheInvalidateMultiRequest request);
 }
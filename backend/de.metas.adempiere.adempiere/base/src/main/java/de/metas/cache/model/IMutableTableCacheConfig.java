@@ -25,4 +25,6 @@ public interface IMutableTableCacheConfig extends ITableCacheConfig
 	void setMaxCapacity(int maxCapacity);
 
 	void setExpireMinutes(int expireMinutes);
+
+	void setReadThrough(boolean readThrough);
 }
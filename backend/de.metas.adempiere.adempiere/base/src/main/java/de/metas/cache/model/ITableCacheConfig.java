@@ -48,4 +48,12 @@ public interface ITableCacheConfig
 	public int getMaxCapacity();
 	
 	public int getExpireMinutes();
+
+	/**
+	 * If true and a record is requested within a transaction but it's not found in cache,
+	 * the record will be loaded out of transaction and added to the out-of-transaction level cache, so other transactions can benefit from it.
+	 * <p>
+	 * Makes sense only for master data which is rarely changed and only if out-of-transaction caching is enabled (see {@link #getTrxLevel()}).
+	 */
+	public boolean isReadThrough();
 }
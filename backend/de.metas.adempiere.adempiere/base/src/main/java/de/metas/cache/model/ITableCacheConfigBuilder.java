@@ -39,4 +39,9 @@ public interface ITableCacheConfigBuilder
 	 * @return
 	 */
 	ITableCacheConfigBuilder setExpireMinutes(int expireMinutes);
+
+	/**
+	 * @see ITableCacheConfig#isReadThrough()
+	 */
+	ITableCacheConfigBuilder setReadThrough(boolean readThrough);
 }
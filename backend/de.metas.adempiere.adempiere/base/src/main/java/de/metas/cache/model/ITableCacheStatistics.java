@@ -45,4 +45,8 @@ public interface ITableCacheStatistics
 	
 	void incrementMissInTrxCount();
 	long getMissInTrxCount();
+
+	/** Increments how many in-transaction misses were loaded out of transaction and added to the out-of-transaction cache (see {@link ITableCacheConfig#isReadThrough()}). */
+	void incrementReadThroughCount();
+	long getReadThroughCount();
 }
@@ -38,6 +38,11 @@ public interface ITableCacheStatisticsCollector
 	 */
 	void record(ITableCacheConfig cacheConfig, boolean hit, boolean inTransaction);
 
+	/**
+	 * Record that an in-transaction miss was loaded out of transaction and added to the out-of-transaction cache.
+	 */
+	void recordReadThrough(ITableCacheConfig cacheConfig);
+
 	void reset();
 
 }
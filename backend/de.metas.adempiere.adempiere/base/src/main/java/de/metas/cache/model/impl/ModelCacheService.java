@@ -1,12 +1,17 @@
 package de.metas.cache.model.impl;
 
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.NullTrxPlaceholder;
 import org.adempiere.ad.trx.exceptions.TrxException;
@@ -18,6 +23,7 @@ import org.compiere.model.POInfo;
 import org.compiere.util.Util;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.MapMaker;
 
@@ -52,6 +58,12 @@ public class ModelCacheService implements IModelCacheService
 
 	private final ITableCacheStatisticsCollector statisticsCollector;
 
+	/** Incremented each time (some records of) a table are invalidated */
+	private final ConcurrentHashMap<String, AtomicLong> invalidationsCountByTableName = new ConcurrentHashMap<>();
+
+	@VisibleForTesting
+	static final String TRX_PROPERTY_InvalidateOutOfTrxOnCommit = ModelCacheService.class.getName() + ".InvalidateOutOfTrxOnCommit";
+
 	public ModelCacheService()
 	{
 		statisticsCollector = new TableCacheStatisticsCollector(getClass().getSimpleName());
@@ -148,6 +160,13 @@ public class ModelCacheService implements IModelCacheService
 			}
 		}
 
+		// read-through records are shared between transactions,
+		// so make sure they are invalidated when they are changed on other nodes too
+		if (cacheConfig.isEnabled() && cacheConfig.isReadThrough())
+		{
+			CacheMgt.get().enableRemoteCacheInvalidationForTableName(cacheConfig.getTableName());
+		}
+
 		tableName2cacheConfig.compute(cacheConfig.getTableName(), (tableName, previousConfig) -> {
 			if (previousConfig == null)
 			{
@@ -208,8 +227,9 @@ public class ModelCacheService implements IModelCacheService
 
 		//
 		// If nothing found and we are not out-of-transaction
-		// then try searching on out-of-transaction level and if something found clone it and return it
-		if (poCached == null && inTransaction)
+		// then try searching on out-of-transaction level and if something found clone it and return it.
+		// NOTE: if our transaction changed the record, the out-of-transaction level has the committed version, which is not what we want.
+		if (poCached == null && inTransaction && !isChangedInTrx(trx, tableName, recordId))
 		{
 			poCached = retrieveObjectFromTrx(cacheConfig, ctx, tableName, recordId, ITrx.TRX_None);
 		}
@@ -234,6 +254,74 @@ public class ModelCacheService implements IModelCacheService
 		return copyPO(poCached, trxName);
 	}
 
+	@Override
+	public PO retrieveObjectOrLoadOutOfTrx(
+			final Properties ctx,
+			final String tableName,
+			final int recordId,
+			final String trxName,
+			@NonNull final Supplier<PO> outOfTrxLoader)
+	{
+		final PO poCached = retrieveObject(ctx, tableName, recordId, trxName);
+		if (poCached != null)
+		{
+			return poCached;
+		}
+
+		//
+		// Check if we shall read through the out-of-transaction level
+		final ITableCacheConfig cacheConfig = getTableCacheConfig(tableName);
+		if (cacheConfig == null || !cacheConfig.isReadThrough())
+		{
+			return null;
+		}
+		final ITrx trx = trxManager.getTrxOrNull(trxName);
+		if (trx == null || !trx.isActive())
+		{
+			// out of transaction there is nothing to read through; the caller will load and add the object to cache
+			return null;
+		}
+		if (!isTrxLevelEnabled(cacheConfig, ITrx.TRX_None)
+				|| isChangedInTrx(trx, tableName, recordId))
+		{
+			return null;
+		}
+
+		// NOTE: if the table is invalidated while we are loading, what we loaded might be already stale, so we don't add it to cache
+		final AtomicLong invalidationsCount = getInvalidationsCount(tableName);
+		final long invalidationsCountBeforeLoad = invalidationsCount.get();
+
+		final PO po = outOfTrxLoader.get();
+		if (po == null || po.get_ID() != recordId)
+		{
+			return null;
+		}
+
+		if (invalidationsCount.get() == invalidationsCountBeforeLoad)
+		{
+			getTrxCacheMap(ITrx.TRX_None).put(po, cacheConfig);
+		}
+		statisticsCollector.recordReadThrough(cacheConfig);
+		logger.trace("Cache READ-THROUGH (inTrx=true) - tableName/recordId={}/{}", tableName, recordId);
+
+		po.set_TrxName(trxName);
+		return po;
+	}
+
+	/**
+	 * @return true if given record (or it's whole table) was changed in given transaction
+	 */
+	private boolean isChangedInTrx(@Nullable final ITrx trx, final String tableName, final int recordId)
+	{
+		if (trxManager.isNull(trx))
+		{
+			return false;
+		}
+
+		final TrxCacheMap trxCacheMap = getTrxCacheMapIfPresent(trx);
+		return trxCacheMap != null && trxCacheMap.isChanged(tableName, recordId);
+	}
+
 	/**
 	 * Creates a copy of orginal PO, having given <code>trxName</code>.
 	 *
@@ -422,25 +510,143 @@ public class ModelCacheService implements IModelCacheService
 		getTrxCacheMap(trx).put(po, cacheConfig);
 	}
 
+	@Override
+	public void onRecordChanged(@NonNull final String tableName, final int recordId, @Nullable final String trxName)
+	{
+		if (!isOutOfTrxLevelCached(tableName))
+		{
+			// no transaction can be served the committed version of this record, so we don't need to know who changed it
+			return;
+		}
+
+		final TrxCacheMap changesCollector = getChangesCollectorOrNull(trxManager.getTrxOrNull(trxName));
+		if (changesCollector == null)
+		{
+			// out of transaction the change is already committed and the cache invalidation takes care of the out-of-transaction level
+			return;
+		}
+
+		changesCollector.markRecordChanged(TableRecordReference.of(tableName, recordId));
+	}
+
+	/**
+	 * @return true if the records of given table are cached on out-of-transaction level, and therefore might be served to transactions which changed them
+	 */
+	private boolean isOutOfTrxLevelCached(@NonNull final String tableName)
+	{
+		final ITableCacheConfig cacheConfig = getTableCacheConfig(tableName);
+		return cacheConfig != null && isTrxLevelEnabled(cacheConfig, ITrx.TRX_None);
+	}
+
+	/**
+	 * @return the cache map of given transaction, which also collects what was changed in it; null if the transaction is not active.
+	 *         The first time, a listener is registered which invalidates the changed records on out-of-transaction level when the transaction is committed.
+	 */
+	@Nullable
+	private TrxCacheMap getChangesCollectorOrNull(@Nullable final ITrx trx)
+	{
+		if (trxManager.isNull(trx) || !trx.isActive())
+		{
+			return null;
+		}
+
+		final TrxCacheMap trxCacheMap = getTrxCacheMap(trx);
+		trx.getProperty(TRX_PROPERTY_InvalidateOutOfTrxOnCommit, () -> {
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.AFTER_COMMIT)
+					.invokeMethodJustOnce(false) // a transaction might be committed more than once
+					.registerHandlingMethod(this::invalidateOutOfTrxChanges);
+			return Boolean.TRUE;
+		});
+		return trxCacheMap;
+	}
+
+	/**
+	 * Invalidates the out-of-transaction versions of the records which were changed in given (just committed) transaction.
+	 * <p>
+	 * We need to do this even if the records were already invalidated when they were changed, because in the meantime, another transaction could have loaded the still committed version again.
+	 */
+	private void invalidateOutOfTrxChanges(@NonNull final ITrx committedTrx)
+	{
+		final TrxCacheMap trxCacheMap = getTrxCacheMapIfPresent(committedTrx);
+		if (trxCacheMap == null)
+		{
+			return;
+		}
+
+		final TrxCacheMap outOfTrxCacheMap = getTrxCacheMapIfPresent(ITrx.TRX_None);
+		trxCacheMap.forEachChangeAndClear(
+				() -> {
+					incrementAllInvalidationsCounts();
+					if (outOfTrxCacheMap != null)
+					{
+						outOfTrxCacheMap.invalidateAll();
+					}
+				},
+				tableName -> {
+					getInvalidationsCount(tableName).incrementAndGet();
+					if (outOfTrxCacheMap != null)
+					{
+						outOfTrxCacheMap.invalidateByTableName(tableName);
+					}
+				},
+				record -> {
+					getInvalidationsCount(record.getTableName()).incrementAndGet();
+					if (outOfTrxCacheMap != null)
+					{
+						outOfTrxCacheMap.invalidateByRecord(record);
+					}
+				});
+	}
+
+	private AtomicLong getInvalidationsCount(@NonNull final String tableName)
+	{
+		return invalidationsCountByTableName.computeIfAbsent(tableName, k -> new AtomicLong());
+	}
+
+	private void incrementAllInvalidationsCounts()
+	{
+		invalidationsCountByTableName.values().forEach(AtomicLong::incrementAndGet);
+	}
+
 	@Override
 	public void invalidate(@NonNull final CacheInvalidateMultiRequest request)
 	{
 		final ITrx trx = trxManager.getTrxOrNull(ITrx.TRXNAME_ThreadInherited);
+
+		// Remember what was changed in current transaction, so we don't serve the out-of-transaction (i.e. committed) versions of those records.
+		// NOTE: records changed in other transactions are reported by onRecordChanged
 		for (final CacheInvalidateRequest singleRequest : request.getRequests())
 		{
 			if (singleRequest.isAll())
 			{
 				invalidateAll(trx);
+				final TrxCacheMap changesCollector = getChangesCollectorOrNull(trx);
+				if (changesCollector != null)
+				{
+					changesCollector.markAllChanged();
+				}
 				break;
 			}
 			else if (singleRequest.isAllRecords())
 			{
-				invalidateTable(singleRequest.getTableNameEffective(), trx);
+				final String tableName = singleRequest.getTableNameEffective();
+				invalidateTable(tableName, trx);
+				final TrxCacheMap changesCollector = isOutOfTrxLevelCached(tableName) ? getChangesCollectorOrNull(trx) : null;
+				if (changesCollector != null)
+				{
+					changesCollector.markTableChanged(tableName);
+				}
 			}
 			else
 			{
 				final TableRecordReference record = singleRequest.getRecordEffective();
 				invalidateRecord(record, trx);
+				final TrxCacheMap changesCollector = isOutOfTrxLevelCached(record.getTableName()) ? getChangesCollectorOrNull(trx) : null;
+				if (changesCollector != null)
+				{
+					changesCollector.markRecordChanged(record);
+				}
 			}
 		}
 	}
@@ -482,6 +688,16 @@ public class ModelCacheService implements IModelCacheService
 	 */
 	private int onCacheResetRequest(final CacheInvalidateMultiRequest multiRequest)
 	{
+		// let a running read-through know that what it's loading might be stale already
+		if (multiRequest.isResetAll())
+		{
+			incrementAllInvalidationsCounts();
+		}
+		else
+		{
+			multiRequest.getTableNamesEffective().forEach(tableName -> getInvalidationsCount(tableName).incrementAndGet());
+		}
+
 		if (!multiRequest.isResetAll())
 		{
 			return 0;
@@ -489,9 +705,8 @@ public class ModelCacheService implements IModelCacheService
 
 		logger.debug("Clearing all cache instances of {}", this);
 
+		// NOTE: we are not removing the cache maps because they also keep track of what was changed in each running transaction
 		final ImmutableList<TrxCacheMap> cacheMapsToInvalidate = ImmutableList.copyOf(cacheMapsByTrx.values());
-		cacheMapsByTrx.clear();
-
 		cacheMapsToInvalidate.forEach(TrxCacheMap::invalidateAll);
 
 		return 1;
@@ -508,6 +723,10 @@ public class ModelCacheService implements IModelCacheService
 
 		private final ConcurrentMap<String, IDCache<PO>> cachesByTableName = new ConcurrentHashMap<>();
 
+		private volatile boolean allChanged = false;
+		private final Set<String> changedTableNames = ConcurrentHashMap.newKeySet();
+		private final Set<TableRecordReference> changedRecords = ConcurrentHashMap.newKeySet();
+
 		public TrxCacheMap(final ITrx trx)
 		{
 			trxName = NullTrxPlaceholder.unboxToNull(trx) != null ? trx.getTrxName() : ITrx.TRXNAME_None;
@@ -590,6 +809,51 @@ public class ModelCacheService implements IModelCacheService
 			}
 		}
 
+		public void markAllChanged()
+		{
+			allChanged = true;
+		}
+
+		public void markTableChanged(@NonNull final String tableName)
+		{
+			changedTableNames.add(tableName);
+		}
+
+		public void markRecordChanged(@NonNull final TableRecordReference recordRef)
+		{
+			changedRecords.add(recordRef);
+		}
+
+		/**
+		 * Calls the given consumers for what was changed and forgets about it.
+		 */
+		public synchronized void forEachChangeAndClear(
+				@NonNull final Runnable allChangedConsumer,
+				@NonNull final Consumer<String> changedTableNameConsumer,
+				@NonNull final Consumer<TableRecordReference> changedRecordConsumer)
+		{
+			if (allChanged)
+			{
+				allChangedConsumer.run();
+			}
+			else
+			{
+				changedTableNames.forEach(changedTableNameConsumer);
+				changedRecords.forEach(changedRecordConsumer);
+			}
+
+			allChanged = false;
+			changedTableNames.clear();
+			changedRecords.clear();
+		}
+
+		public boolean isChanged(final String tableName, final int recordId)
+		{
+			return allChanged
+					|| changedTableNames.contains(tableName)
+					|| changedRecords.contains(TableRecordReference.of(tableName, recordId));
+		}
+
 		public void put(@NonNull final PO po, @NonNull final ITableCacheConfig cacheConfig)
 		{
 			//
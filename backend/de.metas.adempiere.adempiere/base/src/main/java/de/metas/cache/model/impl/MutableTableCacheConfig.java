@@ -13,6 +13,7 @@ import de.metas.util.Check;
 	private int initialCapacity = 50;
 	private int maxCapacity = -1;
 	private int expireMinutes = EXPIREMINUTES_Never; // never expire
+	private boolean readThrough = false;
 
 	public MutableTableCacheConfig(final String tableName)
 	{
@@ -35,6 +36,7 @@ import de.metas.util.Check;
 				+ ", initialCapacity=" + initialCapacity
 				+ ", maxCapacity=" + maxCapacity
 				+ ", expireMinutes=" + expireMinutes
+				+ ", readThrough=" + readThrough
 				+ "]";
 	}
 
@@ -119,4 +121,16 @@ import de.metas.util.Check;
 		this.expireMinutes = expireMinutes > 0 ? expireMinutes : EXPIREMINUTES_Never;
 	}
 
+	@Override
+	public boolean isReadThrough()
+	{
+		return readThrough;
+	}
+
+	@Override
+	public void setReadThrough(final boolean readThrough)
+	{
+		this.readThrough = readThrough;
+	}
+
 }
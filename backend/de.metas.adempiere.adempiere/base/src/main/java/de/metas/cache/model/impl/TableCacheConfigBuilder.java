@@ -18,6 +18,7 @@ import de.metas.util.Check;
 	private int initialCapacity = 50;
 	private int maxCapacity = -1;
 	private int expireMinutes = ITableCacheConfig.EXPIREMINUTES_Never;
+	private Boolean readThrough = null;
 
 	public TableCacheConfigBuilder(final ModelCacheService cacheService, final String tableName)
 	{
@@ -57,6 +58,7 @@ import de.metas.util.Check;
 		cacheConfig.setExpireMinutes(getExpireMinutes());
 		cacheConfig.setInitialCapacity(getInitialCapacity());
 		cacheConfig.setMaxCapacity(getMaxCapacity());
+		cacheConfig.setReadThrough(isReadThrough());
 
 		return cacheConfig;
 	}
@@ -194,4 +196,25 @@ import de.metas.util.Check;
 		return this;
 	}
 
+	public boolean isReadThrough()
+	{
+		if (readThrough != null)
+		{
+			return readThrough;
+		}
+		if (template != null)
+		{
+			return template.isReadThrough();
+		}
+
+		return false;
+	}
+
+	@Override
+	public ITableCacheConfigBuilder setReadThrough(final boolean readThrough)
+	{
+		this.readThrough = readThrough;
+		return this;
+	}
+
 }
@@ -37,6 +37,7 @@ public class TableCacheStatistics implements ITableCacheStatistics
 	private final AtomicLong hitInTrxCount = new AtomicLong(0);
 	private final AtomicLong missCount = new AtomicLong(0);
 	private final AtomicLong missInTrxCount = new AtomicLong(0);
+	private final AtomicLong readThroughCount = new AtomicLong(0);
 	private final ITableCacheConfig cacheConfig;
 
 	public TableCacheStatistics(final String tableName, final ITableCacheConfig cacheConfig)
@@ -58,6 +59,7 @@ public class TableCacheStatistics implements ITableCacheStatistics
 		hitInTrxCount.set(0);
 		missCount.set(0);
 		missInTrxCount.set(0);
+		readThroughCount.set(0);
 	}
 
 	@Override
@@ -120,6 +122,18 @@ public class TableCacheStatistics implements ITableCacheStatistics
 		missInTrxCount.incrementAndGet();
 	}
 
+	@Override
+	public long getReadThroughCount()
+	{
+		return readThroughCount.longValue();
+	}
+
+	@Override
+	public void incrementReadThroughCount()
+	{
+		readThroughCount.incrementAndGet();
+	}
+
 	@Override
 	public boolean isCacheEnabled()
 	{
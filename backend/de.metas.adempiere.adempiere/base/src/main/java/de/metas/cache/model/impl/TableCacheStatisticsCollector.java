@@ -98,6 +98,29 @@ import de.metas.util.Check;
 		}
 	}
 
+	@Override
+	public void recordReadThrough(final ITableCacheConfig cacheConfig)
+	{
+		if (!enabled)
+		{
+			return;
+		}
+
+		statisticsLock.lock();
+		try
+		{
+			statistics.incrementReadThroughCount();
+			if (tableStatisticsEnabled)
+			{
+				getTableStatistics(cacheConfig).incrementReadThroughCount();
+			}
+		}
+		finally
+		{
+			statisticsLock.unlock();
+		}
+	}
+
 	private final void record(ITableCacheStatistics statistics, final boolean hit, final boolean inTransaction)
 	{
 		if (hit)
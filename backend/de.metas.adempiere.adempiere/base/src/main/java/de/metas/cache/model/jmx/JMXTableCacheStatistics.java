@@ -97,6 +97,12 @@ public class JMXTableCacheStatistics implements JMXTableCacheStatisticsMBean
 	{
 		return statistics.getMissInTrxCount();
 	}
+
+	@Override
+	public long getReadThroughCount()
+	{
+		return statistics.getReadThroughCount();
+	}
 	
 	@Override
 	public boolean isCacheEnabled()
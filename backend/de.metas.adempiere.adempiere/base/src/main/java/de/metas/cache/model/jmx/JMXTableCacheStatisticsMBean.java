@@ -47,4 +47,6 @@ public interface JMXTableCacheStatisticsMBean
 	long getMissCount();
 
 	long getMissInTrxCount();
+
+	long getReadThroughCount();
 }
@@ -0,0 +1,260 @@
+package de.metas.connection.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.adempiere.exceptions.DBConnectionAcquireTimeoutException;
+import org.adempiere.exceptions.DBNoConnectionException;
+import org.compiere.db.AdempiereDatabase;
+import org.compiere.util.Ini;
+import org.slf4j.Logger;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import com.mchange.v2.resourcepool.BasicResourcePool_MetasfreshObserver;
+
+import de.metas.connection.impl.DB_PostgreSQL_ConnectionCustomizer;
+import de.metas.logging.LogManager;
+import de.metas.util.SystemUtils;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The c3p0 based connection pool. This is the default.
+ * <p>
+ * Besides the settings made here, the pool is configured using the {@code c3p0.properties} files.
+ */
+public final class C3P0ConnectionPool implements DBConnectionPool
+{
+	private static final Logger logger = LogManager.getLogger(C3P0ConnectionPool.class);
+
+	private static final String CONFIG_CheckoutTimeout_SwingClient = "org.compiere.db.DB_PostgreSQL.CheckoutTimeout";
+
+	private final ComboPooledDataSource dataSource;
+
+	@Builder
+	private C3P0ConnectionPool(
+			@NonNull final String driverClassName,
+			@NonNull final String jdbcUrl,
+			@NonNull final String user,
+			final String password,
+			@NonNull final Duration unreturnedConnectionTimeout)
+	{
+		try
+		{
+			System.setProperty("com.mchange.v2.log.MLog", com.mchange.v2.log.slf4j.Slf4jMLog.class.getName());
+			// System.setProperty("com.mchange.v2.log.FallbackMLog.DEFAULT_CUTOFF_LEVEL", "ALL");
+			final ComboPooledDataSource cpds = new ComboPooledDataSource();
+			cpds.setDataSourceName("metasfreshDS");
+			cpds.setDriverClass(driverClassName);
+			// loads the jdbc driver
+			cpds.setJdbcUrl(jdbcUrl);
+			cpds.setUser(user);
+			cpds.setPassword(password);
+			cpds.setPreferredTestQuery(AdempiereDatabase.DEFAULT_CONN_TEST_SQL);
+			cpds.setIdleConnectionTestPeriod(1200);
+			// cpds.setTestConnectionOnCheckin(true);
+			// cpds.setTestConnectionOnCheckout(true);
+			cpds.setAcquireRetryAttempts(2);
+
+			if (Ini.isSwingClient())
+			{
+				// Set checkout timeout to avoid forever locking when trying to connect to a not existing host.
+				cpds.setCheckoutTimeout(SystemUtils.getSystemProperty(CONFIG_CheckoutTimeout_SwingClient, 20 * 1000));
+
+				cpds.setInitialPoolSize(1);
+				cpds.setMinPoolSize(1);
+				cpds.setMaxPoolSize(20);
+				cpds.setMaxIdleTimeExcessConnections(1200);
+				cpds.setMaxIdleTime(900);
+			}
+			else
+			{
+				// these are set in c3p0.properties files
+				// cpds.setInitialPoolSize(10);
+				// cpds.setMinPoolSize(5);
+				// cpds.setMaxPoolSize(150);
+				cpds.setMaxIdleTimeExcessConnections(1200);
+				cpds.setMaxIdleTime(1200);
+			}
+
+			//
+			// Timeout unreturned connections
+			// i.e. kill them and get them back to the pool.
+			if (unreturnedConnectionTimeout.getSeconds() > 0)
+			{
+				// IMPORTANT: unreturnedConnectionTimeout is in seconds, see https://www.mchange.com/projects/c3p0/#unreturnedConnectionTimeout
+				cpds.setUnreturnedConnectionTimeout((int)unreturnedConnectionTimeout.getSeconds());
+				cpds.setDebugUnreturnedConnectionStackTraces(true);
+			}
+
+			// 04006: add a customizer to set the log level for message that are send to the client
+			// background: if there are too many messages sent (e.g. from a verbose and long-running DB function)
+			// then the whole JVM might suffer an OutOfMemoryError
+			cpds.setConnectionCustomizerClassName(DB_PostgreSQL_ConnectionCustomizer.class.getName());
+
+			this.dataSource = cpds;
+		}
+		catch (final Exception ex)
+		{
+			throw new DBNoConnectionException("Could not initialise C3P0 Datasource", ex);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return dataSource.toString(/* show_config */true);
+	}
+
+	@Override
+	public DataSource getDataSource()
+	{
+		return dataSource;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		try
+		{
+			return dataSource.getConnection();
+		}
+		catch (final SQLException sqlException)
+		{
+			final Throwable cause = sqlException.getCause();
+			if (cause instanceof com.mchange.v2.resourcepool.TimeoutException)
+			{
+				throw new DBConnectionAcquireTimeoutException(sqlException);
+			}
+
+			throw sqlException;
+		}
+	}
+
+	@Override
+	public int getMaxPoolSize()
+	{
+		return dataSource.getMaxPoolSize();
+	}
+
+	@Override
+	public int getNumConnections()
+	{
+		try
+		{
+			return dataSource.getNumConnections();
+		}
+		catch (final SQLException ex)
+		{
+			return -1;
+		}
+	}
+
+	@Override
+	public int getNumBusyConnections()
+	{
+		try
+		{
+			return dataSource.getNumBusyConnections();
+		}
+		catch (final SQLException ex)
+		{
+			return -1;
+		}
+	}
+
+	@Override
+	public int getNumIdleConnections()
+	{
+		try
+		{
+			return dataSource.getNumIdleConnections();
+		}
+		catch (final SQLException ex)
+		{
+			return -1;
+		}
+	}
+
+	@Override
+	public int getNumThreadsAwaitingConnection()
+	{
+		try
+		{
+			return dataSource.getNumThreadsAwaitingCheckoutDefaultUser();
+		}
+		catch (final SQLException ex)
+		{
+			return -1;
+		}
+	}
+
+	@Override
+	public String getStatus()
+	{
+		final StringBuilder sb = new StringBuilder();
+		try
+		{
+			sb.append("# Orphaned Connections: ").append(dataSource.getNumUnclosedOrphanedConnections());
+		}
+		catch (final SQLException ex)
+		{
+			// nothing
+		}
+
+		if (dataSource.isDebugUnreturnedConnectionStackTraces())
+		{
+			try
+			{
+				int index = 1;
+				final List<String> connectionInfos = BasicResourcePool_MetasfreshObserver.getAquiredConnectionInfos(dataSource);
+				if (connectionInfos != null)
+				{
+					for (final String info : connectionInfos)
+					{
+						sb.append("\n\t\t " + index + ": " + info);
+						index++;
+					}
+				}
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed fetching connections debug info. Ignored.", ex);
+			}
+		}
+
+		return sb.toString();
+	}
+
+	@Override
+	public void close()
+	{
+		dataSource.close();
+	}
+}
@@ -0,0 +1,113 @@
+package de.metas.connection.pool;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects connection checkout latencies into a fixed bucket histogram.
+ */
+public final class ConnectionCheckoutStatistics
+{
+	/** Upper bounds (inclusive) of the histogram buckets; an additional last bucket collects everything above. */
+	private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = { 1, 5, 10, 50, 100, 500, 1000, 5000 };
+
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLIS.length + 1);
+	private final AtomicLong countCheckouts = new AtomicLong(0);
+	private final AtomicLong countFailedCheckouts = new AtomicLong(0);
+	private final AtomicLong checkoutTimeTotalMillis = new AtomicLong(0);
+	private final AtomicLong checkoutTimeMaxMillis = new AtomicLong(0);
+
+	public void recordCheckout(final long durationMillis)
+	{
+		countCheckouts.incrementAndGet();
+		checkoutTimeTotalMillis.addAndGet(durationMillis);
+		checkoutTimeMaxMillis.accumulateAndGet(durationMillis, Math::max);
+		bucketCounts.incrementAndGet(getBucketIndex(durationMillis));
+	}
+
+	public void recordFailedCheckout()
+	{
+		countFailedCheckouts.incrementAndGet();
+	}
+
+	private static int getBucketIndex(final long durationMillis)
+	{
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++)
+		{
+			if (durationMillis <= BUCKET_UPPER_BOUNDS_MILLIS[i])
+			{
+				return i;
+			}
+		}
+		return BUCKET_UPPER_BOUNDS_MILLIS.length;
+	}
+
+	public long getCountCheckouts()
+	{
+		return countCheckouts.get();
+	}
+
+	public long getCountFailedCheckouts()
+	{
+		return countFailedCheckouts.get();
+	}
+
+	public long getCheckoutTimeAvgMillis()
+	{
+		final long count = countCheckouts.get();
+		return count > 0 ? checkoutTimeTotalMillis.get() / count : 0;
+	}
+
+	public long getCheckoutTimeMaxMillis()
+	{
+		return checkoutTimeMaxMillis.get();
+	}
+
+	/**
+	 * @return histogram lines, like {@code "<=10ms: 123"}
+	 */
+	public String[] getCheckoutTimeHistogram()
+	{
+		final String[] lines = new String[bucketCounts.length()];
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++)
+		{
+			lines[i] = "<=" + BUCKET_UPPER_BOUNDS_MILLIS[i] + "ms: " + bucketCounts.get(i);
+		}
+		lines[BUCKET_UPPER_BOUNDS_MILLIS.length] = ">" + BUCKET_UPPER_BOUNDS_MILLIS[BUCKET_UPPER_BOUNDS_MILLIS.length - 1] + "ms: " + bucketCounts.get(BUCKET_UPPER_BOUNDS_MILLIS.length);
+		return lines;
+	}
+
+	public void reset()
+	{
+		for (int i = 0; i < bucketCounts.length(); i++)
+		{
+			bucketCounts.set(i, 0);
+		}
+		countCheckouts.set(0);
+		countFailedCheckouts.set(0);
+		checkoutTimeTotalMillis.set(0);
+		checkoutTimeMaxMillis.set(0);
+	}
+}
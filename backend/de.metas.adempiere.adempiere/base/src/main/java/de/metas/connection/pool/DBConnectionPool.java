@@ -0,0 +1,63 @@
+package de.metas.connection.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Database connection pool, as used by {@link org.compiere.db.DB_PostgreSQL}.
+ * <p>
+ * Implementations are responsible for applying {@link de.metas.connection.impl.DB_PostgreSQL_ConnectionCustomizer} on the connections they hand out.
+ */
+public interface DBConnectionPool
+{
+	DataSource getDataSource();
+
+	/**
+	 * @throws org.adempiere.exceptions.DBConnectionAcquireTimeoutException if no connection could be checked out in time
+	 */
+	Connection getConnection() throws SQLException;
+
+	int getMaxPoolSize();
+
+	int getNumConnections();
+
+	int getNumBusyConnections();
+
+	int getNumIdleConnections();
+
+	/**
+	 * @return number of threads which are waiting for a connection or -1 if the pool does not provide this information
+	 */
+	int getNumThreadsAwaitingConnection();
+
+	/**
+	 * @return pool specific status info, e.g. about leaked connections
+	 */
+	String getStatus();
+
+	void close();
+}
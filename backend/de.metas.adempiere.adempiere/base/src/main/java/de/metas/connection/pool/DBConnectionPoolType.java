@@ -0,0 +1,46 @@
+package de.metas.connection.pool;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public enum DBConnectionPoolType
+{
+	C3P0, HIKARI;
+
+	private static final String SYSTEM_PROPERTY = "db.postgresql.connectionPool";
+
+	/**
+	 * @return the pool type configured by the {@value #SYSTEM_PROPERTY} system property; {@link #C3P0} if not set.
+	 */
+	public static DBConnectionPoolType getConfigured()
+	{
+		final String typeStr = System.getProperty(SYSTEM_PROPERTY, C3P0.name());
+		try
+		{
+			return valueOf(typeStr.trim().toUpperCase());
+		}
+		catch (final IllegalArgumentException ex)
+		{
+			throw new IllegalArgumentException("Invalid " + SYSTEM_PROPERTY + "=" + typeStr + ". Allowed values are: C3P0, HIKARI", ex);
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package de.metas.connection.pool;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.adempiere.exceptions.DBConnectionAcquireTimeoutException;
+import org.compiere.util.Ini;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import de.metas.connection.impl.DB_PostgreSQL_ConnectionCustomizer;
+import de.metas.util.SystemUtils;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The HikariCP based connection pool. To use it, start metasfresh with {@code -Ddb.postgresql.connectionPool=hikari}.
+ * <p>
+ * Pool settings can be changed using the {@code db.postgresql.hikari.*} system properties.
+ * <p>
+ * {@link DB_PostgreSQL_ConnectionCustomizer} is applied when a physical connection is acquired and each time a connection is checked out.
+ * Note that HikariCP has no check-in hook, so {@link DB_PostgreSQL_ConnectionCustomizer#onCheckIn(Connection, String)} is not called.
+ */
+public final class HikariConnectionPool implements DBConnectionPool
+{
+	private static final String POOL_NAME = "metasfreshDS";
+
+	private static final String CONFIG_MaximumPoolSize = "db.postgresql.hikari.maximumPoolSize";
+	private static final String CONFIG_MinimumIdle = "db.postgresql.hikari.minimumIdle";
+	private static final String CONFIG_ConnectionTimeoutMillis = "db.postgresql.hikari.connectionTimeoutMillis";
+	private static final String CONFIG_MaxLifetimeMillis = "db.postgresql.hikari.maxLifetimeMillis";
+	private static final String CONFIG_LeakDetectionThresholdMillis = "db.postgresql.hikari.leakDetectionThresholdMillis";
+
+	private final HikariDataSource dataSource;
+	private final DB_PostgreSQL_ConnectionCustomizer connectionCustomizer = new DB_PostgreSQL_ConnectionCustomizer();
+
+	@Builder
+	private HikariConnectionPool(
+			@NonNull final String jdbcUrl,
+			@NonNull final String user,
+			final String password)
+	{
+		final boolean swingClient = Ini.isSwingClient();
+
+		final HikariConfig config = new HikariConfig();
+		config.setPoolName(POOL_NAME);
+		config.setDataSource(new CustomizingDriverDataSource(jdbcUrl, user, password, connectionCustomizer));
+		config.setMaximumPoolSize(SystemUtils.getSystemProperty(CONFIG_MaximumPoolSize, swingClient ? 20 : 150));
+		config.setMinimumIdle(SystemUtils.getSystemProperty(CONFIG_MinimumIdle, swingClient ? 1 : 5));
+		config.setConnectionTimeout(SystemUtils.getSystemProperty(CONFIG_ConnectionTimeoutMillis, swingClient ? 20 * 1000 : 60 * 1000));
+		config.setIdleTimeout(Duration.ofSeconds(1200).toMillis());
+		config.setMaxLifetime(SystemUtils.getSystemProperty(CONFIG_MaxLifetimeMillis, (int)Duration.ofMinutes(30).toMillis()));
+
+		// NOTE: unlike c3p0's unreturnedConnectionTimeout, HikariCP is not reclaiming leaked connections but only logs them (incl. stack trace),
+		// so it's fine to use a lower threshold.
+		config.setLeakDetectionThreshold(SystemUtils.getSystemProperty(CONFIG_LeakDetectionThresholdMillis, (int)Duration.ofMinutes(10).toMillis()));
+
+		config.setRegisterMbeans(true);
+
+		this.dataSource = new HikariDataSource(config);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "HikariConnectionPool[" + dataSource.getPoolName()
+				+ ", maximumPoolSize=" + dataSource.getMaximumPoolSize()
+				+ ", minimumIdle=" + dataSource.getMinimumIdle()
+				+ ", connectionTimeout=" + dataSource.getConnectionTimeout()
+				+ ", leakDetectionThreshold=" + dataSource.getLeakDetectionThreshold()
+				+ "]";
+	}
+
+	@Override
+	public DataSource getDataSource()
+	{
+		return dataSource;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		final Connection connection;
+		try
+		{
+			connection = dataSource.getConnection();
+		}
+		catch (final SQLTransientConnectionException timeoutException)
+		{
+			throw new DBConnectionAcquireTimeoutException(timeoutException);
+		}
+
+		try
+		{
+			connectionCustomizer.onCheckOut(connection, POOL_NAME);
+		}
+		catch (final Exception ex)
+		{
+			connection.close();
+			throw toSQLException(ex);
+		}
+
+		return connection;
+	}
+
+	private static SQLException toSQLException(final Exception ex)
+	{
+		return ex instanceof SQLException
+				? (SQLException)ex
+				: new SQLException(ex.getLocalizedMessage(), ex);
+	}
+
+	@Override
+	public int getMaxPoolSize()
+	{
+		return dataSource.getMaximumPoolSize();
+	}
+
+	@Override
+	public int getNumConnections()
+	{
+		final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool != null ? pool.getTotalConnections() : -1;
+	}
+
+	@Override
+	public int getNumBusyConnections()
+	{
+		final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool != null ? pool.getActiveConnections() : -1;
+	}
+
+	@Override
+	public int getNumIdleConnections()
+	{
+		final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool != null ? pool.getIdleConnections() : -1;
+	}
+
+	@Override
+	public int getNumThreadsAwaitingConnection()
+	{
+		final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool != null ? pool.getThreadsAwaitingConnection() : -1;
+	}
+
+	@Override
+	public String getStatus()
+	{
+		// leaked connections are logged by HikariCP itself
+		return "";
+	}
+
+	@Override
+	public void close()
+	{
+		dataSource.close();
+	}
+
+	/**
+	 * Creates physical connections using the JDBC driver and applies {@link DB_PostgreSQL_ConnectionCustomizer#onAcquire(Connection, String)} on them.
+	 */
+	private static final class CustomizingDriverDataSource implements DataSource
+	{
+		private final String jdbcUrl;
+		private final String user;
+		private final String password;
+		private final DB_PostgreSQL_ConnectionCustomizer connectionCustomizer;
+
+		private PrintWriter logWriter;
+
+		private CustomizingDriverDataSource(
+				@NonNull final String jdbcUrl,
+				@NonNull final String user,
+				final String password,
+				@NonNull final DB_PostgreSQL_ConnectionCustomizer connectionCustomizer)
+		{
+			this.jdbcUrl = jdbcUrl;
+			this.user = user;
+			this.password = password;
+			this.connectionCustomizer = connectionCustomizer;
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException
+		{
+			return getConnection(user, password);
+		}
+
+		@Override
+		public Connection getConnection(final String username, final String password) throws SQLException
+		{
+			final Connection connection = DriverManager.getConnection(jdbcUrl, username, password);
+			try
+			{
+				connectionCustomizer.onAcquire(connection, POOL_NAME);
+			}
+			catch (final Exception ex)
+			{
+				connection.close();
+				throw toSQLException(ex);
+			}
+			return connection;
+		}
+
+		@Override
+		public PrintWriter getLogWriter()
+		{
+			return logWriter;
+		}
+
+		@Override
+		public void setLogWriter(final PrintWriter logWriter)
+		{
+			this.logWriter = logWriter;
+		}
+
+		@Override
+		public void setLoginTimeout(final int seconds)
+		{
+			DriverManager.setLoginTimeout(seconds);
+		}
+
+		@Override
+		public int getLoginTimeout()
+		{
+			return DriverManager.getLoginTimeout();
+		}
+
+		@Override
+		public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException
+		{
+			throw new SQLFeatureNotSupportedException();
+		}
+
+		@Override
+		public <T> T unwrap(final Class<T> iface) throws SQLException
+		{
+			if (iface.isInstance(this))
+			{
+				return iface.cast(this);
+			}
+			throw new SQLException("Not a wrapper for " + iface);
+		}
+
+		@Override
+		public boolean isWrapperFor(final Class<?> iface)
+		{
+			return iface.isInstance(this);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package de.metas.connection.pool;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public final class JMXConnectionPool implements JMXConnectionPoolMBean, IJMXNameAware
+{
+	private final DBConnectionPoolType poolType;
+	private final DBConnectionPool pool;
+	private final ConnectionCheckoutStatistics checkoutStatistics;
+
+	public JMXConnectionPool(
+			@NonNull final DBConnectionPoolType poolType,
+			@NonNull final DBConnectionPool pool,
+			@NonNull final ConnectionCheckoutStatistics checkoutStatistics)
+	{
+		this.poolType = poolType;
+		this.pool = pool;
+		this.checkoutStatistics = checkoutStatistics;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "de.metas.connection:type=ConnectionPool";
+	}
+
+	@Override
+	public String getPoolType()
+	{
+		return poolType.name();
+	}
+
+	@Override
+	public int getMaxPoolSize()
+	{
+		return pool.getMaxPoolSize();
+	}
+
+	@Override
+	public int getNumConnections()
+	{
+		return pool.getNumConnections();
+	}
+
+	@Override
+	public int getNumBusyConnections()
+	{
+		return pool.getNumBusyConnections();
+	}
+
+	@Override
+	public int getNumIdleConnections()
+	{
+		return pool.getNumIdleConnections();
+	}
+
+	@Override
+	public int getNumThreadsAwaitingConnection()
+	{
+		return pool.getNumThreadsAwaitingConnection();
+	}
+
+	@Override
+	public long getCountCheckouts()
+	{
+		return checkoutStatistics.getCountCheckouts();
+	}
+
+	@Override
+	public long getCountFailedCheckouts()
+	{
+		return checkoutStatistics.getCountFailedCheckouts();
+	}
+
+	@Override
+	public long getCheckoutTimeAvgMillis()
+	{
+		return checkoutStatistics.getCheckoutTimeAvgMillis();
+	}
+
+	@Override
+	public long getCheckoutTimeMaxMillis()
+	{
+		return checkoutStatistics.getCheckoutTimeMaxMillis();
+	}
+
+	@Override
+	public String[] getCheckoutTimeHistogram()
+	{
+		return checkoutStatistics.getCheckoutTimeHistogram();
+	}
+
+	@Override
+	public String getStatus()
+	{
+		return pool.getStatus();
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		checkoutStatistics.reset();
+	}
+}
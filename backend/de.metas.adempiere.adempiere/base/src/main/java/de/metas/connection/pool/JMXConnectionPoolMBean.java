@@ -0,0 +1,52 @@
+package de.metas.connection.pool;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public interface JMXConnectionPoolMBean
+{
+	String getPoolType();
+
+	int getMaxPoolSize();
+
+	int getNumConnections();
+
+	int getNumBusyConnections();
+
+	int getNumIdleConnections();
+
+	int getNumThreadsAwaitingConnection();
+
+	long getCountCheckouts();
+
+	long getCountFailedCheckouts();
+
+	long getCheckoutTimeAvgMillis();
+
+	long getCheckoutTimeMaxMillis();
+
+	String[] getCheckoutTimeHistogram();
+
+	String getStatus();
+
+	void resetStatistics();
+}
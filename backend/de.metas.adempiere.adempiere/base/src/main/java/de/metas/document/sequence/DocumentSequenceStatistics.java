@@ -0,0 +1,57 @@
+package de.metas.document.sequence;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * How often a document sequence was incremented in database and how long it took, since the server was started.
+ * <p>
+ * The duration includes the time spent waiting for the sequence's row lock, so a high average or maximum duration indicates contention on that sequence.
+ */
+@Value
+@Builder
+public class DocumentSequenceStatistics
+{
+	@NonNull
+	DocSequenceId sequenceId;
+
+	String sequenceName;
+
+	/** how many times the sequence was incremented in database */
+	long countUpdates;
+
+	/** how many numbers were taken from the sequence; more than {@link #countUpdates} if the sequence is reserved in blocks */
+	long countNumbersReserved;
+
+	long totalUpdateMillis;
+
+	long maxUpdateMillis;
+
+	public double getAverageUpdateMillis()
+	{
+		return countUpdates > 0 ? (double)totalUpdateMillis / countUpdates : 0;
+	}
+}
@@ -3,6 +3,8 @@
  */
 package de.metas.document.sequence;
 
+import java.util.List;
+
 import de.metas.document.sequence.impl.IPreliminaryDocumentNoBuilder;
 import de.metas.util.ISingletonService;
 
@@ -37,4 +39,9 @@ public interface IDocumentNoBuilderFactory extends ISingletonService
 	 * The user needs to invoke {@link IDocumentNoBuilder#setDocumentSequenceInfo(de.metas.document.DocumentSequenceInfo)}.
 	 */
 	IDocumentNoBuilder createDocumentNoBuilder();
+
+	/**
+	 * @return statistics about how the document sequences were incremented in database, since the server was started.
+	 */
+	List<DocumentSequenceStatistics> getSequenceStatistics();
 }
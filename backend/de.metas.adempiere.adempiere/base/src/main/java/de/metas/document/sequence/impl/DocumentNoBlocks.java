@@ -0,0 +1,121 @@
+package de.metas.document.sequence.impl;
+
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+import javax.annotation.Nullable;
+
+import org.compiere.model.I_AD_Sequence;
+import org.compiere.model.I_AD_Sequence_No;
+
+import de.metas.cache.CacheMgt;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sequence numbers which were reserved in blocks.
+ * <p>
+ * Instead of incrementing the sequence in database for each document, the sequence is incremented once per block
+ * and the block's numbers are given out from memory.
+ * The numbers which were not given out until the server is stopped or until the sequence is changed are lost,
+ * so this shall be used only for sequences where gaps are acceptable.
+ */
+final class DocumentNoBlocks
+{
+	public static final DocumentNoBlocks instance = new DocumentNoBlocks();
+
+	private final ConcurrentHashMap<BlockKey, Block> blocks = new ConcurrentHashMap<>();
+
+	private DocumentNoBlocks()
+	{
+		// if somebody changes the sequence (e.g. resets CurrentNext), we shall not continue with the numbers of the old block
+		CacheMgt.get().addCacheResetListener(I_AD_Sequence.Table_Name, request -> invalidateAll());
+		CacheMgt.get().addCacheResetListener(I_AD_Sequence_No.Table_Name, request -> invalidateAll());
+	}
+
+	/**
+	 * @param blockReserver increments the sequence in database by <code>incrementNo * blockSize</code> and returns the first number of the reserved block
+	 */
+	public int nextSequenceNo(
+			@NonNull final BlockKey key,
+			final int incrementNo,
+			final int blockSize,
+			@NonNull final IntSupplier blockReserver)
+	{
+		final Block block = blocks.computeIfAbsent(key, k -> new Block());
+		synchronized (block)
+		{
+			if (block.remaining <= 0)
+			{
+				block.next = blockReserver.getAsInt();
+				block.remaining = blockSize;
+			}
+
+			final int sequenceNo = block.next;
+			block.next += incrementNo;
+			block.remaining--;
+			return sequenceNo;
+		}
+	}
+
+	/**
+	 * @return the number which {@link #nextSequenceNo(BlockKey, int, int, IntSupplier)} would return next, without consuming it; empty if there is no block with remaining numbers
+	 */
+	public OptionalInt peekSequenceNo(@NonNull final BlockKey key)
+	{
+		final Block block = blocks.get(key);
+		if (block == null)
+		{
+			return OptionalInt.empty();
+		}
+		synchronized (block)
+		{
+			return block.remaining > 0 ? OptionalInt.of(block.next) : OptionalInt.empty();
+		}
+	}
+
+	public long invalidateAll()
+	{
+		final long count = blocks.size();
+		blocks.clear();
+		return count;
+	}
+
+	@Value(staticConstructor = "of")
+	public static class BlockKey
+	{
+		int adSequenceId;
+		boolean adempiereSys;
+		@Nullable
+		String calendarYear;
+	}
+
+	private static final class Block
+	{
+		private int next;
+		private int remaining = 0;
+	}
+}
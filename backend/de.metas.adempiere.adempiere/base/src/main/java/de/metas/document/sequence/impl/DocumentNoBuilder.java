@@ -4,6 +4,8 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
@@ -12,6 +14,7 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
 import org.compiere.model.I_C_DocType;
@@ -22,6 +25,7 @@ import org.compiere.util.Evaluatee;
 import org.compiere.util.Evaluatees;
 import org.slf4j.Logger;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Suppliers;
 
 import de.metas.document.DocTypeSequenceMap;
@@ -58,6 +62,15 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private static final AdMessageKey MSG_PROVIDER_NOT_APPLICABLE = AdMessageKey.of("de.metas.document.CustomSequenceNotProviderNoApplicable");
 
+	/**
+	 * Sysconfig prefix, to be followed by the AD_Sequence_ID. If set to a value greater than one, that many numbers are reserved at once from the sequence,
+	 * and the documents get their numbers from that block, without accessing the sequence in database.
+	 * <p>
+	 * Use it only for sequences where gaps are acceptable. See {@link DocumentNoBlocks}.
+	 * Preliminary document numbers are also taken from the current block, so that they match the numbers which are actually assigned on this node.
+	 */
+	private static final String SYSCONFIG_BlockSize_Prefix = "de.metas.document.sequence.DocumentNoBuilder.BlockSize.AD_Sequence_ID_";
+
 	private static final int QUERY_TIME_OUT = MSequence.QUERY_TIME_OUT;
 	private static final transient SimpleDateFormatThreadLocal DATEFORMAT_CalendarYear = new SimpleDateFormatThreadLocal("yyyy");
 
@@ -265,7 +278,8 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 		final int sequenceNo;
 		if (isUsePreliminaryDocumentNo())
 		{
-			sequenceNo = retrieveSequenceCurrentNext(docSeqInfo);
+			sequenceNo = peekSequenceNoFromBlock(docSeqInfo)
+					.orElseGet(() -> retrieveSequenceCurrentNext(docSeqInfo));
 		}
 		else
 		{
@@ -276,41 +290,99 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private int retrieveAndIncrementSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo)
 	{
+		final int blockSize = getBlockSize(docSeqInfo);
+		if (blockSize <= 1)
+		{
+			return retrieveAndIncrementSequenceCurrentNext(docSeqInfo, 1);
+		}
+
+		return DocumentNoBlocks.instance.nextSequenceNo(
+				createBlockKey(docSeqInfo),
+				docSeqInfo.getIncrementNo(),
+				blockSize,
+				() -> retrieveAndIncrementSequenceCurrentNext(docSeqInfo, blockSize));
+	}
+
+	/**
+	 * @return the number which the next document will get from the current block; empty if there is no block with remaining numbers, i.e. the next document will get the sequence's CurrentNext
+	 */
+	private OptionalInt peekSequenceNoFromBlock(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		if (getBlockSize(docSeqInfo) <= 1)
+		{
+			return OptionalInt.empty();
+		}
+		return DocumentNoBlocks.instance.peekSequenceNo(createBlockKey(docSeqInfo));
+	}
+
+	private DocumentNoBlocks.BlockKey createBlockKey(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		return DocumentNoBlocks.BlockKey.of(
+				docSeqInfo.getAdSequenceId(),
+				isAdempiereSys(),
+				!isAdempiereSys() && docSeqInfo.isStartNewYear() ? getCalendarYear(docSeqInfo.getDateColumn()) : null);
+	}
+
+	/**
+	 * @return how many numbers shall be reserved at once from given sequence. If <code>1</code>, the sequence is incremented for each document, which is the default.
+	 */
+	private static int getBlockSize(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int blockSize = sysConfigBL.getIntValue(SYSCONFIG_BlockSize_Prefix + docSeqInfo.getAdSequenceId(), 1);
+		return Math.max(blockSize, 1);
+	}
+
+	/**
+	 * Increments the sequence in database by <code>count</code> numbers.
+	 *
+	 * @return the first of the <code>count</code> numbers
+	 */
+	private int retrieveAndIncrementSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo, final int count)
+	{
+		final int increment = docSeqInfo.getIncrementNo() * count;
+
 		final String trxName = getTrxName();
 		final List<Object> sqlParams = new ArrayList<>();
 		final String sql;
 		if (isAdempiereSys())
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID=? RETURNING CurrentNextSys - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 		else if (docSeqInfo.isStartNewYear())
 		{
 			final String calendarYear = getCalendarYear(docSeqInfo.getDateColumn());
 
 			sql = "UPDATE AD_Sequence_No SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? AND CalendarYear = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
 			sqlParams.add(calendarYear);
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 
 		}
 		else
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 
 		final IMutable<Integer> currentSeq = new Mutable<>(-1);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		DB.executeUpdateEx(sql,
 				sqlParams.toArray(),
 				trxName,
 				QUERY_TIME_OUT,
 				rs -> currentSeq.setValue(rs.getInt(1)));
+		stopwatch.stop();
+
+		// NOTE: the duration includes the time we waited for the sequence's row lock
+		DocumentSequenceStatisticsCollector.instance.recordUpdate(docSeqInfo.getAdSequenceId(), docSeqInfo.getName(), count, stopwatch.elapsed(TimeUnit.NANOSECONDS));
+		logger.debug("Incremented sequence {} by {} in {}", docSeqInfo.getName(), increment, stopwatch);
 
 		return currentSeq.getValue();
 	}
@@ -19,6 +19,7 @@ import de.metas.document.DocumentNoBuilderException;
 import de.metas.document.DocumentSequenceInfo;
 import de.metas.document.IDocumentSequenceDAO;
 import de.metas.document.sequence.DocSequenceId;
+import de.metas.document.sequence.DocumentSequenceStatistics;
 import de.metas.document.sequence.IDocumentNoBuilder;
 import de.metas.document.sequence.IDocumentNoBuilderFactory;
 import de.metas.document.sequence.ValueSequenceInfoProvider;
@@ -130,4 +131,10 @@ public class DocumentNoBuilderFactory implements IDocumentNoBuilderFactory
 		}
 		return tableNameBasedProvider.computeValueInfo(modelRecord);
 	}
+
+	@Override
+	public List<DocumentSequenceStatistics> getSequenceStatistics()
+	{
+		return DocumentSequenceStatisticsCollector.instance.getStatistics();
+	}
 }
@@ -0,0 +1,99 @@
+package de.metas.document.sequence.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.document.sequence.DocSequenceId;
+import de.metas.document.sequence.DocumentSequenceStatistics;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects {@link DocumentSequenceStatistics}.
+ */
+final class DocumentSequenceStatisticsCollector
+{
+	public static final DocumentSequenceStatisticsCollector instance = new DocumentSequenceStatisticsCollector();
+
+	private final ConcurrentHashMap<Integer, Counters> countersBySequenceId = new ConcurrentHashMap<>();
+
+	private DocumentSequenceStatisticsCollector()
+	{
+	}
+
+	public void recordUpdate(
+			final int adSequenceId,
+			final String sequenceName,
+			final int countNumbersReserved,
+			final long durationNanos)
+	{
+		countersBySequenceId
+				.computeIfAbsent(adSequenceId, k -> new Counters(sequenceName))
+				.record(countNumbersReserved, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+	}
+
+	public ImmutableList<DocumentSequenceStatistics> getStatistics()
+	{
+		return countersBySequenceId.entrySet()
+				.stream()
+				.map(entry -> entry.getValue().toStatistics(DocSequenceId.ofRepoId(entry.getKey())))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static final class Counters
+	{
+		private final String sequenceName;
+		private long countUpdates = 0;
+		private long countNumbersReserved = 0;
+		private long totalUpdateMillis = 0;
+		private long maxUpdateMillis = 0;
+
+		private Counters(final String sequenceName)
+		{
+			this.sequenceName = sequenceName;
+		}
+
+		private synchronized void record(final int countNumbersReserved, final long durationMillis)
+		{
+			this.countUpdates++;
+			this.countNumbersReserved += countNumbersReserved;
+			this.totalUpdateMillis += durationMillis;
+			this.maxUpdateMillis = Math.max(this.maxUpdateMillis, durationMillis);
+		}
+
+		private synchronized DocumentSequenceStatistics toStatistics(@NonNull final DocSequenceId sequenceId)
+		{
+			return DocumentSequenceStatistics.builder()
+					.sequenceId(sequenceId)
+					.sequenceName(sequenceName)
+					.countUpdates(countUpdates)
+					.countNumbersReserved(countNumbersReserved)
+					.totalUpdateMillis(totalUpdateMillis)
+					.maxUpdateMillis(maxUpdateMillis)
+					.build();
+		}
+	}
+}
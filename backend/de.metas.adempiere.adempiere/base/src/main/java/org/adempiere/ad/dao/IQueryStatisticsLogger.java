@@ -103,4 +103,9 @@ public interface IQueryStatisticsLogger
 	 * @return
 	 */
 	String[] getTopAverageDurationQueriesAsString();
+
+	/**
+	 * Gets the hit/miss statistics of the per connection prepared statement cache.
+	 */
+	String getPreparedStatementCacheStatisticsAsString();
 }
@@ -14,6 +14,7 @@ import org.adempiere.ad.dao.IQueryStatisticsLogger;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.sql.impl.PreparedStatementCache;
 import org.adempiere.sql.impl.StatementsFactory;
 import org.compiere.util.CStatementVO;
 import org.compiere.util.Trace;
@@ -167,6 +168,7 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	public void reset()
 	{
 		sql2statistics.clear();
+		PreparedStatementCache.instance.resetStatistics();
 		validFrom = SystemTime.asDate();
 	}
 
@@ -364,6 +366,13 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 		return getTopQueriesAsString(Comparator.comparing(QueryStatistics::getAverageDuration));
 	}
 
+	@Override
+	@ManagedOperation(description = "Gets the hit/miss statistics of the per connection prepared statement cache")
+	public String getPreparedStatementCacheStatisticsAsString()
+	{
+		return PreparedStatementCache.instance.toString();
+	}
+
 	private String[] getTopQueriesAsString(final Comparator<QueryStatistics> comparing)
 	{
 		return sql2statistics.values()
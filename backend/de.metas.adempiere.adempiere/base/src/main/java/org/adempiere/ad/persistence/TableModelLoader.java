@@ -25,7 +25,9 @@ package org.adempiere.ad.persistence;
 import java.lang.reflect.Constructor;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -43,6 +45,7 @@ import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.cache.interceptor.CacheInterceptor;
@@ -114,7 +117,9 @@ public final class TableModelLoader
 		final IModelCacheService modelCacheService = Services.get(IModelCacheService.class);
 		if (checkCache)
 		{
-			final PO poCached = modelCacheService.retrieveObject(ctx, tableName, recordId, trxName);
+			// NOTE: in case of read-through tables, the record is loaded out of transaction and it's shared with other transactions
+			final PO poCached = modelCacheService.retrieveObjectOrLoadOutOfTrx(ctx, tableName, recordId, trxName,
+					() -> createOrLoadPO(ctx, tableName, recordId, ITrx.TRXNAME_None));
 			if (poCached != null)
 			{
 				return poCached;
@@ -173,16 +178,14 @@ public final class TableModelLoader
 		{
 			final POInfo poInfo = POInfo.getPOInfo(tableName);
 
-			final List<Object> sqlParams = new ArrayList<>();
-			final String sql = poInfo.buildSelect()
-					.append(" WHERE ").append(DB.buildSqlList(poInfo.getSingleKeyColumnName(), recordIdsToLoad, sqlParams))
-					.toString();
+			final List<Object> sqlParams = ImmutableList.of(recordIdsToLoad);
+			final String sql = buildSqlSelectByIds(poInfo.buildSelect(), poInfo.getSingleKeyColumnName());
 			PreparedStatement pstmt = null;
 			ResultSet rs = null;
 			try
 			{
 				pstmt = DB.prepareStatement(sql, trxName);
-				DB.setParameters(pstmt, sqlParams);
+				setIdsParameter(pstmt, recordIdsToLoad);
 				rs = pstmt.executeQuery();
 				while (rs.next())
 				{
@@ -204,6 +207,23 @@ public final class TableModelLoader
 		return result;
 	}
 
+	/**
+	 * NOTE: we bind all IDs as one array parameter (see {@link #setIdsParameter(PreparedStatement, Collection)}), so the SQL is the same no matter how many IDs we load
+	 * and the prepared statement can be reused.
+	 */
+	@VisibleForTesting
+	static String buildSqlSelectByIds(@NonNull final StringBuilder sqlSelect, @NonNull final String keyColumnName)
+	{
+		return sqlSelect.append(" WHERE ").append(keyColumnName).append("=ANY(?)").toString();
+	}
+
+	@VisibleForTesting
+	static void setIdsParameter(@NonNull final PreparedStatement pstmt, @NonNull final Collection<Integer> ids) throws SQLException
+	{
+		final Integer[] idsArray = ids.toArray(new Integer[0]);
+		pstmt.setArray(1, pstmt.getConnection().createArrayOf("numeric", idsArray));
+	}
+
 	/**
 	 * Creates/Loads the PO from database.
 	 * In case some errors were encountered, they will be logged and <code>null</code> will be returned.
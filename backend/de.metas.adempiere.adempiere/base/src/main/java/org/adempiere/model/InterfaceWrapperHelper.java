@@ -23,6 +23,8 @@
 package org.adempiere.model;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -64,6 +66,7 @@ import org.compiere.util.Evaluatee;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.cache.model.IModelCacheService;
@@ -414,6 +417,55 @@ public class InterfaceWrapperHelper
 		return loadByIds(ids, modelClass, ITrx.TRXNAME_None);
 	}
 
+	/**
+	 * Loads the models for the given IDs (using one single query for the ones which are not already cached), using thread inherited transaction.
+	 *
+	 * @return map of ID to model; the map is ordered the same way as the given IDs; IDs for which no model was found are not contained
+	 */
+	public static <ID extends RepoIdAware, T> ImmutableMap<ID, T> loadByRepoIdAwaresAsMap(@NonNull final Collection<ID> repoIdAwares, final Class<T> modelClass)
+	{
+		if (repoIdAwares.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final ImmutableSet<Integer> ids = RepoIdAwares.asRepoIdsSet(repoIdAwares);
+		final Map<Integer, T> modelsById = new HashMap<>(ids.size());
+		for (final T model : loadByIds(ids, modelClass, ITrx.TRXNAME_ThreadInherited))
+		{
+			modelsById.put(getId(model), model);
+		}
+
+		final LinkedHashMap<ID, T> result = new LinkedHashMap<>(modelsById.size());
+		for (final ID repoIdAware : repoIdAwares)
+		{
+			final T model = modelsById.get(repoIdAware.getRepoId());
+			if (model != null)
+			{
+				result.putIfAbsent(repoIdAware, model);
+			}
+		}
+		return ImmutableMap.copyOf(result);
+	}
+
+	/**
+	 * Same as {@link #loadByRepoIdAwaresAsMap(Collection, Class)}, but fails if there is no model for any of the given IDs.
+	 */
+	public static <ID extends RepoIdAware, T> ImmutableMap<ID, T> loadByRepoIdAwaresAsMapOrFail(@NonNull final Collection<ID> repoIdAwares, final Class<T> modelClass)
+	{
+		final ImmutableMap<ID, T> modelsById = loadByRepoIdAwaresAsMap(repoIdAwares, modelClass);
+
+		final ImmutableSet<ID> missingIds = repoIdAwares.stream()
+				.filter(repoIdAware -> !modelsById.containsKey(repoIdAware))
+				.collect(ImmutableSet.toImmutableSet());
+		if (!missingIds.isEmpty())
+		{
+			throw new AdempiereException("No " + getTableName(modelClass) + " records found for IDs " + missingIds);
+		}
+
+		return modelsById;
+	}
+
 	private static <T> List<T> loadByIds(final Set<Integer> ids, final Class<T> modelClass, final String trxName)
 	{
 		if (getInMemoryDatabaseForModel(modelClass) != null)
@@ -141,4 +141,10 @@ public class IMPProcessorAdempiereProcessorAdapter implements AdempiereProcessor
 		return I_IMP_Processor.Table_Name;
 	}
 
+	@Override
+	public int get_ID()
+	{
+		return impProcessor.getIMP_Processor_ID();
+	}
+
 }
@@ -103,6 +103,22 @@ import de.metas.util.Services;
 
 	protected abstract ST createStatement(final Connection conn, final CStatementVO vo) throws SQLException;
 
+	/**
+	 * @return true if the connection was created for this statement (i.e. there is no transaction) and is closed together with it
+	 */
+	protected final boolean isOwnConnection()
+	{
+		return m_conn != null;
+	}
+
+	/**
+	 * Called when this proxy is closed. Closes the given underlying statement.
+	 */
+	protected void closeStatementImpl(final ST stmt) throws SQLException
+	{
+		stmt.close();
+	}
+
 	protected final ST getStatementImpl()
 	{
 		return p_stmt;
@@ -146,7 +162,7 @@ import de.metas.util.Services;
 		{
 			if (p_stmt != null)
 			{
-				p_stmt.close();
+				closeStatementImpl(p_stmt);
 			}
 		}
 		finally
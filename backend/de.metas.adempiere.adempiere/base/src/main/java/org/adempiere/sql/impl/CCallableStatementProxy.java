@@ -34,6 +34,7 @@ import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.NClob;
+import java.sql.PreparedStatement;
 import java.sql.Ref;
 import java.sql.RowId;
 import java.sql.SQLException;
@@ -65,6 +66,13 @@ import org.compiere.util.CStatementVO;
 		return stmt;
 	}
 
+	@Override
+	protected final void closeStatementImpl(final PreparedStatement stmt) throws SQLException
+	{
+		// callable statements are never cached
+		stmt.close();
+	}
+
 	protected final CCallableStatement getCCallableStatementImpl()
 	{
 		return (CCallableStatement)super.getStatementImpl();
@@ -88,10 +88,18 @@ import de.metas.util.Check;
 	@Override
 	protected PreparedStatement createStatement(final Connection conn, final CStatementVO vo) throws SQLException
 	{
-		final PreparedStatement pstmt = conn.prepareStatement(vo.getSql(),
-				vo.getResultSetType(),
-				vo.getResultSetConcurrency());
-		return pstmt;
+		// our own connection is closed together with the statement, so there is nothing to reuse
+		if (isOwnConnection())
+		{
+			return conn.prepareStatement(vo.getSql(), vo.getResultSetType(), vo.getResultSetConcurrency());
+		}
+		return PreparedStatementCache.instance.prepareStatement(conn, vo);
+	}
+
+	@Override
+	protected void closeStatementImpl(final PreparedStatement stmt) throws SQLException
+	{
+		PreparedStatementCache.instance.release(stmt);
 	}
 
 	@Override
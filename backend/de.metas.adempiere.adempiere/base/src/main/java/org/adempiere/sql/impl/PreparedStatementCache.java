@@ -0,0 +1,396 @@
+package org.adempiere.sql.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.compiere.util.CStatementVO;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import de.metas.util.SystemUtils;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caches {@link PreparedStatement}s per transaction connection, so that closing a {@link CPreparedStatementProxy} does not throw away the JDBC statement
+ * and the next proxy for the same SQL in the same transaction can reuse it.
+ * <p>
+ * The statements are prepared through the pooled connection, so the pool knows about them and closes them when the connection is given back.
+ * {@link org.compiere.util.Trx} calls {@link #evict(Connection)} before it closes its connection.
+ * Statements on connections which are closed right after the statement (i.e. statements without transaction) are never cached.
+ * <p>
+ * Note that the PostgreSQL JDBC driver already keeps the server side prepared statements of a physical connection (see its {@code preparedStatementCacheQueries} and {@code prepareThreshold} settings),
+ * also after the JDBC statement was closed. So this cache does not spare the database any parsing or planning.
+ * What it spares is creating, tracking and closing the driver's and the pool's statement objects, which adds up if a transaction runs the same SQL many times (e.g. loading records in a loop).
+ * <p>
+ * The cache is disabled by default. To enable it, set the {@value #SYSTEM_PROPERTY_MaxStatementsPerConnection} system property to a value greater than zero.
+ */
+public final class PreparedStatementCache
+{
+	private static final Logger logger = LogManager.getLogger(PreparedStatementCache.class);
+
+	private static final String SYSTEM_PROPERTY_MaxStatementsPerConnection = "org.adempiere.sql.impl.PreparedStatementCache.maxStatementsPerConnection";
+
+	public static final transient PreparedStatementCache instance = new PreparedStatementCache(SystemUtils.getSystemProperty(SYSTEM_PROPERTY_MaxStatementsPerConnection, 0));
+
+	private final int maxStatementsPerConnection;
+
+	/** Per connection caches. NOTE: keys are compared by identity; guarded by itself */
+	private final IdentityHashMap<Connection, ConnectionStatementsCache> cachesByConnection = new IdentityHashMap<>();
+
+	private final AtomicLong countHits = new AtomicLong();
+	private final AtomicLong countMisses = new AtomicLong();
+	private final AtomicLong countNotCacheable = new AtomicLong();
+	private final AtomicLong countEvicted = new AtomicLong();
+
+	/* package */ PreparedStatementCache(final int maxStatementsPerConnection)
+	{
+		this.maxStatementsPerConnection = maxStatementsPerConnection;
+	}
+
+	public boolean isEnabled()
+	{
+		return maxStatementsPerConnection > 0;
+	}
+
+	/**
+	 * @param conn a connection which stays open after the statement is released; the caller has to {@link #evict(Connection)} it before closing it.
+	 * @return a cached statement if there is an idle one for the given VO on the given connection; a new statement otherwise
+	 */
+	public PreparedStatement prepareStatement(@NonNull final Connection conn, @NonNull final CStatementVO vo) throws SQLException
+	{
+		if (!isEnabled())
+		{
+			return conn.prepareStatement(vo.getSql(), vo.getResultSetType(), vo.getResultSetConcurrency());
+		}
+
+		final ConnectionStatementsCache cache = getConnectionStatementsCache(conn);
+		return cache.prepareStatement(StatementKey.of(vo));
+	}
+
+	/**
+	 * Gives the statement back to the cache (if it was obtained from it) or closes it.
+	 */
+	public void release(@NonNull final PreparedStatement pstmt) throws SQLException
+	{
+		final ConnectionStatementsCache cache = isEnabled() ? getConnectionStatementsCacheIfExists(pstmt) : null;
+		if (cache == null)
+		{
+			pstmt.close();
+			return;
+		}
+
+		cache.release(pstmt);
+	}
+
+	/**
+	 * Closes the cached statements of the given connection and forgets about it. To be called before the connection is closed.
+	 */
+	public void evict(@NonNull final Connection conn)
+	{
+		final ConnectionStatementsCache cache;
+		synchronized (cachesByConnection)
+		{
+			cache = cachesByConnection.remove(conn);
+		}
+
+		if (cache != null)
+		{
+			cache.closeAll();
+		}
+	}
+
+	private ConnectionStatementsCache getConnectionStatementsCache(final Connection conn) throws SQLException
+	{
+		synchronized (cachesByConnection)
+		{
+			final ConnectionStatementsCache existingCache = cachesByConnection.get(conn);
+			if (existingCache != null)
+			{
+				return existingCache;
+			}
+
+			// just in case a connection was closed without being evicted
+			removeClosedConnections();
+
+			final ConnectionStatementsCache cache = new ConnectionStatementsCache(conn, maxStatementsPerConnection, this);
+			cachesByConnection.put(conn, cache);
+			return cache;
+		}
+	}
+
+	private void removeClosedConnections() throws SQLException
+	{
+		final Iterator<Connection> connections = cachesByConnection.keySet().iterator();
+		while (connections.hasNext())
+		{
+			final Connection conn = connections.next();
+			if (conn.isClosed())
+			{
+				logger.warn("Connection {} was closed without evicting its statements first", conn);
+				connections.remove();
+			}
+		}
+	}
+
+	private ConnectionStatementsCache getConnectionStatementsCacheIfExists(final PreparedStatement pstmt)
+	{
+		final Connection conn;
+		try
+		{
+			conn = pstmt.getConnection();
+		}
+		catch (final SQLException ex)
+		{
+			return null;
+		}
+
+		synchronized (cachesByConnection)
+		{
+			return cachesByConnection.get(conn);
+		}
+	}
+
+	public long getCountHits()
+	{
+		return countHits.get();
+	}
+
+	public long getCountMisses()
+	{
+		return countMisses.get();
+	}
+
+	public long getCountNotCacheable()
+	{
+		return countNotCacheable.get();
+	}
+
+	public long getCountEvicted()
+	{
+		return countEvicted.get();
+	}
+
+	public void resetStatistics()
+	{
+		countHits.set(0);
+		countMisses.set(0);
+		countNotCacheable.set(0);
+		countEvicted.set(0);
+	}
+
+	@Override
+	public String toString()
+	{
+		if (!isEnabled())
+		{
+			return "PreparedStatementCache[disabled]";
+		}
+
+		final long hits = countHits.get();
+		final long requests = hits + countMisses.get() + countNotCacheable.get();
+		final double hitRatio = requests > 0 ? (double)hits / requests : 0;
+
+		return "PreparedStatementCache["
+				+ "maxStatementsPerConnection=" + maxStatementsPerConnection
+				+ ", connections=" + getConnectionsCount()
+				+ ", hits=" + hits
+				+ ", misses=" + countMisses.get()
+				+ ", notCacheable=" + countNotCacheable.get()
+				+ ", evicted=" + countEvicted.get()
+				+ ", hitRatio=" + String.format("%.2f", hitRatio)
+				+ "]";
+	}
+
+	/* package */ int getConnectionsCount()
+	{
+		synchronized (cachesByConnection)
+		{
+			return cachesByConnection.size();
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	/* package */ static class StatementKey
+	{
+		@NonNull
+		String sql;
+		int resultSetType;
+		int resultSetConcurrency;
+
+		public static StatementKey of(final CStatementVO vo)
+		{
+			return of(vo.getSql(), vo.getResultSetType(), vo.getResultSetConcurrency());
+		}
+	}
+
+	/**
+	 * The statements of one connection.
+	 * <p>
+	 * NOTE: a transaction's connection is used by only one thread at a time, but we are synchronizing anyway because the transaction might be closed from another thread.
+	 */
+	/* package */ static final class ConnectionStatementsCache
+	{
+		private final Connection connection;
+		private final int maxStatements;
+		private final PreparedStatementCache parent;
+
+		/** Idle statements, least recently used first */
+		private final LinkedHashMap<StatementKey, PreparedStatement> idleStatements = new LinkedHashMap<>(16, 0.75f, true);
+		private final IdentityHashMap<PreparedStatement, StatementKey> leasedStatements = new IdentityHashMap<>();
+
+		/* package */ ConnectionStatementsCache(
+				@NonNull final Connection connection,
+				final int maxStatements,
+				@NonNull final PreparedStatementCache parent)
+		{
+			this.connection = connection;
+			this.maxStatements = maxStatements;
+			this.parent = parent;
+		}
+
+		public synchronized PreparedStatement prepareStatement(@NonNull final StatementKey key) throws SQLException
+		{
+			final PreparedStatement idleStatement = idleStatements.remove(key);
+			if (idleStatement != null && !idleStatement.isClosed())
+			{
+				leasedStatements.put(idleStatement, key);
+				parent.countHits.incrementAndGet();
+				return idleStatement;
+			}
+
+			final PreparedStatement pstmt = connection.prepareStatement(key.getSql(), key.getResultSetType(), key.getResultSetConcurrency());
+			if (leasedStatements.size() < maxStatements)
+			{
+				leasedStatements.put(pstmt, key);
+				parent.countMisses.incrementAndGet();
+			}
+			else
+			{
+				// too many statements are currently in use; this one will be closed when released
+				parent.countNotCacheable.incrementAndGet();
+			}
+			return pstmt;
+		}
+
+		public synchronized void release(@NonNull final PreparedStatement pstmt) throws SQLException
+		{
+			final StatementKey key = leasedStatements.remove(pstmt);
+			if (key == null || !resetForReuse(pstmt))
+			{
+				pstmt.close();
+				return;
+			}
+
+			final PreparedStatement previousIdleStatement = idleStatements.put(key, pstmt);
+			if (previousIdleStatement != null && previousIdleStatement != pstmt)
+			{
+				closeQuietly(previousIdleStatement);
+				parent.countEvicted.incrementAndGet();
+			}
+
+			evictExceedingStatements();
+		}
+
+		private void evictExceedingStatements()
+		{
+			final Iterator<PreparedStatement> leastRecentlyUsedFirst = idleStatements.values().iterator();
+			while (idleStatements.size() + leasedStatements.size() > maxStatements && leastRecentlyUsedFirst.hasNext())
+			{
+				final PreparedStatement pstmt = leastRecentlyUsedFirst.next();
+				leastRecentlyUsedFirst.remove();
+				closeQuietly(pstmt);
+				parent.countEvicted.incrementAndGet();
+			}
+		}
+
+		/**
+		 * Resets the settings which might have been changed by the previous user.
+		 *
+		 * @return true if the statement can be reused
+		 */
+		private static boolean resetForReuse(final PreparedStatement pstmt)
+		{
+			try
+			{
+				if (pstmt.isClosed())
+				{
+					return false;
+				}
+
+				pstmt.clearParameters();
+				pstmt.clearBatch();
+				pstmt.clearWarnings();
+				pstmt.setMaxRows(0);
+				pstmt.setQueryTimeout(0);
+				pstmt.setFetchSize(0);
+				return true;
+			}
+			catch (final SQLException ex)
+			{
+				logger.debug("Failed resetting {}. Not reusing it.", pstmt, ex);
+				return false;
+			}
+		}
+
+		private static void closeQuietly(final PreparedStatement pstmt)
+		{
+			try
+			{
+				pstmt.close();
+			}
+			catch (final SQLException ex)
+			{
+				logger.debug("Failed closing {}. Ignored.", pstmt, ex);
+			}
+		}
+
+		/**
+		 * Closes the idle statements. The leased ones are closed by their proxies, because they are not known to the cache anymore.
+		 */
+		public synchronized void closeAll()
+		{
+			idleStatements.values().forEach(ConnectionStatementsCache::closeQuietly);
+			idleStatements.clear();
+			leasedStatements.clear();
+		}
+
+		/* package */ synchronized int getIdleStatementsCount()
+		{
+			return idleStatements.size();
+		}
+
+		@Override
+		public String toString()
+		{
+			return "ConnectionStatementsCache[connection=" + connection + "]";
+		}
+	}
+}
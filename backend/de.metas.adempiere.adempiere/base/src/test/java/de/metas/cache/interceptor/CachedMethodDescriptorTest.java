@@ -47,6 +47,12 @@ public class CachedMethodDescriptorTest
 			return "" + testId;
 		}
 
+		@Cached
+		public Object getOther(@CacheCtx Properties ctx, int testId)
+		{
+			return "other" + testId;
+		}
+
 		@Cached
 		public Object getPlusIgnore(@CacheCtx @CacheIgnore Properties ctx, int testId)
 		{
@@ -134,4 +140,30 @@ public class CachedMethodDescriptorTest
 				"Keys shall be equal because trxName shall not be included (we are using different cache storages)",
 				keyBuilder1.buildKey(), keyBuilder2.buildKey());
 	}
+
+	/**
+	 * Methods which don't specify a cache name are sharing the same cache, so the method shall be part of the key.
+	 */
+	@Test
+	public void test_DifferentMethodsWithSameParams_HaveDifferentKeys() throws Exception
+	{
+		final TestClass testObj = new TestClass();
+		final CachedMethodDescriptor methodDescriptor = new CachedMethodDescriptor(testObj.getClass().getMethod("get", Properties.class, int.class));
+		final CachedMethodDescriptor otherMethodDescriptor = new CachedMethodDescriptor(testObj.getClass().getMethod("getOther", Properties.class, int.class));
+		Assert.assertEquals(methodDescriptor.getCacheName(), otherMethodDescriptor.getCacheName());
+
+		final Properties ctx = new Properties();
+		Env.setContext(ctx, "#AD_Client_ID", 100);
+		Env.setContext(ctx, "#AD_Role_ID", 100);
+		Env.setContext(ctx, "#AD_User_ID", 100);
+		Env.setContext(ctx, "#AD_Org_ID", 123);
+		final Object[] params = new Object[] { ctx, 100 };
+
+		Assert.assertEquals(
+				methodDescriptor.createKeyBuilder(testObj, params).buildKey(),
+				methodDescriptor.createKeyBuilder(testObj, params).buildKey());
+		Assert.assertNotEquals(
+				methodDescriptor.createKeyBuilder(testObj, params).buildKey(),
+				otherMethodDescriptor.createKeyBuilder(testObj, params).buildKey());
+	}
 }
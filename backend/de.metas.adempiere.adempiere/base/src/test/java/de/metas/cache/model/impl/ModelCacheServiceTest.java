@@ -0,0 +1,250 @@
+package de.metas.cache.model.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.PO;
+import org.compiere.model.POInfo;
+import org.compiere.util.Env;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.ITableCacheConfig.TrxLevel;
+import de.metas.i18n.IModelTranslationMap;
+import de.metas.i18n.impl.NullModelTranslationMap;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ModelCacheServiceTest
+{
+	private static final String TABLENAME = "ModelCacheServiceTest_Table";
+	private static final String TABLENAME_NotCached = "ModelCacheServiceTest_NotCachedTable";
+	private static final int RECORD_ID = 1;
+
+	private ITrxManager trxManager;
+	private ModelCacheService modelCacheService;
+
+	/** How often the record was loaded from database (i.e. not served from cache) */
+	private AtomicInteger countLoads;
+
+	/**
+	 * A PO which we can create without database (i.e. without {@link POInfo}).
+	 */
+	private static final class TestPO extends PO
+	{
+		/** also used by {@link PO#copy()} */
+		private TestPO(final Properties ctx, final int ID, final String trxName)
+		{
+			super(ctx, ID, trxName);
+		}
+
+		private static TestPO newLoadedRecord(final int recordId, final String trxName)
+		{
+			final TestPO po = new TestPO(Env.getCtx(), ID_NewInstanceNoInit, trxName);
+			setField(po, "m_IDs", new Object[] { recordId });
+			return po;
+		}
+
+		@Override
+		protected POInfo initPO(final Properties ctx)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IModelTranslationMap get_ModelTranslationMap()
+		{
+			return NullModelTranslationMap.instance;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "TestPO[ID=" + get_ID() + ", trxName=" + get_TrxName() + "]";
+		}
+	}
+
+	private static void setField(final PO po, final String fieldName, final Object value)
+	{
+		try
+		{
+			final Field field = PO.class.getDeclaredField(fieldName);
+			field.setAccessible(true);
+			field.set(po, value);
+		}
+		catch (final ReflectiveOperationException ex)
+		{
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		trxManager = Services.get(ITrxManager.class);
+
+		modelCacheService = new ModelCacheService();
+		modelCacheService.createTableCacheConfigBuilder(TABLENAME)
+				.setEnabled(true)
+				.setTrxLevel(TrxLevel.All)
+				.setReadThrough(true)
+				.register();
+
+		countLoads = new AtomicInteger();
+	}
+
+	private String newTrx()
+	{
+		return trxManager.createTrxName(getClass().getSimpleName(), true);
+	}
+
+	private PO retrieve(final String trxName)
+	{
+		return modelCacheService.retrieveObjectOrLoadOutOfTrx(Env.getCtx(), TABLENAME, RECORD_ID, trxName, () -> {
+			countLoads.incrementAndGet();
+			return TestPO.newLoadedRecord(RECORD_ID, ITrx.TRXNAME_None);
+		});
+	}
+
+	private void commitAndClose(final String trxName) throws SQLException
+	{
+		final ITrx trx = trxManager.getTrx(trxName);
+		trx.commit(true);
+		trx.close();
+	}
+
+	private void rollbackAndClose(final String trxName)
+	{
+		final ITrx trx = trxManager.getTrx(trxName);
+		trx.rollback();
+		trx.close();
+	}
+
+	@Test
+	public void readThrough_loadedOnceAndServedToOtherTransactions()
+	{
+		final String trxName1 = newTrx();
+		final PO po1 = retrieve(trxName1);
+		assertThat(po1.get_ID()).isEqualTo(RECORD_ID);
+		assertThat(po1.get_TrxName()).isEqualTo(trxName1);
+		assertThat(countLoads).hasValue(1);
+
+		final String trxName2 = newTrx();
+		final PO po2 = retrieve(trxName2);
+		assertThat(po2.get_ID()).isEqualTo(RECORD_ID);
+		assertThat(po2.get_TrxName()).as("each transaction gets its own copy").isEqualTo(trxName2);
+		assertThat(po2).isNotSameAs(po1);
+		assertThat(countLoads).as("served from the out-of-transaction level").hasValue(1);
+	}
+
+	@Test
+	public void changedInTrx_committedVersionNotServedToThatTrx()
+	{
+		retrieve(newTrx()); // cache the committed version
+		assertThat(countLoads).hasValue(1);
+
+		final String trxName = newTrx();
+		modelCacheService.onRecordChanged(TABLENAME, RECORD_ID, trxName);
+
+		assertThat(retrieve(trxName)).as("the caller has to load its own uncommitted version").isNull();
+		assertThat(countLoads).as("not read through either").hasValue(1);
+
+		assertThat(retrieve(newTrx())).as("other transactions still get the committed version").isNotNull();
+		assertThat(countLoads).hasValue(1);
+	}
+
+	/**
+	 * Another transaction reloads the record into the out-of-transaction level, after the changing transaction invalidated it but before that one committed.
+	 * The reloaded version is stale as soon as the changing transaction commits.
+	 */
+	@Test
+	public void commit_invalidatesStaleVersionReloadedMeanwhile() throws SQLException
+	{
+		final String changingTrxName = newTrx();
+		modelCacheService.onRecordChanged(TABLENAME, RECORD_ID, changingTrxName);
+
+		retrieve(newTrx());
+		assertThat(countLoads).hasValue(1);
+
+		commitAndClose(changingTrxName);
+
+		assertThat(retrieve(newTrx())).isNotNull();
+		assertThat(countLoads).as("the stale version was invalidated on commit, so it's loaded again").hasValue(2);
+	}
+
+	@Test
+	public void rollback_keepsCommittedVersion()
+	{
+		final String changingTrxName = newTrx();
+		modelCacheService.onRecordChanged(TABLENAME, RECORD_ID, changingTrxName);
+
+		retrieve(newTrx());
+		assertThat(countLoads).hasValue(1);
+
+		rollbackAndClose(changingTrxName);
+
+		assertThat(retrieve(newTrx())).isNotNull();
+		assertThat(countLoads).as("the committed version is still valid").hasValue(1);
+	}
+
+	@Test
+	public void invalidatedWhileLoading_notCached()
+	{
+		final PO po = modelCacheService.retrieveObjectOrLoadOutOfTrx(Env.getCtx(), TABLENAME, RECORD_ID, newTrx(), () -> {
+			countLoads.incrementAndGet();
+			final TestPO loadedRecord = TestPO.newLoadedRecord(RECORD_ID, ITrx.TRXNAME_None);
+
+			// some other transaction commits a change right after we loaded the record
+			CacheMgt.get().reset(TABLENAME, RECORD_ID);
+
+			return loadedRecord;
+		});
+		assertThat(po).as("the caller still gets what it loaded").isNotNull();
+
+		retrieve(newTrx());
+		assertThat(countLoads).as("the possibly stale version was not cached").hasValue(2);
+	}
+
+	@Test
+	public void onRecordChanged_tableNotCached_notTracked()
+	{
+		final String trxName = newTrx();
+		modelCacheService.onRecordChanged(TABLENAME_NotCached, RECORD_ID, trxName);
+
+		final Object invalidateOnCommit = trxManager.getTrx(trxName).getProperty(ModelCacheService.TRX_PROPERTY_InvalidateOutOfTrxOnCommit);
+		assertThat(invalidateOnCommit).isNull();
+
+		modelCacheService.onRecordChanged(TABLENAME, RECORD_ID, trxName);
+		assertThat((Object)trxManager.getTrx(trxName).getProperty(ModelCacheService.TRX_PROPERTY_InvalidateOutOfTrxOnCommit)).isNotNull();
+	}
+}
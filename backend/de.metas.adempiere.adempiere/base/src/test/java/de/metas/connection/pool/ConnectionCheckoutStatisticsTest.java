@@ -0,0 +1,67 @@
+package de.metas.connection.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ConnectionCheckoutStatisticsTest
+{
+	@Test
+	public void recordCheckout()
+	{
+		final ConnectionCheckoutStatistics statistics = new ConnectionCheckoutStatistics();
+		statistics.recordCheckout(0);
+		statistics.recordCheckout(7);
+		statistics.recordCheckout(7000);
+		statistics.recordFailedCheckout();
+
+		assertThat(statistics.getCountCheckouts()).isEqualTo(3);
+		assertThat(statistics.getCountFailedCheckouts()).isEqualTo(1);
+		assertThat(statistics.getCheckoutTimeMaxMillis()).isEqualTo(7000);
+		assertThat(statistics.getCheckoutTimeAvgMillis()).isEqualTo(7007 / 3);
+		assertThat(statistics.getCheckoutTimeHistogram()).containsExactly(
+				"<=1ms: 1",
+				"<=5ms: 0",
+				"<=10ms: 1",
+				"<=50ms: 0",
+				"<=100ms: 0",
+				"<=500ms: 0",
+				"<=1000ms: 0",
+				"<=5000ms: 0",
+				">5000ms: 1");
+	}
+
+	@Test
+	public void reset()
+	{
+		final ConnectionCheckoutStatistics statistics = new ConnectionCheckoutStatistics();
+		statistics.recordCheckout(3);
+		statistics.reset();
+
+		assertThat(statistics.getCountCheckouts()).isZero();
+		assertThat(statistics.getCheckoutTimeAvgMillis()).isZero();
+		assertThat(statistics.getCheckoutTimeHistogram()).allMatch(line -> line.endsWith(": 0"));
+	}
+}
@@ -0,0 +1,131 @@
+package de.metas.document.sequence.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.document.sequence.impl.DocumentNoBlocks.BlockKey;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentNoBlocksTest
+{
+	private final DocumentNoBlocks documentNoBlocks = DocumentNoBlocks.instance;
+
+	/** simulates the sequence's CurrentNext in database */
+	private AtomicInteger currentNext;
+	private int countReserved;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		documentNoBlocks.invalidateAll();
+		currentNext = new AtomicInteger(1000);
+		countReserved = 0;
+	}
+
+	private int nextSequenceNo(final BlockKey key, final int incrementNo, final int blockSize)
+	{
+		return documentNoBlocks.nextSequenceNo(key, incrementNo, blockSize, () -> {
+			countReserved++;
+			return currentNext.getAndAdd(incrementNo * blockSize);
+		});
+	}
+
+	@Test
+	public void numbersAreGivenOutFromBlock()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+
+		assertThat(nextSequenceNo(key, 1, 3)).isEqualTo(1000);
+		assertThat(nextSequenceNo(key, 1, 3)).isEqualTo(1001);
+		assertThat(nextSequenceNo(key, 1, 3)).isEqualTo(1002);
+		assertThat(countReserved).isEqualTo(1);
+
+		assertThat(nextSequenceNo(key, 1, 3)).isEqualTo(1003);
+		assertThat(countReserved).isEqualTo(2);
+		assertThat(currentNext.get()).isEqualTo(1006);
+	}
+
+	@Test
+	public void incrementNo()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+
+		assertThat(nextSequenceNo(key, 10, 2)).isEqualTo(1000);
+		assertThat(nextSequenceNo(key, 10, 2)).isEqualTo(1010);
+		assertThat(nextSequenceNo(key, 10, 2)).isEqualTo(1020);
+		assertThat(countReserved).isEqualTo(2);
+	}
+
+	@Test
+	public void calendarYearsHaveSeparateBlocks()
+	{
+		assertThat(nextSequenceNo(BlockKey.of(1, false, "2019"), 1, 10)).isEqualTo(1000);
+		assertThat(nextSequenceNo(BlockKey.of(1, false, "2020"), 1, 10)).isEqualTo(1010);
+		assertThat(nextSequenceNo(BlockKey.of(1, false, "2019"), 1, 10)).isEqualTo(1001);
+		assertThat(countReserved).isEqualTo(2);
+	}
+
+	@Test
+	public void peekSequenceNo()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+		assertThat(documentNoBlocks.peekSequenceNo(key)).isEmpty();
+
+		assertThat(nextSequenceNo(key, 10, 2)).isEqualTo(1000);
+		assertThat(documentNoBlocks.peekSequenceNo(key)).hasValue(1010);
+		assertThat(nextSequenceNo(key, 10, 2)).isEqualTo(1010);
+
+		// block is exhausted => the next number comes from the sequence's CurrentNext
+		assertThat(documentNoBlocks.peekSequenceNo(key)).isEmpty();
+		assertThat(currentNext.get()).isEqualTo(1020);
+		assertThat(countReserved).isEqualTo(1);
+	}
+
+	@Test
+	public void peekSequenceNo_afterInvalidateAll()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+		assertThat(nextSequenceNo(key, 1, 10)).isEqualTo(1000);
+
+		documentNoBlocks.invalidateAll();
+
+		assertThat(documentNoBlocks.peekSequenceNo(key)).isEmpty();
+	}
+
+	@Test
+	public void invalidateAll_dropsRemainingNumbers()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+		assertThat(nextSequenceNo(key, 1, 10)).isEqualTo(1000);
+
+		documentNoBlocks.invalidateAll();
+
+		assertThat(nextSequenceNo(key, 1, 10)).isEqualTo(1010);
+		assertThat(countReserved).isEqualTo(2);
+	}
+}
@@ -0,0 +1,70 @@
+package org.adempiere.ad.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests the SQL part of {@link TableModelLoader#getPOs(java.util.Properties, String, java.util.Set, String)}, which can't run on the in-memory database.
+ */
+public class TableModelLoaderTest
+{
+	@Test
+	public void buildSqlSelectByIds()
+	{
+		final String sql = TableModelLoader.buildSqlSelectByIds(new StringBuilder("SELECT M_HU_ID, Value FROM M_HU"), "M_HU_ID");
+
+		assertThat(sql).isEqualTo("SELECT M_HU_ID, Value FROM M_HU WHERE M_HU_ID=ANY(?)");
+	}
+
+	@Test
+	public void setIdsParameter_bindsAllIdsAsOneArray() throws Exception
+	{
+		final Connection connection = mock(Connection.class);
+		final PreparedStatement pstmt = mock(PreparedStatement.class);
+		final Array sqlArray = mock(Array.class);
+		when(pstmt.getConnection()).thenReturn(connection);
+		when(connection.createArrayOf(eq("numeric"), any(Object[].class))).thenReturn(sqlArray);
+
+		TableModelLoader.setIdsParameter(pstmt, ImmutableSet.of(10, 20, 30));
+
+		final ArgumentCaptor<Object[]> elementsCaptor = ArgumentCaptor.forClass(Object[].class);
+		verify(connection).createArrayOf(eq("numeric"), elementsCaptor.capture());
+		assertThat(elementsCaptor.getValue()).containsExactly(10, 20, 30);
+		verify(pstmt).setArray(1, sqlArray);
+	}
+}
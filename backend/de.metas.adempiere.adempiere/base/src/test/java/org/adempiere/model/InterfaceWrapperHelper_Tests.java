@@ -1,14 +1,17 @@
 package org.adempiere.model;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.util.lang.ITableRecordReference;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.GridTab;
+import org.compiere.model.I_AD_Org;
 import org.compiere.model.I_Test;
 import org.compiere.model.PO;
 import org.compiere.util.Env;
@@ -18,6 +21,11 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.organization.OrgId;
+
 public class InterfaceWrapperHelper_Tests
 {
 	public interface I_TestModel
@@ -246,4 +254,45 @@ public class InterfaceWrapperHelper_Tests
 		assertThatThrownBy(() -> InterfaceWrapperHelper.getTableName(ITaxAware.class, null))
 				.isInstanceOf(InterfaceWrapperHelper.MissingTableNameException.class);
 	}
+
+	@Test
+	public void test_loadByRepoIdAwaresAsMap()
+	{
+		final OrgId orgId1 = createOrg("org1");
+		final OrgId orgId2 = createOrg("org2");
+		final OrgId orgId3 = createOrg("org3");
+		final OrgId missingOrgId = OrgId.ofRepoId(999999);
+
+		final ImmutableMap<OrgId, I_AD_Org> orgsById = InterfaceWrapperHelper.loadByRepoIdAwaresAsMap(
+				ImmutableList.of(orgId3, orgId1, missingOrgId, orgId2, orgId3),
+				I_AD_Org.class);
+
+		assertThat(orgsById.keySet()).containsExactly(orgId3, orgId1, orgId2);
+		assertThat(orgsById.get(orgId1).getName()).isEqualTo("org1");
+		assertThat(orgsById.get(orgId2).getName()).isEqualTo("org2");
+		assertThat(orgsById.get(orgId3).getName()).isEqualTo("org3");
+	}
+
+	@Test
+	public void test_loadByRepoIdAwaresAsMapOrFail()
+	{
+		final OrgId orgId1 = createOrg("org1");
+		final OrgId orgId2 = createOrg("org2");
+		final OrgId missingOrgId = OrgId.ofRepoId(999999);
+
+		assertThat(InterfaceWrapperHelper.loadByRepoIdAwaresAsMapOrFail(ImmutableList.of(orgId2, orgId1), I_AD_Org.class).keySet())
+				.containsExactly(orgId2, orgId1);
+
+		assertThatThrownBy(() -> InterfaceWrapperHelper.loadByRepoIdAwaresAsMapOrFail(ImmutableList.of(orgId1, missingOrgId, orgId2), I_AD_Org.class))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("999999");
+	}
+
+	private OrgId createOrg(final String name)
+	{
+		final I_AD_Org org = InterfaceWrapperHelper.newInstance(I_AD_Org.class, contextProvider);
+		org.setName(name);
+		InterfaceWrapperHelper.saveRecord(org);
+		return OrgId.ofRepoId(org.getAD_Org_ID());
+	}
 }
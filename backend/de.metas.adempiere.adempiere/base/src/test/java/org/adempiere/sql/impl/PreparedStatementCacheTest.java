@@ -0,0 +1,235 @@
+package org.adempiere.sql.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.adempiere.sql.impl.PreparedStatementCache.ConnectionStatementsCache;
+import org.adempiere.sql.impl.PreparedStatementCache.StatementKey;
+import org.compiere.util.CStatementVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PreparedStatementCacheTest
+{
+	private static final StatementKey KEY1 = StatementKey.of("SELECT * FROM C_Order WHERE C_Order_ID=?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+	private static final StatementKey KEY2 = StatementKey.of("SELECT * FROM M_Product WHERE M_Product_ID=?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+	private static final StatementKey KEY3 = StatementKey.of("SELECT * FROM C_UOM WHERE C_UOM_ID=?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+	private final Set<PreparedStatement> closedStatements = new HashSet<>();
+	private final Set<Connection> closedConnections = new HashSet<>();
+	private int countPrepares;
+
+	private PreparedStatementCache parent;
+	private ConnectionStatementsCache cache;
+
+	@BeforeEach
+	public void init()
+	{
+		closedStatements.clear();
+		closedConnections.clear();
+		countPrepares = 0;
+
+		parent = new PreparedStatementCache(2);
+		cache = new ConnectionStatementsCache(createConnection(), 2, parent);
+	}
+
+	private Connection createConnection()
+	{
+		final Connection[] holder = new Connection[1];
+		holder[0] = (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "prepareStatement":
+					countPrepares++;
+					return createPreparedStatement(holder[0]);
+				case "close":
+					closedConnections.add(holder[0]);
+					return null;
+				case "isClosed":
+					return closedConnections.contains(holder[0]);
+				case "toString":
+					return "Connection@" + System.identityHashCode(proxy);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					throw new UnsupportedOperationException(method.toString());
+			}
+		});
+		return holder[0];
+	}
+
+	private PreparedStatement createPreparedStatement(final Connection conn)
+	{
+		final PreparedStatement[] holder = new PreparedStatement[1];
+		holder[0] = (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "close":
+					closedStatements.add(holder[0]);
+					return null;
+				case "isClosed":
+					return closedStatements.contains(holder[0]);
+				case "getConnection":
+					return conn;
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					return null; // clearParameters, setMaxRows etc
+			}
+		});
+		return holder[0];
+	}
+
+	private static CStatementVO vo(final StatementKey key)
+	{
+		return new CStatementVO(key.getResultSetType(), key.getResultSetConcurrency(), key.getSql(), "trxName");
+	}
+
+	@Test
+	public void releasedStatementIsReused() throws Exception
+	{
+		final PreparedStatement pstmt1 = cache.prepareStatement(KEY1);
+		cache.release(pstmt1);
+
+		final PreparedStatement pstmt2 = cache.prepareStatement(KEY1);
+
+		assertThat(pstmt2).isSameAs(pstmt1);
+		assertThat(countPrepares).isEqualTo(1);
+		assertThat(closedStatements).isEmpty();
+		assertThat(parent.getCountHits()).isEqualTo(1);
+		assertThat(parent.getCountMisses()).isEqualTo(1);
+	}
+
+	@Test
+	public void statementInUseIsNotShared() throws Exception
+	{
+		final PreparedStatement pstmt1 = cache.prepareStatement(KEY1);
+		final PreparedStatement pstmt2 = cache.prepareStatement(KEY1);
+
+		assertThat(pstmt2).isNotSameAs(pstmt1);
+		assertThat(countPrepares).isEqualTo(2);
+
+		cache.release(pstmt1);
+		cache.release(pstmt2);
+
+		// only one idle statement per key is kept
+		assertThat(closedStatements).containsExactly(pstmt1);
+		assertThat(cache.getIdleStatementsCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void leastRecentlyUsedStatementIsEvicted() throws Exception
+	{
+		final PreparedStatement pstmt1 = cache.prepareStatement(KEY1);
+		cache.release(pstmt1);
+		final PreparedStatement pstmt2 = cache.prepareStatement(KEY2);
+		cache.release(pstmt2);
+		final PreparedStatement pstmt3 = cache.prepareStatement(KEY3);
+		cache.release(pstmt3);
+
+		assertThat(closedStatements).containsExactly(pstmt1);
+		assertThat(cache.getIdleStatementsCount()).isEqualTo(2);
+		assertThat(parent.getCountEvicted()).isEqualTo(1);
+	}
+
+	@Test
+	public void closedStatementIsNotReused() throws Exception
+	{
+		final PreparedStatement pstmt1 = cache.prepareStatement(KEY1);
+		cache.release(pstmt1);
+		pstmt1.close(); // e.g. the physical connection was closed
+
+		final PreparedStatement pstmt2 = cache.prepareStatement(KEY1);
+
+		assertThat(pstmt2).isNotSameAs(pstmt1);
+		assertThat(countPrepares).isEqualTo(2);
+	}
+
+	@Test
+	public void disabledCache_closesStatementOnRelease() throws Exception
+	{
+		final PreparedStatementCache disabledCache = new PreparedStatementCache(0);
+		final PreparedStatement pstmt = createPreparedStatement(createConnection());
+
+		disabledCache.release(pstmt);
+
+		assertThat(closedStatements).containsExactly(pstmt);
+	}
+
+	@Test
+	public void statementIsReusedOnTheSameConnection() throws Exception
+	{
+		final Connection conn = createConnection();
+
+		final PreparedStatement pstmt1 = parent.prepareStatement(conn, vo(KEY1));
+		parent.release(pstmt1);
+		final PreparedStatement pstmt2 = parent.prepareStatement(conn, vo(KEY1));
+		final PreparedStatement pstmtOtherConnection = parent.prepareStatement(createConnection(), vo(KEY1));
+
+		assertThat(pstmt2).isSameAs(pstmt1);
+		assertThat(pstmtOtherConnection).isNotSameAs(pstmt1);
+		assertThat(parent.getConnectionsCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void evict_closesStatementsAndForgetsConnection() throws Exception
+	{
+		final Connection conn = createConnection();
+		final PreparedStatement idleStatement = parent.prepareStatement(conn, vo(KEY1));
+		parent.release(idleStatement);
+		final PreparedStatement leasedStatement = parent.prepareStatement(conn, vo(KEY2));
+
+		parent.evict(conn);
+
+		assertThat(closedStatements).containsExactly(idleStatement);
+		assertThat(parent.getConnectionsCount()).isZero();
+
+		// a statement which was in use while evicting is closed when it's released
+		parent.release(leasedStatement);
+		assertThat(closedStatements).containsExactlyInAnyOrder(idleStatement, leasedStatement);
+	}
+
+	@Test
+	public void connectionClosedWithoutEvict_isForgotten() throws Exception
+	{
+		final Connection conn1 = createConnection();
+		parent.release(parent.prepareStatement(conn1, vo(KEY1)));
+		conn1.close();
+
+		parent.prepareStatement(createConnection(), vo(KEY1));
+
+		assertThat(parent.getConnectionsCount()).isEqualTo(1);
+	}
+}
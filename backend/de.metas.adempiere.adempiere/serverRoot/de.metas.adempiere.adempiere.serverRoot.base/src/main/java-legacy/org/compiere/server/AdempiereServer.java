@@ -16,11 +16,12 @@
  *****************************************************************************/
 package org.compiere.server;
 
-import static org.adempiere.model.InterfaceWrapperHelper.save;
-
 import java.sql.Timestamp;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.service.IClientDAO;
@@ -43,6 +44,7 @@ import org.slf4j.Logger;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /**
  * Adempiere Server Base
@@ -130,6 +132,16 @@ public abstract class AdempiereServer extends Thread
 	private long m_runTotalMS = 0;
 	/** When to run next */
 	private long m_nextWork = 0;
+	/** Number of MS the last run started later than planned */
+	private long m_lagLastMS = 0;
+	/** Max number of MS a run started later than planned */
+	private long m_lagMaxMS = 0;
+	/** Working right now */
+	private final AtomicBoolean working = new AtomicBoolean(false);
+	/** Number of runs skipped because the previous run was not finished */
+	private final AtomicInteger countSkippedOverlapping = new AtomicInteger(0);
+	/** Number of runs skipped because another node claimed them */
+	private final AtomicInteger countSkippedClaimedByOtherNode = new AtomicInteger(0);
 
 	/** Logger */
 	protected final transient Logger log = LogManager.getLogger(getClass());
@@ -190,16 +202,33 @@ public abstract class AdempiereServer extends Thread
 	}	// sleep
 
 	/**
-	 * Run Now
+	 * Run Now, because the user requested it.
 	 */
 	public final void runNow()
+	{
+		runNow(null);
+	}
+
+	/**
+	 * Run Now, because it was scheduled (e.g. the cron pattern matched), and then plan the given next run.
+	 * Unlike {@link #runNow()}, the run is done only if this node claims it (see {@link AdempiereServerRunClaim}).
+	 *
+	 * @param nextRun when the server shall run the next time (e.g. the cron pattern's next matching time)
+	 */
+	protected final void runScheduledNow(@NonNull final Timestamp nextRun)
+	{
+		runNow(nextRun);
+		setDateNextRun(nextRun);
+	}
+
+	private void runNow(@Nullable final Timestamp claimNextRun)
 	{
 		DB.saveConstraints();
 		try
 		{
 			DB.getConstraints().addAllowedTrxNamePrefix(ITrx.TRXNAME_PREFIX_LOCAL);
 
-			runNow0();
+			runNow0(claimNextRun);
 		}
 		finally
 		{
@@ -207,15 +236,19 @@ public abstract class AdempiereServer extends Thread
 		}
 	}
 
-	private final void runNow0()
+	private final void runNow0(@Nullable final Timestamp claimNextRun)
 	{
 		final String name = getName();
 		log.debug("Starting {}", name);
-		
-		workStartTimeMillis = System.currentTimeMillis();
-		
-		doWork();
-		
+
+		// NOTE: for cron based servers, DateNextRun is the time when the cron pattern matched;
+		// when the run was requested by user, it's in the future, so there is no lag.
+		final Timestamp dateNextRun = getDateNextRun(false);
+		if (!doWorkIfNotRunningElsewhere(dateNextRun != null ? dateNextRun.getTime() : 0, claimNextRun))
+		{
+			return;
+		}
+
 		// ---------------
 
 		final long now = System.currentTimeMillis();
@@ -224,7 +257,7 @@ public abstract class AdempiereServer extends Thread
 		m_runTotalMS += m_runLastMS;
 		//
 		p_model.setDateLastRun(new Timestamp(now));
-		save(p_model, ITrx.TRXNAME_None);
+		p_model.saveOutOfTrx();
 
 		//
 		if (log.isDebugEnabled())
@@ -233,6 +266,51 @@ public abstract class AdempiereServer extends Thread
 		}
 	}	// runNow
 
+	/**
+	 * Calls {@link #doWork()}, unless this server is already working (e.g. a cron triggered run which takes longer than the cron interval)
+	 * or another node claimed this run (see {@link AdempiereServerRunClaim}).
+	 *
+	 * @param plannedStartMillis when the work was supposed to start, used to measure the lag and to claim the run; <code>0</code> if the work was requested to start now
+	 * @param claimNextRun if not null, the work is done only if this node claims the planned run, by moving DateNextRun to this value; <code>null</code> if the run shall not be claimed
+	 * @return true if the work was done
+	 */
+	private boolean doWorkIfNotRunningElsewhere(final long plannedStartMillis, @Nullable final Timestamp claimNextRun)
+	{
+		if (!working.compareAndSet(false, true))
+		{
+			countSkippedOverlapping.incrementAndGet();
+			log.warn("{}: skip running because the previous run is not finished yet", getName());
+			return false;
+		}
+
+		try
+		{
+			if (claimNextRun != null)
+			{
+				if (!AdempiereServerRunClaim.tryClaim(p_model, plannedStartMillis, claimNextRun))
+				{
+					countSkippedClaimedByOtherNode.incrementAndGet();
+					log.debug("{}: skip running because this run was claimed by another node", getName());
+					return false;
+				}
+			}
+
+			workStartTimeMillis = System.currentTimeMillis();
+			if (plannedStartMillis > 0)
+			{
+				m_lagLastMS = Math.max(workStartTimeMillis - plannedStartMillis, 0);
+				m_lagMaxMS = Math.max(m_lagMaxMS, m_lagLastMS);
+			}
+
+			doWork();
+			return true;
+		}
+		finally
+		{
+			working.set(false);
+		}
+	}
+
 	/**************************************************************************
 	 * Run async
 	 */
@@ -327,11 +405,22 @@ public abstract class AdempiereServer extends Thread
 		}
 
 		// ---------------
-		workStartTimeMillis = System.currentTimeMillis();
-		doWork();
+		// provisional next run, until this run is done and the actual next run is saved
+		final Timestamp claimNextRun = new Timestamp(Math.max(System.currentTimeMillis(), m_nextWork) + calculateSleep());
+		final boolean workDone = doWorkIfNotRunningElsewhere(m_nextWork, claimNextRun);
 		now = System.currentTimeMillis();
 		// ---------------
 
+		if (!workDone)
+		{
+			// we were not allowed to do the work this time; just wait for the next run.
+			// if another node did the work, it also saved the next run's date
+			m_sleepMS = calculateSleep();
+			final Timestamp dateNextRun = getDateNextRun(true);
+			m_nextWork = dateNextRun != null && dateNextRun.getTime() > now ? dateNextRun.getTime() : now + m_sleepMS;
+			return false;
+		}
+
 		p_runCount++;
 		m_runLastMS = now - workStartTimeMillis;
 		m_runTotalMS += m_runLastMS;
@@ -383,9 +472,30 @@ public abstract class AdempiereServer extends Thread
 		return "Run #" + p_runCount
 				+ " - Last=" + TimeUtil.formatElapsed(m_runLastMS)
 				+ " - Total=" + TimeUtil.formatElapsed(m_runTotalMS)
-				+ " - Next " + TimeUtil.formatElapsed(m_nextWork - System.currentTimeMillis());
+				+ " - Next " + TimeUtil.formatElapsed(m_nextWork - System.currentTimeMillis())
+				+ " - Lag Last=" + TimeUtil.formatElapsed(m_lagLastMS) + ", Max=" + TimeUtil.formatElapsed(m_lagMaxMS)
+				+ " - Skipped Overlapping=" + countSkippedOverlapping.get() + ", Claimed by other node=" + countSkippedClaimedByOtherNode.get();
 	}	// getStatistics
 
+	/**
+	 * @return run time, lag and overlap metrics of this server
+	 */
+	public final AdempiereServerStatistics getStatisticsData()
+	{
+		return AdempiereServerStatistics.builder()
+				.serverID(getServerID())
+				.name(getName())
+				.working(working.get())
+				.runCount(p_runCount)
+				.runLastMillis(m_runLastMS)
+				.runTotalMillis(m_runTotalMS)
+				.lagLastMillis(m_lagLastMS)
+				.lagMaxMillis(m_lagMaxMS)
+				.countSkippedOverlapping(countSkippedOverlapping.get())
+				.countSkippedClaimedByOtherNode(countSkippedClaimedByOtherNode.get())
+				.build();
+	}
+
 	/**
 	 * Do the actual Work
 	 */
@@ -429,7 +539,7 @@ public abstract class AdempiereServer extends Thread
 		p_model.setDateNextRun(dateNextRun);
 
 		// NOTE: we need to save it because some BL is relying on this (e.g. Scheduler)
-		save(p_model, ITrx.TRXNAME_None);
+		p_model.saveOutOfTrx();
 	}
 
 	/**
@@ -40,6 +40,11 @@ import de.metas.util.Services;
 
 /**
  * Adempiere Server Manager
+ * <p>
+ * TODO: each {@link AdempiereServer} is still a thread of its own, which sleeps until its next run.
+ * Follow-up: run them on a shared scheduled executor with cron/fixed-delay triggers, so the number of threads no longer grows with the number of processors.
+ * This needs {@link AdempiereServer}, this class, ServerMonitor and ManageScheduler to stop relying on the Thread API (start, interrupt, isAlive).
+ * Until then, only the cron based {@link Scheduler}s share one cron4j timer thread.
  *
  * @author Jorg Janke
  * @version $Id: AdempiereServerMgr.java,v 1.4 2006/10/09 00:23:26 jjanke Exp $
@@ -503,6 +508,19 @@ public final class AdempiereServerMgr
 		return retValue;
 	}	// getAll
 
+	/**
+	 * @return run time, lag and overlap metrics of all servers
+	 */
+	public List<AdempiereServerStatistics> getStatistics()
+	{
+		final List<AdempiereServerStatistics> statistics = new ArrayList<>();
+		for (final AdempiereServer server : getAll())
+		{
+			statistics.add(server.getStatisticsData());
+		}
+		return statistics;
+	}
+
 	/**
 	 * Get Server with ID
 	 *
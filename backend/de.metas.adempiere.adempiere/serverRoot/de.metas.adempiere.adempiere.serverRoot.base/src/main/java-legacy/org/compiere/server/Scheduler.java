@@ -128,7 +128,8 @@ public class Scheduler extends AdempiereServer
 
 	//
 	// Cron4J scheduling
-	private it.sauronsoftware.cron4j.Scheduler cronScheduler;
+	/** One cron4j scheduler, i.e. one timer thread, shared by all cron based schedulers of this node */
+	private static it.sauronsoftware.cron4j.Scheduler sharedCronScheduler;
 	private Predictor predictor;
 
 	/**
@@ -728,32 +729,48 @@ public class Scheduler extends AdempiereServer
 		final String cronPattern = m_model.getCronPattern();
 		if (cronPattern != null && cronPattern.trim().length() > 0 && SchedulingPattern.validate(cronPattern))
 		{
-			cronScheduler = new it.sauronsoftware.cron4j.Scheduler();
-			cronScheduler.schedule(cronPattern, () -> {
-				runNow();
-				final long next = predictor.nextMatchingTime();
-				setDateNextRun(new Timestamp(next));
-			});
 			predictor = new Predictor(cronPattern);
 			final long next = predictor.nextMatchingTime();
 			setDateNextRun(new Timestamp(next));
-			cronScheduler.start();
-			while (true)
+
+			final it.sauronsoftware.cron4j.Scheduler cronScheduler = getSharedCronScheduler();
+			final String cronTaskId = cronScheduler.schedule(cronPattern, () -> {
+				final long nextRun = predictor.nextMatchingTime();
+				runScheduledNow(new Timestamp(nextRun));
+			});
+			try
 			{
-				if (!sleep())
-				{
-					cronScheduler.stop();
-					break;
-				}
-				else if (!cronScheduler.isStarted())
+				while (true)
 				{
-					break;
+					if (!sleep())
+					{
+						break;
+					}
+					else if (!cronScheduler.isStarted())
+					{
+						break;
+					}
 				}
 			}
+			finally
+			{
+				cronScheduler.deschedule(cronTaskId);
+			}
 		}
 		else
 		{
 			super.run();
 		}
 	}
+
+	private static synchronized it.sauronsoftware.cron4j.Scheduler getSharedCronScheduler()
+	{
+		if (sharedCronScheduler == null || !sharedCronScheduler.isStarted())
+		{
+			sharedCronScheduler = new it.sauronsoftware.cron4j.Scheduler();
+			sharedCronScheduler.setDaemon(true);
+			sharedCronScheduler.start();
+		}
+		return sharedCronScheduler;
+	}
 }	// Scheduler
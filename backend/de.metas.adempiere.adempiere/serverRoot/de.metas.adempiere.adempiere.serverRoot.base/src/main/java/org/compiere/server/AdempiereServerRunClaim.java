@@ -0,0 +1,124 @@
+package org.compiere.server;
+
+import java.sql.Timestamp;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.AdempiereProcessor;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Claims a planned run of an {@link AdempiereServer}, so when more than one node is running the servers, each run is done by only one of them.
+ * <p>
+ * The claim is a compare-and-set on the processor's persisted <code>DateNextRun</code>: the node which moves it from the planned run to the next one does the run.
+ * The other nodes find it already moved, skip the run and wait for the next one.
+ * It's one auto-committed update, so no connection, transaction or lock is held while the server is working.
+ */
+final class AdempiereServerRunClaim
+{
+	private static final Logger logger = LogManager.getLogger(AdempiereServerRunClaim.class);
+
+	@VisibleForTesting
+	static final String SYSCONFIG_Enabled = "org.compiere.server.AdempiereServer.RunClaim.Enabled";
+
+	private static final String COLUMNNAME_DateNextRun = "DateNextRun";
+
+	private AdempiereServerRunClaim()
+	{
+	}
+
+	/**
+	 * @param plannedRunMillis when the run was planned, i.e. the <code>DateNextRun</code> this node knows about
+	 * @param nextRun the <code>DateNextRun</code> to set if the claim succeeds, i.e. when the server shall run the next time; for non-cron servers it's provisional until the run is done and the server saves the actual next run
+	 * @return true if this node claimed the run and shall do it; false if another node claimed it already
+	 */
+	public static boolean tryClaim(
+			@NonNull final AdempiereProcessor model,
+			final long plannedRunMillis,
+			@NonNull final Timestamp nextRun)
+	{
+		final boolean claimed = tryClaim(model.get_TableName(), model.get_ID(), plannedRunMillis, nextRun);
+		if (claimed)
+		{
+			model.setDateNextRun(nextRun);
+		}
+		return claimed;
+	}
+
+	@VisibleForTesting
+	static boolean tryClaim(
+			@NonNull final String tableName,
+			final int recordId,
+			final long plannedRunMillis,
+			@NonNull final Timestamp nextRun)
+	{
+		if (!Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, true))
+		{
+			return true;
+		}
+
+		// claimable if nobody moved DateNextRun past the run we planned
+		final IQueryBuilder<Object> queryBuilder = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(tableName)
+				.addEqualsFilter(InterfaceWrapperHelper.getKeyColumnName(tableName), recordId);
+		final ICompositeQueryFilter<Object> notClaimedFilter = queryBuilder.addCompositeQueryFilter()
+				.setJoinOr()
+				.addEqualsFilter(COLUMNNAME_DateNextRun, null);
+		final Timestamp plannedRun = toTimestampOrNull(plannedRunMillis);
+		if (plannedRun != null)
+		{
+			// +1ms because the persisted DateNextRun might have sub-millisecond digits which we lost
+			notClaimedFilter.addCompareFilter(COLUMNNAME_DateNextRun, Operator.LESS, new Timestamp(plannedRunMillis + 1));
+		}
+
+		final int countClaimed = queryBuilder
+				.create()
+				.updateDirectly()
+				.addSetColumnValue(COLUMNNAME_DateNextRun, nextRun)
+				.execute();
+
+		final boolean claimed = countClaimed > 0;
+		logger.debug("{}/{}: run planned at {} claimed={}", tableName, recordId, plannedRun, claimed);
+		return claimed;
+	}
+
+	@Nullable
+	private static Timestamp toTimestampOrNull(final long millis)
+	{
+		return millis > 0 ? new Timestamp(millis) : null;
+	}
+}
@@ -0,0 +1,61 @@
+package org.compiere.server;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Run time, lag and overlap metrics of an {@link AdempiereServer}, since it was started on this node.
+ */
+@Value
+@Builder
+public class AdempiereServerStatistics
+{
+	@NonNull
+	String serverID;
+
+	String name;
+
+	/** true if the server is working right now */
+	boolean working;
+
+	int runCount;
+
+	long runLastMillis;
+
+	long runTotalMillis;
+
+	/** how much later than planned the last run started */
+	long lagLastMillis;
+
+	/** how much later than planned a run started, at most */
+	long lagMaxMillis;
+
+	/** how many runs were skipped because the previous run was not finished yet */
+	int countSkippedOverlapping;
+
+	/** how many runs were skipped because another node claimed them */
+	int countSkippedClaimedByOtherNode;
+}
@@ -0,0 +1,139 @@
+package org.compiere.server;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.refresh;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_AD_Scheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AdempiereServerRunClaimTest
+{
+	private static final long PLANNED_RUN_MILLIS = 1_000_000_000_000L;
+	private static final long INTERVAL_MILLIS = 60_000;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static I_AD_Scheduler createScheduler(@Nullable final Timestamp dateNextRun)
+	{
+		final I_AD_Scheduler scheduler = newInstance(I_AD_Scheduler.class);
+		scheduler.setDateNextRun(dateNextRun);
+		saveRecord(scheduler);
+		return scheduler;
+	}
+
+	private static boolean tryClaim(final I_AD_Scheduler scheduler, final long plannedRunMillis)
+	{
+		return AdempiereServerRunClaim.tryClaim(
+				I_AD_Scheduler.Table_Name,
+				scheduler.getAD_Scheduler_ID(),
+				plannedRunMillis,
+				new Timestamp(plannedRunMillis + INTERVAL_MILLIS));
+	}
+
+	private static Timestamp retrieveDateNextRun(final I_AD_Scheduler scheduler)
+	{
+		refresh(scheduler);
+		return scheduler.getDateNextRun();
+	}
+
+	@Test
+	public void plannedRun_claimedOnlyOnce()
+	{
+		final I_AD_Scheduler scheduler = createScheduler(new Timestamp(PLANNED_RUN_MILLIS));
+
+		assertThat(tryClaim(scheduler, PLANNED_RUN_MILLIS)).as("node 1 claims the planned run").isTrue();
+		assertThat(retrieveDateNextRun(scheduler)).isEqualTo(new Timestamp(PLANNED_RUN_MILLIS + INTERVAL_MILLIS));
+
+		assertThat(tryClaim(scheduler, PLANNED_RUN_MILLIS)).as("node 2 finds the planned run claimed").isFalse();
+		assertThat(retrieveDateNextRun(scheduler)).isEqualTo(new Timestamp(PLANNED_RUN_MILLIS + INTERVAL_MILLIS));
+	}
+
+	@Test
+	public void nextRun_claimable()
+	{
+		final I_AD_Scheduler scheduler = createScheduler(new Timestamp(PLANNED_RUN_MILLIS));
+		assertThat(tryClaim(scheduler, PLANNED_RUN_MILLIS)).isTrue();
+
+		assertThat(tryClaim(scheduler, PLANNED_RUN_MILLIS + INTERVAL_MILLIS)).isTrue();
+		assertThat(retrieveDateNextRun(scheduler)).isEqualTo(new Timestamp(PLANNED_RUN_MILLIS + 2 * INTERVAL_MILLIS));
+	}
+
+	@Test
+	public void overdueRun_claimable()
+	{
+		final I_AD_Scheduler scheduler = createScheduler(new Timestamp(PLANNED_RUN_MILLIS - INTERVAL_MILLIS));
+
+		assertThat(tryClaim(scheduler, PLANNED_RUN_MILLIS)).isTrue();
+	}
+
+	@Test
+	public void neverPlannedRun_claimable()
+	{
+		final I_AD_Scheduler scheduler = createScheduler(null);
+
+		assertThat(tryClaim(scheduler, 0)).isTrue();
+		assertThat(tryClaim(scheduler, 0)).isFalse();
+	}
+
+	@Test
+	public void otherScheduler_notAffected()
+	{
+		final I_AD_Scheduler scheduler1 = createScheduler(new Timestamp(PLANNED_RUN_MILLIS));
+		final I_AD_Scheduler scheduler2 = createScheduler(new Timestamp(PLANNED_RUN_MILLIS));
+
+		assertThat(tryClaim(scheduler1, PLANNED_RUN_MILLIS)).isTrue();
+
+		assertThat(retrieveDateNextRun(scheduler2)).isEqualTo(new Timestamp(PLANNED_RUN_MILLIS));
+		assertThat(tryClaim(scheduler2, PLANNED_RUN_MILLIS)).isTrue();
+	}
+
+	@Test
+	public void disabled_alwaysClaimed()
+	{
+		Services.get(ISysConfigBL.class).setValue(AdempiereServerRunClaim.SYSCONFIG_Enabled, false, ClientId.SYSTEM, OrgId.ANY);
+		final I_AD_Scheduler scheduler = createScheduler(new Timestamp(PLANNED_RUN_MILLIS));
+
+		assertThat(tryClaim(scheduler, PLANNED_RUN_MILLIS)).isTrue();
+		assertThat(tryClaim(scheduler, PLANNED_RUN_MILLIS)).isTrue();
+		assertThat(retrieveDateNextRun(scheduler)).isEqualTo(new Timestamp(PLANNED_RUN_MILLIS));
+	}
+}
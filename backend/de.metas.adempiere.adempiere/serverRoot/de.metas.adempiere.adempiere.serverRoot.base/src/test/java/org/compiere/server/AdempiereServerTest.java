@@ -0,0 +1,159 @@
+package org.compiere.server;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.refresh;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+
+import org.adempiere.server.rpl.api.impl.IMPProcessorAdempiereProcessorAdapter;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_IMP_Processor;
+import org.compiere.model.X_IMP_Processor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Drives {@link AdempiereServer#runScheduledNow(Timestamp)} like the cron based {@link Scheduler} does on each tick of its cron pattern.
+ */
+public class AdempiereServerTest
+{
+	/** every minute */
+	private static final Timestamp CRON_TICK1 = Timestamp.valueOf("2020-01-01 10:00:00");
+	private static final Timestamp CRON_TICK2 = Timestamp.valueOf("2020-01-01 10:01:00");
+	private static final Timestamp CRON_TICK3 = Timestamp.valueOf("2020-01-01 10:02:00");
+
+	private int processorId;
+
+	private static class TestServer extends AdempiereServer
+	{
+		private int countWork = 0;
+
+		private TestServer(final I_IMP_Processor processor)
+		{
+			super(new IMPProcessorAdempiereProcessorAdapter(processor), 0);
+		}
+
+		@Override
+		protected void doWork()
+		{
+			countWork++;
+		}
+
+		@Override
+		public String getServerInfo()
+		{
+			return "countWork=" + countWork;
+		}
+	}
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		AdempiereTestHelper.setupContext_AD_Client_IfNotSet();
+
+		final I_IMP_Processor processor = newInstance(I_IMP_Processor.class);
+		processor.setName("test");
+		// the cron pattern decides when to run; the frequency shall not matter
+		processor.setFrequencyType(X_IMP_Processor.FREQUENCYTYPE_Day);
+		processor.setFrequency(1);
+		processor.setDateNextRun(CRON_TICK1);
+		saveRecord(processor);
+		processorId = processor.getIMP_Processor_ID();
+	}
+
+	/**
+	 * @return a server with its own in-memory copy of the processor, like each node has
+	 */
+	private TestServer createServerOnNode()
+	{
+		return new TestServer(load(processorId, I_IMP_Processor.class));
+	}
+
+	private Timestamp retrieveDateNextRun()
+	{
+		final I_IMP_Processor processor = load(processorId, I_IMP_Processor.class);
+		refresh(processor);
+		return processor.getDateNextRun();
+	}
+
+	@Test
+	public void consecutiveCronTicks_singleNode()
+	{
+		final TestServer server = createServerOnNode();
+
+		server.runScheduledNow(CRON_TICK2);
+		assertThat(server.countWork).isEqualTo(1);
+		assertThat(retrieveDateNextRun()).isEqualTo(CRON_TICK2);
+
+		server.runScheduledNow(CRON_TICK3);
+		assertThat(server.countWork).isEqualTo(2);
+		assertThat(retrieveDateNextRun()).isEqualTo(CRON_TICK3);
+
+		assertThat(server.getStatisticsData().getRunCount()).isEqualTo(2);
+		assertThat(server.getStatisticsData().getCountSkippedClaimedByOtherNode()).isZero();
+	}
+
+	@Test
+	public void consecutiveCronTicks_twoNodes_eachTickRunOnce()
+	{
+		final TestServer server1 = createServerOnNode();
+		final TestServer server2 = createServerOnNode();
+
+		// first tick: node 1 is faster
+		server1.runScheduledNow(CRON_TICK2);
+		server2.runScheduledNow(CRON_TICK2);
+		assertThat(server1.countWork).isEqualTo(1);
+		assertThat(server2.countWork).isZero();
+		assertThat(retrieveDateNextRun()).isEqualTo(CRON_TICK2);
+
+		// second tick: node 2 is faster
+		server2.runScheduledNow(CRON_TICK3);
+		server1.runScheduledNow(CRON_TICK3);
+		assertThat(server1.countWork).isEqualTo(1);
+		assertThat(server2.countWork).isEqualTo(1);
+		assertThat(retrieveDateNextRun()).isEqualTo(CRON_TICK3);
+
+		assertThat(server1.getStatisticsData().getCountSkippedClaimedByOtherNode()).isEqualTo(1);
+		assertThat(server2.getStatisticsData().getCountSkippedClaimedByOtherNode()).isEqualTo(1);
+	}
+
+	@Test
+	public void runNow_notClaimed()
+	{
+		final TestServer server1 = createServerOnNode();
+		final TestServer server2 = createServerOnNode();
+		server1.runScheduledNow(CRON_TICK2);
+
+		// e.g. requested by the user via the server monitor
+		server2.runNow();
+
+		assertThat(server2.countWork).isEqualTo(1);
+		assertThat(server2.getStatisticsData().getCountSkippedClaimedByOtherNode()).isZero();
+	}
+}
@@ -32,7 +32,6 @@ import de.metas.costing.CostingDocumentRef;
 import de.metas.costing.CostingMethod;
 import de.metas.costing.CurrentCost;
 import de.metas.costing.ICostDetailService;
-import de.metas.costing.ICurrentCostsRepository;
 import de.metas.material.planning.IResourceProductService;
 import de.metas.material.planning.pporder.PPOrderBOMLineId;
 import de.metas.order.OrderLineId;
@@ -76,7 +75,6 @@ public class ManufacturingStandardCostingMethodHandler implements CostingMethodH
 	private final IProductBL productsService = Services.get(IProductBL.class);
 	private final IResourceProductService resourceProductService = Services.get(IResourceProductService.class);
 	//
-	private final ICurrentCostsRepository currentCostsRepo;
 	private final ICostDetailService costDetailsService;
 	private final CostingMethodHandlerUtils utils;
 
@@ -85,11 +83,9 @@ public class ManufacturingStandardCostingMethodHandler implements CostingMethodH
 			.build();
 
 	public ManufacturingStandardCostingMethodHandler(
-			@NonNull final ICurrentCostsRepository currentCostsRepo,
 			@NonNull final ICostDetailService costDetailsService,
 			@NonNull final CostingMethodHandlerUtils utils)
 	{
-		this.currentCostsRepo = currentCostsRepo;
 		this.costDetailsService = costDetailsService;
 		this.utils = utils;
 	}
@@ -162,10 +158,12 @@ public class ManufacturingStandardCostingMethodHandler implements CostingMethodH
 		return Optional.empty();
 	}
 
+	/**
+	 * NOTE: always get and save the current costs through {@link CostingMethodHandlerUtils}, so that we see the costs of a running batch.
+	 */
 	private CurrentCost getCurrentCost(final CostDetailCreateRequest request)
 	{
-		final CostSegmentAndElement costSegmentAndElement = utils.extractCostSegmentAndElement(request);
-		return currentCostsRepo.getOrCreate(costSegmentAndElement);
+		return utils.getCurrentCost(request);
 	}
 
 	public CostDetailCreateResult createIssueOrReceipt(final CostDetailCreateRequest request)
@@ -184,7 +182,7 @@ public class ManufacturingStandardCostingMethodHandler implements CostingMethodH
 		final CostDetailCreateResult result = utils.toCostDetailCreateResult(costDetail);
 
 		currentCosts.addToCurrentQtyAndCumulate(qty, amt, utils.getQuantityUOMConverter());
-		currentCostsRepo.save(currentCosts);
+		utils.saveCurrentCost(currentCosts);
 
 		return result;
 	}
@@ -216,7 +214,7 @@ public class ManufacturingStandardCostingMethodHandler implements CostingMethodH
 		final CostDetailCreateResult result = utils.toCostDetailCreateResult(costDetail);
 
 		currentCosts.addToCurrentQtyAndCumulate(qty, amt, utils.getQuantityUOMConverter());
-		currentCostsRepo.save(currentCosts);
+		utils.saveCurrentCost(currentCosts);
 
 		return result;
 	}
@@ -239,7 +237,7 @@ public class ManufacturingStandardCostingMethodHandler implements CostingMethodH
 		final CostDetailCreateResult result = utils.toCostDetailCreateResult(costDetail);
 
 		currentCosts.addToCurrentQtyAndCumulate(qty, amt, utils.getQuantityUOMConverter());
-		currentCostsRepo.save(currentCosts);
+		utils.saveCurrentCost(currentCosts);
 
 		return result;
 	}
@@ -455,7 +453,7 @@ public class ManufacturingStandardCostingMethodHandler implements CostingMethodH
 
 	private CostPrice getProductActualCostPrice(@NonNull final CostSegmentAndElement costSegmentAndElement)
 	{
-		return currentCostsRepo.getOrCreate(costSegmentAndElement)
+		return utils.getCurrentCost(costSegmentAndElement)
 				.getCostPrice();
 	}
 }
@@ -145,6 +145,15 @@ public final class BOM
 		return Stream.concat(Stream.of(getCostPrice()), linesCostPrices);
 	}
 
+	/**
+	 * @return the cost prices which are changed by {@link #rollupCosts()}, i.e. the BOM's own cost price and the co-product lines' cost prices
+	 */
+	Stream<BOMCostPrice> streamCostPricesToSave()
+	{
+		final Stream<BOMCostPrice> coProductsCostPrices = getLines().stream().filter(BOMLine::isCoProduct).map(BOMLine::getCostPrice);
+		return Stream.concat(Stream.of(getCostPrice()), coProductsCostPrices);
+	}
+
 	private ImmutableSet<CostElementId> getCostElementIds()
 	{
 		return streamCostPrices()
@@ -1,6 +1,28 @@
 package org.eevolution.costing;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.product.ProductId;
+import de.metas.util.ILoggable;
+import de.metas.util.Loggables;
 import lombok.Builder;
 import lombok.NonNull;
 
@@ -31,24 +53,131 @@ public class BOMCostCalculator
 	// services
 	private final BOMCostCalculatorRepository repository;
 
+	// parameters
+	private final int parallelism;
+
+	/**
+	 * @param parallelism how many BOMs are loaded and rolled up concurrently by {@link #rollup(Set)}; default is 1, i.e. everything happens on the calling thread
+	 */
 	@Builder
-	private BOMCostCalculator(@NonNull final BOMCostCalculatorRepository repository)
+	private BOMCostCalculator(
+			@NonNull final BOMCostCalculatorRepository repository,
+			@Nullable final Integer parallelism)
 	{
 		this.repository = repository;
+		this.parallelism = parallelism != null ? Math.max(parallelism, 1) : 1;
 	}
 
 	public void rollup(final ProductId productId)
 	{
-		final BOM bom = repository.getBOM(productId).orElse(null);
+		rollup(ImmutableSet.of(productId));
+	}
+
+	/**
+	 * Rolls up the costs of the given products' BOMs.
+	 * <p>
+	 * The given BOMs must not depend on each other (e.g. they are all on the same low level).
+	 * So they can be loaded and rolled up concurrently, while they are saved together on the calling thread, i.e. in the caller's transaction.
+	 */
+	public void rollup(@NonNull final Set<ProductId> productIds)
+	{
+		if (productIds.isEmpty())
+		{
+			return;
+		}
+
+		final Map<ProductId, Optional<BOM>> bomsByProductId = computeBOMs(productIds);
+
+		final ImmutableList<BOM> boms = bomsByProductId.values()
+				.stream()
+				.filter(Optional::isPresent)
+				.map(Optional::get)
+				.collect(ImmutableList.toImmutableList());
+		repository.saveAll(boms);
+
+		bomsByProductId.forEach((productId, bom) -> {
+			if (!bom.isPresent())
+			{
+				repository.resetComponentsCostPrices(productId);
+			}
+		});
+	}
+
+	private Map<ProductId, Optional<BOM>> computeBOMs(final Set<ProductId> productIds)
+	{
+		final Map<ProductId, Optional<BOM>> bomsByProductId = new LinkedHashMap<>(productIds.size());
+
+		final int threadsCount = Math.min(parallelism, productIds.size());
+		if (threadsCount <= 1)
+		{
+			for (final ProductId productId : productIds)
+			{
+				bomsByProductId.put(productId, computeBOM(productId));
+			}
+			return bomsByProductId;
+		}
+
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		final ILoggable loggable = Loggables.get();
+		final ILoggable threadSafeLoggable = (msg, msgParameters) -> {
+			synchronized (loggable)
+			{
+				return loggable.addLog(msg, msgParameters);
+			}
+		};
 
-		if (bom != null)
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(getClass().getSimpleName())
+				.setDaemon(true)
+				.build();
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount, threadFactory);
+		try
 		{
-			bom.rollupCosts();
-			repository.save(bom);
+			final Map<ProductId, Future<Optional<BOM>>> futures = new LinkedHashMap<>(productIds.size());
+			for (final ProductId productId : productIds)
+			{
+				futures.put(productId, executor.submit(() -> computeBOM(productId, ctx, threadSafeLoggable)));
+			}
+
+			for (final Map.Entry<ProductId, Future<Optional<BOM>>> entry : futures.entrySet())
+			{
+				bomsByProductId.put(entry.getKey(), entry.getValue().get());
+			}
 		}
-		else
+		catch (final InterruptedException ex)
 		{
-			repository.resetComponentsCostPrices(productId);
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
 		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		return bomsByProductId;
+	}
+
+	private Optional<BOM> computeBOM(
+			final ProductId productId,
+			final Properties ctx,
+			final ILoggable threadSafeLoggable)
+	{
+		// NOTE: we are on a worker thread, so the caller's context and loggable are not available and we have to set them up again
+		try (final IAutoCloseable ctxRestorer = Env.switchContext(Env.copyCtx(ctx));
+				final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(threadSafeLoggable))
+		{
+			return computeBOM(productId);
+		}
+	}
+
+	private Optional<BOM> computeBOM(final ProductId productId)
+	{
+		final Optional<BOM> bom = repository.getBOM(productId);
+		bom.ifPresent(BOM::rollupCosts);
+		return bom;
 	}
 }
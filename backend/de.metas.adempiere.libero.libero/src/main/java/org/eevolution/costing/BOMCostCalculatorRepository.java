@@ -1,5 +1,6 @@
 package org.eevolution.costing;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import de.metas.product.ProductId;
@@ -32,5 +33,13 @@ public interface BOMCostCalculatorRepository
 
 	void save(BOM bom);
 
+	/**
+	 * Saves the given BOMs which were rolled up together. Implementations may save them in one go.
+	 */
+	default void saveAll(final Collection<BOM> boms)
+	{
+		boms.forEach(this::save);
+	}
+
 	void resetComponentsCostPrices(ProductId productId);
 }
@@ -1,12 +1,18 @@
 package org.eevolution.costing;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.mm.attributes.AttributeSetInstanceId;
 import org.adempiere.service.ClientId;
 import org.compiere.Adempiere;
@@ -19,6 +25,9 @@ import org.eevolution.model.I_PP_Product_BOMLine;
 import org.eevolution.model.I_PP_Product_Planning;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 import de.metas.acct.api.AcctSchema;
 import de.metas.costing.CostSegment;
@@ -73,8 +82,11 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 	private final IProductBL productBL = Services.get(IProductBL.class);
 	private final IProductCostingBL productCostingBL = Services.get(IProductCostingBL.class);
 	//
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final ICurrentCostsRepository currentCostsRepo = Adempiere.getBean(ICurrentCostsRepository.class);
 
+	private static final int IN_ARRAY_CHUNK_SIZE = 1000;
+
 	// parameters
 	private final ClientId clientId;
 	private final OrgId orgId;
@@ -82,6 +94,9 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 	private final CostTypeId costTypeId;
 	private final CostingMethod costingMethod;
 
+	// state
+	private final Map<ProductId, List<CurrentCost>> prefetchedCostsByProductId = new ConcurrentHashMap<>();
+
 	@Builder
 	private BatchProcessBOMCostCalculatorRepository(
 			@NonNull final ClientId clientId,
@@ -123,7 +138,7 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 		if (productBOMId == null)
 		{
 			createNotice(productId, "@NotFound@ @PP_Product_BOM_ID@");
-			return null;
+			return Optional.empty();
 		}
 
 		final I_PP_Product_BOM bomRecord = productBOMsRepo.getById(productBOMId);
@@ -156,9 +171,7 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 
 	private BOMCostPrice getBOMCostPrice(final ProductId productId)
 	{
-		final CostSegment costSegment = createCostSegment(productId);
-
-		final List<BOMCostElementPrice> costElementPrices = currentCostsRepo.getByCostSegmentAndCostingMethod(costSegment, costingMethod)
+		final List<BOMCostElementPrice> costElementPrices = getCurrentCosts(productId)
 				.stream()
 				.map(this::toBOMCostElementPrice)
 				.collect(ImmutableList.toImmutableList());
@@ -169,6 +182,61 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 				.build();
 	}
 
+	private List<CurrentCost> getCurrentCosts(final ProductId productId)
+	{
+		final List<CurrentCost> prefetchedCosts = prefetchedCostsByProductId.get(productId);
+		if (prefetchedCosts != null)
+		{
+			return prefetchedCosts;
+		}
+
+		final CostSegment costSegment = createCostSegment(productId);
+		return currentCostsRepo.getByCostSegmentAndCostingMethod(costSegment, costingMethod);
+	}
+
+	/**
+	 * Loads the current costs of the given BOM products and of all their components with a few queries,
+	 * so that the following {@link #getBOM(ProductId)} calls don't have to query them one by one.
+	 * <p>
+	 * Call this method on the thread which will also save the costs, so that the costs which were saved but not yet committed are seen.
+	 */
+	public void prefetchCosts(@NonNull final Set<ProductId> bomProductIds)
+	{
+		prefetchedCostsByProductId.clear();
+		if (bomProductIds.isEmpty())
+		{
+			return;
+		}
+
+		final Set<ProductId> productIds = new HashSet<>(bomProductIds);
+		for (final List<ProductId> bomProductIdsChunk : Iterables.partition(bomProductIds, IN_ARRAY_CHUNK_SIZE))
+		{
+			queryBL.createQueryBuilder(I_PP_Product_BOM.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_PP_Product_BOM.COLUMNNAME_M_Product_ID, bomProductIdsChunk)
+					.andCollectChildren(I_PP_Product_BOMLine.COLUMN_PP_Product_BOM_ID)
+					.addOnlyActiveRecordsFilter()
+					.create()
+					.listDistinct(I_PP_Product_BOMLine.COLUMNNAME_M_Product_ID, Integer.class)
+					.forEach(componentId -> productIds.add(ProductId.ofRepoId(componentId)));
+		}
+
+		final ImmutableSet<CostSegment> costSegments = productIds.stream()
+				.map(this::createCostSegment)
+				.collect(ImmutableSet.toImmutableSet());
+		final ImmutableListMultimap<ProductId, CurrentCost> costsByProductId = currentCostsRepo.getByCostSegmentsAndCostingMethod(costSegments, costingMethod)
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(currentCost -> currentCost.getCostSegment().getProductId(), currentCost -> currentCost));
+
+		// also remember the products which have no costs at all, so we won't query them again
+		productIds.forEach(productId -> prefetchedCostsByProductId.put(productId, costsByProductId.get(productId)));
+	}
+
+	public void clearPrefetchedCosts()
+	{
+		prefetchedCostsByProductId.clear();
+	}
+
 	private CostSegment createCostSegment(final ProductId productId)
 	{
 		final CostingLevel costingLevel = productCostingBL.getCostingLevel(productId, acctSchema);
@@ -220,19 +288,45 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 	@Override
 	public void save(final BOM bom)
 	{
-		final Set<CurrentCostId> costIds = bom.getCostIds(CurrentCostId.class);
+		saveAll(ImmutableList.of(bom));
+	}
+
+	/**
+	 * Saves the cost prices which were changed by {@link BOM#rollupCosts()}, for all given BOMs at once.
+	 */
+	@Override
+	public void saveAll(@NonNull final Collection<BOM> boms)
+	{
+		final ImmutableList<BOMCostPrice> costPricesToSave = boms.stream()
+				.flatMap(BOM::streamCostPricesToSave)
+				.collect(ImmutableList.toImmutableList());
+		if (costPricesToSave.isEmpty())
+		{
+			return;
+		}
+
+		final Set<CurrentCostId> costIds = costPricesToSave.stream()
+				.flatMap(bomCostPrice -> bomCostPrice.streamIds(CurrentCostId.class))
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
 
 		final Map<CurrentCostId, CurrentCost> existingCostsById = currentCostsRepo.getByIds(costIds)
 				.stream()
 				.collect(GuavaCollectors.toImmutableMapByKey(CurrentCost::getId));
 
-		bom.streamCostPrices()
-				.forEach(bomCostPrice -> save(bomCostPrice, existingCostsById));
+		final List<CurrentCost> costsToSave = new ArrayList<>();
+		for (final BOMCostPrice bomCostPrice : costPricesToSave)
+		{
+			collectCostsToSave(bomCostPrice, existingCostsById, costsToSave);
+		}
+
+		currentCostsRepo.saveAll(costsToSave);
 	}
 
-	private void save(
+	private void collectCostsToSave(
 			@NonNull final BOMCostPrice bomCostPrice,
-			final Map<CurrentCostId, CurrentCost> existingCostsByRepoId)
+			final Map<CurrentCostId, CurrentCost> existingCostsByRepoId,
+			final List<CurrentCost> costsToSave)
 	{
 		final ProductId productId = bomCostPrice.getProductId();
 
@@ -247,7 +341,7 @@ public class BatchProcessBOMCostCalculatorRepository implements BOMCostCalculato
 			}
 
 			existingCost.setCostPrice(elementPrice.getCostPrice());
-			currentCostsRepo.save(existingCost);
+			costsToSave.add(existingCost);
 			elementPrice.setId(existingCost.getId());
 		}
 	}
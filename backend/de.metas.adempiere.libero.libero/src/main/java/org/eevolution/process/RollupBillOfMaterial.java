@@ -22,6 +22,7 @@ import java.util.Set;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_M_Cost;
 import org.compiere.model.I_M_CostElement;
 import org.compiere.model.I_M_Product;
@@ -45,6 +46,8 @@ import de.metas.util.Services;
  */
 public class RollupBillOfMaterial extends JavaProcess
 {
+	private static final String SYSCONFIG_Parallelism = "org.eevolution.process.RollupBillOfMaterial.Parallelism";
+
 	// services
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 
@@ -120,14 +123,23 @@ public class RollupBillOfMaterial extends JavaProcess
 
 		final BOMCostCalculator calculator = BOMCostCalculator.builder()
 				.repository(bomCostCalculatorRepo)
+				.parallelism(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_Parallelism, 1))
 				.build();
 
+		// the products of one low level only depend on the levels below, which were already rolled up and saved
 		final int maxLowLevel = getMaxLowLevel();
 		for (int lowLevel = maxLowLevel; lowLevel >= 0; lowLevel--)
 		{
-			for (final ProductId productId : getProductIdsByLowLevel(lowLevel))
+			final Set<ProductId> productIds = getProductIdsByLowLevel(lowLevel);
+
+			bomCostCalculatorRepo.prefetchCosts(productIds);
+			try
+			{
+				calculator.rollup(productIds);
+			}
+			finally
 			{
-				calculator.rollup(productId);
+				bomCostCalculatorRepo.clearPrefetchedCosts();
 			}
 		}
 
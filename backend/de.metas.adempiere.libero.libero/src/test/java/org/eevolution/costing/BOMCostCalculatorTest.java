@@ -0,0 +1,233 @@
+package org.eevolution.costing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eevolution.costing.BOMAssertUtils.assertComponentsCostPrice;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.eevolution.api.BOMComponentType;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.costing.CostAmount;
+import de.metas.costing.CostElementId;
+import de.metas.costing.CostPrice;
+import de.metas.money.CurrencyId;
+import de.metas.product.ProductId;
+import de.metas.quantity.Quantity;
+import de.metas.uom.impl.UOMTestHelper;
+
+/*
+ * #%L
+ * de.metas.adempiere.libero.libero
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BOMCostCalculatorTest
+{
+	private final CostElementId costElementId = CostElementId.ofRepoId(1);
+	private final CurrencyId currencyId = CurrencyId.ofRepoId(1);
+
+	private I_C_UOM uom_Each;
+	private InMemoryBOMCostCalculatorRepository repository;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final UOMTestHelper uomHelper = new UOMTestHelper();
+		uom_Each = uomHelper.createUOM("Each", 1);
+
+		repository = new InMemoryBOMCostCalculatorRepository();
+	}
+
+	/**
+	 * Creates a BOM with one component whose own cost price is the given one and which is needed 5 times.
+	 */
+	private void createBOM(final int bomProductId, final int componentId, final int componentCostPrice)
+	{
+		final ProductId productId = ProductId.ofRepoId(bomProductId);
+		repository.bomsByProductId.put(productId, BOM.builder()
+				.productId(productId)
+				.costPrice(BOMCostPrice.builder()
+						.productId(productId)
+						.build())
+				.line(BOMLine.builder()
+						.componentId(ProductId.ofRepoId(componentId))
+						.componentType(BOMComponentType.Component)
+						.qty(Quantity.of(5, uom_Each))
+						.costPrice(BOMCostPrice.builder()
+								.productId(ProductId.ofRepoId(componentId))
+								.costElementPrice(BOMCostElementPrice.builder()
+										.costElementId(costElementId)
+										.costPrice(CostPrice.builder()
+												.ownCostPrice(CostAmount.of(componentCostPrice, currencyId))
+												.componentsCostPrice(CostAmount.zero(currencyId))
+												.build())
+										.build())
+								.build())
+						.build())
+				.build());
+	}
+
+	private static Set<ProductId> productIds(final int... repoIds)
+	{
+		final ImmutableSet.Builder<ProductId> productIds = ImmutableSet.builder();
+		for (final int repoId : repoIds)
+		{
+			productIds.add(ProductId.ofRepoId(repoId));
+		}
+		return productIds.build();
+	}
+
+	@Test
+	public void rollup_singleProduct()
+	{
+		createBOM(100, 101, 10);
+
+		BOMCostCalculator.builder()
+				.repository(repository)
+				.build()
+				.rollup(ProductId.ofRepoId(100));
+
+		assertThat(repository.savedBOMs).hasSize(1);
+		assertComponentsCostPrice(repository.savedBOMs.get(0).get(0), costElementId, 50);
+		assertThat(repository.resetProductIds).isEmpty();
+	}
+
+	@Test
+	public void rollup_sequential()
+	{
+		createBOM(100, 101, 10);
+		createBOM(200, 201, 20);
+
+		BOMCostCalculator.builder()
+				.repository(repository)
+				.build()
+				.rollup(productIds(100, 300, 200));
+
+		assertThat(repository.getBOMThreads).containsOnly(Thread.currentThread());
+		assertSavedAndReset();
+	}
+
+	@Test
+	public void rollup_parallel()
+	{
+		createBOM(100, 101, 10);
+		createBOM(200, 201, 20);
+
+		BOMCostCalculator.builder()
+				.repository(repository)
+				.parallelism(3)
+				.build()
+				.rollup(productIds(100, 300, 200));
+
+		assertThat(repository.getBOMThreads).doesNotContain(Thread.currentThread());
+		assertSavedAndReset();
+	}
+
+	/**
+	 * Sequential and parallel rollup shall have the same result: the BOMs are saved together and in the given order, on the calling thread.
+	 */
+	private void assertSavedAndReset()
+	{
+		assertThat(repository.savedBOMs).hasSize(1);
+		final List<BOM> savedBOMs = repository.savedBOMs.get(0);
+		assertThat(savedBOMs).extracting(BOM::getProductId).containsExactly(ProductId.ofRepoId(100), ProductId.ofRepoId(200));
+		assertComponentsCostPrice(savedBOMs.get(0), costElementId, 50);
+		assertComponentsCostPrice(savedBOMs.get(1), costElementId, 100);
+		assertThat(repository.saveThreads).containsOnly(Thread.currentThread());
+
+		assertThat(repository.resetProductIds).containsExactly(ProductId.ofRepoId(300));
+	}
+
+	@Test
+	public void rollup_parallel_failurePropagatesAndNothingIsSaved()
+	{
+		createBOM(100, 101, 10);
+		createBOM(200, 201, 20);
+		repository.failingProductId = ProductId.ofRepoId(200);
+
+		final BOMCostCalculator calculator = BOMCostCalculator.builder()
+				.repository(repository)
+				.parallelism(2)
+				.build();
+		assertThatThrownBy(() -> calculator.rollup(productIds(100, 200)))
+				.hasMessageContaining("failing on purpose");
+
+		assertThat(repository.savedBOMs).isEmpty();
+		assertThat(repository.resetProductIds).isEmpty();
+	}
+
+	private static class InMemoryBOMCostCalculatorRepository implements BOMCostCalculatorRepository
+	{
+		private final Map<ProductId, BOM> bomsByProductId = new HashMap<>();
+		private ProductId failingProductId;
+
+		private final List<Thread> getBOMThreads = new CopyOnWriteArrayList<>();
+		private final List<Thread> saveThreads = new ArrayList<>();
+		private final List<List<BOM>> savedBOMs = new ArrayList<>();
+		private final List<ProductId> resetProductIds = new ArrayList<>();
+
+		@Override
+		public Optional<BOM> getBOM(final ProductId productId)
+		{
+			getBOMThreads.add(Thread.currentThread());
+			if (productId.equals(failingProductId))
+			{
+				throw new AdempiereException("failing on purpose");
+			}
+			return Optional.ofNullable(bomsByProductId.get(productId));
+		}
+
+		@Override
+		public void save(final BOM bom)
+		{
+			saveAll(ImmutableList.of(bom));
+		}
+
+		@Override
+		public void saveAll(final Collection<BOM> boms)
+		{
+			saveThreads.add(Thread.currentThread());
+			savedBOMs.add(ImmutableList.copyOf(boms));
+		}
+
+		@Override
+		public void resetComponentsCostPrices(final ProductId productId)
+		{
+			resetProductIds.add(productId);
+		}
+	}
+}
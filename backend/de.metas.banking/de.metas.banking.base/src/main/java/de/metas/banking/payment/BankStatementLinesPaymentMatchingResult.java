@@ -0,0 +1,69 @@
+package de.metas.banking.payment;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.banking.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Statistics of matching many bank statement lines to existing payments.
+ */
+@Value
+@Builder
+public class BankStatementLinesPaymentMatchingResult
+{
+	int countLines;
+
+	/** lines which were already reconciled or which have no bpartner */
+	int countSkipped;
+
+	/** lines which were linked to the only matching existing payment */
+	int countLinkedToExistingPayment;
+
+	/** lines for which more than one matching payment was found; they have to be reconciled manually */
+	int countAmbiguous;
+
+	/** lines for which no matching payment was found, so a new payment was created */
+	int countPaymentsCreated;
+
+	@NonNull
+	Duration duration;
+
+	/**
+	 * @return how many of the lines that were considered for matching were linked to an existing payment, in percent
+	 */
+	public int getHitRatePercent()
+	{
+		final int countConsidered = countLines - countSkipped;
+		return countConsidered > 0 ? countLinkedToExistingPayment * 100 / countConsidered : 0;
+	}
+
+	public double getLinesPerSecond()
+	{
+		final long millis = duration.toMillis();
+		return millis > 0 ? countLines * 1000.0 / millis : countLines;
+	}
+}
@@ -30,6 +30,7 @@ import org.compiere.model.I_C_BankStatement;
 import org.compiere.model.I_C_BankStatementLine;
 import org.compiere.model.I_C_Payment;
 
+import java.util.List;
 import java.util.Set;
 
 public interface IBankStatementPaymentBL extends ISingletonService
@@ -38,6 +39,12 @@ public interface IBankStatementPaymentBL extends ISingletonService
 
 	void findOrCreateSinglePaymentAndLinkIfPossible(I_C_BankStatement bankStatement, I_C_BankStatementLine line);
 
+	/**
+	 * Same as {@link #findOrCreateSinglePaymentAndLinkIfPossible(I_C_BankStatement, I_C_BankStatementLine)} for each line,
+	 * but the eligible payments of all lines are loaded at once and a payment is linked to at most one line.
+	 */
+	BankStatementLinesPaymentMatchingResult findOrCreateSinglePaymentsAndLinkIfPossible(I_C_BankStatement bankStatement, List<I_C_BankStatementLine> lines);
+
 	void createSinglePaymentAndLink(I_C_BankStatement bankStatement, I_C_BankStatementLine bankStatementLine);
 
 	void linkSinglePayment(@NonNull I_C_BankStatement bankStatement, @NonNull I_C_BankStatementLine bankStatementLine, @NonNull PaymentId paymentId);
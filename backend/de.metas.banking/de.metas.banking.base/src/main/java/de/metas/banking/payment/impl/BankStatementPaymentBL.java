@@ -22,11 +22,16 @@
 
 package de.metas.banking.payment.impl;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import de.metas.banking.BankStatementId;
 import de.metas.banking.BankStatementLineId;
 import de.metas.banking.api.BankAccountId;
 import de.metas.banking.payment.BankStatementLineMultiPaymentLinkRequest;
 import de.metas.banking.payment.BankStatementLineMultiPaymentLinkResult;
+import de.metas.banking.payment.BankStatementLinesPaymentMatchingResult;
+import de.metas.banking.payment.BankStatementLinesPaymentMatchingResult.BankStatementLinesPaymentMatchingResultBuilder;
 import de.metas.banking.payment.IBankStatementPaymentBL;
 import de.metas.banking.payment.PaymentLinkResult;
 import de.metas.banking.service.IBankStatementBL;
@@ -58,8 +63,11 @@ import org.compiere.model.I_C_Payment;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class BankStatementPaymentBL implements IBankStatementPaymentBL
@@ -80,34 +88,64 @@ public class BankStatementPaymentBL implements IBankStatementPaymentBL
 			@NonNull final I_C_BankStatement bankStatement,
 			@NonNull final I_C_BankStatementLine bankStatementLine)
 	{
-		// Bank Statement Line is already reconciled => do nothing
-		if (bankStatementLine.isReconciled())
-		{
-			return;
-		}
+		findOrCreateSinglePaymentsAndLinkIfPossible(bankStatement, ImmutableList.of(bankStatementLine));
+	}
+
+	@Override
+	public BankStatementLinesPaymentMatchingResult findOrCreateSinglePaymentsAndLinkIfPossible(
+			@NonNull final I_C_BankStatement bankStatement,
+			@NonNull final List<I_C_BankStatementLine> bankStatementLines)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final BankStatementLinesPaymentMatchingResultBuilder result = BankStatementLinesPaymentMatchingResult.builder()
+				.countLines(bankStatementLines.size());
 
+		// Bank Statement Line is already reconciled => do nothing
 		// if BPartner is not set, we cannot match it or generate a new payment
-		final BPartnerId bpartnerId = BPartnerId.ofRepoIdOrNull(bankStatementLine.getC_BPartner_ID());
-		if (bpartnerId == null)
+		final ImmutableList<I_C_BankStatementLine> linesToMatch = bankStatementLines.stream()
+				.filter(line -> !line.isReconciled())
+				.filter(line -> line.getC_BPartner_ID() > 0)
+				.collect(ImmutableList.toImmutableList());
+		result.countSkipped(bankStatementLines.size() - linesToMatch.size());
+
+		final ImmutableSet<BPartnerId> bpartnerIds = linesToMatch.stream()
+				.map(line -> BPartnerId.ofRepoId(line.getC_BPartner_ID()))
+				.collect(ImmutableSet.toImmutableSet());
+		final EligiblePaymentsIndex eligiblePayments = EligiblePaymentsIndex.load(paymentBL, bpartnerIds);
+
+		int countLinkedToExistingPayment = 0;
+		int countAmbiguous = 0;
+		int countPaymentsCreated = 0;
+		for (final I_C_BankStatementLine bankStatementLine : linesToMatch)
 		{
-			return;
+			final BPartnerId bpartnerId = BPartnerId.ofRepoId(bankStatementLine.getC_BPartner_ID());
+			final List<I_C_Payment> eligiblePaymentsOfLine = eligiblePayments.getEligiblePayments(bpartnerId, extractStatementAmt(bankStatementLine));
+			if (eligiblePaymentsOfLine.size() > 1)
+			{
+				// Don't create a new Payment and don't link any of the existing payments if there are multiple payments found.
+				// The user must fix this case manually by choosing the correct Payment
+				countAmbiguous++;
+			}
+			else if (eligiblePaymentsOfLine.size() == 1)
+			{
+				final I_C_Payment payment = eligiblePaymentsOfLine.get(0);
+				linkSinglePayment(bankStatement, bankStatementLine, payment);
+				eligiblePayments.remove(payment);
+				countLinkedToExistingPayment++;
+			}
+			else
+			{
+				createSinglePaymentAndLink(bankStatement, bankStatementLine);
+				countPaymentsCreated++;
+			}
 		}
 
-		final Set<PaymentId> eligiblePaymentIds = findEligiblePaymentIds(bankStatementLine, bpartnerId, 2);
-		if (eligiblePaymentIds.size() > 1)
-		{
-			// Don't create a new Payment and don't link any of the existing payments if there are multiple payments found.
-			// The user must fix this case manually by choosing the correct Payment
-		}
-		else if (eligiblePaymentIds.size() == 1)
-		{
-			final PaymentId paymentId = eligiblePaymentIds.iterator().next();
-			linkSinglePayment(bankStatement, bankStatementLine, paymentId);
-		}
-		else
-		{
-			createSinglePaymentAndLink(bankStatement, bankStatementLine);
-		}
+		return result
+				.countLinkedToExistingPayment(countLinkedToExistingPayment)
+				.countAmbiguous(countAmbiguous)
+				.countPaymentsCreated(countPaymentsCreated)
+				.duration(Duration.ofMillis(stopwatch.elapsed(TimeUnit.MILLISECONDS)))
+				.build();
 	}
 
 	@Override
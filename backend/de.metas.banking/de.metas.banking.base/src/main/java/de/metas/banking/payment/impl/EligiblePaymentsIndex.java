@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * de.metas.banking.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.banking.payment.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.compiere.model.IQuery;
+import org.compiere.model.I_C_Payment;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.document.engine.DocStatus;
+import de.metas.money.CurrencyId;
+import de.metas.money.Money;
+import de.metas.payment.PaymentDirection;
+import de.metas.payment.api.IPaymentBL;
+import de.metas.payment.api.PaymentQuery;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Completed and not yet reconciled payments, indexed by bpartner, direction and pay amount.
+ * <p>
+ * Used to find the eligible payments for many bank statement lines without querying the database for each line.
+ */
+final class EligiblePaymentsIndex
+{
+	private static final int IN_ARRAY_CHUNK_SIZE = 1000;
+
+	private final Map<PaymentKey, List<I_C_Payment>> paymentsByKey = new HashMap<>();
+
+	public static EligiblePaymentsIndex load(
+			@NonNull final IPaymentBL paymentBL,
+			@NonNull final Collection<BPartnerId> bpartnerIds)
+	{
+		final EligiblePaymentsIndex index = new EligiblePaymentsIndex();
+
+		for (final List<BPartnerId> bpartnerIdsChunk : Iterables.partition(ImmutableSet.copyOf(bpartnerIds), IN_ARRAY_CHUNK_SIZE))
+		{
+			paymentBL.getPayments(PaymentQuery.builder()
+					.limit(IQuery.NO_LIMIT)
+					.docStatus(DocStatus.Completed)
+					.reconciled(false)
+					.bpartnerIds(ImmutableSet.copyOf(bpartnerIdsChunk))
+					.build())
+					.forEach(index::add);
+		}
+
+		return index;
+	}
+
+	private void add(@NonNull final I_C_Payment payment)
+	{
+		paymentsByKey.computeIfAbsent(PaymentKey.of(payment), k -> new ArrayList<>()).add(payment);
+	}
+
+	/**
+	 * @return the payments of given bpartner which match the given bank statement amount
+	 */
+	public ImmutableList<I_C_Payment> getEligiblePayments(
+			@NonNull final BPartnerId bpartnerId,
+			@NonNull final Money statementAmt)
+	{
+		final List<I_C_Payment> payments = paymentsByKey.get(PaymentKey.of(bpartnerId, statementAmt));
+		return payments != null ? ImmutableList.copyOf(payments) : ImmutableList.of();
+	}
+
+	/**
+	 * Removes given payment from index, because it was linked to a bank statement line and it's no longer eligible for other lines.
+	 */
+	public void remove(@NonNull final I_C_Payment payment)
+	{
+		final List<I_C_Payment> payments = paymentsByKey.get(PaymentKey.of(payment));
+		if (payments != null)
+		{
+			payments.removeIf(existingPayment -> existingPayment.getC_Payment_ID() == payment.getC_Payment_ID());
+		}
+	}
+
+	@Value
+	private static class PaymentKey
+	{
+		@NonNull
+		BPartnerId bpartnerId;
+		@NonNull
+		PaymentDirection direction;
+		@NonNull
+		CurrencyId currencyId;
+		/** pay amount without trailing zeros, so it's matched like the database does */
+		@NonNull
+		BigDecimal payAmt;
+
+		static PaymentKey of(@NonNull final I_C_Payment payment)
+		{
+			return new PaymentKey(
+					BPartnerId.ofRepoId(payment.getC_BPartner_ID()),
+					PaymentDirection.ofReceiptFlag(payment.isReceipt()),
+					CurrencyId.ofRepoId(payment.getC_Currency_ID()),
+					payment.getPayAmt().stripTrailingZeros());
+		}
+
+		static PaymentKey of(@NonNull final BPartnerId bpartnerId, @NonNull final Money statementAmt)
+		{
+			final PaymentDirection direction = PaymentDirection.ofBankStatementAmount(statementAmt);
+			final Money payAmt = direction.convertStatementAmtToPayAmt(statementAmt);
+			return new PaymentKey(
+					bpartnerId,
+					direction,
+					payAmt.getCurrencyId(),
+					payAmt.toBigDecimal().stripTrailingZeros());
+		}
+	}
+}
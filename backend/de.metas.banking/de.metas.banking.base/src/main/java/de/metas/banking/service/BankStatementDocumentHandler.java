@@ -16,6 +16,7 @@ import org.compiere.model.X_C_DocType;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableList;
 
@@ -23,6 +24,7 @@ import de.metas.acct.api.IFactAcctDAO;
 import de.metas.banking.BankStatementId;
 import de.metas.banking.BankStatementLineId;
 import de.metas.banking.BankStatementLineReference;
+import de.metas.banking.payment.BankStatementLinesPaymentMatchingResult;
 import de.metas.banking.payment.IBankStatementPaymentBL;
 import de.metas.document.engine.DocStatus;
 import de.metas.document.engine.DocumentHandler;
@@ -32,6 +34,7 @@ import de.metas.i18n.IMsgBL;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.TranslatableStringBuilder;
 import de.metas.i18n.TranslatableStrings;
+import de.metas.logging.LogManager;
 import de.metas.payment.PaymentId;
 import de.metas.payment.api.IPaymentBL;
 import de.metas.payment.api.PaymentReconcileReference;
@@ -65,6 +68,8 @@ import lombok.NonNull;
 
 public class BankStatementDocumentHandler implements DocumentHandler
 {
+	private static final Logger logger = LogManager.getLogger(BankStatementDocumentHandler.class);
+
 	private final IBankStatementPaymentBL bankStatmentPaymentBL = Services.get(IBankStatementPaymentBL.class);
 	private final IBankStatementDAO bankStatementDAO = Services.get(IBankStatementDAO.class);
 	private final IBankStatementBL bankStatementBL = Services.get(IBankStatementBL.class);
@@ -259,10 +264,13 @@ public class BankStatementDocumentHandler implements DocumentHandler
 					bankStatementDAO.save(lineFrom);
 				}
 			}
-
-			bankStatmentPaymentBL.findOrCreateSinglePaymentAndLinkIfPossible(bankStatement, line);
 		}
 
+		//
+		// Link the lines to existing payments or create new payments
+		final BankStatementLinesPaymentMatchingResult paymentMatchingResult = bankStatmentPaymentBL.findOrCreateSinglePaymentsAndLinkIfPossible(bankStatement, lines);
+		logger.debug("Matched bank statement lines to payments: {}", paymentMatchingResult);
+
 		//
 		// Reconcile payments
 		paymentBL.markReconciled(extractPaymentReconcileRequests(lines));
@@ -47,6 +47,8 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.banking.BankStatementId;
 import de.metas.banking.BankStatementLineId;
 import de.metas.banking.BankStatementLineReferenceList;
@@ -55,6 +57,7 @@ import de.metas.banking.model.I_C_BankStatementLine_Ref;
 import de.metas.banking.payment.BankStatementLineMultiPaymentLinkRequest;
 import de.metas.banking.payment.BankStatementLineMultiPaymentLinkRequest.PaymentToLink;
 import de.metas.banking.payment.BankStatementLineMultiPaymentLinkResult;
+import de.metas.banking.payment.BankStatementLinesPaymentMatchingResult;
 import de.metas.banking.payment.PaymentLinkResult;
 import de.metas.banking.payment.impl.BankStatementPaymentBL;
 import de.metas.banking.service.BankStatementCreateRequest;
@@ -457,6 +460,69 @@ class BankStatementPaymentBLTest
 		}
 	}
 
+	@Nested
+	public class findOrCreateSinglePaymentsAndLinkIfPossible
+	{
+		@Test
+		void OneMatchingPaymentForTwoLines_OnlyFirstLineIsLinkedToIt()
+		{
+			//
+			// create test data
+			final I_C_BankStatement bankStatement = createBankStatement(euroOrgBankAccountId);
+			final BankStatementId bankStatementId = BankStatementId.ofRepoId(bankStatement.getC_BankStatement_ID());
+
+			final BPartnerId customerId = createCustomer();
+
+			final I_C_BankStatementLine bsl1 = bankStatementLine()
+					.bankStatementId(bankStatementId)
+					.bpartnerId(customerId)
+					.stmtAmt(Money.of(-123, euroCurrencyId))
+					.build();
+			final I_C_BankStatementLine bsl2 = bankStatementLine()
+					.bankStatementId(bankStatementId)
+					.bpartnerId(customerId)
+					.stmtAmt(Money.of(-123, euroCurrencyId))
+					.build();
+			final I_C_BankStatementLine bslWithoutBPartner = bankStatementLine()
+					.bankStatementId(bankStatementId)
+					.stmtAmt(Money.of(-123, euroCurrencyId))
+					.build();
+
+			final I_C_Payment payment = paymentBL.newOutboundPaymentBuilder()
+					.adOrgId(OrgId.ANY)
+					.bpartnerId(customerId)
+					.orgBankAccountId(euroOrgBankAccountId)
+					.currencyId(euroCurrencyId)
+					.payAmt(new BigDecimal("123.00"))
+					.dateAcct(statementDate)
+					.dateTrx(statementDate)
+					.description("test")
+					.tenderType(TenderType.DirectDeposit)
+					.createAndProcess();
+
+			//
+			// call tested method
+			//
+			bankStatement.setDocStatus(DocStatus.Completed.getCode());
+			final BankStatementLinesPaymentMatchingResult result = bankStatementPaymentBL.findOrCreateSinglePaymentsAndLinkIfPossible(
+					bankStatement,
+					ImmutableList.of(bsl1, bsl2, bslWithoutBPartner));
+
+			//
+			// Checks
+			assertThat(bsl1.getC_Payment_ID()).isEqualTo(payment.getC_Payment_ID());
+			assertThat(bsl2.getC_Payment_ID()).isGreaterThan(0).isNotEqualTo(payment.getC_Payment_ID());
+			assertThat(bslWithoutBPartner.getC_Payment_ID()).isEqualTo(0);
+
+			assertThat(result.getCountLines()).isEqualTo(3);
+			assertThat(result.getCountSkipped()).isEqualTo(1);
+			assertThat(result.getCountLinkedToExistingPayment()).isEqualTo(1);
+			assertThat(result.getCountPaymentsCreated()).isEqualTo(1);
+			assertThat(result.getCountAmbiguous()).isEqualTo(0);
+			assertThat(result.getHitRatePercent()).isEqualTo(50);
+		}
+	}
+
 	@Nested
 	public class linkMultiPayments
 	{
@@ -0,0 +1,88 @@
+package de.metas.benchmark;
+
+import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptorsRepository;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.Adempiere;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.SpringContextHolder;
+import org.compiere.model.ModelValidationEngine;
+import org.compiere.util.Ini;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import de.metas.util.Check;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sets up metasfresh for the benchmarks, either on top of the in-memory (POJO) persistence or on top of a real database.
+ * <p>
+ * Note that a JVM can only do one of them, because the unit test mode can't be switched off again.
+ * That's fine with JMH, since each benchmark runs in its own forked JVM.
+ */
+@UtilityClass
+public class BenchmarkEnvironment
+{
+	/**
+	 * Name of the system property which points to the {@code metasfresh.properties} file of the database to benchmark against.
+	 */
+	public static final String SYSTEM_PROPERTY_PropertyFile = "PropertyFile";
+
+	private static boolean databaseStarted = false;
+
+	/**
+	 * Sets up a clean in-memory persistence, like we do before each unit test.
+	 */
+	public static void initPOJOPersistence()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	/**
+	 * Connects to the database which is configured in the properties file given by {@value #SYSTEM_PROPERTY_PropertyFile}.
+	 * <p>
+	 * We don't start the whole spring application here, so only the model interceptors of the core entity types are registered
+	 * (see {@link ModelValidationEngine#INITENTITYTYPE_Minimal}).
+	 */
+	public static synchronized void startupDatabase()
+	{
+		if (databaseStarted)
+		{
+			return;
+		}
+
+		final String propertyFile = System.getProperty(SYSTEM_PROPERTY_PropertyFile);
+		Check.assumeNotEmpty(propertyFile, "System property {} is set, e.g. -D{}=/path/to/metasfresh.properties", SYSTEM_PROPERTY_PropertyFile, SYSTEM_PROPERTY_PropertyFile);
+
+		// ModelValidationEngine needs at least this bean
+		final AnnotationConfigApplicationContext springContext = new AnnotationConfigApplicationContext(ModuleActivatorDescriptorsRepository.class);
+		SpringContextHolder.instance.setApplicationContext(springContext);
+
+		ModelValidationEngine.setInitEntityTypes(ModelValidationEngine.INITENTITYTYPE_Minimal);
+
+		Ini.setRunMode(RunMode.BACKEND);
+		Adempiere.instance.startup(RunMode.BACKEND);
+
+		databaseStarted = true;
+	}
+}
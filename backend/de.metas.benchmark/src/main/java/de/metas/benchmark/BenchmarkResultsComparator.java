@@ -0,0 +1,198 @@
+package de.metas.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Compares two JMH result files (as written with {@code -rf json}), e.g. of two commits.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar de.metas.benchmark.BenchmarkResultsComparator baseline.json current.json [maxRegressionPercent]}
+ * <p>
+ * Prints one line per benchmark and exits with code 1 if at least one benchmark got slower by more than {@code maxRegressionPercent} (default {@value #DEFAULT_MaxRegressionPercent})
+ * and by more than the error margins of both measurements.
+ */
+public class BenchmarkResultsComparator
+{
+	public static void main(final String[] args) throws IOException
+	{
+		if (args.length < 2)
+		{
+			System.err.println("Usage: " + BenchmarkResultsComparator.class.getName() + " baseline.json current.json [maxRegressionPercent]");
+			System.exit(2);
+		}
+
+		final BigDecimal maxRegressionPercent = args.length > 2 ? new BigDecimal(args[2]) : DEFAULT_MaxRegressionPercent;
+		final BenchmarkResultsComparator comparator = new BenchmarkResultsComparator(maxRegressionPercent);
+		final int regressionsCount = comparator.compare(new File(args[0]), new File(args[1]));
+
+		System.exit(regressionsCount > 0 ? 1 : 0);
+	}
+
+	private static final BigDecimal DEFAULT_MaxRegressionPercent = BigDecimal.TEN;
+
+	/** JMH's name of the secondary metric which is recorded when running with {@code -prof gc} */
+	private static final String METRIC_AllocatedBytesPerOp = "·gc.alloc.rate.norm";
+
+	private final ObjectMapper jsonObjectMapper = new ObjectMapper();
+	private final double maxRegressionPercent;
+
+	public BenchmarkResultsComparator(@NonNull final BigDecimal maxRegressionPercent)
+	{
+		this.maxRegressionPercent = maxRegressionPercent.doubleValue();
+	}
+
+	/**
+	 * @return how many benchmarks regressed
+	 */
+	public int compare(@NonNull final File baselineFile, @NonNull final File currentFile) throws IOException
+	{
+		final Map<String, BenchmarkResult> baselineResults = readResults(baselineFile);
+		final Map<String, BenchmarkResult> currentResults = readResults(currentFile);
+
+		int regressionsCount = 0;
+		for (final BenchmarkResult current : currentResults.values())
+		{
+			final BenchmarkResult baseline = baselineResults.get(current.getKey());
+			if (baseline == null)
+			{
+				System.out.println(String.format("NEW         %s: %s", current.getKey(), current.toScoreString()));
+				continue;
+			}
+
+			final double changePercent = current.getChangePercentComparedTo(baseline);
+			final boolean regression = changePercent > maxRegressionPercent
+					&& Math.abs(current.getScore() - baseline.getScore()) > current.getScoreError() + baseline.getScoreError();
+			if (regression)
+			{
+				regressionsCount++;
+			}
+
+			System.out.println(String.format("%-11s %s: %s -> %s (%+.1f%%)%s",
+					regression ? "REGRESSION" : "OK",
+					current.getKey(),
+					baseline.toScoreString(),
+					current.toScoreString(),
+					changePercent,
+					toAllocationChangeString(baseline, current)));
+		}
+
+		baselineResults.keySet()
+				.stream()
+				.filter(key -> !currentResults.containsKey(key))
+				.forEach(key -> System.out.println(String.format("REMOVED     %s", key)));
+
+		System.out.println(String.format("%d regression(s) of more than %.1f%%", regressionsCount, maxRegressionPercent));
+		return regressionsCount;
+	}
+
+	private static String toAllocationChangeString(final BenchmarkResult baseline, final BenchmarkResult current)
+	{
+		if (baseline.getAllocatedBytesPerOp() == null || current.getAllocatedBytesPerOp() == null)
+		{
+			return "";
+		}
+		return String.format("; allocated %.1f -> %.1f B/op", baseline.getAllocatedBytesPerOp(), current.getAllocatedBytesPerOp());
+	}
+
+	private Map<String, BenchmarkResult> readResults(final File file) throws IOException
+	{
+		final Map<String, BenchmarkResult> results = new LinkedHashMap<>();
+		for (final JsonNode resultNode : jsonObjectMapper.readTree(file))
+		{
+			final BenchmarkResult result = toBenchmarkResult(resultNode);
+			results.put(result.getKey(), result);
+		}
+		return results;
+	}
+
+	private static BenchmarkResult toBenchmarkResult(final JsonNode resultNode)
+	{
+		// sorted, so that the key doesn't depend on the order of the params in file
+		final TreeMap<String, String> params = new TreeMap<>();
+		final JsonNode paramsNode = resultNode.path("params");
+		for (final Iterator<Map.Entry<String, JsonNode>> it = paramsNode.fields(); it.hasNext();)
+		{
+			final Map.Entry<String, JsonNode> param = it.next();
+			params.put(param.getKey(), param.getValue().asText());
+		}
+
+		final String mode = resultNode.path("mode").asText();
+		final JsonNode primaryMetric = resultNode.path("primaryMetric");
+		final JsonNode allocatedBytesPerOp = resultNode.path("secondaryMetrics").path(METRIC_AllocatedBytesPerOp).path("score");
+
+		return new BenchmarkResult(
+				resultNode.path("benchmark").asText() + (params.isEmpty() ? "" : params.toString()) + " [" + mode + "]",
+				"thrpt".equals(mode),
+				primaryMetric.path("score").asDouble(),
+				primaryMetric.path("scoreError").asDouble(0),
+				primaryMetric.path("scoreUnit").asText(),
+				allocatedBytesPerOp.isNumber() ? allocatedBytesPerOp.asDouble() : null);
+	}
+
+	@Value
+	private static class BenchmarkResult
+	{
+		String key;
+		/** true if a higher score is better (throughput), false if a lower score is better (times) */
+		boolean higherIsBetter;
+		double score;
+		double scoreError;
+		String scoreUnit;
+		@Nullable
+		Double allocatedBytesPerOp;
+
+		/**
+		 * @return by how many percent this result is worse than the given baseline; negative if it's better
+		 */
+		double getChangePercentComparedTo(final BenchmarkResult baseline)
+		{
+			if (baseline.getScore() == 0)
+			{
+				return 0;
+			}
+
+			final double changePercent = (score - baseline.getScore()) * 100 / baseline.getScore();
+			return higherIsBetter ? -changePercent : changePercent;
+		}
+
+		String toScoreString()
+		{
+			return String.format("%.3f ± %.3f %s", score, scoreError, scoreUnit);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package de.metas.benchmark.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.benchmark.BenchmarkEnvironment;
+import de.metas.cache.CCache;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the lookup and put costs of {@link CCache}, with and without LRU eviction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CCacheBenchmark
+{
+	@Param({ "1000", "100000" })
+	public int keysCount;
+
+	@Param({ "false", "true" })
+	public boolean lru;
+
+	private CCache<Integer, String> cache;
+	private Integer[] keys;
+	private int nextKeyIndex = 0;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.initPOJOPersistence();
+
+		cache = lru
+				? CCache.newLRUCache("CCacheBenchmark", keysCount, CCache.EXPIREMINUTES_Never)
+				: CCache.newCache("CCacheBenchmark", keysCount, CCache.EXPIREMINUTES_Never);
+
+		keys = new Integer[keysCount];
+		for (int i = 0; i < keysCount; i++)
+		{
+			keys[i] = i;
+			cache.put(keys[i], "value" + i);
+		}
+	}
+
+	private Integer nextKey()
+	{
+		final Integer key = keys[nextKeyIndex];
+		nextKeyIndex = (nextKeyIndex + 1) % keys.length;
+		return key;
+	}
+
+	@Benchmark
+	public String get()
+	{
+		return cache.get(nextKey());
+	}
+
+	@Benchmark
+	public String getOrLoad()
+	{
+		return cache.getOrLoad(nextKey(), key -> "loaded" + key);
+	}
+
+	@Benchmark
+	public void put()
+	{
+		final Integer key = nextKey();
+		cache.put(key, "value" + key);
+	}
+
+	@Benchmark
+	public String getMissing()
+	{
+		return cache.get(-1);
+	}
+}
@@ -0,0 +1,95 @@
+package de.metas.benchmark.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.benchmark.BenchmarkEnvironment;
+import de.metas.cache.interceptor.CacheInterceptor;
+import de.metas.cache.interceptor.testservices.ITestServiceWithCachedMethod;
+import de.metas.cache.interceptor.testservices.impl.TestServiceWithCachedMethod;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the overhead of calling a {@code @Cached} service method through the {@link CacheInterceptor}, compared to calling the method directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachedMethodBenchmark
+{
+	private static final int DISTINCT_PARAMS = 100;
+
+	/** the service as we get it from {@link Services}, i.e. intercepted */
+	private ITestServiceWithCachedMethod interceptedService;
+
+	/** same service, not intercepted */
+	private TestServiceWithCachedMethod plainService;
+
+	private int nextParam = 0;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.initPOJOPersistence(); // also registers the CacheInterceptor
+
+		interceptedService = Services.get(ITestServiceWithCachedMethod.class);
+		((TestServiceWithCachedMethod)interceptedService).cachedValueToReturn = "value";
+
+		plainService = new TestServiceWithCachedMethod();
+		plainService.cachedValueToReturn = "value";
+	}
+
+	private int nextParam()
+	{
+		final int param = nextParam;
+		nextParam = (nextParam + 1) % DISTINCT_PARAMS;
+		return param;
+	}
+
+	@Benchmark
+	public Object cachedMethodCall()
+	{
+		return interceptedService.getCachedValue(nextParam());
+	}
+
+	@Benchmark
+	public Object plainMethodCall()
+	{
+		return plainService.getCachedValue(nextParam());
+	}
+}
@@ -0,0 +1,246 @@
+package de.metas.benchmark.costing;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.compiere.model.I_C_UOM;
+import org.eevolution.api.BOMComponentType;
+import org.eevolution.costing.BOM;
+import org.eevolution.costing.BOMCostCalculator;
+import org.eevolution.costing.BOMCostCalculatorRepository;
+import org.eevolution.costing.BOMCostElementPrice;
+import org.eevolution.costing.BOMCostPrice;
+import org.eevolution.costing.BOMLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.benchmark.BenchmarkEnvironment;
+import de.metas.costing.CostAmount;
+import de.metas.costing.CostElementId;
+import de.metas.costing.CostPrice;
+import de.metas.currency.CurrencyId;
+import de.metas.product.ProductId;
+import de.metas.quantity.Quantity;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the level by level cost rollup of a generated multi-level BOM with {@link BOMCostCalculator}, like the {@code RollupBillOfMaterial} process does it.
+ * <p>
+ * There are {@value #LEVELS} levels of {@value #PRODUCTS_PER_LEVEL} BOMs each, on top of {@value #PRODUCTS_PER_LEVEL} raw materials.
+ * Each BOM has {@value #COMPONENTS_PER_BOM} components from the level below.
+ * <p>
+ * The BOMs and costs are kept in memory. To see what the concurrent loading gains, {@link #bomLoadLatencyMicros} simulates the database round trips of loading one BOM.
+ * Note that the prefetching of the costs (one query per level instead of one per BOM line) can only be measured on a database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BOMCostCalculatorBenchmark
+{
+	private static final int LEVELS = 4;
+	private static final int PRODUCTS_PER_LEVEL = 50;
+	private static final int COMPONENTS_PER_BOM = 5;
+
+	private static final CostElementId COST_ELEMENT_ID = CostElementId.ofRepoId(1);
+	private static final CurrencyId CURRENCY_ID = CurrencyId.ofRepoId(1);
+
+	@Param({ "1", "4" })
+	public int parallelism;
+
+	@Param({ "0", "200" })
+	public int bomLoadLatencyMicros;
+
+	private GeneratedBOMCostCalculatorRepository repository;
+
+	/** index = product's low level, i.e. the top level BOMs are at index 0 and the raw materials are at the last index */
+	private List<Set<ProductId>> productIdsByLowLevel;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.initPOJOPersistence();
+
+		final I_C_UOM uom = newInstance(I_C_UOM.class);
+		uom.setStdPrecision(2);
+		saveRecord(uom);
+
+		repository = new GeneratedBOMCostCalculatorRepository(uom, TimeUnit.MICROSECONDS.toNanos(bomLoadLatencyMicros));
+
+		productIdsByLowLevel = new ArrayList<>(LEVELS + 1);
+		int nextProductRepoId = 1;
+		for (int lowLevel = 0; lowLevel <= LEVELS; lowLevel++)
+		{
+			final ImmutableSet.Builder<ProductId> productIds = ImmutableSet.builder();
+			for (int i = 0; i < PRODUCTS_PER_LEVEL; i++)
+			{
+				productIds.add(ProductId.ofRepoId(nextProductRepoId++));
+			}
+			productIdsByLowLevel.add(productIds.build());
+		}
+
+		final List<ProductId> rawMaterialIds = ImmutableList.copyOf(productIdsByLowLevel.get(LEVELS));
+		for (int i = 0; i < rawMaterialIds.size(); i++)
+		{
+			repository.costPricesByProductId.put(rawMaterialIds.get(i), CostPrice.ownCostPrice(CostAmount.of(1 + i, CURRENCY_ID)));
+		}
+
+		for (int lowLevel = 0; lowLevel < LEVELS; lowLevel++)
+		{
+			final List<ProductId> componentIds = ImmutableList.copyOf(productIdsByLowLevel.get(lowLevel + 1));
+			int componentIndex = 0;
+			for (final ProductId bomProductId : productIdsByLowLevel.get(lowLevel))
+			{
+				final List<ProductId> bomComponentIds = new ArrayList<>(COMPONENTS_PER_BOM);
+				for (int i = 0; i < COMPONENTS_PER_BOM; i++)
+				{
+					bomComponentIds.add(componentIds.get(componentIndex++ % componentIds.size()));
+				}
+				repository.componentIdsByProductId.put(bomProductId, bomComponentIds);
+				repository.costPricesByProductId.put(bomProductId, CostPrice.zero(CURRENCY_ID));
+			}
+		}
+	}
+
+	@Benchmark
+	public void rollup()
+	{
+		final BOMCostCalculator calculator = BOMCostCalculator.builder()
+				.repository(repository)
+				.parallelism(parallelism)
+				.build();
+
+		for (int lowLevel = productIdsByLowLevel.size() - 1; lowLevel >= 0; lowLevel--)
+		{
+			calculator.rollup(productIdsByLowLevel.get(lowLevel));
+		}
+	}
+
+	private static class GeneratedBOMCostCalculatorRepository implements BOMCostCalculatorRepository
+	{
+		private final I_C_UOM uom;
+		private final long bomLoadLatencyNanos;
+
+		private final Map<ProductId, List<ProductId>> componentIdsByProductId = new HashMap<>();
+		private final Map<ProductId, CostPrice> costPricesByProductId = new ConcurrentHashMap<>();
+		private final Map<ProductId, BOMCostPrice> loadedBOMCostPricesByProductId = new ConcurrentHashMap<>();
+
+		private GeneratedBOMCostCalculatorRepository(final I_C_UOM uom, final long bomLoadLatencyNanos)
+		{
+			this.uom = uom;
+			this.bomLoadLatencyNanos = bomLoadLatencyNanos;
+		}
+
+		@Override
+		public Optional<BOM> getBOM(final ProductId productId)
+		{
+			final List<ProductId> componentIds = componentIdsByProductId.get(productId);
+			if (componentIds == null)
+			{
+				return Optional.empty();
+			}
+
+			if (bomLoadLatencyNanos > 0)
+			{
+				LockSupport.parkNanos(bomLoadLatencyNanos);
+			}
+
+			final BOMCostPrice bomCostPrice = toBOMCostPrice(productId);
+			loadedBOMCostPricesByProductId.put(productId, bomCostPrice);
+
+			final BOM.BOMBuilder bom = BOM.builder()
+					.productId(productId)
+					.costPrice(bomCostPrice);
+			for (final ProductId componentId : componentIds)
+			{
+				bom.line(BOMLine.builder()
+						.componentType(BOMComponentType.Component)
+						.componentId(componentId)
+						.qty(Quantity.of(2, uom))
+						.costPrice(toBOMCostPrice(componentId))
+						.build());
+			}
+			return Optional.of(bom.build());
+		}
+
+		private BOMCostPrice toBOMCostPrice(final ProductId productId)
+		{
+			return BOMCostPrice.builder()
+					.productId(productId)
+					.costElementPrice(BOMCostElementPrice.builder()
+							.costElementId(COST_ELEMENT_ID)
+							.costPrice(costPricesByProductId.get(productId))
+							.build())
+					.build();
+		}
+
+		@Override
+		public void save(final BOM bom)
+		{
+			saveAll(ImmutableList.of(bom));
+		}
+
+		@Override
+		public void saveAll(final Collection<BOM> boms)
+		{
+			for (final BOM bom : boms)
+			{
+				final BOMCostPrice bomCostPrice = loadedBOMCostPricesByProductId.remove(bom.getProductId());
+				final BOMCostElementPrice elementPrice = bomCostPrice.getCostElementPriceOrNull(COST_ELEMENT_ID);
+				costPricesByProductId.put(bom.getProductId(), elementPrice.getCostPrice());
+			}
+		}
+
+		@Override
+		public void resetComponentsCostPrices(final ProductId productId)
+		{
+			costPricesByProductId.computeIfPresent(productId, (id, costPrice) -> costPrice.withZeroComponentsCostPrice());
+		}
+	}
+}
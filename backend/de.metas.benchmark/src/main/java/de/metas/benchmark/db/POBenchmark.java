@@ -0,0 +1,117 @@
+package de.metas.benchmark.db;
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.modelvalidator.ModelChangeType;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_AD_Element;
+import org.compiere.model.ModelValidationEngine;
+import org.compiere.model.PO;
+import org.compiere.util.Env;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.benchmark.BenchmarkEnvironment;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures loading and saving a {@link PO}, and firing its model change events, against a real database.
+ * <p>
+ * We use an {@code AD_Element} record because that's there in any metasfresh database.
+ * All changes are done within a transaction which is rolled back after each iteration, so the database is not changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class POBenchmark
+{
+	/** {@code AD_Element_ID=102} is the {@code AD_Client_ID} element */
+	@Param({ "102" })
+	public int adElementId;
+
+	private ITrxManager trxManager;
+	private String trxName;
+	private I_AD_Element elementInTrx;
+	private int nextDescriptionNo = 0;
+
+	@Setup(Level.Trial)
+	public void startupDatabase()
+	{
+		BenchmarkEnvironment.startupDatabase();
+		trxManager = Services.get(ITrxManager.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void createTrx()
+	{
+		trxName = trxManager.createTrxName("POBenchmark", true);
+		elementInTrx = InterfaceWrapperHelper.create(Env.getCtx(), adElementId, I_AD_Element.class, trxName);
+	}
+
+	@TearDown(Level.Iteration)
+	public void rollbackTrx()
+	{
+		final ITrx trx = trxManager.get(trxName, false);
+		trx.rollback();
+		trx.close();
+	}
+
+	@Benchmark
+	public I_AD_Element load()
+	{
+		return InterfaceWrapperHelper.create(Env.getCtx(), adElementId, I_AD_Element.class, ITrx.TRXNAME_None);
+	}
+
+	@Benchmark
+	public I_AD_Element save()
+	{
+		elementInTrx.setDescription("POBenchmark " + nextDescriptionNo++);
+		InterfaceWrapperHelper.save(elementInTrx);
+		return elementInTrx;
+	}
+
+	@Benchmark
+	public void fireModelChange()
+	{
+		final PO po = InterfaceWrapperHelper.getPO(elementInTrx);
+		ModelValidationEngine.get().fireModelChange(po, ModelChangeType.BEFORE_CHANGE);
+	}
+}
@@ -0,0 +1,106 @@
+package de.metas.benchmark.db;
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.TypedSqlQuery;
+import org.adempiere.ad.trx.api.ITrx;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.POInfo;
+import org.compiere.util.Env;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.benchmark.BenchmarkEnvironment;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the SQL building of queries and the {@link POInfo} lookups which come with it.
+ * Needs a real database because that's where the {@link POInfo}s are loaded from.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypedSqlQueryBenchmark
+{
+	private IQueryBL queryBL;
+	private int bpartnerTableId;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.startupDatabase();
+		queryBL = Services.get(IQueryBL.class);
+		bpartnerTableId = POInfo.getPOInfo(I_C_BPartner.Table_Name).getAD_Table_ID();
+	}
+
+	@Benchmark
+	public POInfo getPOInfoByTableName()
+	{
+		return POInfo.getPOInfo(I_C_BPartner.Table_Name);
+	}
+
+	@Benchmark
+	public POInfo getPOInfoByTableId()
+	{
+		return POInfo.getPOInfo(bpartnerTableId);
+	}
+
+	@Benchmark
+	public int getColumnIndex()
+	{
+		return POInfo.getPOInfo(I_C_BPartner.Table_Name).getColumnIndex(I_C_BPartner.COLUMNNAME_Value);
+	}
+
+	@Benchmark
+	public String buildSQL()
+	{
+		final TypedSqlQuery<I_C_BPartner> query = new TypedSqlQuery<>(Env.getCtx(), I_C_BPartner.class, "IsActive='Y' AND Value LIKE ?", ITrx.TRXNAME_None);
+		return query.buildSQL(null, null, null, true);
+	}
+
+	@Benchmark
+	public String buildSQLFromQueryBuilder()
+	{
+		final TypedSqlQuery<I_C_BPartner> query = (TypedSqlQuery<I_C_BPartner>)queryBL.createQueryBuilderOutOfTrx(I_C_BPartner.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_BPartner.COLUMNNAME_IsVendor, true)
+				.addStringLikeFilter(I_C_BPartner.COLUMNNAME_Value, "BP", true)
+				.orderBy(I_C_BPartner.COLUMNNAME_Value)
+				.create();
+		return query.buildSQL(null, null, null, true);
+	}
+}
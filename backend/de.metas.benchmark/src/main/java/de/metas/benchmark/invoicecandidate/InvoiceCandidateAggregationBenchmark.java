@@ -0,0 +1,117 @@
+package de.metas.benchmark.invoicecandidate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.SpringContextHolder;
+import org.compiere.util.Env;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.bpartner.BPartnerLocationId;
+import de.metas.currency.CurrencyRepository;
+import de.metas.invoicecandidate.AbstractICTestSupport;
+import de.metas.invoicecandidate.api.IInvoiceHeader;
+import de.metas.invoicecandidate.api.impl.AggregationEngine;
+import de.metas.invoicecandidate.internalbusinesslogic.InvoiceCandidateRecordService;
+import de.metas.invoicecandidate.model.I_C_ILCandHandler;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.spi.impl.ManualCandidateHandler;
+import de.metas.money.MoneyService;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures how fast the {@link AggregationEngine} turns invoice candidates into invoices.
+ * <p>
+ * The invoice candidates are set up the same way as in {@code LegacyAggregationEngineTests}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceCandidateAggregationBenchmark
+{
+	@Param({ "10", "1000" })
+	public int invoiceCandidatesCount;
+
+	private List<I_C_Invoice_Candidate> invoiceCandidates;
+
+	@Setup
+	public void setup()
+	{
+		final AbstractICTestSupport icTestSupport = new AbstractICTestSupport();
+		icTestSupport.initStuff(); // also inits the in-memory persistence
+
+		final Properties ctx = Env.getCtx();
+		Env.setContext(ctx, Env.CTXNAME_AD_Client_ID, 1);
+		Env.setContext(ctx, Env.CTXNAME_AD_Language, "de_CH");
+
+		final I_C_ILCandHandler manualHandler = InterfaceWrapperHelper.newInstance(I_C_ILCandHandler.class);
+		manualHandler.setTableName(ManualCandidateHandler.MANUAL);
+		manualHandler.setClassname(ManualCandidateHandler.class.getName());
+		InterfaceWrapperHelper.saveRecord(manualHandler);
+
+		SpringContextHolder.registerJUnitBean(new InvoiceCandidateRecordService());
+		SpringContextHolder.registerJUnitBean(new MoneyService(new CurrencyRepository()));
+
+		final BPartnerLocationId billBPartnerAndLocationId = BPartnerLocationId.ofRepoId(1, 2);
+
+		invoiceCandidates = new ArrayList<>(invoiceCandidatesCount);
+		for (int i = 0; i < invoiceCandidatesCount; i++)
+		{
+			invoiceCandidates.add(icTestSupport.createInvoiceCandidate()
+					.setBillBPartnerAndLocationId(billBPartnerAndLocationId)
+					.setPriceEntered(1 + i % 10)
+					.setQtyOrdered(1 + i % 3)
+					.setManual(false)
+					.setSOTrx(true)
+					.build());
+		}
+
+		icTestSupport.updateInvalidCandidates();
+		invoiceCandidates.forEach(InterfaceWrapperHelper::refresh);
+	}
+
+	@Benchmark
+	public List<IInvoiceHeader> aggregate()
+	{
+		final AggregationEngine engine = AggregationEngine.newInstance();
+		invoiceCandidates.forEach(engine::addInvoiceCandidate);
+		return engine.aggregate();
+	}
+}
@@ -0,0 +1,105 @@
+package de.metas.benchmark.persistence;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.compiere.dbPort.Convert_PostgreSQL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.benchmark.BenchmarkEnvironment;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the translation of SQL statements by {@link Convert_PostgreSQL}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvertPostgreSQLBenchmark
+{
+	public static final String SQL_Select = "SELECT bp.C_BPartner_ID, bp.Value, COALESCE(bp.Name2, bp.Name) AS Name, bpl.C_BPartner_Location_ID"
+			+ " FROM C_BPartner bp"
+			+ " INNER JOIN C_BPartner_Location bpl ON (bpl.C_BPartner_ID=bp.C_BPartner_ID AND bpl.IsActive='Y')"
+			+ " WHERE bp.AD_Client_ID IN (0, ?) AND bp.IsActive='Y' AND UPPER(bp.Value) LIKE ?"
+			+ " ORDER BY bp.Value";
+
+	/** Oracle-style update with a subquery, which needs to be rewritten */
+	public static final String SQL_UpdateWithSubquery = "UPDATE A_Asset a "
+			+ "SET (Name, Description)="
+			+ "(SELECT SUBSTR((SELECT bp.Name FROM C_BPartner bp WHERE bp.C_BPartner_ID=a.C_BPartner_ID) || ' - ' || p.Name,1,60), p.Description "
+			+ "FROM M_Product p "
+			+ "WHERE p.M_Product_ID=a.M_Product_ID) "
+			+ "WHERE IsActive='Y' "
+			+ "AND M_Product_ID=0";
+
+	public static final String SQL_AlterColumn = "ALTER TABLE Test MODIFY T_Integer NUMBER(10) NOT NULL";
+
+	@Param({ "Select", "UpdateWithSubquery", "AlterColumn" })
+	public String statement;
+
+	private Convert_PostgreSQL convert;
+	private String sql;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.initPOJOPersistence();
+
+		convert = new Convert_PostgreSQL();
+
+		switch (statement)
+		{
+			case "Select":
+				sql = SQL_Select;
+				break;
+			case "UpdateWithSubquery":
+				sql = SQL_UpdateWithSubquery;
+				break;
+			case "AlterColumn":
+				sql = SQL_AlterColumn;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown statement: " + statement);
+		}
+	}
+
+	@Benchmark
+	public List<String> convert()
+	{
+		return convert.convert(sql);
+	}
+}
@@ -0,0 +1,146 @@
+package de.metas.benchmark.persistence;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.wrapper.POJOWrapper;
+import org.compiere.model.I_C_BPartner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.benchmark.BenchmarkEnvironment;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures loading, saving and querying models on the in-memory persistence ({@link POJOWrapper} and {@code PlainQueryBuilderDAO}).
+ * <p>
+ * Unit tests are running on top of it, so this is mostly about the speed of our test suite.
+ * See {@code de.metas.benchmark.db.POBenchmark} for the same thing on a real database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class POJOPersistenceBenchmark
+{
+	@Param({ "100", "10000" })
+	public int recordsCount;
+
+	private IQueryBL queryBL;
+
+	private int[] bpartnerIds;
+	private int nextIndex = 0;
+
+	/**
+	 * Start each iteration with the same records, so that the records which were created by {@link #newInstanceAndSave()} don't pile up.
+	 */
+	@Setup(Level.Iteration)
+	public void setup()
+	{
+		BenchmarkEnvironment.initPOJOPersistence();
+		queryBL = Services.get(IQueryBL.class);
+
+		bpartnerIds = new int[recordsCount];
+		for (int i = 0; i < recordsCount; i++)
+		{
+			final I_C_BPartner bpartner = newInstance(I_C_BPartner.class);
+			bpartner.setValue("BP" + i);
+			bpartner.setName("BPartner " + i);
+			bpartner.setIsVendor(i % 10 == 0);
+			saveRecord(bpartner);
+
+			bpartnerIds[i] = bpartner.getC_BPartner_ID();
+		}
+		nextIndex = 0;
+	}
+
+	private int nextIndex()
+	{
+		final int index = nextIndex;
+		nextIndex = (nextIndex + 1) % recordsCount;
+		return index;
+	}
+
+	@Benchmark
+	public I_C_BPartner loadById()
+	{
+		return load(bpartnerIds[nextIndex()], I_C_BPartner.class);
+	}
+
+	@Benchmark
+	public I_C_BPartner loadAndSave()
+	{
+		final int index = nextIndex();
+		final I_C_BPartner bpartner = load(bpartnerIds[index], I_C_BPartner.class);
+		bpartner.setName2("Name2 " + index);
+		saveRecord(bpartner);
+		return bpartner;
+	}
+
+	@Benchmark
+	public I_C_BPartner newInstanceAndSave()
+	{
+		final I_C_BPartner bpartner = newInstance(I_C_BPartner.class);
+		bpartner.setValue("NewBP");
+		bpartner.setName("New BPartner");
+		saveRecord(bpartner);
+		return bpartner;
+	}
+
+	@Benchmark
+	public I_C_BPartner queryFirstOnlyByValue()
+	{
+		return queryBL.createQueryBuilder(I_C_BPartner.class)
+				.addEqualsFilter(I_C_BPartner.COLUMNNAME_Value, "BP" + nextIndex())
+				.create()
+				.firstOnly(I_C_BPartner.class);
+	}
+
+	@Benchmark
+	public List<I_C_BPartner> queryListVendors()
+	{
+		return queryBL.createQueryBuilder(I_C_BPartner.class)
+				.addEqualsFilter(I_C_BPartner.COLUMNNAME_IsVendor, true)
+				.create()
+				.list();
+	}
+}
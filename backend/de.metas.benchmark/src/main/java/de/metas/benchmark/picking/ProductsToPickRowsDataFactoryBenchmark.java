@@ -0,0 +1,304 @@
+package de.metas.benchmark.picking;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.mm.attributes.AttributeId;
+import org.adempiere.mm.attributes.AttributeSetInstanceId;
+import org.adempiere.mm.attributes.api.AttributeConstants;
+import org.adempiere.warehouse.LocatorId;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_Attribute;
+import org.compiere.model.X_M_Attribute;
+import org.compiere.util.TimeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.adempiere.model.I_M_Product;
+import de.metas.benchmark.BenchmarkEnvironment;
+import de.metas.bpartner.BPartnerId;
+import de.metas.bpartner.BPartnerLocationId;
+import de.metas.bpartner.ShipmentAllocationBestBeforePolicy;
+import de.metas.bpartner.service.IBPartnerBL;
+import de.metas.bpartner.service.impl.BPartnerBL;
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.HuPackingInstructionsId;
+import de.metas.handlingunits.HuPackingInstructionsVersionId;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
+import de.metas.handlingunits.model.I_M_HU_PI;
+import de.metas.handlingunits.model.I_M_HU_PI_Attribute;
+import de.metas.handlingunits.model.I_M_HU_PI_Version;
+import de.metas.handlingunits.model.I_M_HU_Reservation;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.handlingunits.model.I_M_Locator;
+import de.metas.handlingunits.model.I_M_Warehouse;
+import de.metas.handlingunits.model.X_M_HU;
+import de.metas.handlingunits.model.X_M_HU_PI_Version;
+import de.metas.handlingunits.picking.PickingCandidateRepository;
+import de.metas.handlingunits.picking.PickingCandidateService;
+import de.metas.handlingunits.reservation.HUReservationRepository;
+import de.metas.handlingunits.reservation.HUReservationService;
+import de.metas.handlingunits.sourcehu.HuId2SourceHUsService;
+import de.metas.handlingunits.test.misc.builders.HUPIAttributeBuilder;
+import de.metas.handlingunits.trace.HUTraceRepository;
+import de.metas.inoutcandidate.api.Packageable;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.order.OrderId;
+import de.metas.order.OrderLineId;
+import de.metas.picking.api.PickingConfigRepository;
+import de.metas.product.ProductId;
+import de.metas.quantity.Quantity;
+import de.metas.ui.web.pickingV2.packageable.PackageableRow;
+import de.metas.ui.web.pickingV2.productsToPick.rows.ProductsToPickRowsData;
+import de.metas.ui.web.pickingV2.productsToPick.rows.factory.ProductsToPickRowsDataFactory;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.user.UserRepository;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures {@link ProductsToPickRowsDataFactory#create(PackageableRow)}, i.e. the HU allocation of one picking wave.
+ * <p>
+ * The packageables share {@value #PRODUCTS_COUNT} products, so they compete for the same HUs.
+ * Each tenth packageable has one HU reserved for its sales order line.
+ * Like in the picking view, a new factory (with empty caches) is used for each invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductsToPickRowsDataFactoryBenchmark
+{
+	private static final int PRODUCTS_COUNT = 20;
+	private static final int HUS_PER_PRODUCT_COUNT = 20;
+
+	@Param({ "100", "300" })
+	public int packageablesCount;
+
+	private I_C_UOM uom;
+	private AttributeId bestBeforeDateAttributeId;
+	private int huPIAttributeId_BestBeforeDate;
+	private LocatorId locatorId;
+
+	private IBPartnerBL bpartnersService;
+	private HUReservationService huReservationService;
+	private PickingCandidateService pickingCandidateService;
+
+	private PackageableRow packageableRow;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.initPOJOPersistence();
+
+		bpartnersService = new BPartnerBL(new UserRepository());
+		Services.registerService(IBPartnerBL.class, bpartnersService);
+		huReservationService = new HUReservationService(new HUReservationRepository());
+		pickingCandidateService = new PickingCandidateService(
+				new PickingConfigRepository(),
+				new PickingCandidateRepository(),
+				new HuId2SourceHUsService(new HUTraceRepository()));
+
+		uom = newInstance(I_C_UOM.class);
+		uom.setUOMSymbol("Kg");
+		saveRecord(uom);
+		bestBeforeDateAttributeId = createBestBeforeDateAttribute();
+		createVirtualPI();
+
+		final I_M_Warehouse warehouse = newInstance(I_M_Warehouse.class);
+		saveRecord(warehouse);
+		final I_M_Locator locator = newInstance(I_M_Locator.class);
+		locator.setM_Warehouse_ID(warehouse.getM_Warehouse_ID());
+		saveRecord(locator);
+		locatorId = LocatorId.ofRecord(locator);
+
+		final List<ProductId> productIds = new ArrayList<>(PRODUCTS_COUNT);
+		for (int i = 0; i < PRODUCTS_COUNT; i++)
+		{
+			final ProductId productId = createProduct("Product" + i);
+			productIds.add(productId);
+
+			for (int h = 0; h < HUS_PER_PRODUCT_COUNT; h++)
+			{
+				createHU(productId, LocalDate.of(2020, Month.JANUARY, 1).plusDays(h), 10);
+			}
+		}
+
+		final BPartnerLocationId customerAndLocationId = BPartnerLocationId.ofRepoId(BPartnerId.ofRepoId(2), 3);
+		final List<Packageable> packageables = new ArrayList<>(packageablesCount);
+		for (int i = 0; i < packageablesCount; i++)
+		{
+			final ProductId productId = productIds.get(i % PRODUCTS_COUNT);
+			final OrderLineId salesOrderLineId = OrderLineId.ofRepoId(1000 + i);
+			if (i % 10 == 0)
+			{
+				final HuId reservedHUId = createHU(productId, LocalDate.of(2020, Month.FEBRUARY, 1), 10);
+				createHUReservation(salesOrderLineId, reservedHUId, 10);
+			}
+
+			packageables.add(Packageable.builder()
+					.shipmentScheduleId(ShipmentScheduleId.ofRepoId(1000 + i))
+					.salesOrderLineIdOrNull(salesOrderLineId)
+					//
+					.qtyOrdered(Quantity.of(25, uom))
+					.qtyToDeliver(Quantity.of(25, uom))
+					.qtyDelivered(Quantity.of(0, uom))
+					.qtyPickedNotDelivered(Quantity.of(0, uom))
+					.qtyPickedPlanned(Quantity.of(0, uom))
+					.qtyPickedAndDelivered(Quantity.of(0, uom))
+					//
+					.customerId(customerAndLocationId.getBpartnerId())
+					.customerLocationId(customerAndLocationId)
+					//
+					.warehouseId(locatorId.getWarehouseId())
+					//
+					.bestBeforePolicy(Optional.of(ShipmentAllocationBestBeforePolicy.Expiring_First))
+					//
+					.productId(productId)
+					.asiId(AttributeSetInstanceId.NONE)
+					//
+					.build());
+		}
+
+		packageableRow = PackageableRow.builder()
+				.orderId(OrderId.ofRepoId(1))
+				.orderDocumentNo("1234")
+				.customer(IntegerLookupValue.of(customerAndLocationId.getBpartnerId().getRepoId(), "customer"))
+				.packageables(packageables)
+				.build();
+	}
+
+	private AttributeId createBestBeforeDateAttribute()
+	{
+		final I_M_Attribute attribute = newInstance(I_M_Attribute.class);
+		attribute.setValue(AttributeConstants.ATTR_BestBeforeDate);
+		attribute.setName(AttributeConstants.ATTR_BestBeforeDate);
+		attribute.setAttributeValueType(X_M_Attribute.ATTRIBUTEVALUETYPE_Date);
+		saveRecord(attribute);
+		return AttributeId.ofRepoId(attribute.getM_Attribute_ID());
+	}
+
+	private void createVirtualPI()
+	{
+		final I_M_HU_PI pi = newInstance(I_M_HU_PI.class);
+		pi.setName("VirtualPI");
+		pi.setM_HU_PI_ID(HuPackingInstructionsId.VIRTUAL.getRepoId());
+		saveRecord(pi);
+
+		final I_M_HU_PI_Version version = newInstance(I_M_HU_PI_Version.class);
+		version.setName(pi.getName());
+		version.setM_HU_PI_ID(pi.getM_HU_PI_ID());
+		version.setIsCurrent(true);
+		version.setHU_UnitType(X_M_HU_PI_Version.HU_UNITTYPE_VirtualPI);
+		version.setM_HU_PI_Version_ID(HuPackingInstructionsVersionId.VIRTUAL.getRepoId());
+		saveRecord(version);
+
+		final I_M_HU_PI_Attribute huPIAttribute = HUPIAttributeBuilder.newInstance(bestBeforeDateAttributeId)
+				.setM_HU_PI_Version(HuPackingInstructionsVersionId.VIRTUAL)
+				.create();
+		huPIAttributeId_BestBeforeDate = huPIAttribute.getM_HU_PI_Attribute_ID();
+	}
+
+	private ProductId createProduct(final String code)
+	{
+		final I_M_Product product = newInstance(I_M_Product.class);
+		product.setValue(code);
+		product.setName(code);
+		saveRecord(product);
+		return ProductId.ofRepoId(product.getM_Product_ID());
+	}
+
+	private HuId createHU(final ProductId productId, final LocalDate bestBeforeDate, final int qty)
+	{
+		final I_M_HU hu = newInstance(I_M_HU.class);
+		hu.setM_HU_PI_Version_ID(HuPackingInstructionsVersionId.VIRTUAL.getRepoId());
+		hu.setHUStatus(X_M_HU.HUSTATUS_Active);
+		hu.setM_Locator_ID(locatorId.getRepoId());
+		saveRecord(hu);
+
+		final I_M_HU_Attribute huAttribute = newInstance(I_M_HU_Attribute.class);
+		huAttribute.setM_HU_ID(hu.getM_HU_ID());
+		huAttribute.setM_HU_PI_Attribute_ID(huPIAttributeId_BestBeforeDate);
+		huAttribute.setM_Attribute_ID(bestBeforeDateAttributeId.getRepoId());
+		huAttribute.setValueDate(TimeUtil.asTimestamp(bestBeforeDate));
+		saveRecord(huAttribute);
+
+		final I_M_HU_Storage huStorage = newInstance(I_M_HU_Storage.class);
+		huStorage.setM_HU_ID(hu.getM_HU_ID());
+		huStorage.setM_Product_ID(productId.getRepoId());
+		huStorage.setQty(BigDecimal.valueOf(qty));
+		huStorage.setC_UOM_ID(uom.getC_UOM_ID());
+		saveRecord(huStorage);
+
+		return HuId.ofRepoId(hu.getM_HU_ID());
+	}
+
+	private void createHUReservation(final OrderLineId salesOrderLineId, final HuId vhuId, final int qtyReserved)
+	{
+		final I_M_HU vhu = load(vhuId, I_M_HU.class);
+		vhu.setIsReserved(true);
+		saveRecord(vhu);
+
+		final I_M_HU_Reservation huReservation = newInstance(I_M_HU_Reservation.class);
+		huReservation.setC_OrderLineSO_ID(salesOrderLineId.getRepoId());
+		huReservation.setVHU_ID(vhuId.getRepoId());
+		huReservation.setQtyReserved(BigDecimal.valueOf(qtyReserved));
+		huReservation.setC_UOM_ID(uom.getC_UOM_ID());
+		saveRecord(huReservation);
+	}
+
+	@Benchmark
+	public ProductsToPickRowsData create()
+	{
+		final ProductsToPickRowsDataFactory factory = ProductsToPickRowsDataFactory.builder()
+				.bpartnersService(bpartnersService)
+				.huReservationService(huReservationService)
+				.pickingCandidateService(pickingCandidateService)
+				.locatorLookup(id -> IntegerLookupValue.of((Integer)id, "locator-" + id))
+				.build();
+
+		return factory.create(packageableRow);
+	}
+}
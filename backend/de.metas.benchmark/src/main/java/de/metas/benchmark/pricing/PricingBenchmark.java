@@ -0,0 +1,114 @@
+package de.metas.benchmark.pricing;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.compiere.model.I_C_UOM;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.adempiere.model.I_M_Product;
+import de.metas.benchmark.BenchmarkEnvironment;
+import de.metas.pricing.IEditablePricingContext;
+import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.pricing.service.impl.PricingTestHelper;
+import de.metas.pricing.service.impl.ProductPriceBuilder;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the price calculation of many order lines (one pricing context per line),
+ * one by one compared to {@link IPricingBL#calculatePrices(List)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBenchmark
+{
+	@Param({ "10", "100" })
+	public int pricingContextsCount;
+
+	private IPricingBL pricingBL;
+	private List<IEditablePricingContext> pricingContexts;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.initPOJOPersistence();
+		final PricingTestHelper helper = new PricingTestHelper();
+		pricingBL = Services.get(IPricingBL.class);
+
+		final I_C_UOM uom = newInstance(I_C_UOM.class);
+		saveRecord(uom);
+
+		pricingContexts = new ArrayList<>(pricingContextsCount);
+		for (int i = 0; i < pricingContextsCount; i++)
+		{
+			final I_M_Product product = helper.createProduct("Product" + i, uom);
+			new ProductPriceBuilder(helper.getDefaultPriceListVerion(), product)
+					.setTaxCategoryId(helper.getTaxCategoryId())
+					.setPrice(1 + i)
+					.build();
+
+			final IEditablePricingContext pricingContext = helper.createPricingContext();
+			pricingContext.setProductId(ProductId.ofRepoId(product.getM_Product_ID()));
+			pricingContexts.add(pricingContext);
+		}
+	}
+
+	@Benchmark
+	public List<IPricingResult> calculatePrice_oneByOne()
+	{
+		final List<IPricingResult> results = new ArrayList<>(pricingContexts.size());
+		for (final IEditablePricingContext pricingContext : pricingContexts)
+		{
+			results.add(pricingBL.calculatePrice(pricingContext));
+		}
+		return results;
+	}
+
+	@Benchmark
+	public List<IPricingResult> calculatePrices()
+	{
+		return pricingBL.calculatePrices(pricingContexts);
+	}
+}
@@ -0,0 +1,146 @@
+package de.metas.benchmark.pricing;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.pricing.conditions.BreakValueType;
+import de.metas.pricing.conditions.PriceSpecification;
+import de.metas.pricing.conditions.PricingConditions;
+import de.metas.pricing.conditions.PricingConditionsBreak;
+import de.metas.pricing.conditions.PricingConditionsBreakMatchCriteria;
+import de.metas.pricing.conditions.PricingConditionsBreakQuery;
+import de.metas.pricing.conditions.PricingConditionsDiscountType;
+import de.metas.product.ProductAndCategoryAndManufacturerId;
+import de.metas.product.ProductCategoryId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures how fast the applicable break of a big discount schema is found, compared to scanning all its breaks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingConditionsBenchmark
+{
+	private static final int PRODUCTS_COUNT = 1000;
+	private static final int PRODUCT_CATEGORIES_COUNT = 50;
+	private static final int QUERIES_COUNT = 1024;
+
+	/** How {@link PricingConditions#pickApplyingBreak(PricingConditionsBreakQuery)} picked the break before it had an index */
+	private static final Comparator<PricingConditionsBreak> SORT_BY_BREAK_VALUE_DESC = Comparator.<PricingConditionsBreak, BigDecimal> comparing(b -> b.getMatchCriteria().getBreakValue())
+			.thenComparing(PricingConditionsBreak::getSeqNo)
+			.reversed();
+
+	@Param({ "1000", "50000" })
+	public int breaksCount;
+
+	private PricingConditions pricingConditions;
+	private PricingConditionsBreakQuery[] queries;
+	private int nextQueryIndex = 0;
+
+	@Setup
+	public void setup()
+	{
+		final Random random = new Random(42);
+
+		final List<PricingConditionsBreak> breaks = new ArrayList<>(breaksCount);
+		for (int i = 0; i < breaksCount; i++)
+		{
+			final boolean categoryBreak = random.nextInt(10) == 0;
+			breaks.add(PricingConditionsBreak.builder()
+					.matchCriteria(PricingConditionsBreakMatchCriteria.builder()
+							.breakValue(BigDecimal.valueOf(random.nextInt(100)))
+							.productId(categoryBreak ? null : ProductId.ofRepoId(1 + random.nextInt(PRODUCTS_COUNT)))
+							.productCategoryId(categoryBreak ? ProductCategoryId.ofRepoId(1 + random.nextInt(PRODUCT_CATEGORIES_COUNT)) : null)
+							.build())
+					.seqNo(10 * (i + 1))
+					.priceSpecification(PriceSpecification.none())
+					.build());
+		}
+
+		pricingConditions = PricingConditions.builder()
+				.discountType(PricingConditionsDiscountType.BREAKS)
+				.breakValueType(BreakValueType.QUANTITY)
+				.breaks(breaks)
+				.build();
+
+		queries = new PricingConditionsBreakQuery[QUERIES_COUNT];
+		for (int i = 0; i < QUERIES_COUNT; i++)
+		{
+			final int productId = 1 + random.nextInt(PRODUCTS_COUNT);
+			queries[i] = PricingConditionsBreakQuery.builder()
+					.product(ProductAndCategoryAndManufacturerId.of(productId, 1 + productId % PRODUCT_CATEGORIES_COUNT, -1))
+					.qty(BigDecimal.valueOf(random.nextInt(120)))
+					.price(BigDecimal.ONE)
+					.build();
+		}
+	}
+
+	private PricingConditionsBreakQuery nextQuery()
+	{
+		final PricingConditionsBreakQuery query = queries[nextQueryIndex];
+		nextQueryIndex = (nextQueryIndex + 1) % QUERIES_COUNT;
+		return query;
+	}
+
+	@Benchmark
+	public PricingConditionsBreak pickApplyingBreak()
+	{
+		return pricingConditions.pickApplyingBreak(nextQuery());
+	}
+
+	@Benchmark
+	public PricingConditionsBreak pickApplyingBreak_scanAllBreaks()
+	{
+		final PricingConditionsBreakQuery query = nextQuery();
+		return pricingConditions.getBreaks()
+				.stream()
+				.sorted(SORT_BY_BREAK_VALUE_DESC)
+				.filter(schemaBreak -> schemaBreak.getMatchCriteria().breakValueMatches(query.getQty())
+						&& schemaBreak.getMatchCriteria().productMatches(query.getProduct())
+						&& schemaBreak.getMatchCriteria().attributeMatches(query.getAttributes()))
+				.findFirst()
+				.orElse(null);
+	}
+}
@@ -0,0 +1,96 @@
+package de.metas.benchmark.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.util.ISingletonService;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmark
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures {@link Services#get(Class)} for an already loaded singleton service, compared to using a field.
+ * <p>
+ * Run it with {@code -prof gc}: {@code gc.alloc.rate.norm} shall be zero, i.e. the lookup shall not allocate anything.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServicesBenchmark
+{
+	public interface IBenchmarkService extends ISingletonService
+	{
+		int getValue();
+	}
+
+	public static class BenchmarkService implements IBenchmarkService
+	{
+		@Override
+		public int getValue()
+		{
+			return 1;
+		}
+	}
+
+	private IBenchmarkService serviceField;
+
+	@Setup
+	public void setup()
+	{
+		Services.clear();
+		Services.registerService(IBenchmarkService.class, new BenchmarkService());
+
+		serviceField = Services.get(IBenchmarkService.class);
+	}
+
+	@Benchmark
+	public IBenchmarkService get()
+	{
+		return Services.get(IBenchmarkService.class);
+	}
+
+	@Benchmark
+	public int getAndCall()
+	{
+		return Services.get(IBenchmarkService.class).getValue();
+	}
+
+	@Benchmark
+	public int fieldAndCall()
+	{
+		return serviceField.getValue();
+	}
+}
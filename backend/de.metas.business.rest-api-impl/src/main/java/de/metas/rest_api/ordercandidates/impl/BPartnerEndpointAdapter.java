@@ -1,6 +1,8 @@
 package de.metas.rest_api.ordercandidates.impl;
 
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.annotation.Nullable;
@@ -45,6 +47,7 @@ import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.collections.CollectionUtils;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -75,6 +78,21 @@ final class BPartnerEndpointAdapter
 	private final BpartnerRestController bpartnerRestController;
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 
+	/**
+	 * The bpartners that were already created or updated by this instance.
+	 * Within one bulk request, most candidates share the same few bpartners, so we invoke the bpartner-endpoint just once for each distinct bpartner request.
+	 */
+	private final Map<BPartnerInfoKey, BPartnerInfo> bpartnerInfos = new HashMap<>();
+
+	@Value
+	private static class BPartnerInfoKey
+	{
+		@NonNull
+		JsonRequestBPartnerLocationAndContact jsonBPartnerInfo;
+		boolean billTo;
+		String orgCode;
+	}
+
 	public BPartnerEndpointAdapter(@NonNull final BpartnerRestController bpartnerRestController)
 	{
 		this.bpartnerRestController = bpartnerRestController;
@@ -97,6 +115,37 @@ final class BPartnerEndpointAdapter
 		{
 			return null;
 		}
+
+		// the default is applied before the lookup, because it changes the request's hashCode
+		applyDefaults(jsonBPartnerInfo);
+
+		return bpartnerInfos.computeIfAbsent(
+				new BPartnerInfoKey(jsonBPartnerInfo, billTo, orgCode),
+				key -> upsertBPartner(key.getJsonBPartnerInfo(), key.isBillTo(), key.getOrgCode()));
+	}
+
+	/**
+	 * Makes sure that we have {@code isCustomer=true} unless explicitly specified otherwise.
+	 */
+	static void applyDefaults(@Nullable final JsonRequestBPartnerLocationAndContact jsonBPartnerInfo)
+	{
+		if (jsonBPartnerInfo == null)
+		{
+			return;
+		}
+
+		final JsonRequestBPartner bPartner = jsonBPartnerInfo.getBpartner();
+		if (!bPartner.isCustomerSet())
+		{
+			bPartner.setCustomer(true);
+		}
+	}
+
+	private BPartnerInfo upsertBPartner(
+			@NonNull final JsonRequestBPartnerLocationAndContact jsonBPartnerInfo,
+			final boolean billTo,
+			@Nullable final String orgCode)
+	{
 		// repackage request
 		final JsonRequestBPartnerUpsert jsonRequestBPartnerUpsert = asJsonRequestBPartnerUpsert(orgCode, jsonBPartnerInfo);
 
@@ -140,12 +189,8 @@ final class BPartnerEndpointAdapter
 					.build();
 		}
 
-		// bpartner - make sure that we have isCustomer=true unless explicitly specified otherwise
+		// bpartner
 		final JsonRequestBPartner bPartner = jsonBPartnerInfo.getBpartner();
-		if (!bPartner.isCustomerSet())
-		{
-			bPartner.setCustomer(true);
-		}
 
 		final JsonRequestComposite bpartnerComposite = JsonRequestComposite.builder()
 				.orgCode(orgCode)
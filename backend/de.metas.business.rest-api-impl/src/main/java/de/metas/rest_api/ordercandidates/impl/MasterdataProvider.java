@@ -105,6 +105,7 @@ final class MasterdataProvider
 	private final ProductPriceMasterDataProvider productPricesMasterDataProvider;
 
 	private final Map<String, OrgId> orgIdsByCode = new HashMap<>();
+	private final Map<JsonOrganization, OrgId> orgIdsByRequest = new HashMap<>();
 
 	@Builder
 	private MasterdataProvider(
@@ -144,7 +145,19 @@ final class MasterdataProvider
 			return permissionService.getDefaultOrgId();
 		}
 
-		return orgIdsByCode.compute(json.getCode(), (code, existingOrgId) -> createOrUpdateOrgIdInTrx(json, existingOrgId));
+		// the default is applied before the lookup, because it changes the request's hashCode
+		BPartnerEndpointAdapter.applyDefaults(json.getBpartner());
+
+		// create or update each distinct org request just once, even if it's part of many order line candidates
+		final OrgId orgId = orgIdsByRequest.get(json);
+		if (orgId != null)
+		{
+			return orgId;
+		}
+
+		final OrgId createdOrUpdatedOrgId = orgIdsByCode.compute(json.getCode(), (code, existingOrgId) -> createOrUpdateOrgIdInTrx(json, existingOrgId));
+		orgIdsByRequest.put(json, createdOrUpdatedOrgId);
+		return createdOrUpdatedOrgId;
 	}
 
 	@VisibleForTesting
@@ -0,0 +1,175 @@
+package de.metas.rest_api.ordercandidates.impl;
+
+import java.time.Instant;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ClientId;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import de.metas.rest_api.common.JsonErrorItem;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobItem;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus.Status;
+import de.metas.user.UserId;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * State of one asynchronously ingested order line candidates bulk, as it's persisted by {@link OLCandBulkIngestionJobRepository}.
+ * <p>
+ * The per-request results are not part of this class, because there might be a lot of them; see {@link OLCandBulkIngestionJobRepository#getItems(String, int, int)}.
+ */
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+@Value
+final class OLCandBulkIngestionJob
+{
+	String jobId;
+
+	/** The client and user who submitted the bulk; only they may see the job */
+	int clientId;
+	int userId;
+
+	/** The node which ingests the job; only that node shall flag it as interrupted when it restarts */
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	String nodeId;
+
+	/** When the node which ingests the job last confirmed that it's still alive */
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	Instant heartbeat;
+
+	Status status;
+	int countProcessed;
+	int countErrors;
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	JsonErrorItem error;
+
+	@JsonCreator
+	@Builder(toBuilder = true)
+	private OLCandBulkIngestionJob(
+			@JsonProperty("jobId") @NonNull final String jobId,
+			@JsonProperty("clientId") final int clientId,
+			@JsonProperty("userId") final int userId,
+			@JsonProperty("nodeId") @Nullable final String nodeId,
+			@JsonProperty("heartbeat") @Nullable final Instant heartbeat,
+			@JsonProperty("status") @NonNull final Status status,
+			@JsonProperty("countProcessed") final int countProcessed,
+			@JsonProperty("countErrors") final int countErrors,
+			@JsonProperty("error") @Nullable final JsonErrorItem error)
+	{
+		this.jobId = jobId;
+		this.clientId = clientId;
+		this.userId = userId;
+		this.nodeId = nodeId;
+		this.heartbeat = heartbeat;
+		this.status = status;
+		this.countProcessed = countProcessed;
+		this.countErrors = countErrors;
+		this.error = error;
+	}
+
+	public static OLCandBulkIngestionJob newJob(
+			@NonNull final String jobId,
+			@NonNull final ClientId clientId,
+			@NonNull final UserId userId,
+			@NonNull final String nodeId)
+	{
+		return builder()
+				.jobId(jobId)
+				.clientId(clientId.getRepoId())
+				.userId(userId.getRepoId())
+				.nodeId(nodeId)
+				.status(Status.QUEUED)
+				.build();
+	}
+
+	public boolean isOwnedBy(@NonNull final ClientId clientId, @NonNull final UserId userId)
+	{
+		return this.clientId == clientId.getRepoId() && this.userId == userId.getRepoId();
+	}
+
+	public boolean isDone()
+	{
+		return status == Status.COMPLETED || status == Status.FAILED;
+	}
+
+	public boolean isIngestedByNode(@NonNull final String nodeId)
+	{
+		return nodeId.equals(this.nodeId);
+	}
+
+	/**
+	 * @return true if the job's node did not confirm since the given time that it is still alive
+	 */
+	public boolean isHeartbeatBefore(@NonNull final Instant time)
+	{
+		return heartbeat == null || heartbeat.isBefore(time);
+	}
+
+	public OLCandBulkIngestionJob withHeartbeat(@NonNull final Instant heartbeat)
+	{
+		return toBuilder().heartbeat(heartbeat).build();
+	}
+
+	public OLCandBulkIngestionJob withStatus(@NonNull final Status status)
+	{
+		return toBuilder().status(status).build();
+	}
+
+	public OLCandBulkIngestionJob withFailed(@NonNull final JsonErrorItem error)
+	{
+		return toBuilder().status(Status.FAILED).error(error).build();
+	}
+
+	public OLCandBulkIngestionJob withItemsAdded(@NonNull final List<JsonOLCandCreateBulkJobItem> items)
+	{
+		final int countNewErrors = (int)items.stream().filter(item -> item.getError() != null).count();
+		return toBuilder()
+				.countProcessed(countProcessed + items.size())
+				.countErrors(countErrors + countNewErrors)
+				.build();
+	}
+
+	public JsonOLCandCreateBulkJobStatus toJson(@NonNull final List<JsonOLCandCreateBulkJobItem> items)
+	{
+		return JsonOLCandCreateBulkJobStatus.builder()
+				.jobId(jobId)
+				.status(status)
+				.countProcessed(countProcessed)
+				.countErrors(countErrors)
+				.items(items)
+				.error(error)
+				.build();
+	}
+}
@@ -0,0 +1,306 @@
+package de.metas.rest_api.ordercandidates.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.logging.LogManager;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobItem;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Persists {@link OLCandBulkIngestionJob}s in a directory, next to the spooled bulk requests they are about.
+ * <p>
+ * For each job there are up to three files:
+ * <ul>
+ * <li><code>&lt;jobId&gt;.request.json</code>: the spooled bulk request; deleted when the job is done
+ * <li><code>&lt;jobId&gt;.job.json</code>: the job's state; rewritten after each chunk
+ * <li><code>&lt;jobId&gt;.items.jsonl</code>: the results of the processed requests, one JSON per line; appended after each chunk
+ * </ul>
+ * Only the job's thread writes a job's files, so there is no locking.
+ */
+final class OLCandBulkIngestionJobRepository
+{
+	private static final Logger logger = LogManager.getLogger(OLCandBulkIngestionJobRepository.class);
+
+	private static final String SUFFIX_Request = ".request.json";
+	private static final String SUFFIX_Job = ".job.json";
+	private static final String SUFFIX_Items = ".items.jsonl";
+
+	private final Path directory;
+	private final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+
+	OLCandBulkIngestionJobRepository(@NonNull final Path directory)
+	{
+		this.directory = directory;
+		try
+		{
+			Files.createDirectories(directory);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed creating directory " + directory, ex);
+		}
+	}
+
+	public static String newJobId()
+	{
+		return UUID.randomUUID().toString();
+	}
+
+	/**
+	 * @return the path of the given job's file; fails if the given job ID is not one of ours, so it can't be used to access any other file
+	 */
+	private Path getFile(@NonNull final String jobId, @NonNull final String suffix)
+	{
+		if (!isValidJobId(jobId))
+		{
+			throw new AdempiereException("Invalid jobId: " + jobId);
+		}
+		return directory.resolve(jobId + suffix);
+	}
+
+	private static boolean isValidJobId(@NonNull final String jobId)
+	{
+		try
+		{
+			return UUID.fromString(jobId).toString().equals(jobId);
+		}
+		catch (final IllegalArgumentException ex)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * @param maxBytes if the request body is larger, then nothing is spooled and an exception is thrown
+	 */
+	public Path spoolRequest(@NonNull final String jobId, @NonNull final InputStream bulkRequestJson, final long maxBytes)
+	{
+		final Path requestFile = getFile(jobId, SUFFIX_Request);
+		try (final OutputStream out = Files.newOutputStream(requestFile))
+		{
+			final byte[] buffer = new byte[8192];
+			long countBytes = 0;
+			for (int read = bulkRequestJson.read(buffer); read >= 0; read = bulkRequestJson.read(buffer))
+			{
+				countBytes += read;
+				if (countBytes > maxBytes)
+				{
+					throw new AdempiereException("The request body is larger than the allowed " + maxBytes + " bytes");
+				}
+				out.write(buffer, 0, read);
+			}
+			return requestFile;
+		}
+		catch (final IOException ex)
+		{
+			deleteIfExists(requestFile);
+			throw new AdempiereException("Failed spooling the request body to disk", ex);
+		}
+		catch (final RuntimeException ex)
+		{
+			deleteIfExists(requestFile);
+			throw ex;
+		}
+	}
+
+	public Path getRequestFile(@NonNull final String jobId)
+	{
+		return getFile(jobId, SUFFIX_Request);
+	}
+
+	public void deleteRequestFile(@NonNull final String jobId)
+	{
+		deleteIfExists(getFile(jobId, SUFFIX_Request));
+	}
+
+	public void save(@NonNull final OLCandBulkIngestionJob job)
+	{
+		// write to a temporary file first, so that a concurrent reader never sees a partially written job
+		final Path jobFile = getFile(job.getJobId(), SUFFIX_Job);
+		final Path tempFile = jobFile.resolveSibling(jobFile.getFileName() + ".tmp");
+		try
+		{
+			jsonObjectMapper.writeValue(tempFile.toFile(), job);
+			Files.move(tempFile, jobFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed saving " + job, ex);
+		}
+	}
+
+	public Optional<OLCandBulkIngestionJob> getById(@NonNull final String jobId)
+	{
+		if (!isValidJobId(jobId))
+		{
+			return Optional.empty();
+		}
+
+		final Path jobFile = getFile(jobId, SUFFIX_Job);
+		if (!Files.exists(jobFile))
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			return Optional.of(jsonObjectMapper.readValue(jobFile.toFile(), OLCandBulkIngestionJob.class));
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed reading " + jobFile, ex);
+		}
+	}
+
+	public List<OLCandBulkIngestionJob> getAll()
+	{
+		final ImmutableList.Builder<OLCandBulkIngestionJob> jobs = ImmutableList.builder();
+		try (final DirectoryStream<Path> jobFiles = Files.newDirectoryStream(directory, "*" + SUFFIX_Job))
+		{
+			for (final Path jobFile : jobFiles)
+			{
+				final String jobId = jobFile.getFileName().toString().replace(SUFFIX_Job, "");
+				getById(jobId).ifPresent(jobs::add);
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed listing the jobs in " + directory, ex);
+		}
+		return jobs.build();
+	}
+
+	public void appendItems(@NonNull final String jobId, @NonNull final List<JsonOLCandCreateBulkJobItem> items)
+	{
+		final Path itemsFile = getFile(jobId, SUFFIX_Items);
+		try (final BufferedWriter writer = Files.newBufferedWriter(itemsFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+		{
+			for (final JsonOLCandCreateBulkJobItem item : items)
+			{
+				writer.write(jsonObjectMapper.writeValueAsString(item));
+				writer.newLine();
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed appending the results to " + itemsFile, ex);
+		}
+	}
+
+	/**
+	 * @return up to <code>limit</code> results of the given job's processed requests, starting with the <code>offset</code>-th one
+	 */
+	public List<JsonOLCandCreateBulkJobItem> getItems(@NonNull final String jobId, final int offset, final int limit)
+	{
+		final Path itemsFile = getFile(jobId, SUFFIX_Items);
+		if (limit <= 0 || !Files.exists(itemsFile))
+		{
+			return ImmutableList.of();
+		}
+
+		final List<JsonOLCandCreateBulkJobItem> items = new ArrayList<>(limit);
+		try (final BufferedReader reader = Files.newBufferedReader(itemsFile, StandardCharsets.UTF_8))
+		{
+			int lineNo = 0;
+			for (String line = reader.readLine(); line != null && items.size() < limit; line = reader.readLine())
+			{
+				if (lineNo++ >= offset)
+				{
+					items.add(jsonObjectMapper.readValue(line, JsonOLCandCreateBulkJobItem.class));
+				}
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed reading the results from " + itemsFile, ex);
+		}
+		return items;
+	}
+
+	/**
+	 * Deletes all files of all jobs whose state was last saved before the given time.
+	 */
+	public void deleteJobsSavedBefore(@NonNull final Instant time)
+	{
+		for (final OLCandBulkIngestionJob job : getAll())
+		{
+			final String jobId = job.getJobId();
+			if (getLastModified(getFile(jobId, SUFFIX_Job)).isBefore(time))
+			{
+				deleteIfExists(getFile(jobId, SUFFIX_Request));
+				deleteIfExists(getFile(jobId, SUFFIX_Items));
+				deleteIfExists(getFile(jobId, SUFFIX_Job));
+				logger.debug("Deleted the files of {}", job);
+			}
+		}
+	}
+
+	private static Instant getLastModified(@NonNull final Path file)
+	{
+		try
+		{
+			return Files.getLastModifiedTime(file).toInstant();
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed getting the last modified time of " + file, ex);
+		}
+	}
+
+	private static void deleteIfExists(@NonNull final Path file)
+	{
+		try
+		{
+			Files.deleteIfExists(file);
+		}
+		catch (final IOException ex)
+		{
+			logger.warn("Failed deleting {}", file, ex);
+		}
+	}
+}
@@ -0,0 +1,468 @@
+package de.metas.rest_api.ordercandidates.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.Mutable;
+import org.adempiere.util.net.NetUtils;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.Profiles;
+import de.metas.logging.LogManager;
+import de.metas.rest_api.common.JsonErrorItem;
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateRequest;
+import de.metas.rest_api.ordercandidates.response.JsonOLCand;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobItem;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus.Status;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkResponse;
+import de.metas.rest_api.utils.JsonErrors;
+import de.metas.user.UserId;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Ingests large order line candidate bulks asynchronously.
+ * <p>
+ * The request body is spooled to a file and the HTTP request returns right away.
+ * Then the file is parsed incrementally (i.e. one {@link JsonOLCandCreateRequest} at a time) and the requests are processed in chunks on a small thread pool.
+ * That way neither the whole bulk has to fit into memory, nor is an HTTP request thread blocked while the candidates are created.
+ * <p>
+ * The jobs' states and results are persisted by {@link OLCandBulkIngestionJobRepository} (i.e. not kept in memory), so that clients can poll them page by page, also after a restart.
+ * If a cluster of nodes serves the REST API, their directories have to be shared and each node needs its own {@code nodeId}.
+ * Each job is ingested by the node which accepted it; that node periodically records a heartbeat in each of its unfinished jobs.
+ * A job whose node restarted or did not record a heartbeat for a while is flagged as failed.
+ */
+@Service
+@Profile(Profiles.PROFILE_App)
+public class OLCandBulkIngestionService
+{
+	private static final Logger logger = LogManager.getLogger(OLCandBulkIngestionService.class);
+
+	private static final String REQUESTS_FIELD_NAME = "requests";
+
+	/** Max number of per-request results returned at once */
+	@VisibleForTesting
+	static final int MAX_ITEMS_LIMIT = 1000;
+
+	/** After how many missed heartbeats another node considers a job's node to be gone */
+	private static final int STALE_AFTER_MISSED_HEARTBEATS = 10;
+
+	private final int chunkSize;
+	private final Duration retention;
+	private final String nodeId;
+	private final Duration heartbeatInterval;
+	private final long maxRequestBytes;
+	private final OLCandBulkIngestionJobRepository jobRepo;
+	private final ExecutorService executor;
+	private final ScheduledExecutorService maintenanceExecutor;
+
+	/** The latest state of each job which this node accepted and which is not done yet; guarded by {@code this} */
+	private final Map<String, OLCandBulkIngestionJob> unfinishedJobs = new HashMap<>();
+
+	/**
+	 * @param threadsCount how many bulks are ingested concurrently
+	 * @param chunkSize how many order line candidate requests are processed (and committed) together
+	 * @param directory where the bulks and jobs are stored; if empty, a directory in the system's temp dir is used
+	 * @param retentionHours how long the jobs are kept after they were last updated
+	 * @param nodeId identifies this node among all nodes which share the directory and has to be the same after a restart; if empty, the host name is used
+	 * @param heartbeatSeconds how often this node records that it's still ingesting its jobs, and deletes the expired jobs
+	 * @param maxRequestMB max size of a bulk's request body
+	 */
+	public OLCandBulkIngestionService(
+			@Value("${metasfresh.rest-api.ordercandidates.async.threads:1}") final int threadsCount,
+			@Value("${metasfresh.rest-api.ordercandidates.async.chunkSize:100}") final int chunkSize,
+			@Value("${metasfresh.rest-api.ordercandidates.async.directory:}") final String directory,
+			@Value("${metasfresh.rest-api.ordercandidates.async.retentionHours:24}") final int retentionHours,
+			@Value("${metasfresh.rest-api.ordercandidates.async.nodeId:}") final String nodeId,
+			@Value("${metasfresh.rest-api.ordercandidates.async.heartbeatSeconds:60}") final int heartbeatSeconds,
+			@Value("${metasfresh.rest-api.ordercandidates.async.maxRequestMB:1024}") final int maxRequestMB)
+	{
+		Check.assumeGreaterThanZero(threadsCount, "threadsCount");
+		Check.assumeGreaterThanZero(chunkSize, "chunkSize");
+		Check.assumeGreaterThanZero(retentionHours, "retentionHours");
+		Check.assumeGreaterThanZero(heartbeatSeconds, "heartbeatSeconds");
+		Check.assumeGreaterThanZero(maxRequestMB, "maxRequestMB");
+		this.chunkSize = chunkSize;
+		this.retention = Duration.ofHours(retentionHours);
+		this.nodeId = Check.isEmpty(nodeId, true)
+				? NetUtils.getLocalHost().getHostName()
+				: nodeId.trim();
+		this.heartbeatInterval = Duration.ofSeconds(heartbeatSeconds);
+		this.maxRequestBytes = maxRequestMB * 1024L * 1024L;
+
+		final Path directoryPath = Check.isEmpty(directory, true)
+				? Paths.get(System.getProperty("java.io.tmpdir"), "metasfresh-olcand-bulks")
+				: Paths.get(directory.trim());
+		this.jobRepo = new OLCandBulkIngestionJobRepository(directoryPath);
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(getClass().getSimpleName())
+				.setDaemon(true)
+				.build();
+		executor = Executors.newFixedThreadPool(threadsCount, threadFactory);
+
+		maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(getClass().getSimpleName() + "-maintenance")
+				.setDaemon(true)
+				.build());
+	}
+
+	/**
+	 * Flags this node's jobs that were interrupted by its shutdown as failed, as well as the jobs of nodes which are gone, and starts the periodic maintenance.
+	 * <p>
+	 * We don't resume interrupted jobs, because the results of their last chunk might have been committed, but not recorded.
+	 */
+	@PostConstruct
+	public void start()
+	{
+		final Instant staleBefore = computeStaleBefore();
+		failInterruptedJobs(job -> job.isIngestedByNode(nodeId) || job.isHeartbeatBefore(staleBefore));
+		jobRepo.deleteJobsSavedBefore(Instant.now().minus(retention));
+
+		final long heartbeatMillis = heartbeatInterval.toMillis();
+		maintenanceExecutor.scheduleAtFixedRate(
+				this::maintainJobsNoFail, // command, don't fail because on failure the task won't be re-scheduled
+				heartbeatMillis, // initialDelay
+				heartbeatMillis, // period
+				TimeUnit.MILLISECONDS);
+		logger.info("Started with nodeId={} and heartbeatInterval={}", nodeId, heartbeatInterval);
+	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		maintenanceExecutor.shutdown();
+		executor.shutdown();
+	}
+
+	private Instant computeStaleBefore()
+	{
+		return Instant.now().minus(heartbeatInterval.multipliedBy(STALE_AFTER_MISSED_HEARTBEATS));
+	}
+
+	private void maintainJobsNoFail()
+	{
+		try
+		{
+			maintainJobs();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed maintaining the jobs; will retry in {}", heartbeatInterval, ex);
+		}
+	}
+
+	/**
+	 * Records a heartbeat in each of this node's unfinished jobs, flags the unfinished jobs of nodes which are gone as failed and deletes the expired jobs.
+	 */
+	@VisibleForTesting
+	void maintainJobs()
+	{
+		synchronized (this)
+		{
+			ImmutableList.copyOf(unfinishedJobs.values()).forEach(this::saveJob);
+		}
+
+		final Instant staleBefore = computeStaleBefore();
+		failInterruptedJobs(job -> !job.isIngestedByNode(nodeId) && job.isHeartbeatBefore(staleBefore));
+
+		jobRepo.deleteJobsSavedBefore(Instant.now().minus(retention));
+	}
+
+	private void failInterruptedJobs(@NonNull final Predicate<OLCandBulkIngestionJob> interrupted)
+	{
+		for (final OLCandBulkIngestionJob job : jobRepo.getAll())
+		{
+			if (job.isDone() || !interrupted.test(job))
+			{
+				continue;
+			}
+
+			jobRepo.save(job.withFailed(JsonErrorItem.builder()
+					.message("The job was interrupted by a restart or outage of node " + job.getNodeId() + " after " + job.getCountProcessed() + " processed requests; the remaining requests were not processed")
+					.build()));
+			jobRepo.deleteRequestFile(job.getJobId());
+			logger.warn("Flagged interrupted {} as failed", job);
+		}
+	}
+
+	/**
+	 * Saves the given state of one of this node's jobs, together with a new heartbeat.
+	 * <p>
+	 * Synchronized, so that a heartbeat never overwrites a newer state which was saved by the job's ingestion thread.
+	 */
+	private synchronized void saveJob(@NonNull final OLCandBulkIngestionJob job)
+	{
+		final OLCandBulkIngestionJob jobToSave = job.withHeartbeat(Instant.now());
+		jobRepo.save(jobToSave);
+
+		if (jobToSave.isDone())
+		{
+			unfinishedJobs.remove(jobToSave.getJobId());
+		}
+		else
+		{
+			unfinishedJobs.put(jobToSave.getJobId(), jobToSave);
+		}
+	}
+
+	/**
+	 * Spools the given JSON (a {@link JsonOLCandCreateBulkRequest}) to disk and enqueues its ingestion.
+	 * <p>
+	 * The job belongs to the current context's client and user.
+	 * Fails if the request body is larger than {@code maxRequestMB}.
+	 *
+	 * @param chunkProcessor invoked with consecutive chunks of the bulk's requests; it has to return one {@link JsonOLCand} per request, in the same order
+	 * @return the new job
+	 */
+	public OLCandBulkIngestionJob submit(
+			@NonNull final InputStream bulkRequestJson,
+			@NonNull final Function<JsonOLCandCreateBulkRequest, JsonOLCandCreateBulkResponse> chunkProcessor)
+	{
+		final String jobId = OLCandBulkIngestionJobRepository.newJobId();
+		final Path file = jobRepo.spoolRequest(jobId, bulkRequestJson, maxRequestBytes);
+
+		final OLCandBulkIngestionJob job = OLCandBulkIngestionJob.newJob(jobId, Env.getClientId(), Env.getLoggedUserId(), nodeId);
+		saveJob(job);
+
+		// NOTE: the job runs on a pool thread, where the caller's context is not available, so we have to set it up again
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		final String adLanguage = Env.getADLanguageOrBaseLanguage();
+		executor.execute(() -> {
+			try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+			{
+				ingest(job, file, chunkProcessor, adLanguage);
+			}
+		});
+
+		logger.debug("Enqueued {} for {}", jobId, file);
+		return job;
+	}
+
+	/**
+	 * @param offset index of the first processed request to return the result for
+	 * @param limit max number of results to return; at most {@link #MAX_ITEMS_LIMIT}
+	 * @return the job's status, or empty if there is no such job or if it does not belong to the given client and user
+	 */
+	public Optional<JsonOLCandCreateBulkJobStatus> getJobStatus(
+			@NonNull final String jobId,
+			@NonNull final ClientId clientId,
+			@NonNull final UserId userId,
+			final int offset,
+			final int limit)
+	{
+		return jobRepo.getById(jobId)
+				.filter(job -> job.isOwnedBy(clientId, userId))
+				.map(job -> job.toJson(jobRepo.getItems(jobId, Math.max(offset, 0), Math.min(limit, MAX_ITEMS_LIMIT))));
+	}
+
+	private void ingest(
+			@NonNull final OLCandBulkIngestionJob queuedJob,
+			@NonNull final Path file,
+			@NonNull final Function<JsonOLCandCreateBulkRequest, JsonOLCandCreateBulkResponse> chunkProcessor,
+			@NonNull final String adLanguage)
+	{
+		final String jobId = queuedJob.getJobId();
+		final Mutable<OLCandBulkIngestionJob> job = new Mutable<>(queuedJob.withStatus(Status.RUNNING));
+		saveJob(job.getValue());
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			streamRequests(file, (startIndex, chunk) -> {
+				final List<JsonOLCandCreateBulkJobItem> items = new ArrayList<>(chunk.size());
+				processChunk(items, startIndex, chunk, chunkProcessor, adLanguage);
+
+				jobRepo.appendItems(jobId, items);
+				job.setValue(job.getValue().withItemsAdded(items));
+				saveJob(job.getValue());
+			});
+			job.setValue(job.getValue().withStatus(Status.COMPLETED));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed ingesting {} from {}", jobId, file, ex);
+			job.setValue(job.getValue().withFailed(JsonErrors.ofThrowable(ex, adLanguage)));
+		}
+		finally
+		{
+			saveJob(job.getValue());
+			jobRepo.deleteRequestFile(jobId);
+			logger.info("Ingested {} in {}", job.getValue(), stopwatch.stop());
+		}
+	}
+
+	/**
+	 * Parses the given file incrementally and feeds its {@code requests} to the given consumer, {@link #chunkSize} at a time.
+	 */
+	@VisibleForTesting
+	void streamRequests(
+			@NonNull final Path file,
+			@NonNull final ChunkConsumer chunkConsumer) throws IOException
+	{
+		final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+
+		try (final JsonParser parser = jsonObjectMapper.getFactory().createParser(file.toFile()))
+		{
+			if (parser.nextToken() != JsonToken.START_OBJECT)
+			{
+				throw new AdempiereException("Expected the bulk request to be a JSON object");
+			}
+
+			int index = 0;
+			while (parser.nextToken() == JsonToken.FIELD_NAME)
+			{
+				final String fieldName = parser.getCurrentName();
+				final JsonToken valueToken = parser.nextToken();
+				if (!REQUESTS_FIELD_NAME.equals(fieldName))
+				{
+					parser.skipChildren();
+					continue;
+				}
+
+				if (valueToken != JsonToken.START_ARRAY)
+				{
+					throw new AdempiereException("Expected `" + REQUESTS_FIELD_NAME + "` to be a JSON array");
+				}
+
+				final List<JsonOLCandCreateRequest> chunk = new ArrayList<>(chunkSize);
+				int chunkStartIndex = index;
+				while (parser.nextToken() != JsonToken.END_ARRAY)
+				{
+					chunk.add(jsonObjectMapper.readValue(parser, JsonOLCandCreateRequest.class));
+					index++;
+
+					if (chunk.size() >= chunkSize)
+					{
+						chunkConsumer.accept(chunkStartIndex, chunk);
+						chunk.clear();
+						chunkStartIndex = index;
+					}
+				}
+
+				if (!chunk.isEmpty())
+				{
+					chunkConsumer.accept(chunkStartIndex, chunk);
+				}
+			}
+		}
+	}
+
+	@FunctionalInterface
+	@VisibleForTesting
+	interface ChunkConsumer
+	{
+		/**
+		 * @param startIndex the index of the chunk's first request within the bulk
+		 */
+		void accept(int startIndex, List<JsonOLCandCreateRequest> chunk);
+	}
+
+	/**
+	 * Processes the given chunk as one bulk. If that fails, each request is processed on its own, so that the error can be attributed to the request(s) that caused it.
+	 *
+	 * @param items the result of each of the chunk's requests is added to this list
+	 */
+	private static void processChunk(
+			@NonNull final List<JsonOLCandCreateBulkJobItem> items,
+			final int startIndex,
+			@NonNull final List<JsonOLCandCreateRequest> chunk,
+			@NonNull final Function<JsonOLCandCreateBulkRequest, JsonOLCandCreateBulkResponse> chunkProcessor,
+			@NonNull final String adLanguage)
+	{
+		final JsonOLCandCreateBulkResponse response = processChunk0(chunk, chunkProcessor, adLanguage);
+		if (!response.isError())
+		{
+			final List<JsonOLCand> olCands = response.getResult();
+			for (int i = 0; i < olCands.size(); i++)
+			{
+				items.add(JsonOLCandCreateBulkJobItem.ok(startIndex + i, olCands.get(i)));
+			}
+		}
+		else if (chunk.size() > 1)
+		{
+			for (int i = 0; i < chunk.size(); i++)
+			{
+				processChunk(items, startIndex + i, chunk.subList(i, i + 1), chunkProcessor, adLanguage);
+			}
+		}
+		else
+		{
+			items.add(JsonOLCandCreateBulkJobItem.error(startIndex, response.getError()));
+		}
+	}
+
+	private static JsonOLCandCreateBulkResponse processChunk0(
+			@NonNull final List<JsonOLCandCreateRequest> chunk,
+			@NonNull final Function<JsonOLCandCreateBulkRequest, JsonOLCandCreateBulkResponse> chunkProcessor,
+			@NonNull final String adLanguage)
+	{
+		try
+		{
+			return chunkProcessor.apply(JsonOLCandCreateBulkRequest.builder().requests(chunk).build());
+		}
+		catch (final Exception ex)
+		{
+			return JsonOLCandCreateBulkResponse.error(JsonErrors.ofThrowable(ex, adLanguage));
+		}
+	}
+}
@@ -3,10 +3,14 @@ package de.metas.rest_api.ordercandidates.impl;
 import static de.metas.util.lang.CoalesceUtil.coalesce;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -20,6 +24,7 @@ import org.slf4j.MDC.MDCCloseable;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -60,7 +65,12 @@ import de.metas.rest_api.ordercandidates.OrderCandidatesRestEndpoint;
 import de.metas.rest_api.ordercandidates.impl.ProductMasterDataProvider.ProductInfo;
 import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
 import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateRequest;
+import de.metas.rest_api.ordercandidates.request.JsonOrganization;
+import de.metas.rest_api.ordercandidates.request.JsonProductInfo;
+import de.metas.rest_api.ordercandidates.request.JsonRequestBPartnerLocationAndContact;
 import de.metas.rest_api.ordercandidates.response.JsonAttachment;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus.Status;
 import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkResponse;
 import de.metas.rest_api.utils.ApiAPMHelper;
 import de.metas.rest_api.utils.JsonErrors;
@@ -70,8 +80,10 @@ import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.lang.CoalesceUtil;
 import de.metas.util.time.SystemTime;
+import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -108,6 +120,7 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 	private final OLCandRepository olCandRepo;
 	private final BpartnerRestController bpartnerRestController;
 	private final PerformanceMonitoringService perfMonService;
+	private final OLCandBulkIngestionService bulkIngestionService;
 
 	private PermissionServiceFactory permissionServiceFactory;
 
@@ -115,12 +128,14 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 			@NonNull final JsonConverters jsonConverters,
 			@NonNull final OLCandRepository olCandRepo,
 			@NonNull final BpartnerRestController bpartnerRestController,
-			@NonNull final PerformanceMonitoringService perfMonService)
+			@NonNull final PerformanceMonitoringService perfMonService,
+			@NonNull final OLCandBulkIngestionService bulkIngestionService)
 	{
 		this.jsonConverters = jsonConverters;
 		this.olCandRepo = olCandRepo;
 		this.bpartnerRestController = bpartnerRestController;
 		this.perfMonService = perfMonService;
+		this.bulkIngestionService = bulkIngestionService;
 		this.permissionServiceFactory = PermissionServiceFactories.currentContext();
 	}
 
@@ -175,6 +190,52 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 		}
 	}
 
+	@ApiOperation("Accepts a (large) bulk of order line candidates and creates them asynchronously. Returns a job ID that can be used to poll the job's status.")
+	@PostMapping(PATH_BULK_ASYNC)
+	@Override
+	public ResponseEntity<JsonOLCandCreateBulkJobStatus> createOrderLineCandidatesAsync(
+			@ApiParam(required = true, value = "A `JsonOLCandCreateBulkRequest`; it's read as a stream, so the bulk may be larger than what would fit into memory") //
+			@NonNull final InputStream bulkRequestJson)
+	{
+		try
+		{
+			final OLCandBulkIngestionJob job = bulkIngestionService.submit(bulkRequestJson, bulkRequest -> createOrderLineCandidates(bulkRequest).getBody());
+
+			final URI statusLocation = URI.create(ENDPOINT + PATH_BULK_ASYNC + "/" + job.getJobId());
+			return ResponseEntity.accepted()
+					.location(statusLocation)
+					.body(job.toJson(ImmutableList.of()));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Got exception while accepting an async bulk request", ex);
+
+			final String adLanguage = Env.getADLanguageOrBaseLanguage();
+			return ResponseEntity.badRequest()
+					.body(JsonOLCandCreateBulkJobStatus.builder()
+							.jobId("-")
+							.status(Status.FAILED)
+							.error(JsonErrors.ofThrowable(ex, adLanguage))
+							.build());
+		}
+	}
+
+	@ApiOperation("Returns the status of an async order line candidates bulk, including the results of the requests that were processed so far, one page at a time.")
+	@GetMapping(PATH_BULK_ASYNC + "/{jobId}")
+	@Override
+	public ResponseEntity<JsonOLCandCreateBulkJobStatus> getCreateOrderLineCandidatesAsyncStatus(
+			@PathVariable("jobId") @NonNull final String jobId,
+			@ApiParam("Index of the first processed request whose result shall be returned") //
+			@RequestParam(name = "offset", required = false, defaultValue = "0") final int offset,
+			@ApiParam("Max number of results to return; at most " + OLCandBulkIngestionService.MAX_ITEMS_LIMIT) //
+			@RequestParam(name = "limit", required = false, defaultValue = "100") final int limit)
+	{
+		// only the user who submitted the job may see it; everyone else gets the same answer as for an unknown job
+		return bulkIngestionService.getJobStatus(jobId, Env.getClientId(), Env.getLoggedUserId(), offset, limit)
+				.map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+
 	private void assertCanCreate(
 			@NonNull final JsonOLCandCreateRequest request,
 			@NonNull final MasterdataProvider masterdataProvider)
@@ -188,10 +249,46 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 			@NonNull final MasterdataProvider masterdataProvider)
 	{
 		perfMonService.monitorSpan(
-				() -> bulkRequest.getRequests()
-						.stream()
+				() -> extractDistinctMasterdataRequests(bulkRequest)
 						.forEach(request -> createOrUpdateMasterdata(request, masterdataProvider)),
-						ApiAPMHelper.createMetadataFor("CreateOrUpdateMasterDataBulk"));
+				ApiAPMHelper.createMetadataFor("CreateOrUpdateMasterDataBulk"));
+	}
+
+	/**
+	 * @return one request for each distinct combination of master data (org, bpartners and product) within the given bulk.
+	 *         Usually the candidates of a bulk share just a handful of bpartners and products, so there is no need to look them up over and over again.
+	 */
+	@VisibleForTesting
+	static ImmutableList<JsonOLCandCreateRequest> extractDistinctMasterdataRequests(@NonNull final JsonOLCandCreateBulkRequest bulkRequest)
+	{
+		final Map<MasterdataKey, JsonOLCandCreateRequest> requestsByMasterdataKey = new LinkedHashMap<>();
+		for (final JsonOLCandCreateRequest request : bulkRequest.getRequests())
+		{
+			requestsByMasterdataKey.putIfAbsent(MasterdataKey.of(request), request);
+		}
+		return ImmutableList.copyOf(requestsByMasterdataKey.values());
+	}
+
+	@Value
+	private static class MasterdataKey
+	{
+		JsonOrganization org;
+		JsonRequestBPartnerLocationAndContact bpartner;
+		JsonRequestBPartnerLocationAndContact billBPartner;
+		JsonRequestBPartnerLocationAndContact dropShipBPartner;
+		JsonRequestBPartnerLocationAndContact handOverBPartner;
+		JsonProductInfo product;
+
+		static MasterdataKey of(@NonNull final JsonOLCandCreateRequest request)
+		{
+			return new MasterdataKey(
+					request.getOrg(),
+					request.getBpartner(),
+					request.getBillBPartner(),
+					request.getDropShipBPartner(),
+					request.getHandOverBPartner(),
+					request.getProduct());
+		}
 	}
 
 	private void createOrUpdateMasterdata(
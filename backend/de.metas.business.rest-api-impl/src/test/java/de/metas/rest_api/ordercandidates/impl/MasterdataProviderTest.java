@@ -28,6 +28,7 @@ import org.mockito.Mockito;
 
 import de.metas.bpartner.BPGroupRepository;
 import de.metas.bpartner.composite.repository.BPartnerCompositeRepository;
+import de.metas.bpartner.service.BPartnerInfo;
 import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.bpartner.service.impl.BPartnerBL;
@@ -80,6 +81,8 @@ import de.metas.util.Services;
 
 public class MasterdataProviderTest
 {
+	private BpartnerRestController bpartnerRestController;
+
 	private MasterdataProvider masterdataProvider;
 
 	private JsonRequestBPartner jsonBPartner;
@@ -136,7 +139,7 @@ public class MasterdataProviderTest
 				new BPGroupRepository(),
 				new GreetingRepository(),
 				currencyRepository);
-		final BpartnerRestController bpartnerRestController = new BpartnerRestController(
+		bpartnerRestController = new BpartnerRestController(
 				new BPartnerEndpointService(jsonServiceFactory),
 				jsonServiceFactory,
 				new JsonRequestConsolidateService());
@@ -243,4 +246,35 @@ public class MasterdataProviderTest
 		assertThat(POJOLookupMap.get().getRecords(I_C_BPartner_Location.class, l -> "externalId".equals(l.getExternalId()))).hasSize(1);
 	}
 
+	@Test
+	void getCreateBPartnerInfo_sameRequestTwice()
+	{
+		final BpartnerRestController bpartnerRestControllerSpy = Mockito.spy(bpartnerRestController);
+		final MasterdataProvider masterdataProvider = MasterdataProvider.builder()
+				.permissionService(Mockito.mock(PermissionService.class))
+				.bpartnerRestController(bpartnerRestControllerSpy)
+				.build();
+
+		final BPartnerInfo bpartnerInfo1 = masterdataProvider.getCreateBPartnerInfoInTrx(jsonBPartnerInfo, true/* billTo */, OrgId.ofRepoId(10));
+		final BPartnerInfo bpartnerInfo2 = masterdataProvider.getCreateBPartnerInfoInTrx(jsonBPartnerInfo, true/* billTo */, OrgId.ofRepoId(10));
+
+		assertThat(bpartnerInfo2).isEqualTo(bpartnerInfo1);
+		Mockito.verify(bpartnerRestControllerSpy, Mockito.times(1)).createOrUpdateBPartner(Mockito.any());
+	}
+
+	@Test
+	void getCreateOrgId_sameRequestTwice()
+	{
+		final OrgId orgId1 = masterdataProvider.getCreateOrgIdInTrx(jsonOrganization);
+
+		final I_AD_Org orgRecord = Services.get(IOrgDAO.class).getById(orgId1);
+		orgRecord.setName("changedName");
+		saveRecord(orgRecord);
+
+		final OrgId orgId2 = masterdataProvider.getCreateOrgIdInTrx(jsonOrganization);
+
+		// the same org request is not applied again
+		assertThat(orgId2).isEqualTo(orgId1);
+		assertThat(Services.get(IOrgDAO.class).getById(orgId2).getName()).isEqualTo("changedName");
+	}
 }
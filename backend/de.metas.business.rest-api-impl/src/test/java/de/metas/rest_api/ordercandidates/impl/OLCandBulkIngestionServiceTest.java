@@ -0,0 +1,286 @@
+package de.metas.rest_api.ordercandidates.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateRequest;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobItem;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus.Status;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkResponse;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class OLCandBulkIngestionServiceTest
+{
+	private static final String BULK_REQUEST_RESOURCE = "/JsonOLCandCreateBulkRequest.json";
+
+	private static final String NODE_ID = "node1";
+	private static final String OTHER_NODE_ID = "node2";
+
+	private static final Function<JsonOLCandCreateBulkRequest, JsonOLCandCreateBulkResponse> FAILING_CHUNK_PROCESSOR = bulkRequest -> {
+		throw new AdempiereException("failing on purpose");
+	};
+
+	@TempDir
+	Path directory;
+
+	private ClientId clientId;
+	private UserId userId;
+	private OLCandBulkIngestionService service;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		clientId = Env.getClientId();
+		userId = UserId.ofRepoId(100);
+		Env.setLoggedUserId(Env.getCtx(), userId);
+
+		service = newService();
+	}
+
+	private OLCandBulkIngestionService newService()
+	{
+		final OLCandBulkIngestionService service = new OLCandBulkIngestionService(1, 5, directory.toString(), 24, NODE_ID, 60, 1);
+		service.start();
+		return service;
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		service.shutdown();
+	}
+
+	@Test
+	public void streamRequests() throws Exception
+	{
+		final JsonOLCandCreateBulkRequest bulkRequest = JsonOLCandUtil.fromResource(BULK_REQUEST_RESOURCE);
+		assertThat(bulkRequest.getRequests()).hasSize(21); // guard
+
+		final Path file = Files.createTempFile("OLCandBulkIngestionServiceTest-", ".json");
+		try (final InputStream in = getClass().getResourceAsStream(BULK_REQUEST_RESOURCE))
+		{
+			Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+
+			final List<Integer> chunkStartIndexes = new ArrayList<>();
+			final List<JsonOLCandCreateRequest> requests = new ArrayList<>();
+			service.streamRequests(file, (startIndex, chunk) -> {
+				chunkStartIndexes.add(startIndex);
+				requests.addAll(chunk);
+			});
+
+			assertThat(chunkStartIndexes).containsExactly(0, 5, 10, 15, 20);
+			assertThat(requests).isEqualTo(bulkRequest.getRequests());
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void submit_failingRequestsAreReportedOneByOne() throws Exception
+	{
+		final String jobId = submit(FAILING_CHUNK_PROCESSOR);
+
+		final JsonOLCandCreateBulkJobStatus status = awaitDone(jobId, 0, 100);
+		assertThat(status.getStatus()).isEqualTo(Status.COMPLETED);
+		assertThat(status.getCountProcessed()).isEqualTo(21);
+		assertThat(status.getCountErrors()).isEqualTo(21);
+		assertThat(status.getItems())
+				.extracting(JsonOLCandCreateBulkJobItem::getIndex)
+				.isEqualTo(ImmutableList.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20));
+		assertThat(status.getItems()).allSatisfy(item -> assertThat(item.getError().getMessage()).contains("failing on purpose"));
+
+		assertThat(new OLCandBulkIngestionJobRepository(directory).getRequestFile(jobId)).as("the spooled request is deleted when the job is done").doesNotExist();
+	}
+
+	@Test
+	public void getJobStatus_paged() throws Exception
+	{
+		final String jobId = submit(FAILING_CHUNK_PROCESSOR);
+
+		final JsonOLCandCreateBulkJobStatus status = awaitDone(jobId, 5, 3);
+		assertThat(status.getCountProcessed()).isEqualTo(21);
+		assertThat(status.getItems())
+				.extracting(JsonOLCandCreateBulkJobItem::getIndex)
+				.containsExactly(5, 6, 7);
+
+		assertThat(getJobStatus(jobId, 20, 100).getItems())
+				.extracting(JsonOLCandCreateBulkJobItem::getIndex)
+				.containsExactly(20);
+	}
+
+	@Test
+	public void getJobStatus_onlyForOwner() throws Exception
+	{
+		final String jobId = submit(FAILING_CHUNK_PROCESSOR);
+		awaitDone(jobId, 0, 100);
+
+		assertThat(service.getJobStatus(jobId, clientId, UserId.ofRepoId(101), 0, 100)).isEmpty();
+		assertThat(service.getJobStatus(jobId, ClientId.ofRepoId(clientId.getRepoId() + 1), userId, 0, 100)).isEmpty();
+	}
+
+	@Test
+	public void getJobStatus_invalidJobId()
+	{
+		assertThat(service.getJobStatus("../../etc/passwd", clientId, userId, 0, 100)).isEmpty();
+	}
+
+	@Test
+	public void jobSurvivesRestart() throws Exception
+	{
+		final String jobId = submit(FAILING_CHUNK_PROCESSOR);
+		awaitDone(jobId, 0, 100);
+
+		service.shutdown();
+		service = newService();
+
+		final JsonOLCandCreateBulkJobStatus status = getJobStatus(jobId, 0, 100);
+		assertThat(status.getStatus()).isEqualTo(Status.COMPLETED);
+		assertThat(status.getCountErrors()).isEqualTo(21);
+		assertThat(status.getItems()).hasSize(21);
+	}
+
+	@Test
+	public void interruptedJobIsFailedOnRestart() throws Exception
+	{
+		// a job which was still running when the previous instance of this node stopped
+		final String jobId = saveRunningJob(NODE_ID, Instant.now());
+
+		service.shutdown();
+		service = newService();
+
+		final JsonOLCandCreateBulkJobStatus status = getJobStatus(jobId, 0, 100);
+		assertThat(status.getStatus()).isEqualTo(Status.FAILED);
+		assertThat(status.getError().getMessage()).contains("interrupted");
+		assertThat(new OLCandBulkIngestionJobRepository(directory).getRequestFile(jobId)).doesNotExist();
+	}
+
+	@Test
+	public void otherNodesRunningJobIsNotFailedOnRestart() throws Exception
+	{
+		final String jobId = saveRunningJob(OTHER_NODE_ID, Instant.now());
+
+		service.shutdown();
+		service = newService();
+		service.maintainJobs();
+
+		assertThat(getJobStatus(jobId, 0, 100).getStatus()).isEqualTo(Status.RUNNING);
+		assertThat(new OLCandBulkIngestionJobRepository(directory).getRequestFile(jobId)).exists();
+	}
+
+	@Test
+	public void otherNodesStaleJobIsFailed() throws Exception
+	{
+		// the other node did not record a heartbeat since long before we started, so it's gone
+		final String jobId = saveRunningJob(OTHER_NODE_ID, Instant.now().minus(Duration.ofHours(1)));
+
+		service.maintainJobs();
+
+		final JsonOLCandCreateBulkJobStatus status = getJobStatus(jobId, 0, 100);
+		assertThat(status.getStatus()).isEqualTo(Status.FAILED);
+		assertThat(status.getError().getMessage()).contains("interrupted").contains(OTHER_NODE_ID);
+	}
+
+	@Test
+	public void submit_requestTooLarge() throws Exception
+	{
+		final OLCandBulkIngestionJobRepository jobRepo = new OLCandBulkIngestionJobRepository(directory);
+		final String jobId = OLCandBulkIngestionJobRepository.newJobId();
+		try (final InputStream in = getClass().getResourceAsStream(BULK_REQUEST_RESOURCE))
+		{
+			assertThatThrownBy(() -> jobRepo.spoolRequest(jobId, in, 100))
+					.hasMessageContaining("larger than the allowed 100 bytes");
+		}
+		assertThat(jobRepo.getRequestFile(jobId)).doesNotExist();
+	}
+
+	private String saveRunningJob(final String nodeId, final Instant heartbeat) throws Exception
+	{
+		final OLCandBulkIngestionJobRepository jobRepo = new OLCandBulkIngestionJobRepository(directory);
+		final String jobId = OLCandBulkIngestionJobRepository.newJobId();
+		try (final InputStream in = getClass().getResourceAsStream(BULK_REQUEST_RESOURCE))
+		{
+			jobRepo.spoolRequest(jobId, in, Long.MAX_VALUE);
+		}
+		jobRepo.save(OLCandBulkIngestionJob.newJob(jobId, clientId, userId, nodeId)
+				.withStatus(Status.RUNNING)
+				.withHeartbeat(heartbeat));
+		return jobId;
+	}
+
+	private String submit(final Function<JsonOLCandCreateBulkRequest, JsonOLCandCreateBulkResponse> chunkProcessor) throws Exception
+	{
+		try (final InputStream in = getClass().getResourceAsStream(BULK_REQUEST_RESOURCE))
+		{
+			return service.submit(in, chunkProcessor).getJobId();
+		}
+	}
+
+	private JsonOLCandCreateBulkJobStatus getJobStatus(final String jobId, final int offset, final int limit)
+	{
+		return service.getJobStatus(jobId, clientId, userId, offset, limit)
+				.orElseThrow(() -> new AssertionError("No job found for " + jobId));
+	}
+
+	private JsonOLCandCreateBulkJobStatus awaitDone(final String jobId, final int offset, final int limit) throws InterruptedException
+	{
+		for (int i = 0; i < 100; i++)
+		{
+			final JsonOLCandCreateBulkJobStatus status = getJobStatus(jobId, offset, limit);
+			if (status.getStatus() == Status.COMPLETED || status.getStatus() == Status.FAILED)
+			{
+				return status;
+			}
+			Thread.sleep(100);
+		}
+		throw new AssertionError("Job did not finish in time: " + getJobStatus(jobId, 0, 0));
+	}
+}
@@ -266,7 +266,8 @@ public class OrderCandidatesRestControllerImplTest
 				jsonConverters,
 				new OLCandRepository(),
 				bpartnerRestController,
-				new NoopPerformanceMonitoringService());
+				new NoopPerformanceMonitoringService(),
+				new OLCandBulkIngestionService(1, 100, "", 24, "", 60, 1024));
 
 		final PermissionService permissionService = Mockito.mock(PermissionService.class);
 		Mockito.doReturn(OrgId.ofRepoId(defaultOrgRecord.getAD_Org_ID())).when(permissionService).getDefaultOrgId();
@@ -374,6 +375,20 @@ public class OrderCandidatesRestControllerImplTest
 		expect(olCands).toMatchSnapshot();
 	}
 
+	@Test
+	public void extractDistinctMasterdataRequests()
+	{
+		final JsonOLCandCreateBulkRequest bulkRequest = JsonOLCandUtil.fromResource("/JsonOLCandCreateBulkRequest.json");
+		final List<JsonOLCandCreateRequest> requests = bulkRequest.getRequests();
+
+		final long distinctProductsCount = requests.stream().map(JsonOLCandCreateRequest::getProduct).distinct().count();
+
+		// all requests share the same org and bpartners, so they only differ in their products
+		final List<JsonOLCandCreateRequest> distinctRequests = OrderCandidatesRestControllerImpl.extractDistinctMasterdataRequests(bulkRequest);
+		assertThat(distinctRequests).hasSize((int)distinctProductsCount);
+		assertThat(distinctRequests).first().isSameAs(requests.get(0));
+	}
+
 	/**
 	 * Asserts that every {@link AttachmentEntry.Type} has a matching {@link JsonAttachmentType} and vice versa
 	 */
@@ -1,6 +1,7 @@
 package de.metas.rest_api.ordercandidates;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.http.ResponseEntity;
@@ -9,6 +10,7 @@ import org.springframework.web.multipart.MultipartFile;
 import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
 import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateRequest;
 import de.metas.rest_api.ordercandidates.response.JsonAttachment;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus;
 import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkResponse;
 import de.metas.util.web.MetasfreshRestAPIConstants;
 
@@ -40,10 +42,24 @@ public interface OrderCandidatesRestEndpoint
 
 	String PATH_BULK = "/bulk";
 
+	String PATH_BULK_ASYNC = "/bulk/async";
+
 	ResponseEntity<JsonOLCandCreateBulkResponse> createOrderLineCandidate(JsonOLCandCreateRequest request);
 
 	ResponseEntity<JsonOLCandCreateBulkResponse> createOrderLineCandidates(JsonOLCandCreateBulkRequest bulkRequest);
 
+	/**
+	 * Like {@link #createOrderLineCandidates(JsonOLCandCreateBulkRequest)}, but the given {@link JsonOLCandCreateBulkRequest} JSON is processed asynchronously.
+	 * Intended for bulks that are too large to be processed within one HTTP request.
+	 */
+	ResponseEntity<JsonOLCandCreateBulkJobStatus> createOrderLineCandidatesAsync(InputStream bulkRequestJson);
+
+	/**
+	 * @param offset index of the first processed request whose result shall be included
+	 * @param limit max number of results to include
+	 */
+	ResponseEntity<JsonOLCandCreateBulkJobStatus> getCreateOrderLineCandidatesAsyncStatus(String jobId, int offset, int limit);
+
 	ResponseEntity<JsonAttachment> attachFile(
 			String dataSourceName,
 			String externalReference,
@@ -0,0 +1,75 @@
+package de.metas.rest_api.ordercandidates.response;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import de.metas.rest_api.common.JsonErrorItem;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business.rest-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+@Value
+@ApiModel(description = "The result of one order line candidate request within an asynchronously ingested bulk. Either `olCand` or `error` is set.")
+public class JsonOLCandCreateBulkJobItem
+{
+	public static JsonOLCandCreateBulkJobItem ok(final int index, @NonNull final JsonOLCand olCand)
+	{
+		return new JsonOLCandCreateBulkJobItem(index, olCand, null);
+	}
+
+	public static JsonOLCandCreateBulkJobItem error(final int index, @NonNull final JsonErrorItem error)
+	{
+		return new JsonOLCandCreateBulkJobItem(index, null, error);
+	}
+
+	@ApiModelProperty( //
+			allowEmptyValue = false, //
+			value = "Zero-based index of the request within the bulk's `requests`")
+	int index;
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	JsonOLCand olCand;
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	JsonErrorItem error;
+
+	@JsonCreator
+	private JsonOLCandCreateBulkJobItem(
+			@JsonProperty("index") final int index,
+			@JsonProperty("olCand") @Nullable final JsonOLCand olCand,
+			@JsonProperty("error") @Nullable final JsonErrorItem error)
+	{
+		this.index = index;
+		this.olCand = olCand;
+		this.error = error;
+	}
+}
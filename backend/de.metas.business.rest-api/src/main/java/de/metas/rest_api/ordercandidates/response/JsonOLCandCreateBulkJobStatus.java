@@ -0,0 +1,100 @@
+package de.metas.rest_api.ordercandidates.response;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.rest_api.common.JsonErrorItem;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business.rest-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+@Value
+@ApiModel(description = "Status of a bulk of order line candidates that is ingested asynchronously")
+public class JsonOLCandCreateBulkJobStatus
+{
+	public enum Status
+	{
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	@ApiModelProperty( //
+			allowEmptyValue = false, //
+			value = "ID assigned to the ingestion job by metasfresh; use it to poll the job's status")
+	String jobId;
+
+	Status status;
+
+	@ApiModelProperty( //
+			allowEmptyValue = false, //
+			value = "Number of order line candidate requests from the bulk that were processed so far, successfully or not")
+	int countProcessed;
+
+	@ApiModelProperty( //
+			allowEmptyValue = false, //
+			value = "Number of order line candidate requests from the bulk that failed so far")
+	int countErrors;
+
+	@ApiModelProperty( //
+			allowEmptyValue = true, //
+			value = "The results of the processed order line candidate requests, in the order of the bulk; only the page that was requested via `offset` and `limit`")
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	List<JsonOLCandCreateBulkJobItem> items;
+
+	@ApiModelProperty( //
+			allowEmptyValue = true, //
+			value = "Set if the job as a whole failed, e.g. because the request body could not be parsed")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	JsonErrorItem error;
+
+	@JsonCreator
+	@Builder
+	private JsonOLCandCreateBulkJobStatus(
+			@JsonProperty("jobId") @NonNull final String jobId,
+			@JsonProperty("status") @NonNull final Status status,
+			@JsonProperty("countProcessed") final int countProcessed,
+			@JsonProperty("countErrors") final int countErrors,
+			@JsonProperty("items") @Singular final List<JsonOLCandCreateBulkJobItem> items,
+			@JsonProperty("error") @Nullable final JsonErrorItem error)
+	{
+		this.jobId = jobId;
+		this.status = status;
+		this.countProcessed = countProcessed;
+		this.countErrors = countErrors;
+		this.items = items != null ? ImmutableList.copyOf(items) : ImmutableList.of();
+		this.error = error;
+	}
+}
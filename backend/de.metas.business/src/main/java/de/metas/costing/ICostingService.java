@@ -1,7 +1,10 @@
 package de.metas.costing;
 
+import java.util.List;
 import java.util.Optional;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.order.OrderLineId;
 
 /*
@@ -30,6 +33,14 @@ public interface ICostingService
 {
 	AggregatedCostAmount createCostDetail(CostDetailCreateRequest request);
 
+	/**
+	 * Same as calling {@link #createCostDetail(CostDetailCreateRequest)} for each request, in the given order,
+	 * but the current costs are loaded and saved only once for the whole batch.
+	 *
+	 * @return the aggregated cost amounts, in the same order as the requests
+	 */
+	ImmutableList<AggregatedCostAmount> createCostDetails(List<CostDetailCreateRequest> requests);
+
 	AggregatedCostAmount createReversalCostDetails(CostDetailReverseRequest request);
 
 	void voidAndDeleteForDocument(CostingDocumentRef documentRef);
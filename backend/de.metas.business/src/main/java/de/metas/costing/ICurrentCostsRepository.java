@@ -1,5 +1,6 @@
 package de.metas.costing;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -46,12 +47,22 @@ public interface ICurrentCostsRepository
 
 	void save(CurrentCost currentCost);
 
+	/**
+	 * Same as calling {@link #save(CurrentCost)} for each of the given costs, but the existing cost records are loaded with one query.
+	 */
+	void saveAll(Collection<CurrentCost> currentCosts);
+
 	void deleteForProduct(I_M_Product product);
 
 	Optional<AggregatedCostPrice> getAggregatedCostPriceByCostSegmentAndCostingMethod(CostSegment costSegment, CostingMethod costingMethod);
 
 	List<CurrentCost> getByCostSegmentAndCostingMethod(CostSegment costSegment, CostingMethod costingMethod);
 
+	/**
+	 * Same as {@link #getByCostSegmentAndCostingMethod(CostSegment, CostingMethod)}, but loads the costs of many cost segments (usually of many products) with a few queries.
+	 */
+	List<CurrentCost> getByCostSegmentsAndCostingMethod(Collection<CostSegment> costSegments, CostingMethod costingMethod);
+
 	List<CurrentCost> getByCostSegmentAndCostElements(CostSegment costSegment, Set<CostElementId> costElementIds);
 
 	void updateCostRecord(CostSegmentAndElement costSegmentAndElement, Consumer<I_M_Cost> updater);
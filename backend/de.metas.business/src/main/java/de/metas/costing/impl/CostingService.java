@@ -40,6 +40,7 @@ import de.metas.costing.CostTypeId;
 import de.metas.costing.CostingDocumentRef;
 import de.metas.costing.CostingLevel;
 import de.metas.costing.CostingMethod;
+import de.metas.costing.CurrentCost;
 import de.metas.costing.ICostDetailService;
 import de.metas.costing.ICostElementRepository;
 import de.metas.costing.ICostingService;
@@ -130,10 +131,70 @@ public class CostingService implements ICostingService
 	@Override
 	public AggregatedCostAmount createCostDetail(@NonNull final CostDetailCreateRequest request)
 	{
-		final ImmutableList<CostDetailCreateResult> costElementResults = Stream.of(request)
+		return createCostDetail(request, explodeRequest(request));
+	}
+
+	@Override
+	public ImmutableList<AggregatedCostAmount> createCostDetails(@NonNull final List<CostDetailCreateRequest> requests)
+	{
+		if (requests.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList<ImmutableList<CostDetailCreateRequest>> explodedRequestsList = requests.stream()
+				.map(this::explodeRequest)
+				.collect(ImmutableList.toImmutableList());
+
+		final ImmutableList<CurrentCost> prefetchedCosts = retrieveCurrentCosts(explodedRequestsList
+				.stream()
+				.flatMap(List::stream)
+				.collect(ImmutableList.toImmutableList()));
+
+		return utils.callInCurrentCostsBatch(
+				prefetchedCosts,
+				() -> {
+					final ImmutableList.Builder<AggregatedCostAmount> result = ImmutableList.builder();
+					for (int i = 0; i < requests.size(); i++)
+					{
+						result.add(createCostDetail(requests.get(i), explodedRequestsList.get(i)));
+					}
+					return result.build();
+				});
+	}
+
+	private ImmutableList<CostDetailCreateRequest> explodeRequest(final CostDetailCreateRequest request)
+	{
+		return Stream.of(request)
 				.flatMap(this::explodeAcctSchemas)
 				.map(this::convertToAcctSchemaCurrency)
 				.flatMap(this::explodeCostElements)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Loads the current costs of all given requests, grouped by costing method, with a few queries.
+	 */
+	private ImmutableList<CurrentCost> retrieveCurrentCosts(final List<CostDetailCreateRequest> explodedRequests)
+	{
+		final ImmutableSetMultimap<CostingMethod, CostSegment> costSegmentsByCostingMethod = explodedRequests
+				.stream()
+				.collect(ImmutableSetMultimap.toImmutableSetMultimap(
+						request -> request.getCostElement().getCostingMethod(),
+						request -> utils.extractCostSegmentAndElement(request).toCostSegment()));
+
+		return costSegmentsByCostingMethod.keySet()
+				.stream()
+				.flatMap(costingMethod -> currentCostsRepo.getByCostSegmentsAndCostingMethod(costSegmentsByCostingMethod.get(costingMethod), costingMethod).stream())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private AggregatedCostAmount createCostDetail(
+			final CostDetailCreateRequest request,
+			final List<CostDetailCreateRequest> explodedRequests)
+	{
+		final ImmutableList<CostDetailCreateResult> costElementResults = explodedRequests
+				.stream()
 				.flatMap(this::createCostDetailUsingHandlersAndStream)
 				.collect(ImmutableList.toImmutableList());
 
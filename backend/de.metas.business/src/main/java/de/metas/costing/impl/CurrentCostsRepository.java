@@ -2,7 +2,10 @@ package de.metas.costing.impl;
 
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -23,7 +26,10 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.AcctSchemaId;
@@ -52,6 +58,7 @@ import de.metas.uom.IUOMDAO;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -80,6 +87,8 @@ public class CurrentCostsRepository implements ICurrentCostsRepository
 {
 	private static final Logger logger = LogManager.getLogger(CurrentCostsRepository.class);
 
+	private static final int IN_ARRAY_CHUNK_SIZE = 1000;
+
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final IProductBL productBL = Services.get(IProductBL.class);
 	private final IAcctSchemaDAO acctSchemasRepo = Services.get(IAcctSchemaDAO.class);
@@ -137,16 +146,39 @@ public class CurrentCostsRepository implements ICurrentCostsRepository
 	}
 
 	private IQueryBuilder<I_M_Cost> queryCostRecords(@NonNull final CostSegment costSegment)
+	{
+		return queryCostRecords(CostSegmentWithoutProduct.of(costSegment))
+				.addEqualsFilter(I_M_Cost.COLUMN_M_Product_ID, costSegment.getProductId());
+	}
+
+	private IQueryBuilder<I_M_Cost> queryCostRecords(@NonNull final CostSegmentWithoutProduct costSegment)
 	{
 		return queryBL
 				.createQueryBuilder(I_M_Cost.class)
 				.addEqualsFilter(I_M_Cost.COLUMN_AD_Org_ID, costSegment.getOrgId())
-				.addEqualsFilter(I_M_Cost.COLUMN_M_Product_ID, costSegment.getProductId())
 				.addEqualsFilter(I_M_Cost.COLUMN_M_AttributeSetInstance_ID, costSegment.getAttributeSetInstanceId())
 				.addEqualsFilter(I_M_Cost.COLUMN_M_CostType_ID, costSegment.getCostTypeId())
 				.addEqualsFilter(I_M_Cost.COLUMN_C_AcctSchema_ID, costSegment.getAcctSchemaId());
 	}
 
+	/**
+	 * The {@link CostSegment} fields by which the cost records are queried, except the product.
+	 * Cost segments which differ only in their product can be loaded by one query.
+	 */
+	@Value
+	private static class CostSegmentWithoutProduct
+	{
+		AcctSchemaId acctSchemaId;
+		CostTypeId costTypeId;
+		OrgId orgId;
+		AttributeSetInstanceId attributeSetInstanceId;
+
+		public static CostSegmentWithoutProduct of(@NonNull final CostSegment costSegment)
+		{
+			return new CostSegmentWithoutProduct(costSegment.getAcctSchemaId(), costSegment.getCostTypeId(), costSegment.getOrgId(), costSegment.getAttributeSetInstanceId());
+		}
+	}
+
 	@Override
 	public CurrentCost getOrCreate(@NonNull final CostSegmentAndElement costSegmentAndElement)
 	{
@@ -202,6 +234,37 @@ public class CurrentCostsRepository implements ICurrentCostsRepository
 		return getByCostSegmentAndCostElements(costSegment, costElementIds);
 	}
 
+	@Override
+	public ImmutableList<CurrentCost> getByCostSegmentsAndCostingMethod(@NonNull final Collection<CostSegment> costSegments, final CostingMethod costingMethod)
+	{
+		final Set<CostElementId> costElementIds = costElementRepo.getIdsByCostingMethod(costingMethod);
+		if (costSegments.isEmpty() || costElementIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableListMultimap<CostSegmentWithoutProduct, ProductId> productIdsBySegment = costSegments.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(CostSegmentWithoutProduct::of, CostSegment::getProductId));
+
+		final ImmutableList.Builder<CurrentCost> result = ImmutableList.builder();
+		for (final CostSegmentWithoutProduct costSegment : productIdsBySegment.keySet())
+		{
+			final Set<ProductId> productIds = ImmutableSet.copyOf(productIdsBySegment.get(costSegment));
+			for (final List<ProductId> productIdsChunk : Iterables.partition(productIds, IN_ARRAY_CHUNK_SIZE))
+			{
+				queryCostRecords(costSegment)
+						.addInArrayFilter(I_M_Cost.COLUMN_M_Product_ID, productIdsChunk)
+						.addInArrayFilter(I_M_Cost.COLUMN_M_CostElement_ID, costElementIds)
+						.create()
+						.stream(I_M_Cost.class)
+						.map(this::toCurrentCost)
+						.forEach(result::add);
+			}
+		}
+
+		return result.build();
+	}
+
 	@Override
 	public ImmutableList<CurrentCost> getByCostSegmentAndCostElements(@NonNull final CostSegment costSegment, @NonNull final Set<CostElementId> costElementIds)
 	{
@@ -260,6 +323,40 @@ public class CurrentCostsRepository implements ICurrentCostsRepository
 		currentCost.setId(CurrentCostId.ofRepoId(costRecord.getM_Cost_ID()));
 	}
 
+	@Override
+	public void saveAll(@NonNull final Collection<CurrentCost> currentCosts)
+	{
+		if (currentCosts.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableSet<CurrentCostId> existingCostIds = currentCosts.stream()
+				.map(CurrentCost::getId)
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		final Map<CurrentCostId, I_M_Cost> existingCostRecords = InterfaceWrapperHelper.loadByRepoIdAwaresAsMap(existingCostIds, I_M_Cost.class);
+
+		for (final CurrentCost currentCost : currentCosts)
+		{
+			final I_M_Cost costRecord;
+			if (currentCost.getId() != null)
+			{
+				final I_M_Cost existingCostRecord = existingCostRecords.get(currentCost.getId());
+				costRecord = existingCostRecord != null ? existingCostRecord : InterfaceWrapperHelper.load(currentCost.getId(), I_M_Cost.class);
+			}
+			else
+			{
+				costRecord = InterfaceWrapperHelper.newInstance(I_M_Cost.class);
+			}
+
+			updateCostRecord(costRecord, currentCost);
+			InterfaceWrapperHelper.save(costRecord);
+
+			currentCost.setId(CurrentCostId.ofRepoId(costRecord.getM_Cost_ID()));
+		}
+	}
+
 	private CurrentCost toCurrentCost(final I_M_Cost record)
 	{
 
@@ -1,7 +1,12 @@
 package de.metas.costing.methods;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.adempiere.service.ClientId;
@@ -67,6 +72,8 @@ public class CostingMethodHandlerUtils
 	private final ICostDetailService costDetailsService;
 	private final ICurrentCostsRepository currentCostsRepo;
 
+	private final ThreadLocal<CurrentCostsBatch> currentCostsBatchHolder = new ThreadLocal<>();
+
 	public CostingMethodHandlerUtils(
 			@NonNull final CurrencyRepository currenciesRepo,
 			@NonNull final ICurrentCostsRepository currentCostsRepo,
@@ -132,7 +139,10 @@ public class CostingMethodHandlerUtils
 
 	public final CurrentCost getCurrentCost(final CostSegmentAndElement costSegmentAndElement)
 	{
-		return currentCostsRepo.getOrCreate(costSegmentAndElement);
+		final CurrentCostsBatch currentCostsBatch = currentCostsBatchHolder.get();
+		return currentCostsBatch != null
+				? currentCostsBatch.getOrCreate(costSegmentAndElement)
+				: currentCostsRepo.getOrCreate(costSegmentAndElement);
 	}
 
 	public final CostPrice getCurrentCostPrice(final CostDetailCreateRequest request)
@@ -142,7 +152,49 @@ public class CostingMethodHandlerUtils
 
 	public final void saveCurrentCost(final CurrentCost currentCost)
 	{
-		currentCostsRepo.save(currentCost);
+		final CurrentCostsBatch currentCostsBatch = currentCostsBatchHolder.get();
+		if (currentCostsBatch != null)
+		{
+			currentCostsBatch.markChanged(currentCost);
+		}
+		else
+		{
+			currentCostsRepo.save(currentCost);
+		}
+	}
+
+	/**
+	 * Calls the given supplier while keeping the current costs in memory.
+	 * <p>
+	 * All {@link #getCurrentCost(CostSegmentAndElement)} calls for the same cost segment and element return the same instance
+	 * and {@link #saveCurrentCost(CurrentCost)} only remembers the changed costs. The changed costs are saved in one go when the supplier returns.
+	 * So calling the handlers for many requests in a batch gives the same current costs as calling them one by one, without loading and saving the costs for each request.
+	 * <p>
+	 * If a batch is already running in this thread, the supplier is just called as part of it.
+	 *
+	 * @param prefetchedCosts current costs which were already loaded from database, to be used instead of loading them one by one
+	 */
+	public <T> T callInCurrentCostsBatch(
+			@NonNull final Collection<CurrentCost> prefetchedCosts,
+			@NonNull final Supplier<T> supplier)
+	{
+		if (currentCostsBatchHolder.get() != null)
+		{
+			return supplier.get();
+		}
+
+		final CurrentCostsBatch currentCostsBatch = new CurrentCostsBatch(currentCostsRepo, prefetchedCosts);
+		currentCostsBatchHolder.set(currentCostsBatch);
+		try
+		{
+			final T result = supplier.get();
+			currentCostsBatch.saveChangedCosts();
+			return result;
+		}
+		finally
+		{
+			currentCostsBatchHolder.remove();
+		}
 	}
 
 	public CostAmount convertToAcctSchemaCurrency(final CostAmount amt, final CostDetailCreateRequest request)
@@ -196,4 +248,40 @@ public class CostingMethodHandlerUtils
 	{
 		return costDetailsService.streamAllCostDetailsAfter(costDetail);
 	}
+
+	private static final class CurrentCostsBatch
+	{
+		private final ICurrentCostsRepository currentCostsRepo;
+		private final Map<CostSegmentAndElement, CurrentCost> costs = new HashMap<>();
+		private final Map<CostSegmentAndElement, CurrentCost> changedCosts = new LinkedHashMap<>();
+
+		private CurrentCostsBatch(
+				@NonNull final ICurrentCostsRepository currentCostsRepo,
+				@NonNull final Collection<CurrentCost> prefetchedCosts)
+		{
+			this.currentCostsRepo = currentCostsRepo;
+			prefetchedCosts.forEach(cost -> costs.put(extractCostSegmentAndElement(cost), cost));
+		}
+
+		private static CostSegmentAndElement extractCostSegmentAndElement(final CurrentCost cost)
+		{
+			return CostSegmentAndElement.of(cost.getCostSegment(), cost.getCostElementId());
+		}
+
+		public CurrentCost getOrCreate(@NonNull final CostSegmentAndElement costSegmentAndElement)
+		{
+			return costs.computeIfAbsent(costSegmentAndElement, currentCostsRepo::getOrCreate);
+		}
+
+		public void markChanged(@NonNull final CurrentCost cost)
+		{
+			changedCosts.put(extractCostSegmentAndElement(cost), cost);
+		}
+
+		public void saveChangedCosts()
+		{
+			currentCostsRepo.saveAll(changedCosts.values());
+			changedCosts.clear();
+		}
+	}
 }
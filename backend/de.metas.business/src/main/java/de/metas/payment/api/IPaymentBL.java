@@ -50,6 +50,8 @@ public interface IPaymentBL extends ISingletonService
 
 	Set<PaymentId> getPaymentIds(@NonNull PaymentQuery query);
 
+	List<I_C_Payment> getPayments(@NonNull PaymentQuery query);
+
 	DefaultPaymentBuilder newInboundReceiptBuilder();
 
 	DefaultPaymentBuilder newOutboundPaymentBuilder();
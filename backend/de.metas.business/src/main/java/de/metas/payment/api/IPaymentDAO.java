@@ -36,6 +36,7 @@ import org.compiere.model.I_C_Payment;
  * #L%
  */
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.bpartner.BPartnerId;
@@ -98,5 +99,7 @@ public interface IPaymentDAO extends ISingletonService
 
 	ImmutableSet<PaymentId> retrievePaymentIds(PaymentQuery query);
 
+	ImmutableList<I_C_Payment> retrievePayments(PaymentQuery query);
+
 	void save(@NonNull final I_C_Payment payment);
 }
@@ -2,6 +2,8 @@ package de.metas.payment.api;
 
 import javax.annotation.Nullable;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.document.engine.DocStatus;
 import de.metas.money.Money;
@@ -52,6 +54,10 @@ public class PaymentQuery
 	@Nullable
 	BPartnerId bpartnerId;
 
+	/** If set, only the payments of these bpartners are matched */
+	@Nullable
+	ImmutableSet<BPartnerId> bpartnerIds;
+
 	@Nullable
 	Money payAmt;
 }
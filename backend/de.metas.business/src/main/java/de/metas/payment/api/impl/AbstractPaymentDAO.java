@@ -46,7 +46,9 @@ import org.compiere.model.I_C_PaySelection;
 import org.compiere.model.I_C_PaySelectionLine;
 import org.compiere.model.I_C_Payment;
 import org.compiere.model.I_Fact_Acct;
+import org.compiere.model.IQuery;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.allocation.api.IAllocationDAO;
@@ -190,6 +192,17 @@ public abstract class AbstractPaymentDAO implements IPaymentDAO
 
 	@Override
 	public ImmutableSet<PaymentId> retrievePaymentIds(@NonNull final PaymentQuery query)
+	{
+		return toQuery(query).listIds(PaymentId::ofRepoId);
+	}
+
+	@Override
+	public ImmutableList<I_C_Payment> retrievePayments(@NonNull final PaymentQuery query)
+	{
+		return ImmutableList.copyOf(toQuery(query).list(I_C_Payment.class));
+	}
+
+	private IQuery<I_C_Payment> toQuery(@NonNull final PaymentQuery query)
 	{
 		final IQueryBuilder<I_C_Payment> queryBuilder = queryBL.createQueryBuilder(I_C_Payment.class)
 				.addOnlyActiveRecordsFilter()
@@ -207,6 +220,10 @@ public abstract class AbstractPaymentDAO implements IPaymentDAO
 		{
 			queryBuilder.addEqualsFilter(I_C_Payment.COLUMNNAME_C_BPartner_ID, query.getBpartnerId());
 		}
+		if (query.getBpartnerIds() != null)
+		{
+			queryBuilder.addInArrayFilter(I_C_Payment.COLUMNNAME_C_BPartner_ID, query.getBpartnerIds());
+		}
 		if (query.getPayAmt() != null)
 		{
 			queryBuilder
@@ -216,8 +233,7 @@ public abstract class AbstractPaymentDAO implements IPaymentDAO
 
 		return queryBuilder
 				.setLimit(query.getLimit())
-				.create()
-				.listIds(PaymentId::ofRepoId);
+				.create();
 	}
 
 	@Override
@@ -122,6 +122,12 @@ public class PaymentBL implements IPaymentBL
 		return paymentDAO.retrievePaymentIds(query);
 	}
 
+	@Override
+	public List<I_C_Payment> getPayments(@NonNull final PaymentQuery query)
+	{
+		return paymentDAO.retrievePayments(query);
+	}
+
 	private CurrencyId fetchC_Currency_Invoice_ID(final I_C_Payment payment)
 	{
 		final int C_Invoice_ID = payment.getC_Invoice_ID();
@@ -1,7 +1,6 @@
 package de.metas.pricing.conditions;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -13,8 +12,12 @@ import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
 import de.metas.product.ProductAndCategoryAndManufacturerId;
 import de.metas.util.Check;
 import de.metas.util.lang.Percent;
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.Value;
 
 /*
@@ -40,12 +43,10 @@ import lombok.Value;
  */
 
 @Value
+@EqualsAndHashCode(exclude = "breaksIndex")
+@ToString(exclude = "breaksIndex")
 public class PricingConditions
 {
-	private static final Comparator<PricingConditionsBreak> SORT_BY_BREAK_VALUE = Comparator.<PricingConditionsBreak, BigDecimal> comparing(b -> b.getMatchCriteria().getBreakValue())
-			.thenComparing(PricingConditionsBreak::getSeqNo);
-	private static final Comparator<PricingConditionsBreak> SORT_BY_BREAK_VALUE_DESC = SORT_BY_BREAK_VALUE.reversed();
-
 	PricingConditionsId id;
 
 	PricingConditionsDiscountType discountType;
@@ -58,6 +59,9 @@ public class PricingConditions
 
 	List<PricingConditionsBreak> breaks;
 
+	@Getter(AccessLevel.NONE)
+	PricingConditionsBreaksIndex breaksIndex;
+
 	@Builder
 	private PricingConditions(
 			PricingConditionsId id,
@@ -75,6 +79,7 @@ public class PricingConditions
 		this.breakValueType = breakValueType;
 		this.breakAttributeId = breakAttributeId;
 		this.breaks = breaks;
+		this.breaksIndex = PricingConditionsBreaksIndex.of(breaks);
 	}
 
 	public boolean isBreaksDiscountType()
@@ -95,22 +100,7 @@ public class PricingConditions
 			return null;
 		}
 
-		return breaks.stream()
-				.sorted(SORT_BY_BREAK_VALUE_DESC)
-				.filter(schemaBreak -> schemaBreakMatches(schemaBreak, breakValue, query))
-				.findFirst()
-				.orElse(null);
-	}
-
-	private boolean schemaBreakMatches(
-			final PricingConditionsBreak schemaBreak,
-			final BigDecimal breakValue,
-			final PricingConditionsBreakQuery query)
-	{
-		final PricingConditionsBreakMatchCriteria matchCriteria = schemaBreak.getMatchCriteria();
-		return matchCriteria.breakValueMatches(breakValue)
-				&& matchCriteria.productMatches(query.getProduct())
-				&& matchCriteria.attributeMatches(query.getAttributes());
+		return breaksIndex.pickApplyingBreak(breakValue, query.getProduct(), query.getAttributes());
 	}
 
 	private BigDecimal extractBreakValue(final PricingConditionsBreakQuery query)
@@ -149,9 +139,7 @@ public class PricingConditions
 	{
 		Check.assumeNotEmpty(products, "products is not empty");
 
-		return getBreaks()
-				.stream()
-				.filter(schemaBreak -> schemaBreak.getMatchCriteria().productMatchesAnyOf(products));
+		return breaksIndex.streamBreaksMatchingAnyOfProducts(products);
 	}
 
 	public PricingConditionsBreak getBreakById(@NonNull final PricingConditionsBreakId breakId)
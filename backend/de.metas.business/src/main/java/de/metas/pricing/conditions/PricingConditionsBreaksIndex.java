@@ -0,0 +1,246 @@
+package de.metas.pricing.conditions;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.product.ProductAndCategoryAndManufacturerId;
+import de.metas.product.ProductCategoryId;
+import de.metas.product.ProductId;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable index of {@link PricingConditionsBreak}s, so that we don't have to scan all breaks of a (big) discount schema for each lookup.
+ * <p>
+ * The breaks are grouped by their product, product category and manufacturer criteria. A product can only match the breaks of at most 8 such groups
+ * (each criteria being either not set or equal to the product's one).
+ * Within a group, the breaks are sorted by break value, descending, so the applicable break is found by binary search.
+ */
+final class PricingConditionsBreaksIndex
+{
+	public static PricingConditionsBreaksIndex of(@Nullable final List<PricingConditionsBreak> breaks)
+	{
+		if (breaks == null || breaks.isEmpty())
+		{
+			return EMPTY;
+		}
+		return new PricingConditionsBreaksIndex(breaks);
+	}
+
+	private static final PricingConditionsBreaksIndex EMPTY = new PricingConditionsBreaksIndex(ImmutableList.of());
+
+	/**
+	 * Break value descending, then SeqNo descending.
+	 * Breaks which are equal in this regard are kept in their original order.
+	 */
+	private static final Comparator<IndexedBreak> ORDER_BY_BREAK_VALUE_DESC = Comparator.<IndexedBreak, BigDecimal> comparing(IndexedBreak::getBreakValue)
+			.thenComparingInt(IndexedBreak::getSeqNo)
+			.reversed()
+			.thenComparingInt(IndexedBreak::getPosition);
+
+	private final ImmutableMap<ProductKey, ImmutableList<IndexedBreak>> breaksByProductKey;
+
+	private PricingConditionsBreaksIndex(@NonNull final List<PricingConditionsBreak> breaks)
+	{
+		final LinkedHashMap<ProductKey, List<IndexedBreak>> breaksByProductKeyBuilder = new LinkedHashMap<>();
+		for (int position = 0; position < breaks.size(); position++)
+		{
+			final IndexedBreak indexedBreak = new IndexedBreak(breaks.get(position), position);
+			breaksByProductKeyBuilder
+					.computeIfAbsent(ProductKey.of(indexedBreak.getMatchCriteria()), key -> new ArrayList<>())
+					.add(indexedBreak);
+		}
+
+		final ImmutableMap.Builder<ProductKey, ImmutableList<IndexedBreak>> breaksByProductKey = ImmutableMap.builder();
+		breaksByProductKeyBuilder.forEach((productKey, indexedBreaks) -> {
+			indexedBreaks.sort(ORDER_BY_BREAK_VALUE_DESC);
+			breaksByProductKey.put(productKey, ImmutableList.copyOf(indexedBreaks));
+		});
+		this.breaksByProductKey = breaksByProductKey.build();
+	}
+
+	/**
+	 * @return the break with the highest break value which is less than or equal to the given {@code breakValue} and which matches the given product and attributes.
+	 *         Same as sorting all breaks by break value (descending) and picking the first one that matches.
+	 */
+	@Nullable
+	public PricingConditionsBreak pickApplyingBreak(
+			@NonNull final BigDecimal breakValue,
+			@NonNull final ProductAndCategoryAndManufacturerId product,
+			@NonNull final ImmutableAttributeSet attributes)
+	{
+		IndexedBreak bestBreak = null;
+		for (final ProductKey productKey : ProductKey.allMatching(product))
+		{
+			final ImmutableList<IndexedBreak> indexedBreaks = breaksByProductKey.get(productKey);
+			if (indexedBreaks == null)
+			{
+				continue;
+			}
+
+			for (int i = indexOfFirstBreakValueLessOrEqual(indexedBreaks, breakValue); i < indexedBreaks.size(); i++)
+			{
+				final IndexedBreak indexedBreak = indexedBreaks.get(i);
+				if (bestBreak != null && ORDER_BY_BREAK_VALUE_DESC.compare(indexedBreak, bestBreak) >= 0)
+				{
+					break; // the remaining breaks of this group can't beat what we already have
+				}
+				if (indexedBreak.getMatchCriteria().attributeMatches(attributes))
+				{
+					bestBreak = indexedBreak;
+					break;
+				}
+			}
+		}
+
+		return bestBreak != null ? bestBreak.getSchemaBreak() : null;
+	}
+
+	/**
+	 * @return the index of the first break whose break value is less than or equal to the given one, or the list's size if there is no such break
+	 */
+	private static int indexOfFirstBreakValueLessOrEqual(final List<IndexedBreak> indexedBreaksSortedDesc, final BigDecimal breakValue)
+	{
+		int low = 0;
+		int high = indexedBreaksSortedDesc.size();
+		while (low < high)
+		{
+			final int middle = (low + high) >>> 1;
+			if (indexedBreaksSortedDesc.get(middle).getBreakValue().compareTo(breakValue) <= 0)
+			{
+				high = middle;
+			}
+			else
+			{
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the breaks which match any of the given products, in their original order
+	 */
+	public Stream<PricingConditionsBreak> streamBreaksMatchingAnyOfProducts(@NonNull final Set<ProductAndCategoryAndManufacturerId> products)
+	{
+		final TreeMap<Integer, PricingConditionsBreak> breaksByPosition = new TreeMap<>();
+		for (final ProductAndCategoryAndManufacturerId product : products)
+		{
+			for (final ProductKey productKey : ProductKey.allMatching(product))
+			{
+				final ImmutableList<IndexedBreak> indexedBreaks = breaksByProductKey.get(productKey);
+				if (indexedBreaks != null)
+				{
+					indexedBreaks.forEach(indexedBreak -> breaksByPosition.put(indexedBreak.getPosition(), indexedBreak.getSchemaBreak()));
+				}
+			}
+		}
+
+		return breaksByPosition.values().stream();
+	}
+
+	@Value
+	private static class IndexedBreak
+	{
+		@NonNull
+		PricingConditionsBreak schemaBreak;
+
+		/** position in the pricing conditions' list of breaks */
+		int position;
+
+		PricingConditionsBreakMatchCriteria getMatchCriteria()
+		{
+			return schemaBreak.getMatchCriteria();
+		}
+
+		BigDecimal getBreakValue()
+		{
+			return getMatchCriteria().getBreakValue();
+		}
+
+		int getSeqNo()
+		{
+			return schemaBreak.getSeqNo();
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	private static class ProductKey
+	{
+		static ProductKey of(@NonNull final PricingConditionsBreakMatchCriteria matchCriteria)
+		{
+			return of(matchCriteria.getProductId(), matchCriteria.getProductCategoryId(), matchCriteria.getProductManufacturerId());
+		}
+
+		/**
+		 * @return the keys of all breaks that can match the given product; see {@link PricingConditionsBreakMatchCriteria#productMatches(ProductAndCategoryAndManufacturerId)}
+		 */
+		static Set<ProductKey> allMatching(@NonNull final ProductAndCategoryAndManufacturerId product)
+		{
+			final Set<ProductKey> keys = new LinkedHashSet<>();
+			for (final ProductId productId : nullAnd(product.getProductId()))
+			{
+				for (final ProductCategoryId productCategoryId : nullAnd(product.getProductCategoryId()))
+				{
+					for (final BPartnerId productManufacturerId : nullAnd(product.getProductManufacturerId()))
+					{
+						keys.add(of(productId, productCategoryId, productManufacturerId));
+					}
+				}
+			}
+			return keys;
+		}
+
+		private static <T> List<T> nullAnd(@Nullable final T value)
+		{
+			final List<T> values = new ArrayList<>(2);
+			values.add(null);
+			if (value != null)
+			{
+				values.add(value);
+			}
+			return values;
+		}
+
+		ProductId productId;
+		ProductCategoryId productCategoryId;
+		BPartnerId productManufacturerId;
+	}
+}
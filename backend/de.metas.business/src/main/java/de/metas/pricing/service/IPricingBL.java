@@ -23,6 +23,7 @@ package de.metas.pricing.service;
  */
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Set;
 
 import de.metas.bpartner.BPartnerId;
@@ -66,6 +67,14 @@ public interface IPricingBL extends ISingletonService
 
 	IPricingResult calculatePrice(IPricingContext pricingCtx);
 
+	/**
+	 * Same as calling {@link #calculatePrice(IPricingContext)} for each of the given contexts, but the pricing rules are created only once
+	 * and the main product prices of all contexts are loaded in one go.
+	 *
+	 * @return the pricing results, in the same order as the given contexts
+	 */
+	List<IPricingResult> calculatePrices(List<? extends IPricingContext> pricingCtxs);
+
 	/**
 	 * Creates an initial {@link IPricingResult}. Copies some of the given <code>pricingCtx</code>'s properties to the pricing result.
 	 *
@@ -17,12 +17,18 @@ import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_PricingSystem;
 import org.compiere.model.I_M_ProductPrice;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.SetMultimap;
+
 import de.metas.adempiere.model.I_M_Product;
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
@@ -42,6 +48,7 @@ import de.metas.uom.UomId;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -73,6 +80,8 @@ public class ProductPrices
 
 	private static final Logger logger = LogManager.getLogger(ProductPrices.class);
 
+	private static final ThreadLocal<MainProductPricesSnapshot> mainProductPricesSnapshotHolder = new ThreadLocal<>();
+
 	public static final ProductPriceQuery newQuery(@NonNull final I_M_PriceList_Version plv)
 	{
 		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
@@ -166,10 +175,45 @@ public class ProductPrices
 
 	public static final I_M_ProductPrice retrieveMainProductPriceOrNull(final I_M_PriceList_Version plv, final ProductId productId)
 	{
+		final MainProductPricesSnapshot snapshot = mainProductPricesSnapshotHolder.get();
+		if (snapshot != null)
+		{
+			final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+			if (snapshot.isLoaded(priceListVersionId, productId))
+			{
+				return getFirstOrThrowExceptionIfMoreThanOne(snapshot.getMainPrices(priceListVersionId, productId));
+			}
+		}
+
 		final List<I_M_ProductPrice> allMainPrices = retrieveAllMainPrices(plv, productId);
 		return getFirstOrThrowExceptionIfMoreThanOne(allMainPrices);
 	}
 
+	/**
+	 * Loads the main product prices of the given price list versions and products, using one query per price list version (and chunk of products).
+	 * Until the returned closeable is closed, {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)} takes them from there, if called from the current thread.
+	 * <p>
+	 * Prices of other price list versions or products (e.g. from a base price list) are still retrieved from database.
+	 */
+	public static IAutoCloseable temporaryUseMainProductPricesSnapshot(@NonNull final SetMultimap<PriceListVersionId, ProductId> productIdsByPriceListVersionId)
+	{
+		final MainProductPricesSnapshot snapshot = MainProductPricesSnapshot.load(productIdsByPriceListVersionId);
+
+		final MainProductPricesSnapshot previousSnapshot = mainProductPricesSnapshotHolder.get();
+		mainProductPricesSnapshotHolder.set(snapshot);
+
+		return () -> {
+			if (previousSnapshot != null)
+			{
+				mainProductPricesSnapshotHolder.set(previousSnapshot);
+			}
+			else
+			{
+				mainProductPricesSnapshotHolder.remove();
+			}
+		};
+	}
+
 	private static List<I_M_ProductPrice> retrieveAllMainPrices(
 			@NonNull final I_M_PriceList_Version plv,
 			@NonNull final ProductId productId)
@@ -188,6 +232,65 @@ public class ProductPrices
 				.addMatchersIfAbsent(MATCHERS_MainProductPrice); // IMORTANT: keep it last
 	}
 
+	private static final class MainProductPricesSnapshot
+	{
+		private static final int PRODUCT_IDS_CHUNK_SIZE = 500;
+
+		public static MainProductPricesSnapshot load(@NonNull final SetMultimap<PriceListVersionId, ProductId> productIdsByPriceListVersionId)
+		{
+			final ImmutableListMultimap.Builder<PriceListVersionAndProduct, I_M_ProductPrice> mainPrices = ImmutableListMultimap.builder();
+			for (final PriceListVersionId priceListVersionId : productIdsByPriceListVersionId.keySet())
+			{
+				for (final List<ProductId> productIds : Iterables.partition(productIdsByPriceListVersionId.get(priceListVersionId), PRODUCT_IDS_CHUNK_SIZE))
+				{
+					new ProductPriceQuery()
+							.setPriceListVersionId(priceListVersionId)
+							.setProductIds(productIds)
+							.noAttributePricing()
+							.onlyValidPrices(true)
+							//
+							.addMatchersIfAbsent(MATCHERS_MainProductPrice) // IMORTANT: keep it last
+							.list()
+							.forEach(productPrice -> mainPrices.put(
+									PriceListVersionAndProduct.of(priceListVersionId, ProductId.ofRepoId(productPrice.getM_Product_ID())),
+									productPrice));
+				}
+			}
+
+			return new MainProductPricesSnapshot(ImmutableSetMultimap.copyOf(productIdsByPriceListVersionId), mainPrices.build());
+		}
+
+		private final ImmutableSetMultimap<PriceListVersionId, ProductId> loadedProductIds;
+		private final ImmutableListMultimap<PriceListVersionAndProduct, I_M_ProductPrice> mainPrices;
+
+		private MainProductPricesSnapshot(
+				@NonNull final ImmutableSetMultimap<PriceListVersionId, ProductId> loadedProductIds,
+				@NonNull final ImmutableListMultimap<PriceListVersionAndProduct, I_M_ProductPrice> mainPrices)
+		{
+			this.loadedProductIds = loadedProductIds;
+			this.mainPrices = mainPrices;
+		}
+
+		public boolean isLoaded(@NonNull final PriceListVersionId priceListVersionId, @NonNull final ProductId productId)
+		{
+			return loadedProductIds.containsEntry(priceListVersionId, productId);
+		}
+
+		public List<I_M_ProductPrice> getMainPrices(@NonNull final PriceListVersionId priceListVersionId, @NonNull final ProductId productId)
+		{
+			return mainPrices.get(PriceListVersionAndProduct.of(priceListVersionId, productId));
+		}
+
+		@Value(staticConstructor = "of")
+		private static class PriceListVersionAndProduct
+		{
+			@NonNull
+			PriceListVersionId priceListVersionId;
+			@NonNull
+			ProductId productId;
+		}
+	}
+
 	private static I_M_ProductPrice getFirstOrThrowExceptionIfMoreThanOne(final List<I_M_ProductPrice> allMainPrices)
 	{
 		if (allMainPrices.isEmpty())
@@ -24,6 +24,7 @@ package de.metas.pricing.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -41,6 +42,7 @@ import org.slf4j.Logger;
 
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
 
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
@@ -160,11 +162,53 @@ public class PricingBL implements IPricingBL
 
 	@Override
 	public IPricingResult calculatePrice(@NonNull final IPricingContext pricingCtx)
+	{
+		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
+		final AggregatedPricingRule rules = createPricingRules();
+
+		return calculatePrice(pricingCtx, pricingCtxToUse, rules);
+	}
+
+	@Override
+	public List<IPricingResult> calculatePrices(@NonNull final List<? extends IPricingContext> pricingCtxs)
+	{
+		if (pricingCtxs.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList<IPricingContext> pricingCtxsToUse = pricingCtxs.stream()
+				.map(this::setupPricingContext)
+				.collect(ImmutableList.toImmutableList());
+
+		// the pricing rules are stateless, so we can create them only once for the whole batch
+		final AggregatedPricingRule rules = createPricingRules();
+
+		// load the main product prices of all price list versions and products in one go, instead of one query per context
+		final ImmutableSetMultimap<PriceListVersionId, ProductId> productIdsByPriceListVersionId = pricingCtxsToUse.stream()
+				.filter(pricingCtxToUse -> pricingCtxToUse.getPriceListVersionId() != null && pricingCtxToUse.getProductId() != null)
+				.collect(ImmutableSetMultimap.toImmutableSetMultimap(IPricingContext::getPriceListVersionId, IPricingContext::getProductId));
+
+		try (final IAutoCloseable mainProductPricesSnapshot = ProductPrices.temporaryUseMainProductPricesSnapshot(productIdsByPriceListVersionId))
+		{
+			final ImmutableList.Builder<IPricingResult> results = ImmutableList.builder();
+			for (int i = 0; i < pricingCtxs.size(); i++)
+			{
+				results.add(calculatePrice(pricingCtxs.get(i), pricingCtxsToUse.get(i), rules));
+			}
+			return results.build();
+		}
+	}
+
+	private IPricingResult calculatePrice(
+			@NonNull final IPricingContext pricingCtx,
+			@NonNull final IPricingContext pricingCtxToUse,
+			@NonNull final AggregatedPricingRule rules)
 	{
 		final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
 		try (IAutoCloseable c = Loggables.temporarySetLoggable(plainStringLoggable))
 		{
-			final IPricingResult result = calculatePrice0(pricingCtx);
+			final IPricingResult result = calculatePrice0(pricingCtx, pricingCtxToUse, rules);
 			return result.setLoggableMessages(plainStringLoggable.getSingleMessages());
 		}
 		catch (final ProductNotOnPriceListException e)
@@ -173,9 +217,11 @@ public class PricingBL implements IPricingBL
 		}
 	}
 
-	private IPricingResult calculatePrice0(final IPricingContext pricingCtx)
+	private IPricingResult calculatePrice0(
+			final IPricingContext pricingCtx,
+			final IPricingContext pricingCtxToUse,
+			final AggregatedPricingRule rules)
 	{
-		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
 		final PricingResult result = createInitialResult(pricingCtxToUse);
 
 		//
@@ -196,7 +242,6 @@ public class PricingBL implements IPricingBL
 			// return result;
 		}
 
-		final AggregatedPricingRule rules = createPricingRules();
 		rules.calculate(pricingCtxToUse, result);
 
 		//
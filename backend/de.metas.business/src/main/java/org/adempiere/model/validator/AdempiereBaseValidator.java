@@ -223,6 +223,7 @@ public final class AdempiereBaseValidator extends AbstractModuleInterceptor
 				.setExpireMinutes(5)
 				.setCacheMapType(CacheMapType.HashMap)
 				.setTrxLevel(TrxLevel.OutOfTransactionOnly)
+				.setReadThrough(true)
 				.register();
 		// M_Product_Category (for now, using the same setting that were in MProductCategory.s_cache
 		cachingService.createTableCacheConfigBuilder(I_M_Product_Category.class)
@@ -231,6 +232,7 @@ public final class AdempiereBaseValidator extends AbstractModuleInterceptor
 				.setExpireMinutes(120)
 				.setCacheMapType(CacheMapType.HashMap)
 				.setTrxLevel(TrxLevel.OutOfTransactionOnly)
+				.setReadThrough(true)
 				.register();
 		// M_AttributeSet (for now, using the same settings that were in MAttributeSet.s_cache)
 		cachingService.createTableCacheConfigBuilder(I_M_AttributeSet.class)
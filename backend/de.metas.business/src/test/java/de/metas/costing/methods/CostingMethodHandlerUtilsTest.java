@@ -0,0 +1,352 @@
+package de.metas.costing.methods;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.adempiere.mm.attributes.AttributeSetInstanceId;
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_Cost;
+import org.compiere.model.I_M_Product;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.business.BusinessTestHelper;
+import de.metas.costing.AggregatedCostPrice;
+import de.metas.costing.CostAmount;
+import de.metas.costing.CostElement;
+import de.metas.costing.CostElementId;
+import de.metas.costing.CostElementType;
+import de.metas.costing.CostSegment;
+import de.metas.costing.CostSegmentAndElement;
+import de.metas.costing.CostTypeId;
+import de.metas.costing.CostingLevel;
+import de.metas.costing.CostingMethod;
+import de.metas.costing.CurrentCost;
+import de.metas.costing.CurrentCostId;
+import de.metas.costing.ICurrentCostsRepository;
+import de.metas.costing.impl.CostDetailRepository;
+import de.metas.costing.impl.CostDetailService;
+import de.metas.costing.impl.CostElementRepository;
+import de.metas.currency.CurrencyPrecision;
+import de.metas.currency.CurrencyRepository;
+import de.metas.money.CurrencyId;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+import de.metas.quantity.Quantity;
+import de.metas.quantity.QuantityUOMConverter;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CostingMethodHandlerUtilsTest
+{
+	private static final CurrencyId CURRENCY_ID = CurrencyId.ofRepoId(1);
+	private static final QuantityUOMConverter NO_UOM_CONVERSION = (qty, productId, targetUOMId) -> qty;
+
+	private I_C_UOM uom;
+	private CostElement costElement;
+	private CostSegmentAndElement product1Costs;
+	private CostSegmentAndElement product2Costs;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		uom = BusinessTestHelper.createUOM("uom");
+		costElement = CostElement.builder()
+				.id(CostElementId.ofRepoId(1))
+				.name("costElement")
+				.costElementType(CostElementType.Material)
+				.costingMethod(CostingMethod.AverageInvoice)
+				.clientId(ClientId.ofRepoId(1))
+				.build();
+		product1Costs = CostSegmentAndElement.of(createCostSegment(ProductId.ofRepoId(1)), costElement.getId());
+		product2Costs = CostSegmentAndElement.of(createCostSegment(ProductId.ofRepoId(2)), costElement.getId());
+	}
+
+	private static CostSegment createCostSegment(final ProductId productId)
+	{
+		return CostSegment.builder()
+				.costingLevel(CostingLevel.Client)
+				.acctSchemaId(AcctSchemaId.ofRepoId(1))
+				.costTypeId(CostTypeId.ofRepoId(1))
+				.clientId(ClientId.ofRepoId(1))
+				.orgId(OrgId.ANY)
+				.productId(productId)
+				.attributeSetInstanceId(AttributeSetInstanceId.NONE)
+				.build();
+	}
+
+	@Value
+	private static class CostsChange
+	{
+		CostSegmentAndElement costSegmentAndElement;
+		int qty;
+		int amt;
+	}
+
+	@Value
+	private static class CostsSnapshot
+	{
+		public static CostsSnapshot of(@NonNull final CurrentCost currentCost)
+		{
+			return new CostsSnapshot(
+					currentCost.getCurrentQty().toBigDecimal(),
+					currentCost.getCumulatedAmt().getValue(),
+					currentCost.getCumulatedQty().toBigDecimal());
+		}
+
+		BigDecimal currentQty;
+		BigDecimal cumulatedAmt;
+		BigDecimal cumulatedQty;
+	}
+
+	private List<CostsChange> createCostsChanges()
+	{
+		return ImmutableList.of(
+				new CostsChange(product1Costs, 10, 100),
+				new CostsChange(product2Costs, 5, 30),
+				new CostsChange(product1Costs, -3, -30),
+				new CostsChange(product2Costs, 2, 14),
+				new CostsChange(product1Costs, 2, 25));
+	}
+
+	/**
+	 * Applies the given changes like a costing method handler does and returns the current costs each change started with.
+	 */
+	private List<CostsSnapshot> applyCostsChanges(final CostingMethodHandlerUtils utils, final List<CostsChange> costsChanges)
+	{
+		final List<CostsSnapshot> previousCosts = new ArrayList<>();
+		for (final CostsChange costsChange : costsChanges)
+		{
+			final CurrentCost currentCost = utils.getCurrentCost(costsChange.getCostSegmentAndElement());
+			previousCosts.add(CostsSnapshot.of(currentCost.copy()));
+
+			currentCost.addToCurrentQtyAndCumulate(
+					Quantity.of(costsChange.getQty(), uom),
+					CostAmount.of(BigDecimal.valueOf(costsChange.getAmt()), CURRENCY_ID),
+					NO_UOM_CONVERSION);
+			utils.saveCurrentCost(currentCost);
+		}
+		return previousCosts;
+	}
+
+	@Test
+	public void callInCurrentCostsBatch_sameCostsAsOneByOne()
+	{
+		final List<CostsChange> costsChanges = createCostsChanges();
+
+		final InMemoryCurrentCostsRepository oneByOneRepo = new InMemoryCurrentCostsRepository();
+		final List<CostsSnapshot> oneByOnePreviousCosts = applyCostsChanges(createUtils(oneByOneRepo), costsChanges);
+
+		final InMemoryCurrentCostsRepository batchRepo = new InMemoryCurrentCostsRepository();
+		final CostingMethodHandlerUtils batchUtils = createUtils(batchRepo);
+		final List<CostsSnapshot> batchPreviousCosts = batchUtils.callInCurrentCostsBatch(
+				ImmutableList.of(),
+				() -> applyCostsChanges(batchUtils, costsChanges));
+
+		assertThat(batchPreviousCosts).isEqualTo(oneByOnePreviousCosts);
+		assertThat(batchRepo.getSnapshot(product1Costs)).isEqualTo(oneByOneRepo.getSnapshot(product1Costs));
+		assertThat(batchRepo.getSnapshot(product2Costs)).isEqualTo(oneByOneRepo.getSnapshot(product2Costs));
+		assertThat(batchRepo.getSnapshot(product1Costs)).isEqualTo(new CostsSnapshot(new BigDecimal("9"), new BigDecimal("95"), new BigDecimal("9")));
+
+		assertThat(oneByOneRepo.getOrCreateCount).isEqualTo(costsChanges.size());
+		assertThat(oneByOneRepo.savedCount).isEqualTo(costsChanges.size());
+		assertThat(batchRepo.getOrCreateCount).as("each cost is loaded once").isEqualTo(2);
+		assertThat(batchRepo.savedCount).as("each changed cost is saved once").isEqualTo(2);
+	}
+
+	@Test
+	public void callInCurrentCostsBatch_usesPrefetchedCosts()
+	{
+		final InMemoryCurrentCostsRepository repo = new InMemoryCurrentCostsRepository();
+		final CostingMethodHandlerUtils utils = createUtils(repo);
+		final CurrentCost prefetchedCost = repo.getOrCreate(product1Costs);
+		repo.getOrCreateCount = 0;
+
+		utils.callInCurrentCostsBatch(
+				ImmutableList.of(prefetchedCost),
+				() -> applyCostsChanges(utils, ImmutableList.of(new CostsChange(product1Costs, 10, 100))));
+
+		assertThat(repo.getOrCreateCount).isZero();
+		assertThat(repo.getSnapshot(product1Costs)).isEqualTo(new CostsSnapshot(BigDecimal.TEN, new BigDecimal("100"), BigDecimal.TEN));
+	}
+
+	@Test
+	public void callInCurrentCostsBatch_nothingSavedIfFailed()
+	{
+		final InMemoryCurrentCostsRepository repo = new InMemoryCurrentCostsRepository();
+		final CostingMethodHandlerUtils utils = createUtils(repo);
+
+		assertThatThrownBy(() -> utils.callInCurrentCostsBatch(ImmutableList.of(), () -> {
+			applyCostsChanges(utils, createCostsChanges());
+			throw new RuntimeException("failed");
+		})).hasMessage("failed");
+
+		assertThat(repo.savedCount).isZero();
+
+		// the batch is over, so the costs are saved right away again
+		applyCostsChanges(utils, ImmutableList.of(new CostsChange(product1Costs, 10, 100)));
+		assertThat(repo.savedCount).isEqualTo(1);
+	}
+
+	private static CostingMethodHandlerUtils createUtils(final ICurrentCostsRepository currentCostsRepo)
+	{
+		// the cost detail service is not used by the methods under test
+		return new CostingMethodHandlerUtils(
+				new CurrencyRepository(),
+				currentCostsRepo,
+				new CostDetailService(new CostDetailRepository(), new CostElementRepository()));
+	}
+
+	/**
+	 * Keeps copies of the saved costs, so that changes which were not saved are not visible in the repository.
+	 */
+	private class InMemoryCurrentCostsRepository implements ICurrentCostsRepository
+	{
+		private final Map<CostSegmentAndElement, CurrentCost> costs = new HashMap<>();
+		private int getOrCreateCount = 0;
+		private int savedCount = 0;
+
+		public CostsSnapshot getSnapshot(final CostSegmentAndElement costSegmentAndElement)
+		{
+			return CostsSnapshot.of(costs.get(costSegmentAndElement));
+		}
+
+		@Override
+		public CurrentCost getOrCreate(@NonNull final CostSegmentAndElement costSegmentAndElement)
+		{
+			getOrCreateCount++;
+
+			final CurrentCost existingCost = costs.get(costSegmentAndElement);
+			if (existingCost != null)
+			{
+				return existingCost.copy();
+			}
+
+			return CurrentCost.builder()
+					.costSegment(costSegmentAndElement.toCostSegment())
+					.costElement(costElement)
+					.currencyId(CURRENCY_ID)
+					.precision(CurrencyPrecision.TWO)
+					.uom(uom)
+					.build();
+		}
+
+		@Override
+		public void save(@NonNull final CurrentCost currentCost)
+		{
+			savedCount++;
+			costs.put(CostSegmentAndElement.of(currentCost.getCostSegment(), currentCost.getCostElementId()), currentCost.copy());
+		}
+
+		@Override
+		public void saveAll(@NonNull final Collection<CurrentCost> currentCosts)
+		{
+			currentCosts.forEach(this::save);
+		}
+
+		@Override
+		public List<CurrentCost> getByIds(final Set<CurrentCostId> ids)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CurrentCost getOrNull(final CostSegmentAndElement costSegmentAndElement)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CurrentCost create(final CostSegmentAndElement costSegmentAndElement)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void createIfMissing(final CostSegmentAndElement costSegmentAndElement)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void createDefaultProductCosts(final I_M_Product product)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void deleteForProduct(final I_M_Product product)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<AggregatedCostPrice> getAggregatedCostPriceByCostSegmentAndCostingMethod(final CostSegment costSegment, final CostingMethod costingMethod)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<CurrentCost> getByCostSegmentAndCostingMethod(final CostSegment costSegment, final CostingMethod costingMethod)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<CurrentCost> getByCostSegmentsAndCostingMethod(final Collection<CostSegment> costSegments, final CostingMethod costingMethod)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<CurrentCost> getByCostSegmentAndCostElements(final CostSegment costSegment, final Set<CostElementId> costElementIds)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void updateCostRecord(final CostSegmentAndElement costSegmentAndElement, final Consumer<I_M_Cost> updater)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+}
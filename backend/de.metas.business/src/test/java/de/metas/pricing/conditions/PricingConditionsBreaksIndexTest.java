@@ -0,0 +1,145 @@
+package de.metas.pricing.conditions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.adempiere.mm.attributes.AttributeValueId;
+import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.product.ProductAndCategoryAndManufacturerId;
+import de.metas.product.ProductCategoryId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PricingConditionsBreaksIndexTest
+{
+	/** How the breaks were picked before we had the index */
+	private static final Comparator<PricingConditionsBreak> SORT_BY_BREAK_VALUE_DESC = Comparator.<PricingConditionsBreak, BigDecimal> comparing(b -> b.getMatchCriteria().getBreakValue())
+			.thenComparing(PricingConditionsBreak::getSeqNo)
+			.reversed();
+
+	@Test
+	public void pickApplyingBreak_highestBreakValueWins()
+	{
+		final PricingConditionsBreak break10 = createBreak(10, 10, ProductId.ofRepoId(1), null, null, null);
+		final PricingConditionsBreak break20 = createBreak(20, 10, null, ProductCategoryId.ofRepoId(2), null, null);
+		final PricingConditionsBreak break30 = createBreak(30, 10, ProductId.ofRepoId(3), null, null, null);
+		final PricingConditionsBreaksIndex index = PricingConditionsBreaksIndex.of(ImmutableList.of(break10, break20, break30));
+
+		final ProductAndCategoryAndManufacturerId product = ProductAndCategoryAndManufacturerId.of(1, 2, -1);
+		assertThat(index.pickApplyingBreak(BigDecimal.valueOf(5), product, ImmutableAttributeSet.EMPTY)).isNull();
+		assertThat(index.pickApplyingBreak(BigDecimal.valueOf(15), product, ImmutableAttributeSet.EMPTY)).isSameAs(break10);
+		assertThat(index.pickApplyingBreak(BigDecimal.valueOf(20), product, ImmutableAttributeSet.EMPTY)).isSameAs(break20);
+		assertThat(index.pickApplyingBreak(BigDecimal.valueOf(100), product, ImmutableAttributeSet.EMPTY)).isSameAs(break20);
+	}
+
+	@Test
+	public void pickApplyingBreak_skipBreaksNotMatchingTheAttributes()
+	{
+		final PricingConditionsBreak breakWithoutAttribute = createBreak(10, 10, ProductId.ofRepoId(1), null, null, null);
+		final PricingConditionsBreak breakWithAttribute = createBreak(20, 10, ProductId.ofRepoId(1), null, null, AttributeValueId.ofRepoId(1));
+		final PricingConditionsBreaksIndex index = PricingConditionsBreaksIndex.of(ImmutableList.of(breakWithoutAttribute, breakWithAttribute));
+
+		final ProductAndCategoryAndManufacturerId product = ProductAndCategoryAndManufacturerId.of(1, 2, -1);
+		assertThat(index.pickApplyingBreak(BigDecimal.valueOf(25), product, ImmutableAttributeSet.EMPTY)).isSameAs(breakWithoutAttribute);
+	}
+
+	/**
+	 * Verifies on random data that the index gives the same results as scanning all breaks.
+	 */
+	@Test
+	public void sameResultsAsScanningAllBreaks()
+	{
+		final Random random = new Random(42);
+		for (int round = 0; round < 100; round++)
+		{
+			final List<PricingConditionsBreak> breaks = new ArrayList<>();
+			final int breaksCount = 1 + random.nextInt(300);
+			for (int i = 0; i < breaksCount; i++)
+			{
+				breaks.add(createBreak(
+						random.nextInt(10),
+						random.nextInt(3),
+						random.nextBoolean() ? null : ProductId.ofRepoId(1 + random.nextInt(4)),
+						random.nextBoolean() ? null : ProductCategoryId.ofRepoId(1 + random.nextInt(2)),
+						random.nextInt(3) > 0 ? null : BPartnerId.ofRepoId(1 + random.nextInt(2)),
+						random.nextInt(5) > 0 ? null : AttributeValueId.ofRepoId(1)));
+			}
+			final PricingConditionsBreaksIndex index = PricingConditionsBreaksIndex.of(breaks);
+
+			for (int query = 0; query < 100; query++)
+			{
+				final ProductAndCategoryAndManufacturerId product = ProductAndCategoryAndManufacturerId.of(1 + random.nextInt(4), 1 + random.nextInt(2), random.nextInt(3) - 1);
+				final BigDecimal breakValue = BigDecimal.valueOf(random.nextInt(12) - 1);
+
+				final PricingConditionsBreak expected = breaks.stream()
+						.sorted(SORT_BY_BREAK_VALUE_DESC)
+						.filter(schemaBreak -> schemaBreak.getMatchCriteria().breakValueMatches(breakValue)
+								&& schemaBreak.getMatchCriteria().productMatches(product)
+								&& schemaBreak.getMatchCriteria().attributeMatches(ImmutableAttributeSet.EMPTY))
+						.findFirst()
+						.orElse(null);
+				assertThat(index.pickApplyingBreak(breakValue, product, ImmutableAttributeSet.EMPTY)).isSameAs(expected);
+
+				final Set<ProductAndCategoryAndManufacturerId> products = ImmutableSet.of(product, ProductAndCategoryAndManufacturerId.of(1 + random.nextInt(4), 1, -1));
+				assertThat(index.streamBreaksMatchingAnyOfProducts(products))
+						.containsExactlyElementsOf(breaks.stream()
+								.filter(schemaBreak -> schemaBreak.getMatchCriteria().productMatchesAnyOf(products))
+								.collect(ImmutableList.toImmutableList()));
+			}
+		}
+	}
+
+	private static PricingConditionsBreak createBreak(
+			final int breakValue,
+			final int seqNo,
+			final ProductId productId,
+			final ProductCategoryId productCategoryId,
+			final BPartnerId productManufacturerId,
+			final AttributeValueId attributeValueId)
+	{
+		return PricingConditionsBreak.builder()
+				.matchCriteria(PricingConditionsBreakMatchCriteria.builder()
+						.breakValue(BigDecimal.valueOf(breakValue))
+						.productId(productId)
+						.productCategoryId(productCategoryId)
+						.productManufacturerId(productManufacturerId)
+						.attributeValueId(attributeValueId)
+						.build())
+				.seqNo(seqNo)
+				.priceSpecification(PriceSpecification.none())
+				.build();
+	}
+}
@@ -1,19 +1,50 @@
 package de.metas.pricing.service.impl;
 
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_DiscountSchema;
+import org.compiere.model.I_M_DiscountSchemaBreak;
+import org.compiere.model.I_M_PriceList;
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.model.I_M_PricingSystem;
+import org.compiere.model.I_M_ProductPrice;
+import org.compiere.model.X_M_DiscountSchema;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import de.metas.adempiere.model.I_M_Product;
+import de.metas.bpartner.BPartnerId;
+import de.metas.bpartner.service.IBPartnerBL;
+import de.metas.bpartner.service.impl.BPartnerBL;
 import de.metas.pricing.IEditablePricingContext;
 import de.metas.pricing.IPricingResult;
+import de.metas.pricing.PriceListId;
+import de.metas.pricing.PriceListVersionId;
+import de.metas.pricing.PricingSystemId;
+import de.metas.pricing.service.IPriceListDAO;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.pricing.service.ProductPrices;
+import de.metas.product.ProductId;
+import de.metas.user.UserRepository;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -95,4 +126,175 @@ public class PricingTest
 			Assert.assertThat("Bio PriceStd\n" + result, result.getPriceStd(), Matchers.comparesEqualTo(BigDecimal.valueOf(3)));
 		}
 	}
+
+	@Test
+	public void test_calculatePrices_sameResultsAsCalculatePrice()
+	{
+		final I_C_UOM uom2 = newInstance(I_C_UOM.class);
+		saveRecord(uom2);
+
+		final I_M_Product product1 = helper.getDefaultProduct();
+		final I_M_Product product2 = helper.createProduct("Product2", uom2);
+		final I_M_Product productWithoutPrice = helper.createProduct("ProductWithoutPrice", uom2);
+
+		//
+		// default price list version (EUR): prices for product1 and product2
+		final I_M_PriceList_Version plvEUR = helper.getDefaultPriceListVerion();
+		createProductPrice(plvEUR, product1, 3, 2, 1);
+		createProductPrice(plvEUR, product2, 8, 7, 6);
+
+		//
+		// another pricing system with a CHF price list version: a price for product1 only
+		final I_M_PricingSystem pricingSystemCHF = helper.createPricingSystem();
+		final I_M_PriceList priceListCHF = helper.createPriceList(pricingSystemCHF, helper.createCountry("CH", PricingTestHelper.C_Currency_ID_CHF));
+		final I_M_PriceList_Version plvCHF = helper.createPriceListVersion(priceListCHF);
+		createProductPrice(plvCHF, product1, 5, 4, 3);
+
+		//
+		// a bpartner with a discount schema which has a break for product1
+		Services.registerService(IBPartnerBL.class, new BPartnerBL(new UserRepository()));
+		final BPartnerId bpartnerWithDiscountId = createBPartnerWithDiscountSchema(product1, 10);
+
+		final List<IEditablePricingContext> pricingCtxs = ImmutableList.of(
+				createPricingContext(plvEUR, product1, null),
+				createPricingContext(plvEUR, product2, null),
+				createPricingContext(plvEUR, productWithoutPrice, null), // no price at all
+				createPricingContext(plvCHF, product1, bpartnerWithDiscountId),
+				createPricingContext(plvCHF, product2, null), // no price in this price list version
+				createPricingContext(plvEUR, product1, bpartnerWithDiscountId),
+				createPricingContext(plvEUR, product1, null));
+
+		final List<IPricingResult> results = Services.get(IPricingBL.class).calculatePrices(pricingCtxs);
+
+		assertThat(results).hasSize(pricingCtxs.size());
+		for (int i = 0; i < pricingCtxs.size(); i++)
+		{
+			final IPricingResult expected = helper.calculatePrice(pricingCtxs.get(i));
+			assertSameResult(results.get(i), expected, i);
+		}
+
+		//
+		// make sure that the test data covers what it shall cover
+		assertThat(results.get(0).getPriceStd()).isEqualByComparingTo("2");
+		assertThat(results.get(0).getCurrencyId().getRepoId()).isEqualTo(PricingTestHelper.C_Currency_ID_EUR);
+		assertThat(results.get(0).getPricingConditions()).isNull();
+		assertThat(results.get(1).getPriceStd()).isEqualByComparingTo("7");
+		assertThat(results.get(1).getPriceUomId().getRepoId()).isEqualTo(uom2.getC_UOM_ID());
+		assertThat(results.get(2).isCalculated()).isFalse();
+		assertThat(results.get(3).getPriceStd()).isEqualByComparingTo("4");
+		assertThat(results.get(3).getCurrencyId().getRepoId()).isEqualTo(PricingTestHelper.C_Currency_ID_CHF);
+		assertThat(results.get(3).getDiscount().toBigDecimal()).isEqualByComparingTo("10");
+		assertThat(results.get(3).getPricingConditions()).isNotNull();
+		assertThat(results.get(4).isCalculated()).isFalse();
+		assertThat(results.get(5).getDiscount().toBigDecimal()).isEqualByComparingTo("10");
+	}
+
+	private static void assertSameResult(final IPricingResult actual, final IPricingResult expected, final int index)
+	{
+		assertThat(actual.isCalculated()).as("isCalculated of result %s", index).isEqualTo(expected.isCalculated());
+		assertThat(actual.getProductId()).as("productId of result %s", index).isEqualTo(expected.getProductId());
+		assertThat(actual.getPricingSystemId()).as("pricingSystemId of result %s", index).isEqualTo(expected.getPricingSystemId());
+		assertThat(actual.getPriceListVersionId()).as("priceListVersionId of result %s", index).isEqualTo(expected.getPriceListVersionId());
+		assertThat(actual.getPriceStd()).as("priceStd of result %s", index).isEqualByComparingTo(expected.getPriceStd());
+		assertThat(actual.getPriceList()).as("priceList of result %s", index).isEqualByComparingTo(expected.getPriceList());
+		assertThat(actual.getPriceLimit()).as("priceLimit of result %s", index).isEqualByComparingTo(expected.getPriceLimit());
+		assertThat(actual.getDiscount()).as("discount of result %s", index).isEqualTo(expected.getDiscount());
+		assertThat(actual.getCurrencyId()).as("currencyId of result %s", index).isEqualTo(expected.getCurrencyId());
+		assertThat(actual.getPriceUomId()).as("priceUomId of result %s", index).isEqualTo(expected.getPriceUomId());
+		assertThat(actual.getTaxCategoryId()).as("taxCategoryId of result %s", index).isEqualTo(expected.getTaxCategoryId());
+		assertThat(actual.isTaxIncluded()).as("taxIncluded of result %s", index).isEqualTo(expected.isTaxIncluded());
+		assertThat(actual.getPricingConditions()).as("pricingConditions of result %s", index).isEqualTo(expected.getPricingConditions());
+	}
+
+	/**
+	 * While the snapshot is in use, the main prices of the loaded price list versions and products are taken from it, without querying them again.
+	 */
+	@Test
+	public void test_mainProductPricesSnapshot_replacesQueries()
+	{
+		final I_M_PriceList_Version plv = helper.getDefaultPriceListVerion();
+		final I_M_Product product1 = helper.getDefaultProduct();
+		final ProductId productId1 = ProductId.ofRepoId(product1.getM_Product_ID());
+		final I_C_UOM uom2 = newInstance(I_C_UOM.class);
+		saveRecord(uom2);
+		final I_M_Product product2 = helper.createProduct("Product2", uom2);
+		final ProductId productId2 = ProductId.ofRepoId(product2.getM_Product_ID());
+
+		final I_M_ProductPrice productPrice1 = createProductPrice(plv, product1, 2, 2, 2);
+		final I_M_ProductPrice productPrice2 = createProductPrice(plv, product2, 7, 7, 7);
+
+		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+		try (final IAutoCloseable snapshot = ProductPrices.temporaryUseMainProductPricesSnapshot(ImmutableSetMultimap.of(priceListVersionId, productId1)))
+		{
+			// if it were queried, the deactivated price wouldn't be found anymore
+			productPrice1.setIsActive(false);
+			saveRecord(productPrice1);
+			productPrice2.setIsActive(false);
+			saveRecord(productPrice2);
+
+			assertThat(ProductPrices.retrieveMainProductPriceOrNull(plv, productId1)).isNotNull();
+			assertThat(ProductPrices.retrieveMainProductPriceOrNull(plv, productId2)).as("product2 is not in the snapshot, so its price is queried").isNull();
+		}
+
+		assertThat(ProductPrices.retrieveMainProductPriceOrNull(plv, productId1)).as("the snapshot is no longer used").isNull();
+	}
+
+	private I_M_ProductPrice createProductPrice(
+			final I_M_PriceList_Version plv,
+			final I_M_Product product,
+			final int priceList,
+			final int priceStd,
+			final int priceLimit)
+	{
+		final I_M_ProductPrice productPrice = new ProductPriceBuilder(plv, product)
+				.setTaxCategoryId(helper.getTaxCategoryId())
+				.setPrice(priceStd)
+				.build();
+		productPrice.setPriceList(BigDecimal.valueOf(priceList));
+		productPrice.setPriceLimit(BigDecimal.valueOf(priceLimit));
+		saveRecord(productPrice);
+		return productPrice;
+	}
+
+	private BPartnerId createBPartnerWithDiscountSchema(final I_M_Product product, final int discount)
+	{
+		final I_M_DiscountSchema discountSchema = newInstance(I_M_DiscountSchema.class);
+		discountSchema.setBreakValueType(X_M_DiscountSchema.BREAKVALUETYPE_Quantity);
+		discountSchema.setDiscountType(X_M_DiscountSchema.DISCOUNTTYPE_Breaks);
+		saveRecord(discountSchema);
+
+		final I_M_DiscountSchemaBreak schemaBreak = newInstance(I_M_DiscountSchemaBreak.class);
+		schemaBreak.setM_DiscountSchema_ID(discountSchema.getM_DiscountSchema_ID());
+		schemaBreak.setSeqNo(10);
+		schemaBreak.setIsValid(true);
+		schemaBreak.setBreakValue(BigDecimal.ZERO);
+		schemaBreak.setM_Product_Category_ID(product.getM_Product_Category_ID());
+		schemaBreak.setM_Product_ID(product.getM_Product_ID());
+		schemaBreak.setBreakDiscount(BigDecimal.valueOf(discount));
+		saveRecord(schemaBreak);
+
+		final I_C_BPartner bpartner = newInstance(I_C_BPartner.class);
+		bpartner.setName("BPartnerWithDiscount");
+		bpartner.setM_DiscountSchema_ID(discountSchema.getM_DiscountSchema_ID());
+		bpartner.setPO_DiscountSchema_ID(discountSchema.getM_DiscountSchema_ID());
+		saveRecord(bpartner);
+		return BPartnerId.ofRepoId(bpartner.getC_BPartner_ID());
+	}
+
+	private IEditablePricingContext createPricingContext(
+			final I_M_PriceList_Version plv,
+			final I_M_Product product,
+			@Nullable final BPartnerId bpartnerId)
+	{
+		final I_M_PriceList priceList = Services.get(IPriceListDAO.class).getById(plv.getM_PriceList_ID());
+
+		final IEditablePricingContext pricingCtx = helper.createPricingContext();
+		pricingCtx.setPricingSystemId(PricingSystemId.ofRepoId(priceList.getM_PricingSystem_ID()));
+		pricingCtx.setPriceListId(PriceListId.ofRepoId(priceList.getM_PriceList_ID()));
+		pricingCtx.setPriceListVersionId(PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID()));
+		pricingCtx.setProductId(ProductId.ofRepoId(product.getM_Product_ID()));
+		pricingCtx.setBPartnerId(bpartnerId);
+		pricingCtx.setQty(BigDecimal.TEN);
+		return pricingCtx;
+	}
 }
@@ -8,10 +8,13 @@ import java.time.temporal.TemporalAccessor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Function;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.TimeUtil;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.data.export.api.IExportDataDestination;
 import de.metas.data.export.api.IExportDataSource;
 import de.metas.data.export.api.impl.AbstractExporter;
@@ -46,12 +49,19 @@ public class DATEVCsvExporter extends AbstractExporter
 {
 	private final DATEVExportFormat exportFormat;
 
+	/** one formatter for each of {@link #exportFormat}'s columns, created upfront so we don't have to look at the column format for each cell */
+	private final ImmutableList<Function<Object, Object>> cellFormatters;
+
 	@Builder
 	private DATEVCsvExporter(
 			@NonNull final DATEVExportFormat exportFormat,
 			@NonNull final IExportDataSource dataSource)
 	{
 		this.exportFormat = exportFormat;
+		this.cellFormatters = exportFormat.getColumns()
+				.stream()
+				.map(DATEVCsvExporter::createCellFormatter)
+				.collect(ImmutableList.toImmutableList());
 		setDataSource(dataSource);
 	}
 
@@ -78,38 +88,33 @@ public class DATEVCsvExporter extends AbstractExporter
 
 	private List<Object> formatRow(final List<Object> row)
 	{
-		final List<DATEVExportFormatColumn> formatColumns = exportFormat.getColumns();
 		final int rowSize = row.size();
 		final List<Object> rowFormatted = new ArrayList<>(rowSize);
 		for (int i = 0; i < rowSize; i++)
 		{
 			final Object cell = row.get(i);
-			final DATEVExportFormatColumn columnFormat = formatColumns.get(i);
-			final Object cellFormated = formatCell(cell, columnFormat);
+			final Object cellFormated = cell != null ? cellFormatters.get(i).apply(cell) : null;
 			rowFormatted.add(cellFormated);
 		}
 
 		return rowFormatted;
 	}
 
-	private Object formatCell(final Object value, final DATEVExportFormatColumn columnFormat)
+	private static Function<Object, Object> createCellFormatter(final DATEVExportFormatColumn columnFormat)
 	{
-		if (value == null)
-		{
-			return null;
-		}
-
-		if (columnFormat.getDateFormatter() != null)
+		final DateTimeFormatter dateFormatter = columnFormat.getDateFormatter();
+		final ThreadLocalDecimalFormatter numberFormatter = columnFormat.getNumberFormatter();
+		if (dateFormatter != null)
 		{
-			return formatDateCell(value, columnFormat.getDateFormatter());
+			return value -> formatDateCell(value, dateFormatter);
 		}
-		else if (columnFormat.getNumberFormatter() != null)
+		else if (numberFormatter != null)
 		{
-			return formatNumberCell(value, columnFormat.getNumberFormatter());
+			return value -> formatNumberCell(value, numberFormatter);
 		}
 		else
 		{
-			return value;
+			return Function.identity();
 		}
 	}
 
@@ -9,15 +9,19 @@ import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryInsertExecutor.QueryInsertExecutorResult;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.compiere.model.IQuery;
+import org.compiere.model.POInfo;
 import org.compiere.util.Env;
 import org.springframework.stereotype.Component;
 
+import de.metas.data.export.api.IExportDataSource;
+import de.metas.data.export.api.impl.JdbcExporterBuilder;
 import de.metas.datev.model.I_DATEV_Export;
 import de.metas.datev.model.I_DATEV_ExportLine;
 import de.metas.datev.model.I_RV_DATEV_Export_Fact_Acct_Invoice;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.time.SystemTime;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -101,4 +105,48 @@ public class DATEVExportLinesRepository
 		return queryBuilder.create();
 	}
 
+	/**
+	 * Creates a data source which selects the export format's columns straight from the {@link I_RV_DATEV_Export_Fact_Acct_Invoice} view, with the same filters as {@link #createLinesFromConfig(int)}.
+	 * <p>
+	 * Use it to export without creating {@link I_DATEV_ExportLine}s first. The rows are fetched using a server-side cursor, so they are not loaded into memory all at once.
+	 * Note that such an export is not remembered, i.e. it's not taken into account by {@link I_DATEV_Export#isExcludeAlreadyExported()}.
+	 */
+	public IExportDataSource createSourceDataSource(final int datevExportId, @NonNull final DATEVExportFormat exportFormat)
+	{
+		Check.assume(datevExportId > 0, "datevExportId > 0");
+		final I_DATEV_Export datevExport = load(datevExportId, I_DATEV_Export.class);
+
+		final String sourceTableName = I_RV_DATEV_Export_Fact_Acct_Invoice.Table_Name;
+		final POInfo sourcePOInfo = POInfo.getPOInfo(sourceTableName);
+
+		final JdbcExporterBuilder builder = new JdbcExporterBuilder(sourceTableName)
+				.addBetweenWhereClause(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_DateAcct, datevExport.getDateAcctFrom(), datevExport.getDateAcctTo())
+				.addOrderBy(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_Fact_Acct_ID);
+		if (datevExport.isExcludeAlreadyExported())
+		{
+			builder.addWhereClause("NOT EXISTS (SELECT 1 FROM " + I_DATEV_ExportLine.Table_Name + " el"
+					+ " WHERE el." + I_DATEV_ExportLine.COLUMNNAME_C_Invoice_ID + "=" + sourceTableName + "." + I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_C_Invoice_ID + ")");
+		}
+
+		for (final DATEVExportFormatColumn formatColumn : exportFormat.getColumns())
+		{
+			final String columnName = formatColumn.getColumnName();
+			if (I_DATEV_ExportLine.COLUMNNAME_DATEV_Export_ID.equals(columnName))
+			{
+				builder.addFieldFromSQL(formatColumn.getCsvHeaderName(), String.valueOf(datevExportId));
+			}
+			else if (sourcePOInfo != null && !sourcePOInfo.hasColumnName(columnName))
+			{
+				// the column exists only in DATEV_ExportLine (e.g. Created), so there is nothing we could export
+				builder.addFieldFromSQL(formatColumn.getCsvHeaderName(), "NULL");
+			}
+			else
+			{
+				builder.addField(formatColumn.getCsvHeaderName(), columnName);
+			}
+		}
+
+		return builder.createDataSource();
+	}
+
 }
@@ -1,20 +1,27 @@
 package de.metas.datev.process;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Timestamp;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
 import org.compiere.util.TimeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
 
 import de.metas.data.export.api.IExportDataSource;
 import de.metas.data.export.api.impl.JdbcExporterBuilder;
 import de.metas.datev.DATEVCsvExporter;
 import de.metas.datev.DATEVExportFormat;
 import de.metas.datev.DATEVExportFormatRepository;
+import de.metas.datev.DATEVExportLinesRepository;
 import de.metas.datev.model.I_DATEV_Export;
 import de.metas.datev.model.I_DATEV_ExportFormat;
 import de.metas.datev.model.I_DATEV_ExportLine;
@@ -24,6 +31,7 @@ import de.metas.process.JavaProcess;
 import de.metas.process.Param;
 import de.metas.process.ProcessPreconditionsResolution;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -50,8 +58,19 @@ import lombok.NonNull;
 
 public class DATEV_ExportFile extends JavaProcess implements IProcessPrecondition
 {
+	/**
+	 * If true, the rows are selected straight from the configured source view instead of the previously created DATEV_ExportLines.
+	 * See {@link DATEVExportLinesRepository#createSourceDataSource(int, DATEVExportFormat)}.
+	 */
+	private static final String SYSCONFIG_ExportFromSource = "de.metas.datev.DATEV_ExportFile.ExportFromSource";
+	private static final String SYSCONFIG_GZip = "de.metas.datev.DATEV_ExportFile.GZip";
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
 	@Autowired
 	private DATEVExportFormatRepository exportFormatRepo;
+	@Autowired
+	private DATEVExportLinesRepository datevExportLinesRepo;
 
 	@Param(parameterName = I_DATEV_ExportFormat.COLUMNNAME_DATEV_ExportFormat_ID, mandatory = true)
 	private int datevExportFormatId;
@@ -82,23 +101,49 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 		final DATEVExportFormat exportFormat = exportFormatRepo.getById(datevExportFormatId);
 		final I_DATEV_Export datevExport = getRecord(I_DATEV_Export.class);
 
-		final IExportDataSource dataSource = createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
+		final boolean exportFromSource = sysConfigBL.getBooleanValue(SYSCONFIG_ExportFromSource, false);
+		final IExportDataSource dataSource = exportFromSource
+				? datevExportLinesRepo.createSourceDataSource(datevExport.getDATEV_Export_ID(), exportFormat)
+				: createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
 
+		final boolean gzip = sysConfigBL.getBooleanValue(SYSCONFIG_GZip, false);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		final ByteArrayOutputStream out = new ByteArrayOutputStream();
-		DATEVCsvExporter.builder()
+		final DATEVCsvExporter exporter = DATEVCsvExporter.builder()
 				.exportFormat(exportFormat)
 				.dataSource(dataSource)
-				.build()
-				.export(out);
+				.build();
+		exporter.export(wrapOutputStream(out, gzip)); // NOTE: the exporter closes the stream when it's done
+		stopwatch.stop();
+
+		final int exportedRowCount = exporter.getExportedRowCount();
+		final long millis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		addLog("Exported {} rows in {} ({} rows/sec)", exportedRowCount, stopwatch, millis > 0 ? exportedRowCount * 1000L / millis : exportedRowCount);
 
-		getResult().setReportData(
-				out.toByteArray(), // data
-				buildFilename(datevExport), // filename
-				"text/csv"); // content type
+		if (gzip)
+		{
+			getResult().setReportData(
+					out.toByteArray(), // data
+					buildFilename(datevExport) + ".gz", // filename
+					"application/gzip"); // content type
+		}
+		else
+		{
+			getResult().setReportData(
+					out.toByteArray(), // data
+					buildFilename(datevExport), // filename
+					"text/csv"); // content type
+		}
 
 		return MSG_OK;
 	}
 
+	private static OutputStream wrapOutputStream(final OutputStream out, final boolean gzip) throws IOException
+	{
+		return gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+	}
+
 	private IExportDataSource createDataSource(@NonNull final DATEVExportFormat exportFormat, final int datevExportId)
 	{
 		Check.assume(datevExportId > 0, "datevExportId > 0");
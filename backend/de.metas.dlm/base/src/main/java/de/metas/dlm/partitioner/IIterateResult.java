@@ -103,6 +103,15 @@ public interface IIterateResult
 	 */
 	ITableRecordReference nextFromQueue();
 
+	/**
+	 * Puts the given records back to the front of the queue (in the given order), so that they are returned by {@link #nextFromQueue()} once again.
+	 * <p>
+	 * The crawler calls this method for records which it already got from {@link #nextFromQueue()}, but which it did not process because it was signaled to stop.
+	 *
+	 * @param records records that were returned by {@link #nextFromQueue()} earlier
+	 */
+	void returnToQueue(List<ITableRecordReference> records);
+
 	/**
 	 * Register a handler.
 	 * <p>
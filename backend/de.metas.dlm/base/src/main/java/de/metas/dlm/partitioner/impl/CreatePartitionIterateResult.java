@@ -13,7 +13,9 @@ import java.util.Set;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ITableRecordReference;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.dlm.Partition;
 import de.metas.dlm.Partition.WorkQueue;
@@ -224,6 +226,30 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 		return queueItemsToProcess.removeFirst();
 	}
 
+	/**
+	 * Also makes sure that the already stored {@code DLM_Partition_Workqueue} records of the given records are not deleted.
+	 */
+	@Override
+	public void returnToQueue(final List<ITableRecordReference> records)
+	{
+		final Set<ITableRecordReference> recordsSet = ImmutableSet.copyOf(records);
+		final Map<ITableRecordReference, WorkQueue> storedQueueItems = new HashMap<>();
+		queueItemsToDelete.removeIf(queueItem -> {
+			final ITableRecordReference tableRecordReference = queueItem.getTableRecordReference();
+			if (!recordsSet.contains(tableRecordReference))
+			{
+				return false;
+			}
+			storedQueueItems.put(tableRecordReference, queueItem);
+			return true;
+		});
+
+		final List<WorkQueue> queueItems = records.stream()
+				.map(record -> storedQueueItems.computeIfAbsent(record, WorkQueue::of))
+				.collect(ImmutableList.toImmutableList());
+		queueItemsToProcess.addAll(0, queueItems);
+	}
+
 	@Override
 	public List<WorkQueue> getQueueRecordsToStore()
 	{
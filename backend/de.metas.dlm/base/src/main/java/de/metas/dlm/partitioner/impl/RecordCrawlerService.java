@@ -24,9 +24,15 @@ package de.metas.dlm.partitioner.impl;
 
 import ch.qos.logback.classic.Level;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import de.metas.adempiere.service.IColumnBL;
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
+import de.metas.dlm.Partition.WorkQueue;
 import de.metas.dlm.migrator.IMigratorService;
 import de.metas.dlm.model.IDLMAware;
 import de.metas.dlm.model.I_DLM_Partition;
@@ -41,255 +47,416 @@ import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.dao.impl.InArrayQueryFilter;
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.model.PlainContextAware;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ITableRecordReference;
-import org.adempiere.util.lang.Mutable;
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.compiere.util.TrxRunnable;
 import org.slf4j.Logger;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class RecordCrawlerService implements IRecordCrawlerService
 {
 	private final transient Logger logger = LogManager.getLogger(getClass());
 
+	/**
+	 * How many queued records we resolve at once, i.e. the maximum size of one breadth-first-search frontier.
+	 */
+	private static final int FRONTIER_MAX_SIZE = 10000;
+
+	/**
+	 * Max number of IDs we embed into one query.
+	 */
+	private static final int IN_ARRAY_CHUNK_SIZE = 1000;
+
 	@Override
 	public IIterateResult crawl(
 			final PartitionConfig config,
 			final IContextAware ctxAware,
 			final IIterateResult result)
 	{
-
-		final IColumnBL columnBL = Services.get(IColumnBL.class);
-		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
-
 		// store what we are setting out to do here. E.g. if we are called from a DLMException, we want the situation such as
 		// "partition is not complete because testMigrate failed, and there are e.g. 20 orderlines to backtrack from" to be stored here.
 		// otherwise, the partiton we are in truth working on just now would be flagged as "completed" in the DB until further notice
 		storeIterateResult(config, result, ctxAware);
 
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		int crawledRecordsCount = 0;
+		int stepsCount = 0;
+
+		// we crawl breadth-first: all records of the current frontier are resolved together, per table and reference,
+		// and the records which are newly added to the result's queue make up the next frontier
 		mainLoop:
 		while (!result.isQueueEmpty())
 		{
-			final ITableRecordReference currentReference = result.nextFromQueue();
-			final IDLMAware currentRecord = currentReference.getModel(ctxAware, IDLMAware.class);
-			if (currentRecord == null)
+			final Map<String, Set<Integer>> tableName2Ids = nextFrontier(result);
+			stepsCount++;
+
+			final List<String> frontierTableNames = ImmutableList.copyOf(tableName2Ids.keySet());
+			for (int i = 0; i < frontierTableNames.size(); i++)
 			{
-				continue;
+				final String currentTableName = frontierTableNames.get(i);
+				final List<IDLMAware> currentRecords = retrieveRecords(currentTableName, tableName2Ids.get(currentTableName), ctxAware);
+				if (currentRecords.isEmpty())
+				{
+					continue;
+				}
+				crawledRecordsCount += currentRecords.size();
+
+				if (AddResult.STOP.equals(crawl(currentTableName, currentRecords, config, ctxAware, result)))
+				{
+					// we took the whole frontier from the queue, but did not finish its records from the current table on.
+					// put them back, so they are stored as workqueue records and crawled in the next run
+					result.returnToQueue(toReferences(tableName2Ids, frontierTableNames.subList(i, frontierTableNames.size())));
+					break mainLoop;
+				}
 			}
 
 			if (shallStoreResult(result))
 			{
 				storeIterateResult(config, result, ctxAware);
 			}
+		}
 
-			final String currentTableName = currentReference.getTableName();
-			final int currentRecordId = InterfaceWrapperHelper.getId(currentRecord);
+		final long elapsedMillis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		Loggables.withLogger(logger, Level.INFO).addLog(
+				"Crawled {} records in {} steps within {}ms ({} records/sec); found {} records via config.name={}",
+				crawledRecordsCount, stepsCount, elapsedMillis, crawledRecordsCount * 1000L / elapsedMillis, result.size(), config.getName());
 
-			// there might or migth not be a line for the current reference's table name. That would mean that we can only search "backward"
-			final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+		storeIterateResult(config, result, ctxAware);
+		return result;
+	}
 
-			if (currentLineOrNull.isPresent())
-			{
-				final List<PartitionerConfigReference> forwardRefs = currentLineOrNull.get().getReferences();
+	/**
+	 * Takes up to {@link #FRONTIER_MAX_SIZE} references from the given result's queue.
+	 *
+	 * @return record IDs, grouped by table name
+	 */
+	private static Map<String, Set<Integer>> nextFrontier(final IIterateResult result)
+	{
+		final Map<String, Set<Integer>> tableName2Ids = new LinkedHashMap<>();
+		int count = 0;
+		while (count < FRONTIER_MAX_SIZE && !result.isQueueEmpty())
+		{
+			final ITableRecordReference reference = result.nextFromQueue();
+			tableName2Ids.computeIfAbsent(reference.getTableName(), k -> new LinkedHashSet<>())
+					.add(reference.getRecord_ID());
+			count++;
+		}
+		return tableName2Ids;
+	}
 
-				// look FORWARD
-				//
-				// look at all the records that are referenced by 'currentRecord' and add them to 'hull',
-				// but only add them if they were not yet identified as parts of this partition (i.e. not yet added to 'records').
-				for (final PartitionerConfigReference forwardRef : forwardRefs)
+	/**
+	 * Crawls FORWARD and BACKWARD from the given <code>currentRecords</code>.
+	 *
+	 * @return {@link AddResult#STOP} if the crawler was signaled to stop
+	 */
+	private AddResult crawl(
+			final String currentTableName,
+			final List<IDLMAware> currentRecords,
+			final PartitionConfig config,
+			final IContextAware ctxAware,
+			final IIterateResult result)
+	{
+		// there might or migth not be a line for the current table name. That would mean that we can only search "backward"
+		final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+		if (currentLineOrNull.isPresent())
+		{
+			for (final PartitionerConfigReference forwardRef : currentLineOrNull.get().getReferences())
+			{
+				if (AddResult.STOP.equals(crawlForward(currentTableName, currentRecords, forwardRef, ctxAware, result)))
 				{
-					if (forwardRef.isPartitionBoundary())
-					{
-						continue; // don't follow it
-					}
-
-					// the table name for the foreign record which has 'foreignKey' as its ID
-					final String forwardTableName = forwardRef.getReferencedTableName();
-					final String forwardColumnName = forwardRef.getReferencingColumnName();
-
-					// first check if this is all about a Record_ID/AD_Table_ID reference.
-					// if that is the case, then we need to verify that the AD_Table_ID of 'record' actually points to the table named 'forwardTableName'
-					if (columnBL.isRecordIdColumnName(forwardColumnName))
-					{
-						final String tableColumnName = columnBL.getTableIdColumnName(currentTableName, forwardColumnName)
-								.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", currentTableName, forwardColumnName));
-
-						final Integer tableId = InterfaceWrapperHelper.getValueOrNull(currentRecord, tableColumnName);
-						if (tableId == null || tableId <= 0)
-						{
-							logger.trace("{}[{}] forward: the column={} does not reference any table; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableColumnName);
-							continue;
-						}
-
-						final String tableName = adTableDAO.retrieveTableName(tableId);
-						if (!tableName.equals(forwardTableName))
-						{
-							logger.trace("{}[{}] forward: the column={} does not reference a {}-record, but a {}-record; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableName);
-							continue;
-						}
-					}
-
-					// get the foreign key ID of
-					// table DLM_PartitionLine_Config.AD_Table_ID,
-					// column DLM_PartitionReference_Config.DLM_Referencing_Column_ID
-					final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(currentRecord, forwardColumnName);
-					if (forwardKey == null || forwardKey <= 0)
-					{
-						logger.trace("{}[{}] forward: the column={} does not reference anything; skipping", currentTableName, currentRecordId, forwardColumnName);
-						continue;
-					}
-
-					final TableRecordReference forwardReference = TableRecordReference.of(forwardTableName, forwardKey);
-
-					final boolean recordWasAlreadyAddedBefore = result.contains(forwardReference);
-					if (recordWasAlreadyAddedBefore)
-					{
-						logger.trace("{}[{}] forward: ITableRecordReference={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, forwardReference); // avoid circles and also avoid loading the whole PO again
-					}
-					else
-					{
-						// the foreign record was not yet added before. Load it now.
-						final IDLMAware forwardRecord = forwardReference.getModel(ctxAware, IDLMAware.class);
-						if (forwardRecord == null)
-						{
-							// this happens with our "minidump" where we left out the HUs
-							Loggables.withLogger(logger, Level.WARN).addLog(
-									"{}[{}] forward: the record from table={} which we attempted to load via {}.{}={} is NULL",
-									currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey);
-							continue;
-						}
+					return AddResult.STOP;
+				}
+			}
+		}
 
-						logger.debug("{}[{}] forward: loaded from table={} via {}.{}={}: referenced IDLMAware={}",
-								currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey, forwardRecord);
+		final Set<Integer> currentRecordIds = currentRecords.stream()
+				.map(InterfaceWrapperHelper::getId)
+				.collect(ImmutableSet.toImmutableSet());
+		for (final PartitionerConfigReference backwardRef : config.getReferences(currentTableName))
+		{
+			if (AddResult.STOP.equals(crawlBackward(currentTableName, currentRecordIds, backwardRef, ctxAware, result)))
+			{
+				return AddResult.STOP;
+			}
+		}
+		return AddResult.ADDED_CONTINUE;
+	}
 
-						final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardRecord.getDLM_Partition_ID());
-						if (forwardRecord.getDLM_Partition_ID() > 0)
-						{
-							// log why we do not search further using the new found foreign record
-							logger.debug("{}[{}] forward: referenced IDLMAware={} already has DLM_Partition_ID={}",
-									currentTableName, currentRecordId, forwardRecord, forwardRecord.getDLM_Partition_ID());
-						}
-						if (AddResult.STOP.equals(addResult))
-						{
-							Loggables.withLogger(logger, Level.WARN)
-									.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
-							break mainLoop;
-						}
-					}
-				}
+	private static List<ITableRecordReference> toReferences(final Map<String, Set<Integer>> tableName2Ids, final List<String> tableNames)
+	{
+		final List<ITableRecordReference> references = new ArrayList<>();
+		for (final String tableName : tableNames)
+		{
+			for (final int recordId : tableName2Ids.get(tableName))
+			{
+				references.add(TableRecordReference.of(tableName, recordId));
 			}
+		}
+		return references;
+	}
+
+	/**
+	 * Look FORWARD, i.e. look at all the records that are referenced by the given <code>currentRecords</code> via the given <code>forwardRef</code> and add them to the <code>result</code>,
+	 * but only add them if they were not yet identified as parts of this partition.
+	 */
+	private AddResult crawlForward(
+			final String currentTableName,
+			final List<IDLMAware> currentRecords,
+			final PartitionerConfigReference forwardRef,
+			final IContextAware ctxAware,
+			final IIterateResult result)
+	{
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
 
-			// Look BACKWARD, i.e. get all config-references that point to 'currentTableName'.
-			// Then, for each of them, load the records that reference 'currentRecord' via the respective config-reference.
-			//
-			final List<PartitionerConfigReference> backwardRefs = config.getReferences(currentTableName);
-			for (final PartitionerConfigReference backwardRef : backwardRefs)
+		if (forwardRef.isPartitionBoundary())
+		{
+			return AddResult.ADDED_CONTINUE; // don't follow it
+		}
+
+		// the table name for the foreign record which has 'foreignKey' as its ID
+		final String forwardTableName = forwardRef.getReferencedTableName();
+		final String forwardColumnName = forwardRef.getReferencingColumnName();
+
+		// first check if this is all about a Record_ID/AD_Table_ID reference.
+		// if that is the case, then we need to verify that the AD_Table_ID of each current record actually points to the table named 'forwardTableName'
+		final String tableColumnName;
+		final int forwardTableId;
+		if (columnBL.isRecordIdColumnName(forwardColumnName))
+		{
+			tableColumnName = columnBL.getTableIdColumnName(currentTableName, forwardColumnName)
+					.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", currentTableName, forwardColumnName));
+			forwardTableId = adTableDAO.retrieveTableId(forwardTableName);
+		}
+		else
+		{
+			tableColumnName = null;
+			forwardTableId = -1;
+		}
+
+		// get the foreign keys of
+		// table DLM_PartitionLine_Config.AD_Table_ID,
+		// column DLM_PartitionReference_Config.DLM_Referencing_Column_ID
+		// and remember the first current record which references the respective foreign record
+		final Map<Integer, ITableRecordReference> forwardKey2CurrentReference = new LinkedHashMap<>();
+		for (final IDLMAware currentRecord : currentRecords)
+		{
+			if (tableColumnName != null)
 			{
-				if (backwardRef.isPartitionBoundary())
+				final Integer tableId = InterfaceWrapperHelper.getValueOrNull(currentRecord, tableColumnName);
+				if (tableId == null || tableId != forwardTableId)
 				{
 					continue;
 				}
+			}
 
-				final PartitionerConfigLine backwardLine = backwardRef.getParent();
-				final String backwardTableName = backwardLine.getTableName();
-				final String backwardColumnName = backwardRef.getReferencingColumnName();
+			final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(currentRecord, forwardColumnName);
+			if (forwardKey == null || forwardKey <= 0)
+			{
+				continue;
+			}
 
-				// load all records which reference foreignRecord
-				// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building
-				final IQueryBuilder<IDLMAware> queryBuilder = Services.get(IQueryBL.class)
-						.createQueryBuilder(IDLMAware.class, backwardTableName, ctxAware)
-						.addEqualsFilter(backwardRef.getReferencingColumnName(), currentRecordId);
+			if (result.contains(TableRecordReference.of(forwardTableName, forwardKey)))
+			{
+				continue; // avoid circles and also avoid loading the whole PO again
+			}
 
-				// if we have a case of AD_Table_ID/Record_ID,
-				// then we need to make sure to only load records whose AD_Table_ID references currentRecord
-				if (columnBL.isRecordIdColumnName(backwardColumnName))
-				{
-					// note that referencedTableColumnName = AD_Table_ID, in most cases
-					final String referencedTableColumnName = columnBL.getTableIdColumnName(backwardTableName, backwardRef.getReferencingColumnName())
-							.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", backwardTableName, backwardColumnName));
+			forwardKey2CurrentReference.putIfAbsent(forwardKey, TableRecordReference.of(currentTableName, InterfaceWrapperHelper.getId(currentRecord)));
+		}
+		if (forwardKey2CurrentReference.isEmpty())
+		{
+			return AddResult.ADDED_CONTINUE;
+		}
 
-					final int referencedTableID = adTableDAO.retrieveTableId(currentTableName);
+		// the foreign records were not yet added before. Load them now.
+		final Map<Integer, IDLMAware> forwardKey2Record = Maps.uniqueIndex(
+				retrieveRecords(forwardTableName, forwardKey2CurrentReference.keySet(), ctxAware),
+				InterfaceWrapperHelper::getId);
 
-					queryBuilder.addEqualsFilter(referencedTableColumnName, referencedTableID);
-				}
+		for (final Map.Entry<Integer, ITableRecordReference> e : forwardKey2CurrentReference.entrySet())
+		{
+			final int forwardKey = e.getKey();
+			final ITableRecordReference currentReference = e.getValue();
 
-				// avoid loading the records we already added before.
-				// This doesn't work well. NOT IN is probably not very performant, see
-				// http://stackoverflow.com/questions/7125291/postgresql-not-in-versus-except-performance-difference-edited-2
-				// maybe it would become better when we do something along the lines of
-				// https://www.datadoghq.com/blog/100x-faster-postgres-performance-by-changing-1-line/
-				// at any rate it looks the postgresql jdbc driver "only" supports prepared statements with 65536 parameters,
-				// Solutions:
-				// 1. don't try to exclude anything and live with records beeing returned that we already saw earlier
-				// 2. store the partition more regularly and add some sort of negative left-join to the query
-				// {
-				// final String columnName = columnBL.getSingleKeyColumn(backwardTableName);
-				// final Collection<Integer> alreadyAddedBackwardIds = result.getIds(backwardTableName);
-				//
-				// queryBuilder.addNotInArrayFilter(columnName, alreadyAddedBackwardIds);
-				// }
-
-				// de.metas.dlm.partitioner.PartitionerTools.dumpHistogram(result)
-				final List<IDLMAware> backwardRecords = queryBuilder
-						.create()
-						.list();
+			final IDLMAware forwardRecord = forwardKey2Record.get(forwardKey);
+			if (forwardRecord == null)
+			{
+				// this happens with our "minidump" where we left out the HUs
+				Loggables.withLogger(logger, Level.WARN).addLog(
+						"{} forward: the record from table={} which we attempted to load via {}.{}={} is NULL",
+						currentReference, forwardTableName, currentTableName, forwardColumnName, forwardKey);
+				continue;
+			}
+
+			final TableRecordReference forwardReference = TableRecordReference.of(forwardTableName, forwardKey);
+			logger.debug("{} forward: loaded from table={} via {}.{}={}: referenced IDLMAware={}",
+					currentReference, forwardTableName, currentTableName, forwardColumnName, forwardKey, forwardRecord);
+
+			final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardRecord.getDLM_Partition_ID());
+			if (forwardRecord.getDLM_Partition_ID() > 0)
+			{
+				// log why we do not search further using the new found foreign record
+				logger.debug("{} forward: referenced IDLMAware={} already has DLM_Partition_ID={}",
+						currentReference, forwardRecord, forwardRecord.getDLM_Partition_ID());
+			}
+			if (AddResult.STOP.equals(addResult))
+			{
+				Loggables.withLogger(logger, Level.WARN)
+						.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
+				return AddResult.STOP;
+			}
+		}
+		return AddResult.ADDED_CONTINUE;
+	}
+
+	/**
+	 * Look BACKWARD, i.e. load all records which reference one of the given <code>currentRecordIds</code> via the given <code>backwardRef</code> and add them to the <code>result</code>.
+	 */
+	private AddResult crawlBackward(
+			final String currentTableName,
+			final Set<Integer> currentRecordIds,
+			final PartitionerConfigReference backwardRef,
+			final IContextAware ctxAware,
+			final IIterateResult result)
+	{
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
+
+		if (backwardRef.isPartitionBoundary())
+		{
+			return AddResult.ADDED_CONTINUE;
+		}
+
+		final PartitionerConfigLine backwardLine = backwardRef.getParent();
+		final String backwardTableName = backwardLine.getTableName();
+		final String backwardColumnName = backwardRef.getReferencingColumnName();
+
+		// if we have a case of AD_Table_ID/Record_ID,
+		// then we need to make sure to only load records whose AD_Table_ID references the current table
+		final String referencedTableColumnName;
+		final int referencedTableID;
+		if (columnBL.isRecordIdColumnName(backwardColumnName))
+		{
+			// note that referencedTableColumnName = AD_Table_ID, in most cases
+			referencedTableColumnName = columnBL.getTableIdColumnName(backwardTableName, backwardColumnName)
+					.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", backwardTableName, backwardColumnName));
+			referencedTableID = adTableDAO.retrieveTableId(currentTableName);
+		}
+		else
+		{
+			referencedTableColumnName = null;
+			referencedTableID = -1;
+		}
+
+		for (final List<Integer> currentRecordIdsChunk : Iterables.partition(currentRecordIds, IN_ARRAY_CHUNK_SIZE))
+		{
+			// load all records which reference the current records
+			// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building.
+			// Also don't try to exclude the records we already added before; NOT IN is not very performant and we would easily run into the max number of SQL parameters.
+			final IQueryBuilder<IDLMAware> queryBuilder = Services.get(IQueryBL.class)
+					.createQueryBuilder(IDLMAware.class, backwardTableName, ctxAware)
+					.addFilter(new InArrayQueryFilter<IDLMAware>(backwardColumnName, currentRecordIdsChunk).setEmbedSqlParams(true));
+			if (referencedTableColumnName != null)
+			{
+				queryBuilder.addEqualsFilter(referencedTableColumnName, referencedTableID);
+			}
+
+			final List<IDLMAware> backwardRecords = queryBuilder
+					.create()
+					.list();
+
+			for (final IDLMAware backwardRecord : backwardRecords)
+			{
+				InterfaceWrapperHelper.setTrxName(backwardRecord, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
 
-				for (final IDLMAware backwardRecord : backwardRecords)
+				final ITableRecordReference backwardTableRecordReference = TableRecordReference.ofOrNull(backwardRecord);
+				final int currentRecordId = InterfaceWrapperHelper.getValueOrNull(backwardRecord, backwardColumnName);
+				final ITableRecordReference currentReference = TableRecordReference.of(currentTableName, currentRecordId);
+
+				final AddResult addRecordResult = result.addReferencingRecord(backwardTableRecordReference, currentReference, backwardRecord.getDLM_Partition_ID());
+				switch (addRecordResult)
 				{
-					InterfaceWrapperHelper.setTrxName(backwardRecord, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
-
-					final ITableRecordReference backwardTableRecordReference = TableRecordReference.ofOrNull(backwardRecord);
-
-					final AddResult addRecordResult = result.addReferencingRecord(backwardTableRecordReference, currentReference, backwardRecord.getDLM_Partition_ID());
-
-					// should not happen because we excluded alreadyAddedBackwardIds from the loading query
-					// Check.errorUnless(recordWasNotYetAddedBefore, "{}[{}] backward: WAS ALREADY ADDED! - loaded referencing IDLMAware={} from table={} via {}.{}={}",
-					// currentTableName, currentRecordId, backwardRecord, backwardTableName, backwardTableName, backwardColumnName, currentRecordId);
-
-					switch (addRecordResult)
-					{
-						case ADDED_CONTINUE:
-							// log that the foreign record was not yet added before. We added it now
-							logger.debug("{}[{}] backward: loaded from table={} via {}.{}={}: referencing IDLMAware={}",
-									currentTableName, currentRecordId, backwardTableName, backwardTableName, backwardColumnName, currentRecordId, backwardRecord);
-
-							if (backwardRecord.getDLM_Partition_ID() > 0)
-							{
-								// log why we did not search further using the new found foreign record
-								logger.debug("{}[{}] backward: referenced IDLMAware={} already has DLM_Partition_ID={}",
-										currentTableName, currentRecordId, backwardRecord, backwardRecord.getDLM_Partition_ID());
-							}
-							break;
-						case NOT_ADDED_CONTINUE:
-							logger.trace("{}[{}] backward: ReferencingRecord={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, backwardTableRecordReference);
-							break;
-						case STOP:
-							Loggables.addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardTableRecordReference);
-							break mainLoop;
-						default:
-							Check.errorIf(true, "Unexpected result={}", addRecordResult);
-							break;
-					}
+					case ADDED_CONTINUE:
+						// log that the foreign record was not yet added before. We added it now
+						logger.debug("{} backward: loaded from table={} via {}.{}={}: referencing IDLMAware={}",
+								currentReference, backwardTableName, backwardTableName, backwardColumnName, currentRecordId, backwardRecord);
+
+						if (backwardRecord.getDLM_Partition_ID() > 0)
+						{
+							// log why we did not search further using the new found foreign record
+							logger.debug("{} backward: referenced IDLMAware={} already has DLM_Partition_ID={}",
+									currentReference, backwardRecord, backwardRecord.getDLM_Partition_ID());
+						}
+						break;
+					case NOT_ADDED_CONTINUE:
+						logger.trace("{} backward: ReferencingRecord={} was already added in a previous iteration. Returning", currentReference, backwardTableRecordReference);
+						break;
+					case STOP:
+						Loggables.addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardTableRecordReference);
+						return AddResult.STOP;
+					default:
+						Check.errorIf(true, "Unexpected result={}", addRecordResult);
+						break;
 				}
 			}
 		}
+		return AddResult.ADDED_CONTINUE;
+	}
 
-		logger.info("Found {} records via config.name={}", result.size(), config.getName());
-		storeIterateResult(config, result, ctxAware);
-		return result;
+	/**
+	 * Loads the records with the given IDs, in chunks of {@link #IN_ARRAY_CHUNK_SIZE}.
+	 */
+	private List<IDLMAware> retrieveRecords(
+			final String tableName,
+			final Collection<Integer> recordIds,
+			final IContextAware ctxAware)
+	{
+		final String keyColumnName = Services.get(IColumnBL.class).getSingleKeyColumn(tableName);
+
+		final List<IDLMAware> records = new ArrayList<>(recordIds.size());
+		for (final List<Integer> recordIdsChunk : Iterables.partition(recordIds, IN_ARRAY_CHUNK_SIZE))
+		{
+			final List<IDLMAware> recordsChunk = Services.get(IQueryBL.class)
+					.createQueryBuilder(IDLMAware.class, tableName, ctxAware)
+					.addFilter(new InArrayQueryFilter<IDLMAware>(keyColumnName, recordIdsChunk).setEmbedSqlParams(true))
+					.create()
+					.list();
+			for (final IDLMAware record : recordsChunk)
+			{
+				InterfaceWrapperHelper.setTrxName(record, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
+				records.add(record);
+			}
+		}
+		return records;
 	}
 
 	private boolean shallStoreResult(final IIterateResult result)
@@ -429,42 +596,154 @@ public class RecordCrawlerService implements IRecordCrawlerService
 		// store and delete DLM_Partition_Workqueue records according to the records we processed and the records we newly added since the last time this method was called.
 		{
 			// delete DLM_Partition_Workqueue records we already processed
-			final Mutable<Integer> deletedSum = new Mutable<>(0);
-			result.getQueueRecordsToDelete()
-					.forEach(r -> {
-
-						// It's not a must to delete them 1-by-1, but we can't just create one chuck with unknow size!
-						// If we want to delete more than one at a time, we need to create chuncks of a fixed size that is less than 2^32.
-						final int delete = queryBL.createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
-								.addEqualsFilter(I_DLM_Partition_Workqueue.COLUMN_DLM_Partition_Workqueue_ID, r.getDLM_Partition_Workqueue_ID())
-								.create()
-								.deleteDirectly();
-						deletedSum.setValue(deletedSum.getValue() + delete);
-					});
-			logger.debug("storeIterateResult: Deleted {} DLM_Partition_Workqueue records", deletedSum.getValue());
+			// We can't just create one chuck with unknow size, so we delete them in chunks of a fixed size.
+			int deletedSum = 0;
+			final List<Integer> workqueueIdsToDelete = result.getQueueRecordsToDelete().stream()
+					.map(WorkQueue::getDLM_Partition_Workqueue_ID)
+					.collect(ImmutableList.toImmutableList());
+			for (final List<Integer> workqueueIdsChunk : Iterables.partition(workqueueIdsToDelete, IN_ARRAY_CHUNK_SIZE))
+			{
+				deletedSum += queryBL.createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
+						.addFilter(new InArrayQueryFilter<I_DLM_Partition_Workqueue>(I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_Workqueue_ID, workqueueIdsChunk).setEmbedSqlParams(true))
+						.create()
+						.deleteDirectly();
+			}
+			logger.debug("storeIterateResult: Deleted {} DLM_Partition_Workqueue records", deletedSum);
 
 			// persist DLM_Partition_Workqueue record we still need to process.
-			final Mutable<Integer> storedSum = new Mutable<>(0);
-			result.getQueueRecordsToStore()
-					.forEach(queueRecordsToStore -> {
+			// Skip the ones which were already persisted in an earlier invocation.
+			final List<WorkQueue> queueRecordsToStore = result.getQueueRecordsToStore().stream()
+					.filter(queueRecord -> queueRecord.getDLM_Partition_Workqueue_ID() <= 0)
+					.collect(ImmutableList.toImmutableList());
+			storeWorkqueueRecords(queueRecordsToStore, storedPartition, ctxAware);
+			logger.debug("storeIterateResult: Stored {} DLM_Partition_Workqueue records", queueRecordsToStore.size());
+		}
 
-						final ITableRecordReference tableRecordReference = queueRecordsToStore.getTableRecordReference();
+		result.clearAfterPartitionStored(storedPartition);
+	}
 
-						final I_DLM_Partition_Workqueue newQueueRecord = InterfaceWrapperHelper.newInstance(I_DLM_Partition_Workqueue.class);
-						newQueueRecord.setDLM_Partition_ID(storedPartition.getDLM_Partition_ID());
-						newQueueRecord.setAD_Table_ID(tableRecordReference.getAD_Table_ID());
-						newQueueRecord.setRecord_ID(tableRecordReference.getRecord_ID());
+	/**
+	 * Inserts the given <code>queueRecords</code> using JDBC batches and updates their <code>DLM_Partition_Workqueue_ID</code>s.
+	 */
+	private void storeWorkqueueRecords(
+			final List<WorkQueue> queueRecords,
+			final Partition partition,
+			final IContextAware ctxAware)
+	{
+		if (queueRecords.isEmpty())
+		{
+			return;
+		}
 
-						InterfaceWrapperHelper.save(newQueueRecord);
+		if (Adempiere.isUnitTestMode())
+		{
+			// there is no database in unit test mode
+			for (final WorkQueue queueRecord : queueRecords)
+			{
+				final ITableRecordReference tableRecordReference = queueRecord.getTableRecordReference();
 
-						queueRecordsToStore.setDLM_Partition_Workqueue_ID(newQueueRecord.getDLM_Partition_Workqueue_ID());
+				final I_DLM_Partition_Workqueue newQueueRecord = InterfaceWrapperHelper.newInstance(I_DLM_Partition_Workqueue.class, ctxAware);
+				newQueueRecord.setDLM_Partition_ID(partition.getDLM_Partition_ID());
+				newQueueRecord.setAD_Table_ID(tableRecordReference.getAD_Table_ID());
+				newQueueRecord.setRecord_ID(tableRecordReference.getRecord_ID());
+				InterfaceWrapperHelper.save(newQueueRecord);
 
-						storedSum.setValue(storedSum.getValue() + 1);
-					});
-			logger.debug("storeIterateResult: Stored {} DLM_Partition_Workqueue records", storedSum.getValue());
+				queueRecord.setDLM_Partition_Workqueue_ID(newQueueRecord.getDLM_Partition_Workqueue_ID());
+			}
+			return;
 		}
 
-		result.clearAfterPartitionStored(storedPartition);
+		final Properties ctx = ctxAware.getCtx();
+		final String trxName = ctxAware.getTrxName();
+		final List<Integer> workqueueIds = retrieveNextWorkqueueIds(queueRecords.size(), trxName);
+
+		final String sql = "INSERT INTO " + I_DLM_Partition_Workqueue.Table_Name + " ("
+				+ I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_Workqueue_ID
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_ID
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Table_ID
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_Record_ID
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Client_ID
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Org_ID
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_IsActive
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_Created
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_CreatedBy
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_Updated
+				+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_UpdatedBy
+				+ ") VALUES (?,?,?,?,?,?,'Y',?,?,?,?)";
+
+		final Timestamp now = SystemTime.asTimestamp();
+		final int adUserId = Env.getAD_User_ID(ctx);
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, trxName);
+			for (int i = 0; i < queueRecords.size(); i++)
+			{
+				final WorkQueue queueRecord = queueRecords.get(i);
+				final ITableRecordReference tableRecordReference = queueRecord.getTableRecordReference();
+				final int workqueueId = workqueueIds.get(i);
+
+				DB.setParameters(pstmt, new Object[] {
+						workqueueId,
+						partition.getDLM_Partition_ID(),
+						tableRecordReference.getAD_Table_ID(),
+						tableRecordReference.getRecord_ID(),
+						Env.getAD_Client_ID(ctx),
+						Env.getAD_Org_ID(ctx),
+						now,
+						adUserId,
+						now,
+						adUserId });
+				pstmt.addBatch();
+
+				queueRecord.setDLM_Partition_Workqueue_ID(workqueueId);
+
+				if ((i + 1) % IN_ARRAY_CHUNK_SIZE == 0)
+				{
+					pstmt.executeBatch();
+				}
+			}
+			pstmt.executeBatch();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+
+	private static List<Integer> retrieveNextWorkqueueIds(final int count, final String trxName)
+	{
+		final String sql = "SELECT " + DB.TO_TABLESEQUENCE_NEXTVAL(I_DLM_Partition_Workqueue.Table_Name) + " FROM generate_series(1, ?)";
+		final List<Integer> ids = new ArrayList<>(count);
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, trxName);
+			DB.setParameters(pstmt, new Object[] { count });
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				ids.add(rs.getInt(1));
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		Check.errorIf(ids.size() != count, "Expected {} new DLM_Partition_Workqueue_IDs but got {}", count, ids.size());
+		return ids;
 	}
 
 	private int getPartitionSize(final IContextAware ctxAware, Integer dlmPartitionId)
@@ -0,0 +1,141 @@
+package de.metas.dlm.partitioner.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_Order;
+import org.compiere.util.Env;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.dlm.Partition.WorkQueue;
+import de.metas.dlm.model.I_DLM_Partition_Workqueue;
+import de.metas.dlm.partitioner.IIterateResultHandler.AddResult;
+import de.metas.dlm.partitioner.config.PartitionConfig;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-dlm-base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class RecordCrawlerServiceCrawlTests
+{
+	private final RecordCrawlerService recordCrawlerService = new RecordCrawlerService(); // this is the class under test
+	private final PlainContextAware ctxAware = PlainContextAware.newOutOfTrx(Env.getCtx());
+
+	private final PartitionConfig config = PartitionConfig.builder()
+			.line(I_C_Invoice.Table_Name)
+			.ref().setReferencedTableName(I_C_Order.Table_Name).setReferencingColumnName(I_C_Invoice.COLUMNNAME_C_Order_ID).endRef()
+			.endLine()
+			.build();
+
+	@Before
+	public void before()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	/**
+	 * Scenario: the initial queue has two stored workqueue records which are crawled in the same frontier.
+	 * When following the first invoice's order, a handler signals the crawler to stop.
+	 * <p>
+	 * Both invoices were taken from the queue, but not completely crawled, so their workqueue records shall not be deleted.
+	 */
+	@Test
+	public void stopWithinFrontier_keepsUnprocessedWorkqueueRecords()
+	{
+		final I_C_Order order1 = createOrder();
+		final I_C_Invoice invoice1 = createInvoice(order1);
+		final I_C_Invoice invoice2 = createInvoice(createOrder());
+
+		final CreatePartitionIterateResult result = new CreatePartitionIterateResult(
+				ImmutableList.of(createWorkqueue(invoice1), createWorkqueue(invoice2)).iterator(),
+				ctxAware);
+		result.registerHandler((tableRecordReference, preliminaryResult) -> I_C_Order.Table_Name.equals(tableRecordReference.getTableName()) ? AddResult.STOP : preliminaryResult);
+
+		// invoke the method under test
+		recordCrawlerService.crawl(config, ctxAware, result);
+
+		final ITableRecordReference invoice1Ref = TableRecordReference.of(invoice1);
+		final ITableRecordReference invoice2Ref = TableRecordReference.of(invoice2);
+		final ITableRecordReference order1Ref = TableRecordReference.of(order1);
+
+		assertThat(result.isQueueEmpty(), is(false));
+		assertThat(retrieveQueuedTableRecordReferences(result), contains(invoice1Ref, invoice2Ref, order1Ref));
+		assertThat(retrieveStoredWorkqueueTableRecordReferences(), containsInAnyOrder(invoice1Ref, invoice2Ref, order1Ref));
+	}
+
+	private I_C_Order createOrder()
+	{
+		final I_C_Order order = InterfaceWrapperHelper.newInstance(I_C_Order.class);
+		InterfaceWrapperHelper.save(order);
+		return order;
+	}
+
+	private I_C_Invoice createInvoice(final I_C_Order order)
+	{
+		final I_C_Invoice invoice = InterfaceWrapperHelper.newInstance(I_C_Invoice.class);
+		invoice.setC_Order_ID(order.getC_Order_ID());
+		InterfaceWrapperHelper.save(invoice);
+		return invoice;
+	}
+
+	private WorkQueue createWorkqueue(final I_C_Invoice invoice)
+	{
+		final I_DLM_Partition_Workqueue workQueueDB = InterfaceWrapperHelper.newInstance(I_DLM_Partition_Workqueue.class);
+		workQueueDB.setAD_Table_ID(Services.get(IADTableDAO.class).retrieveTableId(I_C_Invoice.Table_Name));
+		workQueueDB.setRecord_ID(invoice.getC_Invoice_ID());
+		InterfaceWrapperHelper.save(workQueueDB);
+
+		return WorkQueue.of(workQueueDB);
+	}
+
+	private static List<ITableRecordReference> retrieveQueuedTableRecordReferences(final CreatePartitionIterateResult result)
+	{
+		return result.getQueueRecordsToStore().stream()
+				.map(WorkQueue::getTableRecordReference)
+				.collect(Collectors.toList());
+	}
+
+	private static List<ITableRecordReference> retrieveStoredWorkqueueTableRecordReferences()
+	{
+		return Services.get(IQueryBL.class).createQueryBuilderOutOfTrx(I_DLM_Partition_Workqueue.class)
+				.create()
+				.stream()
+				.map(TableRecordReference::ofReferencedOrNull)
+				.collect(Collectors.toList());
+	}
+}
@@ -4,7 +4,7 @@
 package de.metas.handlingunits.receiptschedule.impl;
 
 import static org.adempiere.model.InterfaceWrapperHelper.createList;
-import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwaresAsMapOrFail;
 
 import java.awt.image.BufferedImage;
 
@@ -331,9 +331,8 @@ public class HUReceiptScheduleBL implements IHUReceiptScheduleBL
 	{
 		final IHUToReceiveValidator huToReceiveValidator = CompositeHUToReceiveValidator.of(SpringContextHolder.instance.getBeansOfType(IHUToReceiveValidator.class));
 
-		for (final HuId huId : huIds)
+		for (final I_M_HU huRecord : loadByRepoIdAwaresAsMapOrFail(huIds, I_M_HU.class).values())
 		{
-			final I_M_HU huRecord = load(huId, I_M_HU.class);
 			if (!Services.get(IHUStatusBL.class).isStatusPlanned(huRecord))
 			{
 				throw new HUException("@Invalid@ @HUStatus@: " + huRecord.getValue());
@@ -14,6 +14,8 @@ import org.compiere.model.IQuery;
 import org.compiere.model.I_C_UOM;
 import org.springframework.stereotype.Repository;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.cache.CCache;
@@ -71,6 +73,34 @@ public class HUReservationRepository
 		return Optional.of(huReservation);
 	}
 
+	/**
+	 * Same as {@link #getBySalesOrderLineId(OrderLineId)}, but loads the reservations of many sales order lines with one query.
+	 *
+	 * @return reservations indexed by sales order line; lines without reservation are not included
+	 */
+	public ImmutableMap<OrderLineId, HUReservation> getBySalesOrderLineIds(@NonNull final Collection<OrderLineId> orderLineIds)
+	{
+		if (orderLineIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final ImmutableListMultimap<OrderLineId, I_M_HU_Reservation> huReservationRecordsByOrderLineId = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_HU_Reservation.class)
+				.addOnlyActiveRecordsFilter()
+				.addInArrayFilter(I_M_HU_Reservation.COLUMN_C_OrderLineSO_ID, orderLineIds)
+				.create()
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(
+						huReservationRecord -> OrderLineId.ofRepoId(huReservationRecord.getC_OrderLineSO_ID()),
+						huReservationRecord -> huReservationRecord));
+
+		final ImmutableMap.Builder<OrderLineId, HUReservation> result = ImmutableMap.builder();
+		huReservationRecordsByOrderLineId.asMap()
+				.forEach((orderLineId, huReservationRecords) -> result.put(orderLineId, toHUReservation(orderLineId, ImmutableList.copyOf(huReservationRecords))));
+		return result.build();
+	}
+
 	private static HUReservation toHUReservation(
 			@NonNull final OrderLineId orderLineId,
 			@NonNull final List<I_M_HU_Reservation> huReservationRecords)
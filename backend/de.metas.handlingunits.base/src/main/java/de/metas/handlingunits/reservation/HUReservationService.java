@@ -288,6 +288,14 @@ public class HUReservationService
 		return huReservationRepository.getBySalesOrderLineId(orderLineId);
 	}
 
+	/**
+	 * @return reservations indexed by sales order line; lines without reservation are not included
+	 */
+	public Map<OrderLineId, HUReservation> getBySalesOrderLineIds(@NonNull final Collection<OrderLineId> orderLineIds)
+	{
+		return huReservationRepository.getBySalesOrderLineIds(orderLineIds);
+	}
+
 	@Builder(builderMethodName = "prepareHUQuery", builderClassName = "ReservationHUQueryBuilder")
 	private IHUQueryBuilder createHUQuery(
 			@NonNull final WarehouseId warehouseId,
@@ -191,7 +191,27 @@ public class ESRImportBL implements IESRImportBL
 		}
 
 		final IESRDataImporter loader = ESRDataLoaderFactory.createImporter(esrImport, in);
-		final ESRStatement esrStatement = loader.importData();
+
+		// create the lines while the importer reads the transactions, so we don't need to keep all of them in memory
+		final IMutable<Integer> lineNo = new Mutable<>(0);
+		final boolean checkExistingLines = countLines > 0;
+		final ESRStatement esrStatement = loader.importData(esrTransaction -> {
+			lineNo.setValue(lineNo.getValue() + 1);
+
+			//
+			// create line only if does not exist
+			// if there are already lines before starting reading the file, means that we already tried to import once
+			if (checkExistingLines)
+			{
+				final I_ESR_ImportLine existentLine = esrImportDAO.fetchLineForESRLineText(esrImport, esrTransaction.getTransactionKey());
+				if (existentLine != null)
+				{
+					return;
+				}
+			}
+
+			createEsrImportLine(esrImport, lineNo.getValue(), esrTransaction);
+		});
 		try
 		{
 			in.close();
@@ -212,28 +232,6 @@ public class ESRImportBL implements IESRImportBL
 		// TODO verify that the bankaccounts match!
 		esrImportDAO.save(esrImport);
 
-		final List<ESRTransaction> transactions = esrStatement.getTransactions();
-		int lineNo = 0;
-		for (final ESRTransaction esrTransaction : transactions)
-		{
-			lineNo++;
-
-			//
-			// create line only if does not exist
-			I_ESR_ImportLine existentLine = null;
-			// if there are already lines before starting reading the file, means that we already tried to import once
-			if (countLines > 0)
-			{
-				existentLine = esrImportDAO.fetchLineForESRLineText(esrImport, esrTransaction.getTransactionKey());
-				if (existentLine != null)
-				{
-					continue;
-				}
-			}
-
-			createEsrImportLine(esrImport, lineNo, esrTransaction);
-		}
-
 		evaluate(esrImport);
 	}
 
@@ -1,5 +1,9 @@
 package de.metas.payment.esr.dataimporter;
 
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+
 /*
  * #%L
  * de.metas.payment.esr
@@ -30,4 +34,22 @@ public interface IESRDataImporter
 	 * @return
 	 */
 	ESRStatement importData();
+
+	/**
+	 * Like {@link #importData()}, but passes the {@link ESRTransaction}s to the given consumer instead of adding them to the returned statement.
+	 * Implementations which are able to stream their input shall override this method, so that huge files can be imported without keeping all transactions in memory.
+	 *
+	 * @return the statement's control amount, control qty and error messages, but without transactions
+	 */
+	default ESRStatement importData(@NonNull final Consumer<ESRTransaction> transactionConsumer)
+	{
+		final ESRStatement statement = importData();
+		statement.getTransactions().forEach(transactionConsumer);
+
+		return ESRStatement.builder()
+				.ctrlAmount(statement.getCtrlAmount())
+				.ctrlQty(statement.getCtrlQty())
+				.errorMsgs(statement.getErrorMsgs())
+				.build();
+	}
 }
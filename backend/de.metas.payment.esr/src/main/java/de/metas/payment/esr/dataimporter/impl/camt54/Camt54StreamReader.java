@@ -0,0 +1,179 @@
+package de.metas.payment.esr.dataimporter.impl.camt54;
+
+import java.util.Map;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Walks through a camt.54 XML and unmarshals only the elements we are interested in, one at a time.
+ * <p>
+ * Unlike unmarshalling the whole <code>Document</code>, the memory needed does not depend on the number of entries in the file.
+ */
+final class Camt54StreamReader
+{
+	@FunctionalInterface
+	interface ElementHandler
+	{
+		/**
+		 * Called when the reader is positioned at the start of an element.
+		 * Shall consume the whole element, using {@link Camt54StreamReader#unmarshal(Class)}, {@link Camt54StreamReader#readText()} or {@link Camt54StreamReader#readChildren(Map)}.
+		 */
+		void handleElement() throws XMLStreamException;
+	}
+
+	private final XMLStreamReader xsr;
+	private final Unmarshaller unmarshaller;
+
+	/**
+	 * @param jaxbContextClass class used to create the JAXB context; shall be the one which is also used to unmarshal the whole document.
+	 */
+	Camt54StreamReader(
+			@NonNull final XMLStreamReader xsr,
+			@NonNull final Class<?> jaxbContextClass)
+	{
+		this.xsr = xsr;
+		try
+		{
+			this.unmarshaller = JAXBContext.newInstance(jaxbContextClass).createUnmarshaller();
+		}
+		catch (final JAXBException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	/**
+	 * Reads from the current position until the end of the document.
+	 * Elements which have a handler are passed to it. All other elements are descended into, so their children might be passed to a handler.
+	 */
+	public void readDocument(@NonNull final Map<String, ElementHandler> handlers)
+	{
+		try
+		{
+			while (xsr.getEventType() != XMLStreamConstants.END_DOCUMENT)
+			{
+				final ElementHandler handler = xsr.isStartElement() ? handlers.get(xsr.getLocalName()) : null;
+				if (handler != null)
+				{
+					handler.handleElement();
+				}
+				else
+				{
+					xsr.next();
+				}
+			}
+		}
+		catch (final XMLStreamException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	/**
+	 * Reads the children of the element at the current position.
+	 * Children which have a handler are passed to it, all other children are skipped.
+	 * Afterwards, the reader is positioned right after the element's end.
+	 */
+	public void readChildren(@NonNull final Map<String, ElementHandler> handlers) throws XMLStreamException
+	{
+		xsr.next(); // step into the current element
+		while (nextTag() == XMLStreamConstants.START_ELEMENT)
+		{
+			final ElementHandler handler = handlers.get(xsr.getLocalName());
+			if (handler != null)
+			{
+				handler.handleElement();
+			}
+			else
+			{
+				skipElement();
+			}
+		}
+		xsr.next(); // step over the current element's end
+	}
+
+	/**
+	 * Unmarshals the element at the current position.
+	 * Afterwards, the reader is positioned right after the element's end.
+	 */
+	public <T> T unmarshal(@NonNull final Class<T> type)
+	{
+		try
+		{
+			return unmarshaller.unmarshal(xsr, type).getValue();
+		}
+		catch (final JAXBException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	/**
+	 * Reads the text of the text-only element at the current position.
+	 * Afterwards, the reader is positioned right after the element's end.
+	 */
+	public String readText() throws XMLStreamException
+	{
+		final String text = xsr.getElementText(); // leaves the reader at the element's end
+		xsr.next();
+		return text;
+	}
+
+	private int nextTag() throws XMLStreamException
+	{
+		while (!xsr.isStartElement() && !xsr.isEndElement())
+		{
+			xsr.next();
+		}
+		return xsr.getEventType();
+	}
+
+	private void skipElement() throws XMLStreamException
+	{
+		int depth = 0;
+		do
+		{
+			if (xsr.isStartElement())
+			{
+				depth++;
+			}
+			else if (xsr.isEndElement())
+			{
+				depth--;
+			}
+			xsr.next();
+		}
+		while (depth > 0);
+	}
+}
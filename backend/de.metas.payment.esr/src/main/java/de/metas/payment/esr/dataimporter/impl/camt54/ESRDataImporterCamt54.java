@@ -3,6 +3,7 @@ package de.metas.payment.esr.dataimporter.impl.camt54;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 import javax.xml.stream.XMLInputFactory;
@@ -21,9 +22,9 @@ import com.google.common.base.Objects;
 
 import ch.qos.logback.classic.Level;
 import de.metas.logging.LogManager;
-import de.metas.payment.camt054_001_02.BankToCustomerDebitCreditNotificationV02;
-import de.metas.payment.camt054_001_06.BankToCustomerDebitCreditNotificationV06;
 import de.metas.payment.esr.dataimporter.ESRStatement;
+import de.metas.payment.esr.dataimporter.ESRStatement.ESRStatementBuilder;
+import de.metas.payment.esr.dataimporter.ESRTransaction;
 import de.metas.payment.esr.dataimporter.IESRDataImporter;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.util.Loggables;
@@ -135,6 +136,23 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 
 	@Override
 	public ESRStatement importData()
+	{
+		final ESRStatementBuilder stmtBuilder = ESRStatement.builder();
+
+		final ESRStatement statementWithoutTransactions = importData(stmtBuilder::transaction);
+
+		return stmtBuilder
+				.ctrlAmount(statementWithoutTransactions.getCtrlAmount())
+				.ctrlQty(statementWithoutTransactions.getCtrlQty())
+				.errorMsgs(statementWithoutTransactions.getErrorMsgs())
+				.build();
+	}
+
+	/**
+	 * Streams the XML, so the transactions are passed to the given consumer one by one, without loading the whole document into memory.
+	 */
+	@Override
+	public ESRStatement importData(@NonNull final Consumer<ESRTransaction> transactionConsumer)
 	{
 		XMLStreamReader xsr = null;
 		try
@@ -148,11 +166,11 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 
 			if (isVersion2Schema(getNameSpaceURI(mxsr)))
 			{
-				return importCamt54v02(mxsr);
+				return importCamt54v02(mxsr, transactionConsumer);
 			}
 			else
 			{
-				return importCamt54v06(mxsr);
+				return importCamt54v06(mxsr, transactionConsumer);
 			}
 
 		}
@@ -167,33 +185,35 @@ public class ESRDataImporterCamt54 implements IESRDataImporter
 
 	}
 
-	private ESRStatement importCamt54v02(final MultiVersionStreamReaderDelegate mxsr)
+	private ESRStatement importCamt54v02(
+			final MultiVersionStreamReaderDelegate mxsr,
+			final Consumer<ESRTransaction> transactionConsumer)
 	{
 		final ESRDataImporterCamt54v02 importerV02 = new ESRDataImporterCamt54v02(header, mxsr);
-		final BankToCustomerDebitCreditNotificationV02 bkToCstmrDbtCdtNtfctn = importerV02.loadXML();
-		if (bkToCstmrDbtCdtNtfctn.getGrpHdr() != null && bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf() != null)
-		{
-			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf());
-		}
 
 		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
 		{
-			return importerV02.createESRStatement(bkToCstmrDbtCdtNtfctn);
+			return importerV02.importStatement(transactionConsumer);
 		}
 	}
 
-	private ESRStatement importCamt54v06(final MultiVersionStreamReaderDelegate mxsr)
+	private ESRStatement importCamt54v06(
+			final MultiVersionStreamReaderDelegate mxsr,
+			final Consumer<ESRTransaction> transactionConsumer)
 	{
 		final ESRDataImporterCamt54v06 importerV06 = new ESRDataImporterCamt54v06(header, mxsr);
-		final BankToCustomerDebitCreditNotificationV06 bkToCstmrDbtCdtNtfctn = importerV06.loadXML();
-		if (bkToCstmrDbtCdtNtfctn.getGrpHdr() != null && bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf() != null)
+
+		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
 		{
-			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", bkToCstmrDbtCdtNtfctn.getGrpHdr().getAddtlInf());
+			return importerV06.importStatement(transactionConsumer);
 		}
+	}
 
-		try (final IAutoCloseable switchContext = Env.switchContext(InterfaceWrapperHelper.getCtx(header, true)))
+	static void logIfTestFile(@Nullable final String grpHdrAddtlInf)
+	{
+		if (grpHdrAddtlInf != null)
 		{
-			return importerV06.createESRStatement(bkToCstmrDbtCdtNtfctn);
+			Loggables.withLogger(logger, Level.INFO).addLog("The given input is a test file: bkToCstmrDbtCdtNtfctn/grpHdr/addtlInf={}", grpHdrAddtlInf);
 		}
 	}
 
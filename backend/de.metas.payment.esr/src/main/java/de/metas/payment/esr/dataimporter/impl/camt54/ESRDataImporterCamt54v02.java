@@ -6,18 +6,23 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
+import javax.xml.bind.DatatypeConverter;
 import javax.xml.bind.JAXB;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.Mutable;
 import org.compiere.util.Env;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.currency.ICurrencyDAO;
 import de.metas.i18n.IMsgBL;
@@ -27,11 +32,13 @@ import de.metas.payment.camt054_001_02.ActiveOrHistoricCurrencyAndAmount;
 import de.metas.payment.camt054_001_02.AmountAndCurrencyExchange3;
 import de.metas.payment.camt054_001_02.AmountAndCurrencyExchangeDetails3;
 import de.metas.payment.camt054_001_02.BankToCustomerDebitCreditNotificationV02;
+import de.metas.payment.camt054_001_02.BatchInformation2;
 import de.metas.payment.camt054_001_02.CreditDebitCode;
 import de.metas.payment.camt054_001_02.DateAndDateTimeChoice;
 import de.metas.payment.camt054_001_02.Document;
 import de.metas.payment.camt054_001_02.EntryDetails1;
 import de.metas.payment.camt054_001_02.EntryTransaction2;
+import de.metas.payment.camt054_001_02.GroupHeader42;
 import de.metas.payment.camt054_001_02.ObjectFactory;
 import de.metas.payment.camt054_001_02.ReportEntry2;
 import de.metas.payment.esr.ESRConstants;
@@ -39,6 +46,7 @@ import de.metas.payment.esr.dataimporter.ESRStatement;
 import de.metas.payment.esr.dataimporter.ESRStatement.ESRStatementBuilder;
 import de.metas.payment.esr.dataimporter.ESRTransaction;
 import de.metas.payment.esr.dataimporter.ESRTransaction.ESRTransactionBuilder;
+import de.metas.payment.esr.dataimporter.impl.camt54.Camt54StreamReader.ElementHandler;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.util.Services;
 import lombok.NonNull;
@@ -131,11 +139,7 @@ public class ESRDataImporterCamt54v02
 		{
 			for (final ReportEntry2 ntry : ntfctn.getNtry()) // gh #1947: there can be many ntry records
 			{
-				final BigDecimal ntryAmt = ntry.getAmt().getValue()
-						.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
-						.multiply(getRvslMultiplier(ntry));
-
-				ctrAmount = ctrAmount.add(ntryAmt);
+				ctrAmount = ctrAmount.add(computeEntryAmount(ntry));
 				ctrlQty = iterateEntryDetails(stmtBuilder, ctrlQty, ntry);
 			} // for ntry
 		} // ntfctn
@@ -148,8 +152,72 @@ public class ESRDataImporterCamt54v02
 				.ctrlQty(ctrlQtyForStatement)
 				.build();
 	}
-	
-	
+
+	/**
+	 * Streams the XML and passes each {@link ESRTransaction} to the given consumer as soon as its <code>TxDtls</code> element was read.
+	 * Unlike {@link #loadXML()}, this does not keep the whole document in memory, so it also works with huge files.
+	 *
+	 * @return the statement's control amount and qty, but without transactions
+	 */
+	public ESRStatement importStatement(@NonNull final Consumer<ESRTransaction> transactionConsumer)
+	{
+		// use ObjectFactory for creating the context, like in loadXML()
+		final Camt54StreamReader reader = new Camt54StreamReader(xsr, ObjectFactory.class);
+
+		final Mutable<BigDecimal> ctrAmount = new Mutable<>(BigDecimal.ZERO);
+		final Mutable<BigDecimal> ctrlQty = new Mutable<>(ESRDataImporterCamt54.CTRL_QTY_NOT_YET_SET);
+
+		reader.readDocument(ImmutableMap.<String, ElementHandler> of(
+				"GrpHdr", () -> ESRDataImporterCamt54.logIfTestFile(reader.unmarshal(GroupHeader42.class).getAddtlInf()),
+				"Ntry", () -> {
+					final ReportEntry2 ntry = readEntry(reader, transactionConsumer);
+					ctrAmount.setValue(ctrAmount.getValue().add(computeEntryAmount(ntry)));
+					ctrlQty.setValue(computeCtrlQty(ctrlQty.getValue(), ntry));
+				}));
+
+		// only use the control qty if all ntry had one set. If one was null, then forward null
+		final BigDecimal ctrlQtyForStatement = ctrlQty.getValue().compareTo(ESRDataImporterCamt54.CTRL_QTY_AT_LEAST_ONE_NULL) == 0 ? null : ctrlQty.getValue();
+
+		return ESRStatement.builder()
+				.ctrlAmount(ctrAmount.getValue())
+				.ctrlQty(ctrlQtyForStatement)
+				.build();
+	}
+
+	/**
+	 * Reads the <code>Ntry</code> element at the reader's current position.
+	 * Its transactions are passed to the given consumer right away, the returned entry's <code>NtryDtls</code> only contain their <code>Btch</code>.
+	 */
+	private ReportEntry2 readEntry(
+			@NonNull final Camt54StreamReader reader,
+			@NonNull final Consumer<ESRTransaction> transactionConsumer) throws XMLStreamException
+	{
+		final ReportEntry2 ntry = new ReportEntry2();
+		reader.readChildren(ImmutableMap.<String, ElementHandler> builder()
+				.put("NtryRef", () -> ntry.setNtryRef(reader.readText()))
+				.put("Amt", () -> ntry.setAmt(reader.unmarshal(ActiveOrHistoricCurrencyAndAmount.class)))
+				.put("CdtDbtInd", () -> ntry.setCdtDbtInd(CreditDebitCode.fromValue(reader.readText().trim())))
+				.put("RvslInd", () -> ntry.setRvslInd(DatatypeConverter.parseBoolean(reader.readText().trim())))
+				.put("BookgDt", () -> ntry.setBookgDt(reader.unmarshal(DateAndDateTimeChoice.class)))
+				.put("ValDt", () -> ntry.setValDt(reader.unmarshal(DateAndDateTimeChoice.class)))
+				// according to the XSD, NtryDtls come after all the elements above, so we can create the transactions on the fly
+				.put("NtryDtls", () -> ntry.getNtryDtls().add(readEntryDetails(reader, ntry, transactionConsumer)))
+				.build());
+		return ntry;
+	}
+
+	private EntryDetails1 readEntryDetails(
+			@NonNull final Camt54StreamReader reader,
+			@NonNull final ReportEntry2 ntry,
+			@NonNull final Consumer<ESRTransaction> transactionConsumer) throws XMLStreamException
+	{
+		final EntryDetails1 ntryDtl = new EntryDetails1();
+		reader.readChildren(ImmutableMap.<String, ElementHandler> of(
+				"Btch", () -> ntryDtl.setBtch(reader.unmarshal(BatchInformation2.class)),
+				"TxDtls", () -> transactionConsumer.accept(createESRTransaction(ntry, reader.unmarshal(EntryTransaction2.class)))));
+		return ntryDtl;
+	}
+
 	/**
 	 * iterateEntryDetails for version 2 <code>BankToCustomerDebitCreditNotificationV02</code>
 	 * @param stmtBuilder builder to which the individual {@link ESRTransaction}s are added.
@@ -162,6 +230,22 @@ public class ESRDataImporterCamt54v02
 			@NonNull final ESRStatementBuilder stmtBuilder,
 			@Nullable final BigDecimal ctrlQty,
 			@NonNull final ReportEntry2 ntry)
+	{
+		for (final EntryDetails1 ntryDtl : ntry.getNtryDtls())
+		{
+			final List<ESRTransaction> transactions = iterateTransactionDetails(ntry, ntryDtl);
+			stmtBuilder.transactions(transactions);
+		}
+
+		return computeCtrlQty(ctrlQty, ntry);
+	}
+
+	/**
+	 * @return the given {@code ctrlQty}, plus the <code>NbOfTxs</code> of the given {@code ntry}'s {@code ntryDtl}s (if any).
+	 */
+	private BigDecimal computeCtrlQty(
+			@Nullable final BigDecimal ctrlQty,
+			@NonNull final ReportEntry2 ntry)
 	{
 		BigDecimal newCtrlQty = ctrlQty;
 		for (final EntryDetails1 ntryDtl : ntry.getNtryDtls())
@@ -185,10 +269,6 @@ public class ESRDataImporterCamt54v02
 					newCtrlQty = newCtrlQty.add(augend);
 				}
 			}
-
-			final List<ESRTransaction> transactions = iterateTransactionDetails(ntry, ntryDtl);
-			stmtBuilder.transactions(transactions);
-
 		} // ntryDtl
 
 		return newCtrlQty;
@@ -208,23 +288,29 @@ public class ESRDataImporterCamt54v02
 
 		for (final EntryTransaction2 txDtl : ntryDtl.getTxDtls())
 		{
-			final ESRTransactionBuilder trxBuilder = ESRTransaction.builder();
+			transactions.add(createESRTransaction(ntry, txDtl));
+		}
+		return transactions;
+	}
 
-			new ReferenceStringHelper().extractAndSetEsrReference(txDtl, trxBuilder);
+	private ESRTransaction createESRTransaction(
+			@NonNull final ReportEntry2 ntry,
+			@NonNull final EntryTransaction2 txDtl)
+	{
+		final ESRTransactionBuilder trxBuilder = ESRTransaction.builder();
 
-			verifyTransactionCurrency(txDtl, trxBuilder);
+		new ReferenceStringHelper().extractAndSetEsrReference(txDtl, trxBuilder);
 
-			extractAmountAndType(ntry, txDtl, trxBuilder);
+		verifyTransactionCurrency(txDtl, trxBuilder);
 
-			final ESRTransaction esrTransaction = trxBuilder
-					.accountingDate(asTimestamp(ntry.getBookgDt()))
-					.paymentDate(asTimestamp(ntry.getValDt()))
-					.esrParticipantNo(ntry.getNtryRef())
-					.transactionKey(mkTrxKey(txDtl))
-					.build();
-			transactions.add(esrTransaction);
-		}
-		return transactions;
+		extractAmountAndType(ntry, txDtl, trxBuilder);
+
+		return trxBuilder
+				.accountingDate(asTimestamp(ntry.getBookgDt()))
+				.paymentDate(asTimestamp(ntry.getValDt()))
+				.esrParticipantNo(ntry.getNtryRef())
+				.transactionKey(mkTrxKey(txDtl))
+				.build();
 	}
 	
 	/**
@@ -270,6 +356,13 @@ public class ESRDataImporterCamt54v02
 		}
 	}
 	
+	private BigDecimal computeEntryAmount(@NonNull final ReportEntry2 ntry)
+	{
+		return ntry.getAmt().getValue()
+				.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
+				.multiply(getRvslMultiplier(ntry));
+	}
+
 	/**
 	 * getCrdDbtMultiplier for version 2 <code>BankToCustomerDebitCreditNotificationV02</code>
 	 * 
@@ -6,18 +6,23 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
+import javax.xml.bind.DatatypeConverter;
 import javax.xml.bind.JAXB;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.Mutable;
 import org.compiere.util.Env;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.currency.ICurrencyDAO;
 import de.metas.i18n.IMsgBL;
@@ -25,17 +30,20 @@ import de.metas.money.CurrencyId;
 import de.metas.payment.camt054_001_06.AccountNotification12;
 import de.metas.payment.camt054_001_06.ActiveOrHistoricCurrencyAndAmount;
 import de.metas.payment.camt054_001_06.BankToCustomerDebitCreditNotificationV06;
+import de.metas.payment.camt054_001_06.BatchInformation2;
 import de.metas.payment.camt054_001_06.CreditDebitCode;
 import de.metas.payment.camt054_001_06.DateAndDateTimeChoice;
 import de.metas.payment.camt054_001_06.Document;
 import de.metas.payment.camt054_001_06.EntryDetails7;
 import de.metas.payment.camt054_001_06.EntryTransaction8;
+import de.metas.payment.camt054_001_06.GroupHeader58;
 import de.metas.payment.camt054_001_06.ReportEntry8;
 import de.metas.payment.esr.ESRConstants;
 import de.metas.payment.esr.dataimporter.ESRStatement;
 import de.metas.payment.esr.dataimporter.ESRStatement.ESRStatementBuilder;
 import de.metas.payment.esr.dataimporter.ESRTransaction;
 import de.metas.payment.esr.dataimporter.ESRTransaction.ESRTransactionBuilder;
+import de.metas.payment.esr.dataimporter.impl.camt54.Camt54StreamReader.ElementHandler;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.util.Services;
 import lombok.NonNull;
@@ -130,11 +138,7 @@ public class ESRDataImporterCamt54v06
 		{
 			for (final ReportEntry8 ntry : ntfctn.getNtry()) // gh #1947: there can be many ntry records
 			{
-				final BigDecimal ntryAmt = ntry.getAmt().getValue()
-						.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
-						.multiply(getRvslMultiplier(ntry));
-
-				ctrAmount = ctrAmount.add(ntryAmt);
+				ctrAmount = ctrAmount.add(computeEntryAmount(ntry));
 				ctrlQty = iterateEntryDetails(stmtBuilder, ctrlQty, ntry);
 			} // for ntry
 		} // ntfctn
@@ -147,8 +151,71 @@ public class ESRDataImporterCamt54v06
 				.ctrlQty(ctrlQtyForStatement)
 				.build();
 	}
-	
-	
+
+	/**
+	 * Streams the XML and passes each {@link ESRTransaction} to the given consumer as soon as its <code>TxDtls</code> element was read.
+	 * Unlike {@link #loadXML()}, this does not keep the whole document in memory, so it also works with huge files.
+	 *
+	 * @return the statement's control amount and qty, but without transactions
+	 */
+	public ESRStatement importStatement(@NonNull final Consumer<ESRTransaction> transactionConsumer)
+	{
+		final Camt54StreamReader reader = new Camt54StreamReader(xsr, Document.class);
+
+		final Mutable<BigDecimal> ctrAmount = new Mutable<>(BigDecimal.ZERO);
+		final Mutable<BigDecimal> ctrlQty = new Mutable<>(ESRDataImporterCamt54.CTRL_QTY_NOT_YET_SET);
+
+		reader.readDocument(ImmutableMap.<String, ElementHandler> of(
+				"GrpHdr", () -> ESRDataImporterCamt54.logIfTestFile(reader.unmarshal(GroupHeader58.class).getAddtlInf()),
+				"Ntry", () -> {
+					final ReportEntry8 ntry = readEntry(reader, transactionConsumer);
+					ctrAmount.setValue(ctrAmount.getValue().add(computeEntryAmount(ntry)));
+					ctrlQty.setValue(computeCtrlQty(ctrlQty.getValue(), ntry));
+				}));
+
+		// only use the control qty if all ntry had one set. If one was null, then forward null
+		final BigDecimal ctrlQtyForStatement = ctrlQty.getValue().compareTo(ESRDataImporterCamt54.CTRL_QTY_AT_LEAST_ONE_NULL) == 0 ? null : ctrlQty.getValue();
+
+		return ESRStatement.builder()
+				.ctrlAmount(ctrAmount.getValue())
+				.ctrlQty(ctrlQtyForStatement)
+				.build();
+	}
+
+	/**
+	 * Reads the <code>Ntry</code> element at the reader's current position.
+	 * Its transactions are passed to the given consumer right away, the returned entry's <code>NtryDtls</code> only contain their <code>Btch</code>.
+	 */
+	private ReportEntry8 readEntry(
+			@NonNull final Camt54StreamReader reader,
+			@NonNull final Consumer<ESRTransaction> transactionConsumer) throws XMLStreamException
+	{
+		final ReportEntry8 ntry = new ReportEntry8();
+		reader.readChildren(ImmutableMap.<String, ElementHandler> builder()
+				.put("NtryRef", () -> ntry.setNtryRef(reader.readText()))
+				.put("Amt", () -> ntry.setAmt(reader.unmarshal(ActiveOrHistoricCurrencyAndAmount.class)))
+				.put("CdtDbtInd", () -> ntry.setCdtDbtInd(CreditDebitCode.fromValue(reader.readText().trim())))
+				.put("RvslInd", () -> ntry.setRvslInd(DatatypeConverter.parseBoolean(reader.readText().trim())))
+				.put("BookgDt", () -> ntry.setBookgDt(reader.unmarshal(DateAndDateTimeChoice.class)))
+				.put("ValDt", () -> ntry.setValDt(reader.unmarshal(DateAndDateTimeChoice.class)))
+				// according to the XSD, NtryDtls come after all the elements above, so we can create the transactions on the fly
+				.put("NtryDtls", () -> ntry.getNtryDtls().add(readEntryDetails(reader, ntry, transactionConsumer)))
+				.build());
+		return ntry;
+	}
+
+	private EntryDetails7 readEntryDetails(
+			@NonNull final Camt54StreamReader reader,
+			@NonNull final ReportEntry8 ntry,
+			@NonNull final Consumer<ESRTransaction> transactionConsumer) throws XMLStreamException
+	{
+		final EntryDetails7 ntryDtl = new EntryDetails7();
+		reader.readChildren(ImmutableMap.<String, ElementHandler> of(
+				"Btch", () -> ntryDtl.setBtch(reader.unmarshal(BatchInformation2.class)),
+				"TxDtls", () -> transactionConsumer.accept(createESRTransaction(ntry, reader.unmarshal(EntryTransaction8.class)))));
+		return ntryDtl;
+	}
+
 	/**
 	 * iterateEntryDetails for version 6 <code>BankToCustomerDebitCreditNotificationV06</code>
 	 * @param stmtBuilder builder to which the individual {@link ESRTransaction}s are added.
@@ -161,6 +228,22 @@ public class ESRDataImporterCamt54v06
 			@NonNull final ESRStatementBuilder stmtBuilder,
 			@Nullable final BigDecimal ctrlQty,
 			@NonNull final ReportEntry8 ntry)
+	{
+		for (final EntryDetails7 ntryDtl : ntry.getNtryDtls())
+		{
+			final List<ESRTransaction> transactions = iterateTransactionDetails(ntry, ntryDtl);
+			stmtBuilder.transactions(transactions);
+		}
+
+		return computeCtrlQty(ctrlQty, ntry);
+	}
+
+	/**
+	 * @return the given {@code ctrlQty}, plus the <code>NbOfTxs</code> of the given {@code ntry}'s {@code ntryDtl}s (if any).
+	 */
+	private BigDecimal computeCtrlQty(
+			@Nullable final BigDecimal ctrlQty,
+			@NonNull final ReportEntry8 ntry)
 	{
 		BigDecimal newCtrlQty = ctrlQty;
 		for (final EntryDetails7 ntryDtl : ntry.getNtryDtls())
@@ -184,10 +267,6 @@ public class ESRDataImporterCamt54v06
 					newCtrlQty = newCtrlQty.add(augend);
 				}
 			}
-
-			final List<ESRTransaction> transactions = iterateTransactionDetails(ntry, ntryDtl);
-			stmtBuilder.transactions(transactions);
-
 		} // ntryDtl
 
 		return newCtrlQty;
@@ -207,23 +286,29 @@ public class ESRDataImporterCamt54v06
 
 		for (final EntryTransaction8 txDtl : ntryDtl.getTxDtls())
 		{
-			final ESRTransactionBuilder trxBuilder = ESRTransaction.builder();
+			transactions.add(createESRTransaction(ntry, txDtl));
+		}
+		return transactions;
+	}
 
-			new ReferenceStringHelper().extractAndSetEsrReference(txDtl, trxBuilder);
+	private ESRTransaction createESRTransaction(
+			@NonNull final ReportEntry8 ntry,
+			@NonNull final EntryTransaction8 txDtl)
+	{
+		final ESRTransactionBuilder trxBuilder = ESRTransaction.builder();
 
-			verifyTransactionCurrency(txDtl, trxBuilder);
+		new ReferenceStringHelper().extractAndSetEsrReference(txDtl, trxBuilder);
 
-			extractAmountAndType(ntry, txDtl, trxBuilder);
+		verifyTransactionCurrency(txDtl, trxBuilder);
 
-			final ESRTransaction esrTransaction = trxBuilder
-					.accountingDate(asTimestamp(ntry.getBookgDt()))
-					.paymentDate(asTimestamp(ntry.getValDt()))
-					.esrParticipantNo(ntry.getNtryRef())
-					.transactionKey(mkTrxKey(txDtl))
-					.build();
-			transactions.add(esrTransaction);
-		}
-		return transactions;
+		extractAmountAndType(ntry, txDtl, trxBuilder);
+
+		return trxBuilder
+				.accountingDate(asTimestamp(ntry.getBookgDt()))
+				.paymentDate(asTimestamp(ntry.getValDt()))
+				.esrParticipantNo(ntry.getNtryRef())
+				.transactionKey(mkTrxKey(txDtl))
+				.build();
 	}
 	
 	
@@ -267,6 +352,13 @@ public class ESRDataImporterCamt54v06
 		}
 	}
 
+	private BigDecimal computeEntryAmount(@NonNull final ReportEntry8 ntry)
+	{
+		return ntry.getAmt().getValue()
+				.multiply(getCrdDbtMultiplier(ntry.getCdtDbtInd()))
+				.multiply(getRvslMultiplier(ntry));
+	}
+
 	/**
 	 * getCrdDbtMultiplier for version 6 <code>BankToCustomerDebitCreditNotificationV06</code>
 	 * 
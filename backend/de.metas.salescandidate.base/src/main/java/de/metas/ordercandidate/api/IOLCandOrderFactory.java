@@ -0,0 +1,52 @@
+package de.metas.ordercandidate.api;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.salescandidate.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Creates one order from the order line candidates which {@link OLCandsProcessorExecutor} planned for it.
+ * Each instance is used by one thread only.
+ *
+ * @see OLCandOrderFactory
+ */
+@VisibleForTesting
+interface IOLCandOrderFactory
+{
+	/**
+	 * Adds the given candidate to the current order line, creating the order and the order line if needed.
+	 */
+	void addOLCand(@NonNull OLCand candidate);
+
+	/**
+	 * The next candidate shall go to a new order line.
+	 */
+	void closeCurrentOrderLine();
+
+	/**
+	 * Completes the order, or deletes it if it has no lines.
+	 */
+	void completeOrDelete();
+}
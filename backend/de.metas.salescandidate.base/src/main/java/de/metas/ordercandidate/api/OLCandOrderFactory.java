@@ -95,7 +95,7 @@ import lombok.NonNull;
  * #L%
  */
 
-class OLCandOrderFactory
+class OLCandOrderFactory implements IOLCandOrderFactory
 {
 	private static final Logger logger = LogManager.getLogger(OLCandOrderFactory.class);
 	private final IUserDAO userDAO = Services.get(IUserDAO.class);
@@ -253,6 +253,7 @@ class OLCandOrderFactory
 		return order;
 	}
 
+	@Override
 	public void completeOrDelete()
 	{
 		final I_C_Order order = this.order;
@@ -289,6 +290,7 @@ class OLCandOrderFactory
 		}
 	}
 
+	@Override
 	public void closeCurrentOrderLine()
 	{
 		if (currentOrderLine == null)
@@ -300,6 +302,7 @@ class OLCandOrderFactory
 		currentOrderLine = null;
 	}
 
+	@Override
 	public void addOLCand(@NonNull final OLCand candidate)
 	{
 		try
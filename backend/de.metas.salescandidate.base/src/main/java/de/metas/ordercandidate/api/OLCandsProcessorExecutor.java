@@ -2,22 +2,41 @@ package de.metas.ordercandidate.api;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
 import org.compiere.util.ArrayKeyBuilder;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 
 import ch.qos.logback.classic.Level;
@@ -26,6 +45,7 @@ import de.metas.impex.api.IInputDataSourceDAO;
 import de.metas.logging.LogManager;
 import de.metas.ordercandidate.OrderCandidate_Constants;
 import de.metas.ordercandidate.api.OLCandAggregationColumn.Granularity;
+import de.metas.ordercandidate.model.I_C_OLCand;
 import de.metas.ordercandidate.spi.IOLCandGroupingProvider;
 import de.metas.ordercandidate.spi.IOLCandListener;
 import de.metas.user.UserId;
@@ -65,6 +85,9 @@ import lombok.NonNull;
 public class OLCandsProcessorExecutor
 {
 	private static final Logger logger = LogManager.getLogger(OLCandsProcessorExecutor.class);
+
+	private static final String SYSCONFIG_Parallelism = "de.metas.ordercandidate.api.OLCandsProcessorExecutor.Parallelism";
+
 	private final ILoggable loggable;
 
 	private final IOLCandListener olCandListeners;
@@ -79,12 +102,24 @@ public class OLCandsProcessorExecutor
 
 	private final OLCandSource candidatesSource;
 
+	/**
+	 * How many orders shall be created concurrently, if we don't run in a transaction. If it's 1 (the default), all orders are created on the caller's thread within one transaction.
+	 */
+	private final int parallelism;
+
+	private final Supplier<IOLCandOrderFactory> orderFactorySupplier;
+
+	/**
+	 * @param orderFactorySupplier only to be set by tests; by default the orders are created by {@link OLCandOrderFactory}.
+	 */
 	@Builder
 	private OLCandsProcessorExecutor(
 			@NonNull final OLCandProcessorDescriptor processorDescriptor,
 			@NonNull final IOLCandListener olCandListeners,
 			@NonNull final IOLCandGroupingProvider groupingValuesProviders,
-			@NonNull final OLCandSource candidatesSource)
+			@NonNull final OLCandSource candidatesSource,
+			@Nullable final Integer parallelism,
+			@Nullable final Supplier<IOLCandOrderFactory> orderFactorySupplier)
 	{
 		this.orderDefaults = processorDescriptor.getDefaults();
 		this.olCandListeners = olCandListeners;
@@ -99,6 +134,12 @@ public class OLCandsProcessorExecutor
 		this.processorDataDestinationId = inputDataSourceDAO.retrieveInputDataSourceIdByInternalName(OrderCandidate_Constants.DATA_DESTINATION_INTERNAL_NAME);
 
 		this.candidatesSource = candidatesSource;
+
+		this.parallelism = parallelism != null
+				? Math.max(parallelism, 1)
+				: Math.max(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_Parallelism, 1), 1);
+
+		this.orderFactorySupplier = orderFactorySupplier != null ? orderFactorySupplier : this::newOrderFactory;
 	}
 
 	public void process()
@@ -138,7 +179,11 @@ public class OLCandsProcessorExecutor
 		// 'processedIds' contains the candidates that have already been processed
 		final Set<Integer> processedIds = new HashSet<>();
 
-		OLCandOrderFactory currentOrder = null;
+		//
+		// Plan which candidates end up in which order (and order line).
+		// Note that we don't touch the database here, so that the resulting orders are independent of each other and can be created concurrently.
+		final List<OrderToCreate> ordersToCreate = new ArrayList<>();
+		OrderToCreate currentOrder = null;
 
 		// This variable is used to decide if the current candidate differs from the previous one in a way that requires a new order.
 		OLCand previousCandidate = null;
@@ -163,12 +208,12 @@ public class OLCandsProcessorExecutor
 			{
 				if (currentOrder != null && isOrderSplit(candOfGroup, previousCandidate))
 				{
-					currentOrder.completeOrDelete();
 					currentOrder = null;
 				}
 				if (currentOrder == null)
 				{
-					currentOrder = newOrderFactory();
+					currentOrder = new OrderToCreate();
+					ordersToCreate.add(currentOrder);
 				}
 
 				currentOrder.addOLCand(candOfGroup);
@@ -178,13 +223,216 @@ public class OLCandsProcessorExecutor
 			}
 		}
 
-		if (currentOrder != null)
+		Check.assume(processedIds.size() == candidates.size(), "All candidates have been processed");
+
+		//
+		// Create the orders
+		createOrders(
+				ordersToCreate,
+				parallelism,
+				this::createOrder,
+				(orderToCreate, ex) -> markAsErrorOutOfTrx(orderToCreate.getOLCandIds(), ex),
+				loggable);
+	}
+
+	/**
+	 * Creates the given orders using the given <code>orderCreator</code>.
+	 * <ul>
+	 * <li>If the caller runs in a transaction, all orders are created one after the other within that transaction, like it always was.
+	 * We don't go parallel in that case, because the caller's transaction might hold locks (e.g. on the candidates) which the worker transactions would wait for,
+	 * while the caller waits for the workers.
+	 * <li>Else, if <code>parallelism</code> is greater than one, each order is created in its own transaction, using up to <code>parallelism</code> threads.
+	 * If the creation of one order fails, its transaction is rolled back and <code>onOrderFailed</code> is called. The other orders are not affected.
+	 * <li>Else all orders are created one after the other within one new transaction.
+	 * </ul>
+	 */
+	@VisibleForTesting
+	static <T> void createOrders(
+			@NonNull final List<T> ordersToCreate,
+			final int parallelism,
+			@NonNull final Consumer<T> orderCreator,
+			@NonNull final BiConsumer<T, Exception> onOrderFailed,
+			@NonNull final ILoggable loggable)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		if (trxManager.isActive(trxManager.getThreadInheritedTrxName()))
 		{
-			currentOrder.completeOrDelete();
-			currentOrder = null;
+			if (parallelism > 1 && ordersToCreate.size() > 1)
+			{
+				loggable.addLog("Creating {} orders sequentially, because we run in a transaction", ordersToCreate.size());
+			}
+			ordersToCreate.forEach(orderCreator);
+		}
+		else if (parallelism <= 1 || ordersToCreate.size() <= 1)
+		{
+			trxManager.runInNewTrx(() -> ordersToCreate.forEach(orderCreator));
 		}
+		else
+		{
+			createOrdersInParallel(ordersToCreate, parallelism, orderCreator, onOrderFailed, loggable);
+		}
+	}
 
-		Check.assume(processedIds.size() == candidates.size(), "All candidates have been processed");
+	private static <T> void createOrdersInParallel(
+			@NonNull final List<T> ordersToCreate,
+			final int parallelism,
+			@NonNull final Consumer<T> orderCreator,
+			@NonNull final BiConsumer<T, Exception> onOrderFailed,
+			@NonNull final ILoggable loggable)
+	{
+		final int threadsCount = Math.min(parallelism, ordersToCreate.size());
+		loggable.addLog("Creating {} orders using {} threads", ordersToCreate.size(), threadsCount);
+
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		final ILoggable threadSafeLoggable = (msg, msgParameters) -> {
+			synchronized (loggable)
+			{
+				return loggable.addLog(msg, msgParameters);
+			}
+		};
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(OLCandsProcessorExecutor.class.getSimpleName())
+				.setDaemon(true)
+				.build();
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount, threadFactory);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(ordersToCreate.size());
+			for (final T orderToCreate : ordersToCreate)
+			{
+				futures.add(executor.submit(() -> createOrderInNewTrx(orderToCreate, orderCreator, onOrderFailed, ctx, threadSafeLoggable)));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private static <T> void createOrderInNewTrx(
+			@NonNull final T orderToCreate,
+			@NonNull final Consumer<T> orderCreator,
+			@NonNull final BiConsumer<T, Exception> onOrderFailed,
+			@NonNull final Properties ctx,
+			@NonNull final ILoggable threadSafeLoggable)
+	{
+		// NOTE: we are on a worker thread, so the caller's context and loggable are not available and we have to set them up again
+		try (final IAutoCloseable ctxRestorer = Env.switchContext(Env.copyCtx(ctx));
+				final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(threadSafeLoggable))
+		{
+			try
+			{
+				Services.get(ITrxManager.class).runInNewTrx(() -> orderCreator.accept(orderToCreate));
+			}
+			catch (final Exception ex)
+			{
+				// the order's transaction was rolled back
+				threadSafeLoggable.addLog("Caught exception while creating the order {}; message={}", orderToCreate, ex.getLocalizedMessage());
+				logger.warn("Caught exception while creating the order {}", orderToCreate, ex);
+
+				onOrderFailed.accept(orderToCreate, ex);
+			}
+		}
+	}
+
+	private static void markAsErrorOutOfTrx(@NonNull final Set<Integer> olCandIds, @NonNull final Exception ex)
+	{
+		for (final int olCandId : olCandIds)
+		{
+			// reload the candidate, because the in-memory one might contain changes which were rolled back
+			final I_C_OLCand olCandRecord = InterfaceWrapperHelper.loadOutOfTrx(olCandId, I_C_OLCand.class);
+			olCandRecord.setIsError(true);
+			olCandRecord.setErrorMsg(ex.getLocalizedMessage());
+			InterfaceWrapperHelper.saveRecord(olCandRecord);
+		}
+	}
+
+	private void createOrder(@NonNull final OrderToCreate orderToCreate)
+	{
+		// the candidates were loaded in the caller's transaction (if any), but we save them within the transaction which we are creating the order in
+		InterfaceWrapperHelper.setThreadInheritedTrxName(orderToCreate.getOLCandRecords());
+
+		final IOLCandOrderFactory orderFactory = orderFactorySupplier.get();
+
+		boolean firstLine = true;
+		for (final List<OLCand> orderLineCandidates : orderToCreate.getOrderLinesCandidates())
+		{
+			if (!firstLine)
+			{
+				orderFactory.closeCurrentOrderLine();
+			}
+			firstLine = false;
+
+			orderLineCandidates.forEach(orderFactory::addOLCand);
+		}
+
+		orderFactory.completeOrDelete();
+	}
+
+	/**
+	 * The candidates of one order, grouped by the order lines they will end up in.
+	 */
+	private static final class OrderToCreate
+	{
+		private final List<List<OLCand>> orderLinesCandidates = new ArrayList<>();
+		private List<OLCand> currentOrderLineCandidates = null;
+
+		public void addOLCand(@NonNull final OLCand candidate)
+		{
+			if (currentOrderLineCandidates == null)
+			{
+				currentOrderLineCandidates = new ArrayList<>();
+				orderLinesCandidates.add(currentOrderLineCandidates);
+			}
+			currentOrderLineCandidates.add(candidate);
+		}
+
+		public void closeCurrentOrderLine()
+		{
+			currentOrderLineCandidates = null;
+		}
+
+		public List<List<OLCand>> getOrderLinesCandidates()
+		{
+			return orderLinesCandidates;
+		}
+
+		public List<I_C_OLCand> getOLCandRecords()
+		{
+			return orderLinesCandidates.stream()
+					.flatMap(List::stream)
+					.map(OLCand::unbox)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		public Set<Integer> getOLCandIds()
+		{
+			return orderLinesCandidates.stream()
+					.flatMap(List::stream)
+					.map(OLCand::getId)
+					.collect(ImmutableSet.toImmutableSet());
+		}
+
+		@Override
+		public String toString()
+		{
+			return "OrderToCreate[C_OLCand_IDs=" + getOLCandIds() + "]";
+		}
 	}
 
 	private OLCand prepareOLCandBeforeProcessing(final OLCand candidate)
@@ -197,12 +445,16 @@ public class OLCandsProcessorExecutor
 		return candidate;
 	}
 
+	/**
+	 * Note: called on the thread which creates the order, so we don't use the caller's {@link #loggable}, but the current thread's one.
+	 * On a worker thread, that's the synchronized loggable set up by {@link #createOrderInNewTrx(Object, Consumer, BiConsumer, Properties, ILoggable)}.
+	 */
 	private OLCandOrderFactory newOrderFactory()
 	{
 		return OLCandOrderFactory.builder()
 				.orderDefaults(orderDefaults)
 				.userInChargeId(userInChargeId)
-				.loggable(loggable)
+				.loggable(Loggables.withLogger(logger, Level.DEBUG))
 				.olCandProcessorId(olCandProcessorId)
 				.olCandListeners(olCandListeners)
 				.build();
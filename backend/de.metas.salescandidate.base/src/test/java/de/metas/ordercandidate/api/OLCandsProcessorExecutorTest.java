@@ -0,0 +1,291 @@
+package de.metas.ordercandidate.api;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.impex.model.I_AD_InputDataSource;
+import de.metas.ordercandidate.OrderCandidate_Constants;
+import de.metas.ordercandidate.model.I_C_OLCand;
+import de.metas.user.UserId;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.salescandidate.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class OLCandsProcessorExecutorTest
+{
+	private static final List<String> ORDERS_TO_CREATE = ImmutableList.of("order1", "order2", "order3", "order4");
+
+	private ITrxManager trxManager;
+
+	/** For each created order, the thread and the transaction it was created in */
+	private Map<String, CreatedOrder> createdOrders;
+	private Map<String, Exception> failedOrders;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		trxManager = Services.get(ITrxManager.class);
+
+		createdOrders = new ConcurrentHashMap<>();
+		failedOrders = new ConcurrentHashMap<>();
+	}
+
+	private static final class CreatedOrder
+	{
+		private final Thread thread = Thread.currentThread();
+		private final String trxName;
+
+		private CreatedOrder(final String trxName)
+		{
+			this.trxName = trxName;
+		}
+	}
+
+	private void createOrder(final String orderToCreate)
+	{
+		assertThat(trxManager.isActive(trxManager.getThreadInheritedTrxName())).as("order is created within a transaction").isTrue();
+		createdOrders.put(orderToCreate, new CreatedOrder(trxManager.getThreadInheritedTrxName()));
+	}
+
+	private void createOrders(final int parallelism, final Consumer<String> orderCreator)
+	{
+		OLCandsProcessorExecutor.createOrders(
+				ORDERS_TO_CREATE,
+				parallelism,
+				orderCreator,
+				failedOrders::put,
+				Loggables.nop());
+	}
+
+	@Test
+	public void sequential_outOfTrx()
+	{
+		createOrders(1, this::createOrder);
+
+		assertThat(createdOrders).containsOnlyKeys(ORDERS_TO_CREATE);
+		assertThat(createdOrders.values()).allSatisfy(createdOrder -> assertThat(createdOrder.thread).isSameAs(Thread.currentThread()));
+		assertThat(createdOrders.values()).extracting(createdOrder -> createdOrder.trxName).as("all orders are created in one transaction").containsOnly(createdOrders.get("order1").trxName);
+		assertThat(failedOrders).isEmpty();
+	}
+
+	@Test
+	public void parallel_outOfTrx()
+	{
+		createOrders(2, this::createOrder);
+
+		assertThat(createdOrders).containsOnlyKeys(ORDERS_TO_CREATE);
+		assertThat(createdOrders.values()).allSatisfy(createdOrder -> assertThat(createdOrder.thread).isNotSameAs(Thread.currentThread()));
+		assertThat(createdOrders.values()).extracting(createdOrder -> createdOrder.trxName).as("each order is created in its own transaction").doesNotHaveDuplicates();
+		assertThat(failedOrders).isEmpty();
+	}
+
+	@Test
+	public void parallel_outOfTrx_oneOrderFails()
+	{
+		createOrders(2, orderToCreate -> {
+			if ("order2".equals(orderToCreate))
+			{
+				throw new AdempiereException("order2 failed");
+			}
+			createOrder(orderToCreate);
+		});
+
+		assertThat(createdOrders).containsOnlyKeys("order1", "order3", "order4");
+		assertThat(failedOrders).containsOnlyKeys("order2");
+		assertThat(failedOrders.get("order2")).hasMessageContaining("order2 failed");
+	}
+
+	/**
+	 * Verifies that we don't go parallel within the caller's transaction, because the worker transactions might wait for the caller's locks, while the caller waits for the workers.
+	 */
+	@Test
+	public void parallel_inCallerTrx_createsSequentiallyInCallerTrx()
+	{
+		final String callerTrxName = trxManager.callInNewTrx(() -> {
+			createOrders(4, this::createOrder);
+			return trxManager.getThreadInheritedTrxName();
+		});
+
+		assertThat(createdOrders).containsOnlyKeys(ORDERS_TO_CREATE);
+		assertThat(createdOrders.values()).allSatisfy(createdOrder -> assertThat(createdOrder.thread).isSameAs(Thread.currentThread()));
+		assertThat(createdOrders.values()).extracting(createdOrder -> createdOrder.trxName).containsOnly(callerTrxName);
+		assertThat(failedOrders).isEmpty();
+	}
+
+	@Test
+	public void sequential_inCallerTrx_failurePropagatesToCaller()
+	{
+		trxManager.runInNewTrx(() -> assertThatThrownBy(() -> createOrders(1, orderToCreate -> {
+			throw new AdempiereException("failed");
+		})).hasMessageContaining("failed"));
+
+		assertThat(createdOrders).isEmpty();
+		assertThat(failedOrders).isEmpty();
+	}
+
+	/**
+	 * Records which candidates the executor hands to each order and order line, instead of creating orders.
+	 */
+	private static final class RecordingOrderFactory implements IOLCandOrderFactory
+	{
+		private final List<List<List<Integer>>> completedOrders;
+
+		private final List<List<Integer>> orderLines = new ArrayList<>();
+		private List<Integer> currentOrderLine = null;
+
+		private RecordingOrderFactory(final List<List<List<Integer>>> completedOrders)
+		{
+			this.completedOrders = completedOrders;
+		}
+
+		@Override
+		public void addOLCand(final OLCand candidate)
+		{
+			if (currentOrderLine == null)
+			{
+				currentOrderLine = new ArrayList<>();
+				orderLines.add(currentOrderLine);
+			}
+			currentOrderLine.add(candidate.getId());
+		}
+
+		@Override
+		public void closeCurrentOrderLine()
+		{
+			currentOrderLine = null;
+		}
+
+		@Override
+		public void completeOrDelete()
+		{
+			completedOrders.add(orderLines);
+		}
+	}
+
+	private OLCand olCand(final int bpartnerRepoId, final int productRepoId, final int uomRepoId, final int dataDestinationRepoId)
+	{
+		final I_C_OLCand record = newInstance(I_C_OLCand.class);
+		record.setC_BPartner_ID(bpartnerRepoId);
+		record.setC_BPartner_Location_ID(bpartnerRepoId * 10);
+		record.setM_Product_ID(productRepoId);
+		record.setC_UOM_ID(uomRepoId);
+		record.setQtyEntered(BigDecimal.ONE);
+		record.setDateOrdered(Timestamp.valueOf("2020-01-01 00:00:00"));
+		record.setAD_DataDestination_ID(dataDestinationRepoId);
+		saveRecord(record);
+
+		return OLCand.builder()
+				.olCandEffectiveValuesBL(Services.get(IOLCandEffectiveValuesBL.class))
+				.olCandRecord(record)
+				.build();
+	}
+
+	/**
+	 * Runs {@link OLCandsProcessorExecutor#process()} for the given candidates, with one order line per product and returns the planned orders, ordered by their first candidate.
+	 */
+	private List<List<List<Integer>>> processAndGetOrders(final List<OLCand> candidates, final int parallelism)
+	{
+		final List<List<List<Integer>>> completedOrders = Collections.synchronizedList(new ArrayList<>());
+
+		final OLCandProcessorDescriptor processorDescriptor = OLCandProcessorDescriptor.builder()
+				.id(1)
+				.defaults(OLCandOrderDefaults.builder().build())
+				.aggregationInfo(OLCandAggregation.of(ImmutableList.of(OLCandAggregationColumn.builder()
+						.columnName(I_C_OLCand.COLUMNNAME_M_Product_ID)
+						.adColumnId(1)
+						.groupByColumn(true)
+						.build())))
+				.userInChangeId(UserId.ofRepoId(1234))
+				.build();
+
+		OLCandsProcessorExecutor.builder()
+				.processorDescriptor(processorDescriptor)
+				.olCandListeners((candidate, orderLine) -> {})
+				.groupingValuesProviders(candidate -> ImmutableList.of(candidate.getM_Product_ID()))
+				.candidatesSource(candidates::stream)
+				.parallelism(parallelism)
+				.orderFactorySupplier(() -> new RecordingOrderFactory(completedOrders))
+				.build()
+				.process();
+
+		final List<List<List<Integer>>> result = new ArrayList<>(completedOrders);
+		result.sort(Comparator.comparing((List<List<Integer>> orderLines) -> orderLines.get(0).get(0)));
+		return result;
+	}
+
+	/**
+	 * Verifies that creating the orders in parallel results in the same orders and order lines as creating them one after the other.
+	 */
+	@Test
+	public void process_parallel_sameOrdersAndLinesAsSequential()
+	{
+		final I_AD_InputDataSource dataDestination = newInstance(I_AD_InputDataSource.class);
+		dataDestination.setInternalName(OrderCandidate_Constants.DATA_DESTINATION_INTERNAL_NAME);
+		saveRecord(dataDestination);
+		final int dataDestinationRepoId = dataDestination.getAD_InputDataSource_ID();
+
+		final I_C_UOM uom = newInstance(I_C_UOM.class);
+		saveRecord(uom);
+		final int uomRepoId = uom.getC_UOM_ID();
+
+		final OLCand cand1 = olCand(1, 100, uomRepoId, dataDestinationRepoId);
+		final OLCand cand2 = olCand(1, 200, uomRepoId, dataDestinationRepoId);
+		final OLCand cand3 = olCand(1, 100, uomRepoId, dataDestinationRepoId); // same order line as cand1
+		final OLCand cand4 = olCand(2, 300, uomRepoId, dataDestinationRepoId); // different bpartner => new order
+		final OLCand cand5 = olCand(2, 300, uomRepoId, dataDestinationRepoId);
+		final OLCand cand6 = olCand(2, 400, uomRepoId, dataDestinationRepoId);
+		final OLCand cand7 = olCand(3, 500, uomRepoId, dataDestinationRepoId);
+		final List<OLCand> candidates = ImmutableList.of(cand1, cand2, cand3, cand4, cand5, cand6, cand7);
+
+		final List<List<List<Integer>>> expectedOrders = ImmutableList.of(
+				ImmutableList.of(ImmutableList.of(cand1.getId(), cand3.getId()), ImmutableList.of(cand2.getId())),
+				ImmutableList.of(ImmutableList.of(cand4.getId(), cand5.getId()), ImmutableList.of(cand6.getId())),
+				ImmutableList.of(ImmutableList.of(cand7.getId())));
+
+		assertThat(processAndGetOrders(candidates, 1)).isEqualTo(expectedOrders);
+		assertThat(processAndGetOrders(candidates, 4)).isEqualTo(expectedOrders);
+	}
+}
@@ -62,6 +62,7 @@ import javax.annotation.Nullable;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
@@ -129,9 +130,14 @@ public class DpdDraftDeliveryOrderCreator implements DraftDeliveryOrderCreator
 
 		// Order lines
 		final ImmutableList.Builder<DeliveryOrderLine> deliveryOrderLinesBuilder = ImmutableList.builder();
+		final Map<PackageId, I_M_Package> mPackagesById = InterfaceWrapperHelper.loadByRepoIdAwaresAsMap(mpackageIds, I_M_Package.class);
 		for (final PackageId packageId : mpackageIds)
 		{
-			final I_M_Package mPackage = InterfaceWrapperHelper.load(packageId, I_M_Package.class);
+			final I_M_Package mPackage = mPackagesById.get(packageId);
+			if (mPackage == null)
+			{
+				throw new AdempiereException("No M_Package found for " + packageId);
+			}
 
 			final DeliveryOrderLine deliveryOrderLine = DeliveryOrderLine.builder()
 					// .repoId()
@@ -53,6 +53,7 @@ import org.compiere.model.I_AD_Menu;
 import org.compiere.model.I_AD_Org;
 import org.compiere.model.I_C_BP_Group;
 import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_C_BPartner_Location;
 import org.compiere.model.I_C_Campaign;
 import org.compiere.model.I_C_ElementValue;
 import org.compiere.model.I_C_Order;
@@ -291,9 +292,41 @@ public class SwatValidator implements ModelValidator
 
 		cachingService.addTableCacheConfigIfAbsent(I_M_Attribute.class);
 		cachingService.addTableCacheConfigIfAbsent(I_M_Product.class);
-		cachingService.addTableCacheConfigIfAbsent(I_C_UOM.class);
-		cachingService.addTableCacheConfigIfAbsent(I_M_Warehouse.class);
-		cachingService.addTableCacheConfigIfAbsent(I_M_Locator.class);
+
+		// Master data which is rarely changed but read over and over again, mostly from within transactions.
+		// Read it through the out-of-transaction level, so all transactions share the same cached records.
+		cachingService.createTableCacheConfigBuilder(I_C_UOM.class)
+				.setEnabled(true)
+				.setTrxLevel(TrxLevel.All)
+				.setCacheMapType(CacheMapType.HashMap)
+				.setExpireMinutes(ITableCacheConfig.EXPIREMINUTES_Never)
+				.setReadThrough(true)
+				.registerIfAbsent();
+		cachingService.createTableCacheConfigBuilder(I_M_Warehouse.class)
+				.setEnabled(true)
+				.setTrxLevel(TrxLevel.All)
+				.setCacheMapType(CacheMapType.HashMap)
+				.setExpireMinutes(ITableCacheConfig.EXPIREMINUTES_Never)
+				.setReadThrough(true)
+				.registerIfAbsent();
+		cachingService.createTableCacheConfigBuilder(I_M_Locator.class)
+				.setEnabled(true)
+				.setTrxLevel(TrxLevel.All)
+				.setCacheMapType(CacheMapType.LRU)
+				.setInitialCapacity(500)
+				.setMaxCapacity(500)
+				.setExpireMinutes(ITableCacheConfig.EXPIREMINUTES_Never)
+				.setReadThrough(true)
+				.registerIfAbsent();
+		cachingService.createTableCacheConfigBuilder(I_C_BPartner_Location.class)
+				.setEnabled(true)
+				.setTrxLevel(TrxLevel.All)
+				.setCacheMapType(CacheMapType.LRU)
+				.setInitialCapacity(500)
+				.setMaxCapacity(500)
+				.setExpireMinutes(30)
+				.setReadThrough(true)
+				.registerIfAbsent();
 
 		// Cache C_BPartner
 		// NOTE: because we have a lot of them, we will cache only latest 50, using LRU map,
@@ -25,6 +25,9 @@ package de.metas.util;
 import java.lang.management.ManagementFactory;
 import java.lang.reflect.Constructor;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
@@ -148,6 +151,27 @@ public class Services
 
 	private static LoadingCache<Class<? extends IService>, Object> services = newServicesCache();
 
+	/**
+	 * Per service interface: what we need to know about it in {@link #get(Class)}, plus the singleton implementation which was last loaded from {@link #services}.
+	 * That way, getting an already loaded singleton service doesn't need to go through {@link #services}.
+	 */
+	private static final ClassValue<ServiceHolder> serviceHolders = new ClassValue<ServiceHolder>()
+	{
+		@Override
+		protected ServiceHolder computeValue(final Class<?> serviceInterfaceClass)
+		{
+			return new ServiceHolder(serviceInterfaceClass);
+		}
+	};
+
+	/**
+	 * Incremented each time when {@link #services} is changed by something else than loading a service, i.e. by {@link #registerService(Class, ISingletonService)} or {@link #clear()}.
+	 * The singletons which the {@link #serviceHolders} got with a different version are outdated.
+	 * <p>
+	 * Needs to be read before and incremented after accessing {@link #services}, see {@link #getSingleton(Class, ServiceHolder)}.
+	 */
+	private static final AtomicInteger servicesVersion = new AtomicInteger(0);
+
 	public static IServiceInterceptor getInterceptor()
 	{
 		return interceptor;
@@ -180,9 +204,21 @@ public class Services
 	 */
 	public static <T extends IService> T get(@NonNull final Class<T> serviceInterfaceClass)
 	{
-		Check.assume(serviceInterfaceClass.isInterface(), "Param 'clazz' shall be an interface: {}", serviceInterfaceClass);
+		final ServiceHolder serviceHolder = serviceHolders.get(serviceInterfaceClass);
 
-		if (IMultitonService.class.isAssignableFrom(serviceInterfaceClass))
+		// Fast path: a singleton which was already loaded.
+		// NOTE: this is called very often, also in loops, so it shall not allocate anything.
+		final Object loadedSingleton = serviceHolder.getSingletonIfUpToDate(servicesVersion.get());
+		if (loadedSingleton != null)
+		{
+			@SuppressWarnings("unchecked")
+			final T service = (T)loadedSingleton;
+			return service;
+		}
+
+		Check.assume(serviceHolder.isServiceInterface(), "Param 'clazz' shall be an interface: {}", serviceInterfaceClass);
+
+		if (serviceHolder.isMultiton())
 		{
 			@SuppressWarnings("unchecked")
 			final Class<? extends IMultitonService> multitonServiceClass = (Class<? extends IMultitonService>)serviceInterfaceClass;
@@ -192,7 +228,7 @@ public class Services
 		}
 		else
 		{
-			final T service = getSingleton(serviceInterfaceClass);
+			final T service = getSingleton(serviceInterfaceClass, serviceHolder);
 			return service;
 		}
 	}
@@ -217,11 +253,14 @@ public class Services
 	}
 
 	@SuppressWarnings("unchecked")
-	private static <T extends IService> T getSingleton(final Class<T> serviceInterfaceClass)
+	private static <T extends IService> T getSingleton(final Class<T> serviceInterfaceClass, final ServiceHolder serviceHolder)
 	{
 		try
 		{
+			// read the version *before* accessing the services, so that if the services are changed meanwhile, the holder gets an outdated version
+			final int version = servicesVersion.get();
 			final T serviceImpl = (T)services.get(serviceInterfaceClass);
+			serviceHolder.setSingleton(serviceImpl, version);
 			return serviceImpl;
 		}
 		catch (Exception e)
@@ -338,6 +377,7 @@ public class Services
 		assertValidServiceImpl(serviceInterfaceClass, serviceImpl);
 
 		services.put(serviceInterfaceClass, serviceImpl);
+		servicesVersion.incrementAndGet();
 		loadService(serviceInterfaceClass, serviceImpl);
 	}
 
@@ -382,6 +422,7 @@ public class Services
 		// Dismiss current services cache and re-create it
 		services.invalidateAll();
 		services = newServicesCache();
+		servicesVersion.incrementAndGet();
 
 		//
 		// Reset interceptors
@@ -538,4 +579,53 @@ public class Services
 		return defaultConstructor;
 	}
 
+	private static final class ServiceHolder
+	{
+		private final boolean serviceInterface;
+		private final boolean multiton;
+
+		private volatile LoadedSingleton loadedSingleton = null;
+
+		private ServiceHolder(final Class<?> serviceInterfaceClass)
+		{
+			this.serviceInterface = serviceInterfaceClass.isInterface();
+			this.multiton = IMultitonService.class.isAssignableFrom(serviceInterfaceClass);
+		}
+
+		public boolean isServiceInterface()
+		{
+			return serviceInterface;
+		}
+
+		public boolean isMultiton()
+		{
+			return multiton;
+		}
+
+		@Nullable
+		public Object getSingletonIfUpToDate(final int currentServicesVersion)
+		{
+			final LoadedSingleton loadedSingleton = this.loadedSingleton;
+			return loadedSingleton != null && loadedSingleton.servicesVersion == currentServicesVersion
+					? loadedSingleton.serviceImpl
+					: null;
+		}
+
+		public void setSingleton(@NonNull final Object serviceImpl, final int servicesVersion)
+		{
+			this.loadedSingleton = new LoadedSingleton(serviceImpl, servicesVersion);
+		}
+	}
+
+	private static final class LoadedSingleton
+	{
+		private final Object serviceImpl;
+		private final int servicesVersion;
+
+		private LoadedSingleton(final Object serviceImpl, final int servicesVersion)
+		{
+			this.serviceImpl = serviceImpl;
+			this.servicesVersion = servicesVersion;
+		}
+	}
 }
@@ -156,6 +156,49 @@ public class ServicesTest
 				Services.getLoadedServicesCount());
 	}
 
+	/**
+	 * Make sure that a registered service replaces the one which was already loaded, also if {@link Services#get(Class)} remembered the old one.
+	 */
+	@Test
+	public void test_registerService_ReplacesLoadedSingleton()
+	{
+		final IMockedSingletonService loadedInstance = Services.get(IMockedSingletonService.class);
+		Assert.assertSame(loadedInstance, Services.get(IMockedSingletonService.class));
+
+		final MockedSingletonService registeredInstance = new MockedSingletonService();
+		Services.registerService(IMockedSingletonService.class, registeredInstance);
+		Assert.assertSame("registered instance shall be returned", registeredInstance, Services.get(IMockedSingletonService.class));
+
+		Services.clear();
+		final IMockedSingletonService instanceAfterClear = Services.get(IMockedSingletonService.class);
+		Assert.assertNotSame("registered instance shall be forgotten on clear", registeredInstance, instanceAfterClear);
+		Assert.assertNotSame("loaded instance shall be forgotten on clear", loadedInstance, instanceAfterClear);
+	}
+
+	@Test
+	public void test_externalServiceImplProvider()
+	{
+		final MockedSingletonService providedInstance = new MockedSingletonService();
+		Services.setExternalServiceImplProvider(new Services.IServiceImplProvider()
+		{
+			@Override
+			@SuppressWarnings("unchecked")
+			public <T extends IService> T provideServiceImpl(final Class<T> serviceClazz)
+			{
+				return IMockedSingletonService.class.equals(serviceClazz) ? (T)providedInstance : null;
+			}
+		});
+		try
+		{
+			Assert.assertSame(providedInstance, Services.get(IMockedSingletonService.class));
+			Assert.assertSame(providedInstance, Services.get(IMockedSingletonService.class));
+		}
+		finally
+		{
+			Services.setExternalServiceImplProvider(null);
+		}
+	}
+
 	private final Cache<Class<? extends IService>, Object> getServicesInternalMap()
 	{
 		try
@@ -0,0 +1,101 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory copy of the stock availabilities and product excludes, keyed by PZN.
+ * <p>
+ * Lookups are lock free. Changes are synchronized (on the index instance) and shall be applied only after they were committed to database.
+ * Whoever reloads the index from database shall hold that lock while reading the records and replacing the index, so that no concurrent change gets lost.
+ */
+final class StockAvailabilityIndex
+{
+	private volatile Map<Long, Integer> qtyByPzn = new ConcurrentHashMap<>();
+	private volatile Map<Long, ImmutableSet<Integer>> excludedBPartnerIdsByPzn = new ConcurrentHashMap<>();
+
+	public boolean isExcluded(final long pzn, final int bpartnerId)
+	{
+		final ImmutableSet<Integer> excludedBPartnerIds = excludedBPartnerIdsByPzn.get(pzn);
+		return excludedBPartnerIds != null && excludedBPartnerIds.contains(bpartnerId);
+	}
+
+	/** @return the available qty or {@code null} if the PZN is not known */
+	public Integer getQty(final long pzn)
+	{
+		return qtyByPzn.get(pzn);
+	}
+
+	public synchronized void putQty(final long pzn, final int qty)
+	{
+		qtyByPzn.put(pzn, qty);
+	}
+
+	public synchronized void removeQty(final long pzn)
+	{
+		qtyByPzn.remove(pzn);
+	}
+
+	/** Replaces all stock availabilities with the given ones. */
+	public synchronized void replaceAllQtys(@NonNull final Map<Long, Integer> newQtyByPzn)
+	{
+		qtyByPzn = new ConcurrentHashMap<>(newQtyByPzn);
+	}
+
+	public synchronized void addExclude(final long pzn, final int bpartnerId)
+	{
+		excludedBPartnerIdsByPzn.compute(pzn, (k, excludedBPartnerIds) -> excludedBPartnerIds == null
+				? ImmutableSet.of(bpartnerId)
+				: ImmutableSet.<Integer> builder().addAll(excludedBPartnerIds).add(bpartnerId).build());
+	}
+
+	public synchronized void removeExclude(final long pzn, final int bpartnerId)
+	{
+		excludedBPartnerIdsByPzn.computeIfPresent(pzn, (k, excludedBPartnerIds) -> {
+			final ImmutableSet<Integer> remainingBPartnerIds = excludedBPartnerIds.stream()
+					.filter(excludedBPartnerId -> excludedBPartnerId != bpartnerId)
+					.collect(ImmutableSet.toImmutableSet());
+			return !remainingBPartnerIds.isEmpty() ? remainingBPartnerIds : null;
+		});
+	}
+
+	/** Replaces all product excludes with the given ones. */
+	public synchronized void replaceAllExcludes(@NonNull final Map<Long, Set<Integer>> newExcludedBPartnerIdsByPzn)
+	{
+		final Map<Long, ImmutableSet<Integer>> excludedBPartnerIdsByPzn = new ConcurrentHashMap<>(newExcludedBPartnerIdsByPzn.size());
+		newExcludedBPartnerIdsByPzn.forEach((pzn, bpartnerIds) -> {
+			if (!bpartnerIds.isEmpty())
+			{
+				excludedBPartnerIdsByPzn.put(pzn, ImmutableSet.copyOf(bpartnerIds));
+			}
+		});
+		this.excludedBPartnerIdsByPzn = excludedBPartnerIdsByPzn;
+	}
+}
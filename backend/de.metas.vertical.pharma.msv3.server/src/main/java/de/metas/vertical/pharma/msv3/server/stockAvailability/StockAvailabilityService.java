@@ -1,6 +1,12 @@
 package de.metas.vertical.pharma.msv3.server.stockAvailability;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.transaction.Transactional;
@@ -9,6 +15,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.AvailabilityType;
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery;
@@ -65,6 +73,13 @@ public class StockAvailabilityService
 	@Autowired
 	private JpaProductExcludeRepository productExcludeRepo;
 
+	/**
+	 * Answers the availability requests without hitting the database.
+	 * It's loaded on first use and afterwards kept up to date by the events we are handling.
+	 */
+	private final StockAvailabilityIndex index = new StockAvailabilityIndex();
+	private volatile boolean indexLoaded = false;
+
 	public StockAvailabilityResponse checkAvailability(final StockAvailabilityQuery query)
 	{
 		final BPartnerId bpartner = query.getBpartner();
@@ -123,19 +138,107 @@ public class StockAvailabilityService
 
 	public Optional<Quantity> getQtyAvailable(@NonNull final PZN pzn, @NonNull final BPartnerId bpartner)
 	{
-		if (productExcludeRepo.existsByPznAndMfBpartnerId(pzn.getValueAsLong(), bpartner.getBpartnerId()))
+		loadIndexIfNeeded();
+
+		if (index.isExcluded(pzn.getValueAsLong(), bpartner.getBpartnerId()))
 		{
 			return Optional.empty();
 		}
 
-		final JpaStockAvailability jpaStockAvailability = stockAvailabilityRepo.findByMfPzn(pzn.getValueAsLong());
-		if (jpaStockAvailability == null)
+		final Integer qty = index.getQty(pzn.getValueAsLong());
+		if (qty == null)
 		{
 			return Optional.empty();
 		}
 
-		final Quantity qty = Quantity.of(jpaStockAvailability.getMfQty());
-		return Optional.of(qty);
+		return Optional.of(Quantity.of(qty));
+	}
+
+	private void loadIndexIfNeeded()
+	{
+		if (indexLoaded)
+		{
+			return;
+		}
+
+		synchronized (index)
+		{
+			if (indexLoaded)
+			{
+				return;
+			}
+
+			reloadStockAvailabilitiesIndex();
+			reloadProductExcludesIndex();
+			indexLoaded = true;
+		}
+	}
+
+	/**
+	 * NOTE: we hold the index's lock while reading the records <b>and</b> while replacing the index.
+	 * Otherwise, an update which was committed after we read the records could be applied to the index before we replace it, and would be lost.
+	 * Like this, such an update waits until the index was replaced and is then applied on top of it.
+	 */
+	private void reloadStockAvailabilitiesIndex()
+	{
+		synchronized (index)
+		{
+			final Map<Long, Integer> qtyByPzn = new HashMap<>();
+			for (final JpaStockAvailability jpaStockAvailability : stockAvailabilityRepo.findAll())
+			{
+				qtyByPzn.put(jpaStockAvailability.getMfPzn(), jpaStockAvailability.getMfQty());
+			}
+
+			index.replaceAllQtys(qtyByPzn);
+			logger.debug("Loaded {} stock availability records into index", qtyByPzn.size());
+		}
+	}
+
+	/**
+	 * NOTE: holds the index's lock while reading and replacing, see {@link #reloadStockAvailabilitiesIndex()}.
+	 */
+	private void reloadProductExcludesIndex()
+	{
+		synchronized (index)
+		{
+			final Map<Long, Set<Integer>> excludedBPartnerIdsByPzn = new HashMap<>();
+			for (final JpaProductExclude jpaProductExclude : productExcludeRepo.findAll())
+			{
+				excludedBPartnerIdsByPzn
+						.computeIfAbsent(jpaProductExclude.getPzn(), pzn -> new HashSet<>())
+						.add(jpaProductExclude.getMfBpartnerId());
+			}
+
+			index.replaceAllExcludes(excludedBPartnerIdsByPzn);
+			logger.debug("Loaded product excludes for {} PZNs into index", excludedBPartnerIdsByPzn.size());
+		}
+	}
+
+	/**
+	 * Applies the given index updates after the current transaction was committed, so that the index never contains data which was rolled back.
+	 */
+	private void updateIndexAfterCommit(@NonNull final List<Runnable> indexUpdates)
+	{
+		if (indexUpdates.isEmpty())
+		{
+			return;
+		}
+
+		final Runnable updateIndex = () -> indexUpdates.forEach(Runnable::run);
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			updateIndex.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+		{
+			@Override
+			public void afterCommit()
+			{
+				updateIndex.run();
+			}
+		});
 	}
 
 	@Transactional
@@ -143,6 +246,7 @@ public class StockAvailabilityService
 	{
 		final String mfSyncToken = event.getId();
 		final MSV3EventVersion mfEventVersion = event.getEventVersion();
+		final List<Runnable> indexUpdates = new ArrayList<>();
 
 		//
 		// Update
@@ -151,7 +255,7 @@ public class StockAvailabilityService
 
 			for (final MSV3StockAvailability eventItem : event.getItems())
 			{
-				updateStockAvailability(eventItem, mfSyncToken, mfEventVersion);
+				updateStockAvailability(eventItem, mfSyncToken, mfEventVersion, indexUpdates);
 				countUpdated.incrementAndGet();
 			}
 			logger.debug("Updated {} stock availability records", countUpdated);
@@ -166,21 +270,31 @@ public class StockAvailabilityService
 							mfSyncToken,
 							mfEventVersion.getAsInt());
 			logger.debug("Deleted {} stock availability records", countDeleted);
+
+			// we don't know which records were deleted, so we reload them all
+			indexUpdates.add(this::reloadStockAvailabilitiesIndex);
 		}
 
+		updateIndexAfterCommit(indexUpdates);
 	}
 
 	private void updateStockAvailability(
 			@NonNull final MSV3StockAvailability request,
 			final String mfSyncToken,
-			@NonNull final MSV3EventVersion mfEventVersion)
+			@NonNull final MSV3EventVersion mfEventVersion,
+			@NonNull final List<Runnable> indexUpdates)
 	{
+		final long pzn = request.getPzn();
 		if (request.isDelete())
 		{
-			stockAvailabilityRepo
+			final long countDeleted = stockAvailabilityRepo
 					.deleteInBatchByMfPznAndMfEventVersionLessThan(
-							request.getPzn(),
+							pzn,
 							mfEventVersion.getAsInt());
+			if (countDeleted > 0)
+			{
+				indexUpdates.add(() -> index.removeQty(pzn));
+			}
 		}
 		else
 		{
@@ -201,6 +315,9 @@ public class StockAvailabilityService
 			jpaStockAvailability.setMfQty(request.getQty());
 			jpaStockAvailability.setMfSyncToken(mfSyncToken);
 			stockAvailabilityRepo.save(jpaStockAvailability);
+
+			final int qty = request.getQty();
+			indexUpdates.add(() -> index.putQty(pzn, qty));
 		}
 	}
 
@@ -208,13 +325,14 @@ public class StockAvailabilityService
 	public void handleEvent(@NonNull final MSV3ProductExcludesUpdateEvent event)
 	{
 		final String syncToken = event.getId();
+		final List<Runnable> indexUpdates = new ArrayList<>();
 
 		//
 		// Update
 		{
 			final AtomicInteger countUpdated = new AtomicInteger();
 			event.getItems().forEach(eventItem -> {
-				updateProductExclude(eventItem, syncToken);
+				updateProductExclude(eventItem, syncToken, indexUpdates);
 				countUpdated.incrementAndGet();
 			});
 			logger.debug("Updated {} product exclude records", countUpdated);
@@ -226,14 +344,25 @@ public class StockAvailabilityService
 		{
 			final long countDeleted = productExcludeRepo.deleteInBatchBySyncTokenNot(syncToken);
 			logger.debug("Deleted {} product exclude records", countDeleted);
+
+			// we don't know which records were deleted, so we reload them all
+			indexUpdates.add(this::reloadProductExcludesIndex);
 		}
+
+		updateIndexAfterCommit(indexUpdates);
 	}
 
-	private void updateProductExclude(@NonNull final MSV3ProductExclude request, final String syncToken)
+	private void updateProductExclude(
+			@NonNull final MSV3ProductExclude request,
+			final String syncToken,
+			@NonNull final List<Runnable> indexUpdates)
 	{
+		final long pzn = request.getPzn().getValueAsLong();
+		final int bpartnerId = request.getBpartnerId();
 		if (request.isDelete())
 		{
-			productExcludeRepo.deleteInBatchByPznAndMfBpartnerId(request.getPzn().getValueAsLong(), request.getBpartnerId());
+			productExcludeRepo.deleteInBatchByPznAndMfBpartnerId(pzn, bpartnerId);
+			indexUpdates.add(() -> index.removeExclude(pzn, bpartnerId));
 		}
 		else
 		{
@@ -247,6 +376,8 @@ public class StockAvailabilityService
 
 			jpaProductExclude.setSyncToken(syncToken);
 			productExcludeRepo.save(jpaProductExclude);
+
+			indexUpdates.add(() -> index.addExclude(pzn, bpartnerId));
 		}
 	}
 }
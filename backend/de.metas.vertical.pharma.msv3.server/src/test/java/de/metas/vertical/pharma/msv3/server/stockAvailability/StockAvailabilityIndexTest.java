@@ -0,0 +1,70 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockAvailabilityIndexTest
+{
+	@Test
+	public void qtys()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		assertThat(index.getQty(123456789)).isNull();
+
+		index.putQty(123456789, 10);
+		assertThat(index.getQty(123456789)).isEqualTo(10);
+
+		index.replaceAllQtys(ImmutableMap.of(223456789L, 20));
+		assertThat(index.getQty(123456789)).isNull();
+		assertThat(index.getQty(223456789)).isEqualTo(20);
+
+		index.removeQty(223456789);
+		assertThat(index.getQty(223456789)).isNull();
+	}
+
+	@Test
+	public void excludes()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.addExclude(123456789, 1);
+		index.addExclude(123456789, 2);
+		assertThat(index.isExcluded(123456789, 1)).isTrue();
+		assertThat(index.isExcluded(123456789, 2)).isTrue();
+		assertThat(index.isExcluded(123456789, 3)).isFalse();
+		assertThat(index.isExcluded(223456789, 1)).isFalse();
+
+		index.removeExclude(123456789, 1);
+		assertThat(index.isExcluded(123456789, 1)).isFalse();
+		assertThat(index.isExcluded(123456789, 2)).isTrue();
+
+		index.replaceAllExcludes(ImmutableMap.of(223456789L, ImmutableSet.of(1)));
+		assertThat(index.isExcluded(123456789, 2)).isFalse();
+		assertThat(index.isExcluded(223456789, 1)).isTrue();
+	}
+}
@@ -0,0 +1,134 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.vertical.pharma.msv3.protocol.types.BPartnerId;
+import de.metas.vertical.pharma.msv3.protocol.types.PZN;
+import de.metas.vertical.pharma.msv3.protocol.types.Quantity;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3EventVersion;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailability;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailabilityUpdatedEvent;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExcludeRepository;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailability;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailabilityRepository;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockAvailabilityServiceTest
+{
+	private static final PZN PZN_1 = PZN.of(123456789);
+	private static final BPartnerId BPARTNER = BPartnerId.of(1);
+
+	@Mock
+	private JpaStockAvailabilityRepository stockAvailabilityRepo;
+	@Mock
+	private JpaProductExcludeRepository productExcludeRepo;
+
+	@InjectMocks
+	private StockAvailabilityService stockAvailabilityService;
+
+	@Before
+	public void init()
+	{
+		MockitoAnnotations.initMocks(this);
+		Mockito.when(productExcludeRepo.findAll()).thenReturn(ImmutableList.of());
+	}
+
+	private static JpaStockAvailability stockAvailability(final PZN pzn, final int qty)
+	{
+		final JpaStockAvailability jpaStockAvailability = new JpaStockAvailability();
+		jpaStockAvailability.setMfPzn(pzn.getValueAsLong());
+		jpaStockAvailability.setMfQty(qty);
+		return jpaStockAvailability;
+	}
+
+	@Test
+	public void indexIsLoadedOnFirstUseAndUpdatedByEvents()
+	{
+		Mockito.when(stockAvailabilityRepo.findAll()).thenReturn(ImmutableList.of(stockAvailability(PZN_1, 10)));
+		assertThat(stockAvailabilityService.getQtyAvailable(PZN_1, BPARTNER)).contains(Quantity.of(10));
+
+		stockAvailabilityService.handleEvent(MSV3StockAvailabilityUpdatedEvent.ofSingle(
+				MSV3StockAvailability.builder().pzn(PZN_1.getValueAsLong()).qty(20).build(),
+				MSV3EventVersion.of(1)));
+
+		assertThat(stockAvailabilityService.getQtyAvailable(PZN_1, BPARTNER)).contains(Quantity.of(20));
+		Mockito.verify(stockAvailabilityRepo, Mockito.times(1)).findAll();
+	}
+
+	/**
+	 * Scenario: while the index is reloaded from database (because of a "delete all others" event), another event's update is committed.
+	 * The reload read the records before that commit, so they don't contain the update.
+	 * <p>
+	 * The update shall not be lost, i.e. it shall be applied after the reloaded records replaced the index.
+	 */
+	@Test
+	public void updateDuringReloadIsNotLost() throws Exception
+	{
+		final CountDownLatch reloadIsReading = new CountDownLatch(1);
+		final CountDownLatch reloadMayFinish = new CountDownLatch(1);
+		final List<JpaStockAvailability> recordsBeforeUpdate = ImmutableList.of(stockAvailability(PZN_1, 10));
+		Mockito.when(stockAvailabilityRepo.findAll())
+				.thenReturn(recordsBeforeUpdate) // initial load
+				.thenAnswer(invocation -> {
+					reloadIsReading.countDown();
+					reloadMayFinish.await(10, TimeUnit.SECONDS);
+					return recordsBeforeUpdate;
+				});
+		assertThat(stockAvailabilityService.getQtyAvailable(PZN_1, BPARTNER)).contains(Quantity.of(10));
+
+		final Thread reloadThread = new Thread(() -> stockAvailabilityService.handleEvent(MSV3StockAvailabilityUpdatedEvent.deleteAllOlderThan(MSV3EventVersion.of(1))));
+		reloadThread.start();
+		assertThat(reloadIsReading.await(10, TimeUnit.SECONDS)).isTrue();
+
+		final Thread updateThread = new Thread(() -> stockAvailabilityService.handleEvent(MSV3StockAvailabilityUpdatedEvent.ofSingle(
+				MSV3StockAvailability.builder().pzn(PZN_1.getValueAsLong()).qty(20).build(),
+				MSV3EventVersion.of(2))));
+		updateThread.start();
+
+		// the update has to wait for the reload
+		updateThread.join(500);
+		assertThat(updateThread.isAlive()).isTrue();
+
+		reloadMayFinish.countDown();
+		reloadThread.join(10_000);
+		updateThread.join(10_000);
+		assertThat(reloadThread.isAlive()).isFalse();
+		assertThat(updateThread.isAlive()).isFalse();
+
+		assertThat(stockAvailabilityService.getQtyAvailable(PZN_1, BPARTNER)).contains(Quantity.of(20));
+	}
+}
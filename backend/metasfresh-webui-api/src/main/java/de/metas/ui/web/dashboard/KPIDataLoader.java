@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.elasticsearch.impl.ESSystem;
 import de.metas.logging.LogManager;
@@ -64,6 +65,14 @@ public class KPIDataLoader
 
 	private static final Logger logger = LogManager.getLogger(KPIDataLoader.class);
 
+	private static final String VAR_MainFromMillis = "MainFromMillis";
+	private static final String VAR_MainToMillis = "MainToMillis";
+	private static final String VAR_FromMillis = "FromMillis";
+	private static final String VAR_ToMillis = "ToMillis";
+
+	/** ES query variables which are taken from the time range. All the other variables are taken from the user's context. */
+	static final ImmutableSet<String> TIME_RANGE_VARIABLE_NAMES = ImmutableSet.of(VAR_MainFromMillis, VAR_MainToMillis, VAR_FromMillis, VAR_ToMillis);
+
 	private final Client elasticsearchClient;
 	private final KPI kpi;
 	private final JSONOptions jsonOptions;
@@ -211,10 +220,10 @@ public class KPIDataLoader
 		//
 		// Create query evaluation context
 		final Evaluatee evalCtx = Evaluatees.mapBuilder()
-				.put("MainFromMillis", data.getRange().getFromMillis())
-				.put("MainToMillis", data.getRange().getToMillis())
-				.put("FromMillis", timeRange.getFromMillis())
-				.put("ToMillis", timeRange.getToMillis())
+				.put(VAR_MainFromMillis, data.getRange().getFromMillis())
+				.put(VAR_MainToMillis, data.getRange().getToMillis())
+				.put(VAR_FromMillis, timeRange.getFromMillis())
+				.put(VAR_ToMillis, timeRange.getToMillis())
 				.build()
 				// Fallback to user context
 				.andComposeWith(Evaluatees.ofCtx(Env.getCtx()));
@@ -0,0 +1,242 @@
+package de.metas.ui.web.dashboard;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.CtxName;
+import org.compiere.util.Env;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
+import org.elasticsearch.client.Client;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Provides the KPI data for dashboard items.
+ * <p>
+ * The data is loaded using {@link KPIDataLoader} and it's kept in memory per KPI, time bucket and the user context values which are used by the KPI's query,
+ * so the same KPI shown on many users' dashboards or refreshed very often is aggregated only once per bucket.
+ * KPIs whose query depends on the user (e.g. <code>@#AD_User_ID@</code>, <code>@#AD_Org_ID@</code>) are aggregated once per bucket and user.
+ * <p>
+ * The bucket length is the KPI's poll interval. If the KPI has no poll interval, the {@value #SYSCONFIG_DefaultMaxStalenessSec} sysconfig is used.
+ * <p>
+ * Note that the KPI data is still aggregated by elasticsearch; there are no KPI definitions which don't depend on it.
+ * But if elasticsearch is not available when a bucket expired, the last data which was loaded for that bucket is served until elasticsearch is back.
+ */
+@Service
+public class KPIDataProvider
+{
+	private static final Logger logger = LogManager.getLogger(KPIDataProvider.class);
+
+	private static final String SYSCONFIG_DefaultMaxStalenessSec = "webui.dashboard.KPIDataProvider.DefaultMaxStalenessSec";
+	private static final int DEFAULT_MaxStalenessSec = 60;
+
+	private static final int CACHE_SIZE = 1000;
+
+	private final KPIDataRetriever kpiDataRetriever;
+
+	private final Cache<KPIDataCacheKey, KPIDataCacheEntry> cache = CacheBuilder.newBuilder()
+			.maximumSize(CACHE_SIZE)
+			.build();
+
+	@Autowired
+	public KPIDataProvider(@NonNull final Client elasticsearchClient)
+	{
+		this(createKPIDataRetriever(elasticsearchClient));
+	}
+
+	@VisibleForTesting
+	KPIDataProvider(@NonNull final KPIDataRetriever kpiDataRetriever)
+	{
+		this.kpiDataRetriever = kpiDataRetriever;
+	}
+
+	@FunctionalInterface
+	@VisibleForTesting
+	interface KPIDataRetriever
+	{
+		KPIDataResult retrieveData(KPI kpi, TimeRange timeRange, boolean formatValues, JSONOptions jsonOptions);
+	}
+
+	private static KPIDataRetriever createKPIDataRetriever(final Client elasticsearchClient)
+	{
+		return (kpi, timeRange, formatValues, jsonOptions) -> KPIDataLoader.newInstance(elasticsearchClient, kpi, jsonOptions)
+				.setTimeRange(timeRange)
+				.setFormatValues(formatValues)
+				.retrieveData();
+	}
+
+	public KPIDataResult getKPIData(
+			@NonNull final KPI kpi,
+			@NonNull final TimeRange timeRange,
+			final boolean formatValues,
+			@NonNull final JSONOptions jsonOptions)
+	{
+		final Duration maxStaleness = getMaxStaleness(kpi);
+		if (maxStaleness.isZero())
+		{
+			return retrieveKPIData(kpi, timeRange, formatValues, jsonOptions);
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final KPIDataCacheKey key = KPIDataCacheKey.of(kpi, timeRange, maxStaleness, formatValues, jsonOptions, extractContextValues(kpi));
+
+		final KPIDataCacheEntry entry = cache.getIfPresent(key);
+		if (entry != null)
+		{
+			if (!entry.isExpired(SystemTime.millis()))
+			{
+				return entry.getData().withRangeAndTook(timeRange, stopwatch.stop());
+			}
+			cache.asMap().remove(key, entry);
+		}
+
+		final KPIDataResult data;
+		try
+		{
+			// the loader is called only once per key, even if many users are requesting the same KPI in the same moment
+			data = cache.get(key, () -> new KPIDataCacheEntry(
+					retrieveKPIData(kpi, timeRange, formatValues, jsonOptions),
+					SystemTime.millis() + maxStaleness.toMillis()))
+					.getData();
+		}
+		catch (final ExecutionException | UncheckedExecutionException e)
+		{
+			if (entry == null)
+			{
+				throw AdempiereException.wrapIfNeeded(e.getCause());
+			}
+
+			logger.warn("Failed loading data for {}, range={}. Returning the data loaded before.", kpi, timeRange, e.getCause());
+			cache.asMap().putIfAbsent(key, entry);
+			return entry.getData().withRangeAndTook(timeRange, stopwatch.stop());
+		}
+
+		return data.withRangeAndTook(timeRange, stopwatch.stop());
+	}
+
+	private KPIDataResult retrieveKPIData(
+			final KPI kpi,
+			final TimeRange timeRange,
+			final boolean formatValues,
+			final JSONOptions jsonOptions)
+	{
+		logger.trace("Loading data for {}, range={}", kpi, timeRange);
+
+		return kpiDataRetriever.retrieveData(kpi, timeRange, formatValues, jsonOptions);
+	}
+
+	private static Duration getMaxStaleness(final KPI kpi)
+	{
+		final int pollIntervalSec = kpi.getPollIntervalSec();
+		if (pollIntervalSec > 0)
+		{
+			return Duration.ofSeconds(pollIntervalSec);
+		}
+
+		final int defaultMaxStalenessSec = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_DefaultMaxStalenessSec, DEFAULT_MaxStalenessSec);
+		return Duration.ofSeconds(Math.max(defaultMaxStalenessSec, 0));
+	}
+
+	/**
+	 * @return the values of the user context variables which are used by KPI's query, i.e. the values which make the difference between the data of two users
+	 */
+	private static Map<String, String> extractContextValues(final KPI kpi)
+	{
+		final Evaluatee ctx = Evaluatees.ofCtx(Env.getCtx());
+
+		final Map<String, String> contextValues = new HashMap<>();
+		for (final CtxName parameter : kpi.getESQuery().getParameters())
+		{
+			if (KPIDataLoader.TIME_RANGE_VARIABLE_NAMES.contains(parameter.getName()))
+			{
+				continue;
+			}
+			contextValues.put(parameter.toStringWithoutMarkers(), parameter.getValueAsString(ctx));
+		}
+
+		return Collections.unmodifiableMap(contextValues);
+	}
+
+	@Value
+	private static class KPIDataCacheKey
+	{
+		static KPIDataCacheKey of(
+				final KPI kpi,
+				final TimeRange timeRange,
+				final Duration bucketLength,
+				final boolean formatValues,
+				final JSONOptions jsonOptions,
+				final Map<String, String> contextValues)
+		{
+			final long bucketMillis = bucketLength.toMillis();
+			return new KPIDataCacheKey(
+					kpi.getId(),
+					timeRange.getFromMillis() / bucketMillis,
+					timeRange.getToMillis() / bucketMillis,
+					formatValues,
+					jsonOptions,
+					contextValues);
+		}
+
+		int kpiId;
+		long fromBucket;
+		long toBucket;
+		boolean formatValues;
+		JSONOptions jsonOptions;
+		Map<String, String> contextValues;
+	}
+
+	@Value
+	private static class KPIDataCacheEntry
+	{
+		KPIDataResult data;
+		long expiresAtMillis;
+
+		boolean isExpired(final long nowMillis)
+		{
+			return nowMillis >= expiresAtMillis;
+		}
+	}
+}
@@ -45,7 +45,7 @@ public class KPIDataResult
 
 	@JsonProperty("itemId")
 	@JsonInclude(JsonInclude.Include.NON_NULL)
-	private Integer itemId;
+	private final Integer itemId;
 
 	@JsonProperty("range")
 	@JsonInclude(JsonInclude.Include.NON_NULL)
@@ -57,20 +57,49 @@ public class KPIDataResult
 	private KPIDataResult(final Builder builder)
 	{
 		took = builder.took;
+		itemId = null;
 
 		range = builder.range;
 		datasets = ImmutableList.copyOf(builder.datasets.values());
 	}
 
+	private KPIDataResult(
+			final KPIDataResult from,
+			final Integer itemId,
+			final TimeRange range,
+			final String took)
+	{
+		this.took = took;
+		this.itemId = itemId;
+
+		this.range = range;
+		datasets = from.datasets;
+	}
+
 	public List<KPIDataSet> getData()
 	{
 		return datasets;
 	}
 
-	public KPIDataResult setItemId(final int itemId)
+	public TimeRange getRange()
 	{
-		this.itemId = itemId;
-		return this;
+		return range;
+	}
+
+	/**
+	 * @return a copy of this result for given dashboard item. This result is not changed, so it can be shared between dashboard items.
+	 */
+	public KPIDataResult withItemId(final int itemId)
+	{
+		return new KPIDataResult(this, itemId, range, took);
+	}
+
+	/**
+	 * @return a copy of this result, having the same data but the given range and duration, i.e. the ones of the request which is served with this result.
+	 */
+	public KPIDataResult withRangeAndTook(final TimeRange range, final Stopwatch took)
+	{
+		return new KPIDataResult(this, itemId, range, took.toString());
 	}
 
 	public static final class Builder
@@ -41,6 +41,8 @@ import com.google.common.collect.ImmutableSet;
 
 import ch.qos.logback.classic.Level;
 import de.metas.cache.CacheMgt;
+import de.metas.document.sequence.DocumentSequenceStatistics;
+import de.metas.document.sequence.IDocumentNoBuilderFactory;
 import de.metas.event.Topic;
 import de.metas.event.Type;
 import de.metas.logging.LogManager;
@@ -69,6 +71,8 @@ import de.metas.ui.web.view.event.JSONViewChanges;
 import de.metas.ui.web.view.event.ViewChanges;
 import de.metas.ui.web.view.json.JSONViewResult;
 import de.metas.ui.web.websocket.WebSocketConfig;
+import de.metas.ui.web.websocket.WebSocketProducerStatistics;
+import de.metas.ui.web.websocket.WebSocketProducersRegistry;
 import de.metas.ui.web.websocket.WebsocketEventLogRecord;
 import de.metas.ui.web.websocket.WebsocketSender;
 import de.metas.ui.web.window.WindowConstants;
@@ -143,6 +147,9 @@ public class DebugRestController
 	@Lazy
 	private WebsocketSender websocketSender;
 
+	@Autowired
+	private WebSocketProducersRegistry websocketProducersRegistry;
+
 	@Autowired
 	@Lazy
 	private ObjectMapper sharedJsonObjectMapper;
@@ -551,6 +558,22 @@ public class DebugRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("websocketProducers")
+	public List<WebSocketProducerStatistics> getWebsocketProducersStatistics()
+	{
+		userSession.assertLoggedIn();
+
+		return websocketProducersRegistry.getStatistics();
+	}
+
+	@GetMapping("documentSequences")
+	public List<DocumentSequenceStatistics> getDocumentSequencesStatistics()
+	{
+		userSession.assertLoggedIn();
+
+		return Services.get(IDocumentNoBuilderFactory.class).getSequenceStatistics();
+	}
+
 	@PostMapping("/view/{viewId}/deleteRows")
 	public String viewDeleteRowIds(
 			@PathVariable("viewId") final String viewIdStr,
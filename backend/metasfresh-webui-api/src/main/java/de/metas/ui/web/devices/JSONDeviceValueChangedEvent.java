@@ -1,6 +1,7 @@
 package de.metas.ui.web.devices;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
@@ -71,6 +72,34 @@ public final class JSONDeviceValueChangedEvent implements Serializable
 				.toString();
 	}
 
+	/**
+	 * NOTE: the timestamp is not considered, so an event with an unchanged device value is not sent again to websocket.
+	 */
+	@Override
+	public boolean equals(final Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		else if (obj instanceof JSONDeviceValueChangedEvent)
+		{
+			final JSONDeviceValueChangedEvent other = (JSONDeviceValueChangedEvent)obj;
+			return Objects.equals(deviceId, other.deviceId)
+					&& Objects.equals(value, other.value);
+		}
+		else
+		{
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(deviceId, value);
+	}
+
 	public String getDeviceId()
 	{
 		return deviceId;
@@ -1,7 +1,7 @@
 
 package de.metas.ui.web.handlingunits.process;
 
-import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwares;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -264,9 +264,8 @@ public class WEBUI_Add_Batch_SerialNo_To_CUs extends HUEditorProcessTemplate imp
 	 */
 	private boolean removeHUsIfDestroyed(final Collection<HuId> huIds)
 	{
-		final ImmutableSet<HuId> destroyedHUIds = huIds.stream()
-				.distinct()
-				.map(huId -> load(huId, I_M_HU.class))
+		final ImmutableSet<HuId> destroyedHUIds = loadByRepoIdAwares(ImmutableSet.copyOf(huIds), I_M_HU.class)
+				.stream()
 				.filter(Services.get(IHandlingUnitsBL.class)::isDestroyed)
 				.map(I_M_HU::getM_HU_ID)
 				.map(HuId::ofRepoId)
@@ -36,7 +36,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
-import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwares;
 
 /*
  * #%L
@@ -312,9 +312,8 @@ public class WEBUI_M_HU_Transform
 	 */
 	private boolean removeHUsIfDestroyed(final Collection<HuId> huIds)
 	{
-		final ImmutableSet<HuId> destroyedHUIds = huIds.stream()
-				.distinct()
-				.map(huId -> load(huId, I_M_HU.class))
+		final ImmutableSet<HuId> destroyedHUIds = loadByRepoIdAwares(ImmutableSet.copyOf(huIds), I_M_HU.class)
+				.stream()
 				.filter(Services.get(IHandlingUnitsBL.class)::isDestroyed)
 				.map(I_M_HU::getM_HU_ID)
 				.map(HuId::ofRepoId)
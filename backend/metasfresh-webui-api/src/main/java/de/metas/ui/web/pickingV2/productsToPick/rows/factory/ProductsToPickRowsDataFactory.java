@@ -4,23 +4,26 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.service.IDeveloperModeBL;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.mm.attributes.AttributeSetInstanceId;
 import org.adempiere.mm.attributes.api.AttributeConstants;
 import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
 import org.adempiere.mm.attributes.api.impl.LotNumberDateAttributeDAO;
+import org.adempiere.warehouse.WarehouseId;
 import org.eevolution.api.IPPOrderBL;
 
-import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.bpartner.BPartnerId;
@@ -62,6 +65,7 @@ import de.metas.uom.IUOMDAO;
 import de.metas.util.Services;
 import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -102,6 +106,8 @@ public final class ProductsToPickRowsDataFactory
 
 	private final ProductsToPickSourceStorage storages = new ProductsToPickSourceStorage();
 	private final Map<HuId, ImmutableAttributeSet> huAttributesCache = new HashMap<>();
+	private final Map<OrderLineId, ImmutableSet<HuId>> huIdsReservedBySalesOrderLineId = new HashMap<>();
+	private final Map<HUsAvailableToAllocateKey, ImmutableSet<HuId>> huIdsAvailableToAllocateByKey = new HashMap<>();
 
 	private final boolean considerAttributes;
 
@@ -139,12 +145,53 @@ public final class ProductsToPickRowsDataFactory
 		this.considerAttributes = considerAttributes;
 	}
 
+	/**
+	 * Allocates the HUs to all packageables of given row in one pass:
+	 * <ol>
+	 * <li>existing draft picking candidates, because they are already holding their HUs
+	 * <li>HUs which are reserved for the packageables' sales order lines
+	 * <li>not reserved HUs, considering each packageable's {@link ShipmentAllocationBestBeforePolicy}
+	 * <li>picking orders and not available quantities
+	 * </ol>
+	 * So a packageable can't take the HUs which are already picked or reserved for a packageable which comes after it.
+	 * All HUs and picking candidates are loaded upfront, for all packageables.
+	 */
 	public ProductsToPickRowsData create(final PackageableRow packageableRow)
 	{
-		final ImmutableList<ProductsToPickRow> rows = packageableRow.getPackageables()
+		final ImmutableList<AllocablePackageable> packageables = packageableRow.getPackageables()
 				.stream()
 				.map(this::toAllocablePackageable)
-				.flatMap(this::createRowsAndStream)
+				.collect(ImmutableList.toImmutableList());
+
+		final ImmutableListMultimap<ShipmentScheduleId, PickingCandidate> draftPickingCandidates = retrieveDraftPickingCandidates(packageables);
+		warmUpHUsToAllocate(packageables);
+
+		final IdentityHashMap<AllocablePackageable, List<ProductsToPickRow>> rowsByPackageable = new IdentityHashMap<>();
+		packageables.forEach(packageable -> rowsByPackageable.put(packageable, new ArrayList<>()));
+
+		for (final AllocablePackageable packageable : packageables)
+		{
+			final List<PickingCandidate> pickingCandidates = draftPickingCandidates.get(packageable.getShipmentScheduleId());
+			rowsByPackageable.get(packageable).addAll(createRowsFromExistingPickingCandidates(packageable, pickingCandidates));
+		}
+
+		for (final AllocablePackageable packageable : packageables)
+		{
+			rowsByPackageable.get(packageable).addAll(createRowsFromHUs(packageable, getHuIdsReservedForSalesOrderLine(packageable)));
+		}
+
+		for (final AllocablePackageable packageable : packageables)
+		{
+			rowsByPackageable.get(packageable).addAll(createRowsFromHUs(packageable, getHuIdsAvailableToAllocate(packageable)));
+		}
+
+		for (final AllocablePackageable packageable : packageables)
+		{
+			rowsByPackageable.get(packageable).addAll(createRowsForNotAllocatedQty(packageable));
+		}
+
+		final ImmutableList<ProductsToPickRow> rows = packageables.stream()
+				.flatMap(packageable -> rowsByPackageable.get(packageable).stream())
 				.collect(ImmutableList.toImmutableList());
 
 		return ProductsToPickRowsData.builder()
@@ -154,6 +201,52 @@ public final class ProductsToPickRowsDataFactory
 				.build();
 	}
 
+	private ImmutableListMultimap<ShipmentScheduleId, PickingCandidate> retrieveDraftPickingCandidates(final List<AllocablePackageable> packageables)
+	{
+		final ImmutableSet<ShipmentScheduleId> shipmentScheduleIds = packageables.stream()
+				.map(AllocablePackageable::getShipmentScheduleId)
+				.collect(ImmutableSet.toImmutableSet());
+		if (shipmentScheduleIds.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		return pickingCandidateService.getByShipmentScheduleIdsAndStatus(shipmentScheduleIds, PickingCandidateStatus.Draft)
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(PickingCandidate::getShipmentScheduleId, pickingCandidate -> pickingCandidate));
+	}
+
+	/**
+	 * Loads the reserved and the available HUs of all given packageables, with one query per product instead of one per packageable.
+	 */
+	private void warmUpHUsToAllocate(final List<AllocablePackageable> packageables)
+	{
+		final ImmutableSet<OrderLineId> salesOrderLineIds = packageables.stream()
+				.map(AllocablePackageable::getSalesOrderLineIdOrNull)
+				.filter(Objects::nonNull)
+				.filter(salesOrderLineId -> !huIdsReservedBySalesOrderLineId.containsKey(salesOrderLineId))
+				.collect(ImmutableSet.toImmutableSet());
+		if (!salesOrderLineIds.isEmpty())
+		{
+			final Map<OrderLineId, HUReservation> huReservations = huReservationService.getBySalesOrderLineIds(salesOrderLineIds);
+			for (final OrderLineId salesOrderLineId : salesOrderLineIds)
+			{
+				final HUReservation huReservation = huReservations.get(salesOrderLineId);
+				huIdsReservedBySalesOrderLineId.put(salesOrderLineId, huReservation != null ? ImmutableSet.copyOf(huReservation.getVhuIds()) : ImmutableSet.of());
+			}
+
+			warmUpCacheForHuIds(huIdsReservedBySalesOrderLineId.values()
+					.stream()
+					.flatMap(Set::stream)
+					.collect(ImmutableSet.toImmutableSet()));
+		}
+
+		packageables.stream()
+				.map(this::toHUsAvailableToAllocateKey)
+				.distinct()
+				.forEach(this::getHuIdsAvailableToAllocate);
+	}
+
 	private AllocablePackageable toAllocablePackageable(@NonNull final Packageable packageable)
 	{
 		final Quantity qtyToAllocateTarget = packageable.getQtyToDeliver()
@@ -177,11 +270,9 @@ public final class ProductsToPickRowsDataFactory
 				.build();
 	}
 
-	private Stream<ProductsToPickRow> createRowsAndStream(final AllocablePackageable packageable)
+	private List<ProductsToPickRow> createRowsForNotAllocatedQty(final AllocablePackageable packageable)
 	{
 		final ArrayList<ProductsToPickRow> rows = new ArrayList<>();
-		rows.addAll(createRowsFromExistingPickingCandidates(packageable));
-		rows.addAll(createRowsFromHUs(packageable));
 
 		if (!packageable.isAllocated())
 		{
@@ -198,7 +289,7 @@ public final class ProductsToPickRowsDataFactory
 			rows.add(createQtyNotAvailableRowForRemainingQtyToAllocate(packageable));
 		}
 
-		return rows.stream();
+		return rows;
 	}
 
 	private Optional<QtyCalculationsBOM> getPickingOrderBOM(final AllocablePackageable packageable)
@@ -209,10 +300,10 @@ public final class ProductsToPickRowsDataFactory
 				: Optional.empty();
 	}
 
-	private List<ProductsToPickRow> createRowsFromExistingPickingCandidates(final AllocablePackageable packageable)
+	private List<ProductsToPickRow> createRowsFromExistingPickingCandidates(
+			final AllocablePackageable packageable,
+			final List<PickingCandidate> pickingCandidates)
 	{
-		final List<PickingCandidate> pickingCandidates = pickingCandidateService.getByShipmentScheduleIdAndStatus(packageable.getShipmentScheduleId(), PickingCandidateStatus.Draft);
-
 		return pickingCandidates
 				.stream()
 				.map(pickingCandidate -> createRowFromExistingPickingCandidate(packageable, pickingCandidate))
@@ -272,16 +363,19 @@ public final class ProductsToPickRowsDataFactory
 
 	private List<ProductsToPickRow> createRowsFromHUs(final AllocablePackageable packageable)
 	{
-		if (packageable.isAllocated())
+		final ArrayList<ProductsToPickRow> rows = new ArrayList<>();
+		rows.addAll(createRowsFromHUs(packageable, getHuIdsReservedForSalesOrderLine(packageable))); // reserved HUs first
+		rows.addAll(createRowsFromHUs(packageable, getHuIdsAvailableToAllocate(packageable)));
+		return rows;
+	}
+
+	private List<ProductsToPickRow> createRowsFromHUs(final AllocablePackageable packageable, final Set<HuId> huIdsAvailableToPick)
+	{
+		if (packageable.isAllocated() || huIdsAvailableToPick.isEmpty())
 		{
 			return ImmutableList.of();
 		}
 
-		final ImmutableSet<HuId> huIdsAvailableToPick = ImmutableSet.<HuId> builder()
-				.addAll(getHuIdsReservedForSalesOrderLine(packageable)) // reserved HUs first
-				.addAll(getHuIdsAvailableToAllocate(packageable))
-				.build();
-
 		final List<ProductsToPickRow> rowsWithZeroQty = huIdsAvailableToPick.stream()
 				.map(pickFromHUId -> createZeroQtyRowFromHU(packageable, pickFromHUId))
 				.collect(ImmutableList.toImmutableList());
@@ -291,7 +385,8 @@ public final class ProductsToPickRowsDataFactory
 		return rowsWithZeroQty.stream()
 				.sorted(Comparator
 						.<ProductsToPickRow> comparingInt(row -> row.isHuReservedForThisRow() ? 0 : 1) // consider reserved HU first
-						.thenComparing(bestBeforePolicy.comparator(ProductsToPickRow::getExpiringDate))) // then first/last expiring HU
+						.thenComparing(bestBeforePolicy.comparator(ProductsToPickRow::getExpiringDate)) // then first/last expiring HU
+						.thenComparing(row -> row.getPickFromHUId().getRepoId())) // make sure the allocation does not depend on the order in which the HUs were loaded
 				.map(row -> allocateRowFromHU(row, packageable))
 				.filter(Objects::nonNull)
 				.collect(ImmutableList.toImmutableList());
@@ -309,7 +404,7 @@ public final class ProductsToPickRowsDataFactory
 		return bpartnersService.getBestBeforePolicy(bpartnerId);
 	}
 
-	private Set<HuId> getHuIdsReservedForSalesOrderLine(final AllocablePackageable packageable)
+	private ImmutableSet<HuId> getHuIdsReservedForSalesOrderLine(final AllocablePackageable packageable)
 	{
 		final OrderLineId salesOrderLineId = packageable.getSalesOrderLineIdOrNull();
 		if (salesOrderLineId == null)
@@ -317,26 +412,53 @@ public final class ProductsToPickRowsDataFactory
 			return ImmutableSet.of();
 		}
 
+		return huIdsReservedBySalesOrderLineId.computeIfAbsent(salesOrderLineId, this::retrieveHuIdsReservedForSalesOrderLine);
+	}
+
+	private ImmutableSet<HuId> retrieveHuIdsReservedForSalesOrderLine(final OrderLineId salesOrderLineId)
+	{
 		final HUReservation huReservation = huReservationService.getBySalesOrderLineId(salesOrderLineId).orElse(null);
 		if (huReservation == null)
 		{
 			return ImmutableSet.of();
 		}
 
-		return huReservation.getVhuIds();
+		final ImmutableSet<HuId> huIds = ImmutableSet.copyOf(huReservation.getVhuIds());
+		warmUpCacheForHuIds(huIds);
+		return huIds;
+	}
+
+	/**
+	 * @return HUs which are not reserved at all. The HUs which are reserved for the packageable's sales order line are not included, see {@link #getHuIdsReservedForSalesOrderLine(AllocablePackageable)}.
+	 */
+	private ImmutableSet<HuId> getHuIdsAvailableToAllocate(final AllocablePackageable packageable)
+	{
+		return getHuIdsAvailableToAllocate(toHUsAvailableToAllocateKey(packageable));
 	}
 
-	private Set<HuId> getHuIdsAvailableToAllocate(final AllocablePackageable packageable)
+	private ImmutableSet<HuId> getHuIdsAvailableToAllocate(final HUsAvailableToAllocateKey key)
 	{
-		final OrderLineId salesOrderLine = packageable.getSalesOrderLineIdOrNull();
+		return huIdsAvailableToAllocateByKey.computeIfAbsent(key, this::retrieveHuIdsAvailableToAllocate);
+	}
 
-		final Set<HuId> huIds = huReservationService.prepareHUQuery()
+	private HUsAvailableToAllocateKey toHUsAvailableToAllocateKey(final AllocablePackageable packageable)
+	{
+		return HUsAvailableToAllocateKey.builder()
 				.warehouseId(packageable.getWarehouseId())
 				.productId(packageable.getProductId())
 				.asiId(considerAttributes ? packageable.getAsiId() : null)
-				.reservedToSalesOrderLineIdOrNotReservedAtAll(salesOrderLine)
+				.build();
+	}
+
+	private ImmutableSet<HuId> retrieveHuIdsAvailableToAllocate(final HUsAvailableToAllocateKey key)
+	{
+		final ImmutableSet<HuId> huIds = ImmutableSet.copyOf(huReservationService.prepareHUQuery()
+				.warehouseId(key.getWarehouseId())
+				.productId(key.getProductId())
+				.asiId(key.getAsiId())
+				.reservedToSalesOrderLineIdOrNotReservedAtAll(null) // not reserved at all
 				.build()
-				.listIds();
+				.listIds());
 
 		warmUpCacheForHuIds(huIds);
 
@@ -349,6 +471,18 @@ public final class ProductsToPickRowsDataFactory
 		huReservationService.warmup(huIds);
 	}
 
+	@Value
+	@Builder
+	private static class HUsAvailableToAllocateKey
+	{
+		@NonNull
+		WarehouseId warehouseId;
+		@NonNull
+		ProductId productId;
+		@Nullable
+		AttributeSetInstanceId asiId;
+	}
+
 	@Nullable
 	private ProductsToPickRow allocateRowFromHU(final ProductsToPickRow row, final AllocablePackageable packageable)
 	{
@@ -13,6 +13,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.bpartner.BPartnerId;
+import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.IHUContext;
 import de.metas.handlingunits.IHUContextFactory;
 import de.metas.handlingunits.IHandlingUnitsBL;
@@ -104,13 +105,13 @@ public abstract class PickingSlotsClearingViewBasedProcess extends ViewBasedProc
 
 	protected final List<I_M_HU> getSelectedPickingSlotTopLevelHUs()
 	{
-		return getSelectedPickingSlotRows()
+		final ImmutableSet<HuId> huIds = getSelectedPickingSlotRows()
 				.stream()
 				.peek(huRow -> Check.assume(huRow.isTopLevelHU(), "row {} shall be a top level HU", huRow))
-				.map(huRow -> huRow.getHuId())
-				.distinct()
-				.map(huId -> InterfaceWrapperHelper.load(huId, I_M_HU.class))
-				.collect(ImmutableList.toImmutableList());
+				.map(PickingSlotRow::getHuId)
+				.collect(ImmutableSet.toImmutableSet());
+
+		return ImmutableList.copyOf(InterfaceWrapperHelper.loadByRepoIdAwaresAsMapOrFail(huIds, I_M_HU.class).values());
 	}
 
 	protected final BigDecimal retrieveQtyCU(@NonNull final I_M_HU hu)
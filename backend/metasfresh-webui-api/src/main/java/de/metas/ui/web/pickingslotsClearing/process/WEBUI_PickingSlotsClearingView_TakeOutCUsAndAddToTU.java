@@ -1,6 +1,6 @@
 package de.metas.ui.web.pickingslotsClearing.process;
 
-import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwaresAsMapOrFail;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -10,6 +10,7 @@ import org.adempiere.exceptions.FillMandatoryException;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.IHUContextFactory;
@@ -198,13 +199,13 @@ public class WEBUI_PickingSlotsClearingView_TakeOutCUsAndAddToTU extends Picking
 
 	private List<I_M_HU> getSourceCUs()
 	{
-		return getSelectedPickingSlotRows()
+		final ImmutableSet<HuId> huIds = getSelectedPickingSlotRows()
 				.stream()
 				.peek(huRow -> Check.assume(huRow.isCU(), "row {} shall be a CU", huRow))
 				.map(PickingSlotRow::getHuId)
-				.distinct()
-				.map(huId -> load(huId, I_M_HU.class))
-				.collect(ImmutableList.toImmutableList());
+				.collect(ImmutableSet.toImmutableSet());
+
+		return ImmutableList.copyOf(loadByRepoIdAwaresAsMapOrFail(huIds, I_M_HU.class).values());
 	}
 
 	private I_M_HU getTargetTU()
@@ -1,6 +1,7 @@
 package de.metas.ui.web.websocket;
 
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -40,4 +41,25 @@ public interface WebSocketProducer
 	 * @return event (JSON friendly)
 	 */
 	Object produceEvent(JSONOptions jsonOpts);
+
+	/**
+	 * Called when the first session subscribed to this producer's topic.
+	 * <p>
+	 * Producers which are able to detect when their source data changed shall call the given callback on each change and return <code>true</code>.
+	 * Such producers are not polled, {@link #produceEvent(JSONOptions)} is called only after a change was notified.
+	 *
+	 * @return <code>true</code> if this producer notifies its changes; <code>false</code> if it shall be polled (default)
+	 */
+	default boolean startNotifyingChanges(@NonNull final Runnable onChangeCallback)
+	{
+		return false;
+	}
+
+	/**
+	 * Called when the last session unsubscribed from this producer's topic.
+	 * The callback which was given to {@link #startNotifyingChanges(Runnable)} shall not be called anymore.
+	 */
+	default void stopNotifyingChanges()
+	{
+	}
 }
\ No newline at end of file
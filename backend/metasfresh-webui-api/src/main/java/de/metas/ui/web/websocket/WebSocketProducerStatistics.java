@@ -0,0 +1,58 @@
+package de.metas.ui.web.websocket;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Statistics of a {@link WebSocketProducer}, since it was created.
+ */
+@Value
+@Builder
+public class WebSocketProducerStatistics
+{
+	@NonNull
+	String topicName;
+
+	int subscribedSessions;
+
+	/** true if the producer notifies its changes, false if it's polled */
+	boolean changeNotified;
+
+	/** how many events were produced */
+	long countProduced;
+
+	/** how many events were sent to websocket */
+	long countPublished;
+
+	/** how many events were not sent because they were the same as the previous one */
+	long countSuppressed;
+
+	/** how many times producing or sending failed */
+	long countFailed;
+
+	/** how many events were sent per minute, in average */
+	double publishedPerMinute;
+}
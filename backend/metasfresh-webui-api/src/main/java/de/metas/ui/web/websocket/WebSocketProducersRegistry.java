@@ -1,28 +1,38 @@
 package de.metas.ui.web.websocket;
 
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import javax.annotation.PostConstruct;
 
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.compiere.Adempiere;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.logging.LogManager;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -53,18 +63,23 @@ import lombok.NonNull;
  * This component is responsible for:
  * <ul>
  * <li>automatically registering all {@link WebSocketProducerFactory} implementations which were found in spring context
- * <li>as soon as there is a subscriber for a websocket topic it will create/start a {@link WebSocketProducer} and it will call it on a given rate.
+ * <li>as soon as there is a subscriber for a websocket topic it will create/start a {@link WebSocketProducer} and it will call it on a given rate or, if the producer supports it, each time the producer notifies a change.
+ * <li>sending an event only if it's different from the previous one which was sent to the same topic.
  * </ul>
  *
  * @author metas-dev <dev@metasfresh.com>
  *
  */
 @Component
+@DependsOn(Adempiere.BEAN_NAME) // the thread pool size is a sysconfig
 public final class WebSocketProducersRegistry
 {
 	private static final Logger logger = LogManager.getLogger(WebSocketProducersRegistry.class);
 
-	private final ScheduledExecutorService scheduler;
+	private static final String SYSCONFIG_THREAD_POOL_SIZE = "webui.websocket.producers.threadPoolSize";
+	private static final int DEFAULT_THREAD_POOL_SIZE = 4;
+
+	private ScheduledExecutorService scheduler;
 	@Autowired
 	private WebsocketSender websocketSender;
 	@Autowired
@@ -75,13 +90,36 @@ public final class WebSocketProducersRegistry
 
 	public WebSocketProducersRegistry()
 	{
-		scheduler = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
-				.setThreadNamePrefix(getClass().getName())
-				.setDaemon(true)
-				.build());
+	}
+
+	@VisibleForTesting
+	WebSocketProducersRegistry(
+			@NonNull final WebsocketSender websocketSender,
+			final int threadPoolSize)
+	{
+		this.websocketSender = websocketSender;
+		scheduler = createScheduler(threadPoolSize);
+	}
+
+	private static ScheduledExecutorService createScheduler(final int threadPoolSize)
+	{
+		return Executors.newScheduledThreadPool(
+				Math.max(threadPoolSize, 1),
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(WebSocketProducersRegistry.class.getName())
+						.setDaemon(true)
+						.build());
 	}
 
 	@PostConstruct
+	private void postConstruct()
+	{
+		final int threadPoolSize = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE);
+		scheduler = createScheduler(threadPoolSize);
+
+		registerProducerFactoriesFromContext();
+	}
+
 	private void registerProducerFactoriesFromContext()
 	{
 		BeanFactoryUtils.beansOfTypeIncludingAncestors(context, WebSocketProducerFactory.class)
@@ -195,18 +233,42 @@ public final class WebSocketProducersRegistry
 		forEachExistingWebSocketProducerInstance(producer -> producer.unsubscribe(sessionId));
 	}
 
-	private static final class WebSocketProducerInstance
+	/**
+	 * @return statistics of all producers, sorted by topic name
+	 */
+	public ImmutableList<WebSocketProducerStatistics> getStatistics()
 	{
-		// private static final transient Logger logger = LogManager.getLogger(WebSocketProducerInstance.class);
+		return _producersByTopicName.values()
+				.stream()
+				.map(WebSocketProducerInstance::getStatistics)
+				.sorted(Comparator.comparing(WebSocketProducerStatistics::getTopicName))
+				.collect(ImmutableList.toImmutableList());
+	}
 
+	private static final class WebSocketProducerInstance
+	{
 		private final String topicName;
 		private final WebSocketProducer producer;
 		private final ScheduledExecutorService scheduler;
 		private final WebsocketSender websocketSender;
 
 		private final Set<String> subscribedSessionIds = new HashSet<>();
+		private volatile boolean running;
+		private boolean changeNotified;
 		private ScheduledFuture<?> scheduledFuture;
 
+		private final AtomicBoolean publishPending = new AtomicBoolean(false);
+		/** if set, the next event is published even if it's the same as the previous one, because a new session subscribed and did not get it yet */
+		private final AtomicBoolean forceNextPublish = new AtomicBoolean(false);
+		private final Object publishLock = new Object();
+		private Object lastPublishedEvent;
+
+		private final long createdMillis = System.currentTimeMillis();
+		private final AtomicLong countProduced = new AtomicLong();
+		private final AtomicLong countPublished = new AtomicLong();
+		private final AtomicLong countSuppressed = new AtomicLong();
+		private final AtomicLong countFailed = new AtomicLong();
+
 		private WebSocketProducerInstance(
 				@NonNull final String topicName,
 				@NonNull final WebSocketProducer producer,
@@ -240,19 +302,37 @@ public final class WebSocketProducersRegistry
 
 			logger.trace("{}: session {} subscribed", this, sessionId);
 
+			// make sure the new session gets the current event, even if it did not change
+			forceNextPublish.set(true);
+
+			final long initialDelayMillis = 1000;
+
 			//
-			// Check if the producer was already scheduled
-			if (scheduledFuture != null)
+			// Check if the producer was already started
+			if (running)
 			{
+				if (changeNotified)
+				{
+					scheduler.schedule(this::schedulePublish, initialDelayMillis, TimeUnit.MILLISECONDS);
+				}
 				return;
 			}
 
 			//
-			// Schedule producer
-			final long initialDelayMillis = 1000;
-			final long periodMillis = 1000;
-			scheduledFuture = scheduler.scheduleAtFixedRate(this::executeAndPublish, initialDelayMillis, periodMillis, TimeUnit.MILLISECONDS);
-			logger.trace("{}: start producing using initialDelayMillis={}, periodMillis={}", this, initialDelayMillis, periodMillis);
+			// Start producer
+			running = true;
+			changeNotified = producer.startNotifyingChanges(this::schedulePublish);
+			if (changeNotified)
+			{
+				scheduler.schedule(this::schedulePublish, initialDelayMillis, TimeUnit.MILLISECONDS);
+				logger.trace("{}: start producing on change notifications", this);
+			}
+			else
+			{
+				final long periodMillis = 1000;
+				scheduledFuture = scheduler.scheduleAtFixedRate(this::executeAndPublish, initialDelayMillis, periodMillis, TimeUnit.MILLISECONDS);
+				logger.trace("{}: start producing using initialDelayMillis={}, periodMillis={}", this, initialDelayMillis, periodMillis);
+			}
 		}
 
 		public synchronized void unsubscribe(final String sessionId)
@@ -266,38 +346,120 @@ public final class WebSocketProducersRegistry
 			{
 				return;
 			}
-			if (scheduledFuture == null)
+			if (!running)
 			{
 				return;
 			}
 
-			try
+			running = false;
+
+			if (changeNotified)
+			{
+				try
+				{
+					producer.stopNotifyingChanges();
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("{}: Failed stopping change notifications. Ignored and considering them as stopped", this, ex);
+				}
+			}
+
+			if (scheduledFuture != null)
 			{
-				scheduledFuture.cancel(true);
+				try
+				{
+					scheduledFuture.cancel(true);
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("{}: Failed stopping scheduled future: {}. Ignored and considering it as stopped", this, scheduledFuture, ex);
+				}
+				scheduledFuture = null;
 			}
-			catch (final Exception ex)
+
+			synchronized (publishLock)
 			{
-				logger.warn("{}: Failed stopping scheduled future: {}. Ignored and considering it as stopped", this, scheduledFuture, ex);
+				lastPublishedEvent = null;
 			}
-			scheduledFuture = null;
 
 			logger.debug("{} stopped", this);
 		}
 
+		/**
+		 * Schedules producing and publishing an event. Many calls until the event is produced are resulting in only one event.
+		 */
+		private void schedulePublish()
+		{
+			if (publishPending.compareAndSet(false, true))
+			{
+				scheduler.execute(() -> {
+					publishPending.set(false);
+					executeAndPublish();
+				});
+			}
+		}
+
 		private void executeAndPublish()
 		{
-			try
+			if (!running)
 			{
-				final JSONOptions jsonOpts = JSONOptions.newInstance();
-				final Object event = producer.produceEvent(jsonOpts);
-				websocketSender.convertAndSend(topicName, event);
+				return;
+			}
 
-				logger.trace("Event sent to {}: {}", topicName, event);
+			synchronized (publishLock)
+			{
+				try
+				{
+					final JSONOptions jsonOpts = JSONOptions.newInstance();
+					final Object event = producer.produceEvent(jsonOpts);
+					countProduced.incrementAndGet();
+
+					final boolean force = forceNextPublish.getAndSet(false);
+					if (!force && Objects.equals(event, lastPublishedEvent))
+					{
+						countSuppressed.incrementAndGet();
+						logger.trace("Event not sent to {} because it did not change: {}", topicName, event);
+						return;
+					}
+
+					websocketSender.convertAndSend(topicName, event);
+					lastPublishedEvent = event;
+					countPublished.incrementAndGet();
+
+					logger.trace("Event sent to {}: {}", topicName, event);
+				}
+				catch (final Exception ex)
+				{
+					countFailed.incrementAndGet();
+					logger.warn("Failed producing event for {}. Ignored.", this, ex);
+				}
 			}
-			catch (final Exception ex)
+		}
+
+		public WebSocketProducerStatistics getStatistics()
+		{
+			final int subscribedSessions;
+			final boolean changeNotified;
+			synchronized (this)
 			{
-				logger.warn("Failed producing event for {}. Ignored.", this, ex);
+				subscribedSessions = subscribedSessionIds.size();
+				changeNotified = this.changeNotified;
 			}
+
+			final long countPublished = this.countPublished.get();
+			final double minutes = Math.max(System.currentTimeMillis() - createdMillis, 1) / 60_000.0;
+
+			return WebSocketProducerStatistics.builder()
+					.topicName(topicName)
+					.subscribedSessions(subscribedSessions)
+					.changeNotified(changeNotified)
+					.countProduced(countProduced.get())
+					.countPublished(countPublished)
+					.countSuppressed(countSuppressed.get())
+					.countFailed(countFailed.get())
+					.publishedPerMinute(countPublished / minutes)
+					.build();
 		}
 	}
 }
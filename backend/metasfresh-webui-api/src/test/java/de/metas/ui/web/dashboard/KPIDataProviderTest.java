@@ -0,0 +1,216 @@
+package de.metas.ui.web.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.i18n.TranslatableStrings;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.user.UserId;
+import de.metas.util.time.SystemTime;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class KPIDataProviderTest
+{
+	private static final int POLL_INTERVAL_SEC = 60;
+
+	private final JSONOptions jsonOptions = JSONOptions.builder()
+			.adLanguage("de_DE")
+			.zoneId(ZoneId.of("Europe/Berlin"))
+			.build();
+
+	private long nowMillis;
+	private boolean retrieveFails;
+	private List<KPIDataResult> retrievedResults;
+	private List<Integer> retrievedForUserIds;
+
+	private KPIDataProvider kpiDataProvider;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		Env.setLoggedUserId(Env.getCtx(), UserId.ofRepoId(100));
+
+		nowMillis = 1_000_000;
+		SystemTime.setTimeSource(() -> nowMillis);
+
+		retrieveFails = false;
+		retrievedResults = new ArrayList<>();
+		retrievedForUserIds = new ArrayList<>();
+
+		kpiDataProvider = new KPIDataProvider((kpi, timeRange, formatValues, jsonOptions) -> {
+			if (retrieveFails)
+			{
+				throw new AdempiereException("elasticsearch is not available");
+			}
+
+			final KPIDataResult result = KPIDataResult.builder()
+					.setRange(timeRange)
+					.putValue("dataSet", "key", "value", retrievedResults.size())
+					.setTook(Stopwatch.createStarted())
+					.build();
+			retrievedResults.add(result);
+			retrievedForUserIds.add(Env.getAD_User_ID(Env.getCtx()));
+			return result;
+		});
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	private static KPI createKPI(final String esQuery)
+	{
+		return KPI.builder()
+				.setId(1)
+				.setCaption(TranslatableStrings.anyLanguage("caption"))
+				.setDescription(TranslatableStrings.anyLanguage("description"))
+				.setChartType(KPIChartType.AreaChart)
+				.setFields(ImmutableList.of(KPIField.builder()
+						.setFieldName("value")
+						.setValueType(KPIFieldValueType.Number)
+						.setESPath("value")
+						.build()))
+				.setESSearchIndex("index")
+				.setESSearchTypes("type")
+				.setESQuery(esQuery)
+				.setPollIntervalSec(POLL_INTERVAL_SEC)
+				.build();
+	}
+
+	private KPIDataResult getKPIData(final KPI kpi, final TimeRange timeRange)
+	{
+		return kpiDataProvider.getKPIData(kpi, timeRange, false, jsonOptions);
+	}
+
+	@Test
+	public void sameBucket_retrievedOnce_butEachResultHasItsOwnRange()
+	{
+		final KPI kpi = createKPI("{ \"from\": @FromMillis@, \"to\": @ToMillis@ }");
+		final TimeRange timeRange1 = TimeRange.main(0, nowMillis);
+		final KPIDataResult result1 = getKPIData(kpi, timeRange1);
+
+		nowMillis += 1000;
+		final TimeRange timeRange2 = TimeRange.main(0, nowMillis);
+		final KPIDataResult result2 = getKPIData(kpi, timeRange2);
+
+		assertThat(retrievedResults).hasSize(1);
+		assertThat(result1.getData()).isSameAs(retrievedResults.get(0).getData());
+		assertThat(result2.getData()).isSameAs(retrievedResults.get(0).getData());
+		assertThat(result1.getRange()).isSameAs(timeRange1);
+		assertThat(result2.getRange()).isSameAs(timeRange2);
+	}
+
+	@Test
+	public void bucketExpired_retrievedAgain()
+	{
+		final KPI kpi = createKPI("{ \"from\": @FromMillis@, \"to\": @ToMillis@ }");
+		final TimeRange timeRange = TimeRange.main(0, nowMillis);
+		getKPIData(kpi, timeRange);
+
+		nowMillis += POLL_INTERVAL_SEC * 1000;
+		final KPIDataResult result = getKPIData(kpi, timeRange);
+
+		assertThat(retrievedResults).hasSize(2);
+		assertThat(result.getData()).isSameAs(retrievedResults.get(1).getData());
+	}
+
+	@Test
+	public void queryUsingUserContext_retrievedPerUser()
+	{
+		final KPI kpi = createKPI("{ \"user\": @#AD_User_ID@, \"from\": @FromMillis@ }");
+		final TimeRange timeRange = TimeRange.main(0, nowMillis);
+
+		final KPIDataResult resultUser100 = getKPIData(kpi, timeRange);
+
+		Env.setLoggedUserId(Env.getCtx(), UserId.ofRepoId(200));
+		final KPIDataResult resultUser200 = getKPIData(kpi, timeRange);
+
+		Env.setLoggedUserId(Env.getCtx(), UserId.ofRepoId(100));
+		final KPIDataResult resultUser100Again = getKPIData(kpi, timeRange);
+
+		assertThat(retrievedForUserIds).containsExactly(100, 200);
+		assertThat(resultUser100.getData()).isSameAs(retrievedResults.get(0).getData());
+		assertThat(resultUser200.getData()).isSameAs(retrievedResults.get(1).getData());
+		assertThat(resultUser100Again.getData()).isSameAs(retrievedResults.get(0).getData());
+	}
+
+	@Test
+	public void queryNotUsingUserContext_sharedBetweenUsers()
+	{
+		final KPI kpi = createKPI("{ \"from\": @FromMillis@, \"to\": @ToMillis@ }");
+		final TimeRange timeRange = TimeRange.main(0, nowMillis);
+		getKPIData(kpi, timeRange);
+
+		Env.setLoggedUserId(Env.getCtx(), UserId.ofRepoId(200));
+		final KPIDataResult result = getKPIData(kpi, timeRange);
+
+		assertThat(retrievedForUserIds).containsExactly(100);
+		assertThat(result.getData()).isSameAs(retrievedResults.get(0).getData());
+	}
+
+	@Test
+	public void retrieveFails_returnsDataRetrievedBefore()
+	{
+		final KPI kpi = createKPI("{ \"from\": @FromMillis@, \"to\": @ToMillis@ }");
+		final TimeRange timeRange = TimeRange.main(0, nowMillis);
+		getKPIData(kpi, timeRange);
+
+		nowMillis += POLL_INTERVAL_SEC * 1000;
+		retrieveFails = true;
+		final KPIDataResult staleResult = getKPIData(kpi, timeRange);
+		assertThat(staleResult.getData()).isSameAs(retrievedResults.get(0).getData());
+
+		retrieveFails = false;
+		final KPIDataResult result = getKPIData(kpi, timeRange);
+		assertThat(retrievedResults).hasSize(2);
+		assertThat(result.getData()).isSameAs(retrievedResults.get(1).getData());
+	}
+
+	@Test
+	public void retrieveFails_nothingRetrievedBefore()
+	{
+		final KPI kpi = createKPI("{ \"from\": @FromMillis@, \"to\": @ToMillis@ }");
+		retrieveFails = true;
+
+		assertThatThrownBy(() -> getKPIData(kpi, TimeRange.main(0, nowMillis)))
+				.hasMessageContaining("elasticsearch is not available");
+	}
+}
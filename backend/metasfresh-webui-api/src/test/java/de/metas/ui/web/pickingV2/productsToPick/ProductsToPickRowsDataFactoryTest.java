@@ -1,5 +1,6 @@
 package de.metas.ui.web.pickingV2.productsToPick;
 
+import static org.adempiere.model.InterfaceWrapperHelper.load;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -7,6 +8,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Optional;
 
@@ -27,6 +29,8 @@ import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.BPartnerLocationId;
 import de.metas.bpartner.ShipmentAllocationBestBeforePolicy;
 import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Reservation;
 import de.metas.handlingunits.model.I_M_Picking_Candidate;
 import de.metas.handlingunits.picking.PickingCandidateApprovalStatus;
 import de.metas.handlingunits.picking.PickingCandidatePickStatus;
@@ -34,6 +38,7 @@ import de.metas.handlingunits.picking.PickingCandidateStatus;
 import de.metas.inoutcandidate.api.Packageable;
 import de.metas.inoutcandidate.api.ShipmentScheduleId;
 import de.metas.order.OrderId;
+import de.metas.order.OrderLineId;
 import de.metas.product.ProductId;
 import de.metas.quantity.Quantity;
 import de.metas.ui.web.pickingV2.packageable.PackageableRow;
@@ -43,6 +48,7 @@ import de.metas.ui.web.pickingV2.productsToPick.rows.ProductsToPickRowsData;
 import de.metas.ui.web.pickingV2.productsToPick.rows.factory.ProductsToPickRowsDataFactory;
 import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
 import lombok.Builder;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -97,35 +103,93 @@ public class ProductsToPickRowsDataFactoryTest
 			final int qtyToDeliver,
 			final int qtyPickedNotDelivered,
 			@Nullable final ShipmentAllocationBestBeforePolicy bestBeforePolicy)
+	{
+		return createPackageableRow(createPackageable(shipmentScheduleId, qtyToDeliver, qtyPickedNotDelivered, bestBeforePolicy));
+	}
+
+	private PackageableRow createPackageableRow(final Packageable... packageables)
 	{
 		return PackageableRow.builder()
 				.orderId(OrderId.ofRepoId(1))
 				.orderDocumentNo("1234")
 				.customer(IntegerLookupValue.of(customerAndLocationId.getBpartnerId().getRepoId(), "customer"))
-				.packageable(Packageable.builder()
-						.shipmentScheduleId(shipmentScheduleId)
-						//
-						.qtyOrdered(Quantity.of(1000000, uomKg))
-						.qtyToDeliver(Quantity.of(qtyToDeliver, uomKg))
-						.qtyDelivered(Quantity.of(0, uomKg))
-						.qtyPickedNotDelivered(Quantity.of(qtyPickedNotDelivered, uomKg))
-						.qtyPickedPlanned(Quantity.of(0, uomKg))
-						.qtyPickedAndDelivered(Quantity.of(0, uomKg))
-						//
-						.customerId(customerAndLocationId.getBpartnerId())
-						.customerLocationId(customerAndLocationId)
-						//
-						.warehouseId(locatorId.getWarehouseId())
-						//
-						.bestBeforePolicy(Optional.ofNullable(bestBeforePolicy))
-						//
-						.productId(productId)
-						.asiId(AttributeSetInstanceId.NONE)
-						//
-						.build())
+				.packageables(Arrays.asList(packageables))
+				.build();
+	}
+
+	private Packageable createPackageable(
+			@NonNull final ShipmentScheduleId shipmentScheduleId,
+			final int qtyToDeliver,
+			final int qtyPickedNotDelivered,
+			@Nullable final ShipmentAllocationBestBeforePolicy bestBeforePolicy)
+	{
+		return createPackageable(shipmentScheduleId, null, qtyToDeliver, qtyPickedNotDelivered, bestBeforePolicy);
+	}
+
+	private Packageable createPackageable(
+			@NonNull final ShipmentScheduleId shipmentScheduleId,
+			@Nullable final OrderLineId salesOrderLineId,
+			final int qtyToDeliver,
+			final int qtyPickedNotDelivered,
+			@Nullable final ShipmentAllocationBestBeforePolicy bestBeforePolicy)
+	{
+		return Packageable.builder()
+				.shipmentScheduleId(shipmentScheduleId)
+				.salesOrderLineIdOrNull(salesOrderLineId)
+				//
+				.qtyOrdered(Quantity.of(1000000, uomKg))
+				.qtyToDeliver(Quantity.of(qtyToDeliver, uomKg))
+				.qtyDelivered(Quantity.of(0, uomKg))
+				.qtyPickedNotDelivered(Quantity.of(qtyPickedNotDelivered, uomKg))
+				.qtyPickedPlanned(Quantity.of(0, uomKg))
+				.qtyPickedAndDelivered(Quantity.of(0, uomKg))
+				//
+				.customerId(customerAndLocationId.getBpartnerId())
+				.customerLocationId(customerAndLocationId)
+				//
+				.warehouseId(locatorId.getWarehouseId())
+				//
+				.bestBeforePolicy(Optional.ofNullable(bestBeforePolicy))
+				//
+				.productId(productId)
+				.asiId(AttributeSetInstanceId.NONE)
+				//
 				.build();
 	}
 
+	private void createDraftPickingCandidate(
+			@NonNull final ShipmentScheduleId shipmentScheduleId,
+			@NonNull final HuId pickFromHUId,
+			final int qtyPicked)
+	{
+		final I_M_Picking_Candidate pickingCandidateRecord = newInstance(I_M_Picking_Candidate.class);
+		pickingCandidateRecord.setM_ShipmentSchedule_ID(shipmentScheduleId.getRepoId());
+		pickingCandidateRecord.setStatus(PickingCandidateStatus.Draft.getCode());
+		pickingCandidateRecord.setPickStatus(PickingCandidatePickStatus.PICKED.getCode());
+		pickingCandidateRecord.setApprovalStatus(PickingCandidateApprovalStatus.TO_BE_APPROVED.getCode());
+		pickingCandidateRecord.setQtyPicked(BigDecimal.valueOf(qtyPicked));
+		pickingCandidateRecord.setC_UOM_ID(uomKg.getC_UOM_ID());
+		pickingCandidateRecord.setPickFrom_HU_ID(pickFromHUId.getRepoId());
+		saveRecord(pickingCandidateRecord);
+	}
+
+	private void createHUReservation(
+			@NonNull final OrderLineId salesOrderLineId,
+			@NonNull final HuId vhuId,
+			final int qtyReserved)
+	{
+		final I_M_HU vhu = load(vhuId, I_M_HU.class);
+		vhu.setIsReserved(true);
+		saveRecord(vhu);
+
+		final I_M_HU_Reservation huReservationRecord = newInstance(I_M_HU_Reservation.class);
+		huReservationRecord.setC_OrderLineSO_ID(salesOrderLineId.getRepoId());
+		huReservationRecord.setVHU_ID(vhuId.getRepoId());
+		huReservationRecord.setQtyReserved(BigDecimal.valueOf(qtyReserved));
+		huReservationRecord.setC_UOM_ID(uomKg.getC_UOM_ID());
+		saveRecord(huReservationRecord);
+	}
+
 	@Nested
 	public class testRowsOrder_BestBeforePolicy
 	{
@@ -261,15 +325,7 @@ public class ProductsToPickRowsDataFactoryTest
 				.qty(Quantity.of(999, uomKg))
 				.build();
 
-		final I_M_Picking_Candidate pickingCandidateRecord = newInstance(I_M_Picking_Candidate.class);
-		pickingCandidateRecord.setM_ShipmentSchedule_ID(shipmentScheduleId.getRepoId());
-		pickingCandidateRecord.setStatus(PickingCandidateStatus.Draft.getCode());
-		pickingCandidateRecord.setPickStatus(PickingCandidatePickStatus.PICKED.getCode());
-		pickingCandidateRecord.setApprovalStatus(PickingCandidateApprovalStatus.TO_BE_APPROVED.getCode());
-		pickingCandidateRecord.setQtyPicked(new BigDecimal("5"));
-		pickingCandidateRecord.setC_UOM_ID(uomKg.getC_UOM_ID());
-		pickingCandidateRecord.setPickFrom_HU_ID(huId1.getRepoId());
-		saveRecord(pickingCandidateRecord);
+		createDraftPickingCandidate(shipmentScheduleId, huId1, 5);
 
 		final PackageableRow packageableRow = preparePackageableRow()
 				.qtyToDeliver(5)
@@ -286,4 +342,98 @@ public class ProductsToPickRowsDataFactoryTest
 		assertThat(row.getType()).isEqualTo(ProductsToPickRowType.PICK_FROM_HU);
 		assertThat(row.getPickFromHUId()).isEqualTo(huId1);
 	}
+
+	/**
+	 * The HU which is already picked for the second line shall not be allocated to the first line,
+	 * even if, according to the best before policy, the first line would prefer it.
+	 */
+	@Test
+	public void test_AlreadyExistingPickingCandidate_OfAnotherLine()
+	{
+		final HuId huId1 = testHelper.prepareExistingHU()
+				.locatorId(locatorId)
+				.bestBeforeDate(LocalDate.of(2019, Month.SEPTEMBER, 1))
+				.productId(productId)
+				.qty(Quantity.of(10, uomKg))
+				.build();
+
+		final HuId huId2 = testHelper.prepareExistingHU()
+				.locatorId(locatorId)
+				.bestBeforeDate(LocalDate.of(2019, Month.SEPTEMBER, 2))
+				.productId(productId)
+				.qty(Quantity.of(10, uomKg))
+				.build();
+
+		final ShipmentScheduleId shipmentScheduleId2 = ShipmentScheduleId.ofRepoId(4);
+		createDraftPickingCandidate(shipmentScheduleId2, huId1, 10);
+
+		final PackageableRow packageableRow = createPackageableRow(
+				createPackageable(shipmentScheduleId, 10, 0, ShipmentAllocationBestBeforePolicy.Expiring_First),
+				createPackageable(shipmentScheduleId2, 10, 0, ShipmentAllocationBestBeforePolicy.Expiring_First));
+
+		final ProductsToPickRowsDataFactory productsToPickRowsDataFactory = testHelper.createProductsToPickRowsDataFactory();
+		final ImmutableList<ProductsToPickRow> rows = ImmutableList.copyOf(productsToPickRowsDataFactory.create(packageableRow).getTopLevelRows());
+		assertThat(rows).hasSize(2);
+
+		final ProductsToPickRow row1 = rows.get(0);
+		assertThat(row1.getShipmentScheduleId()).isEqualTo(shipmentScheduleId);
+		assertThat(row1.getType()).isEqualTo(ProductsToPickRowType.PICK_FROM_HU);
+		assertThat(row1.getPickFromHUId()).isEqualTo(huId2);
+		assertThat(row1.getQtyEffective()).isEqualTo(Quantity.of(10, uomKg));
+
+		final ProductsToPickRow row2 = rows.get(1);
+		assertThat(row2.getShipmentScheduleId()).isEqualTo(shipmentScheduleId2);
+		assertThat(row2.getType()).isEqualTo(ProductsToPickRowType.PICK_FROM_HU);
+		assertThat(row2.getPickFromHUId()).isEqualTo(huId1);
+		assertThat(row2.getQtyEffective()).isEqualTo(Quantity.of(10, uomKg));
+	}
+
+	/**
+	 * The HU which is reserved for the second line shall not be allocated to the first line,
+	 * even if, according to the best before policy, the first line would prefer it.
+	 */
+	@Test
+	public void test_HUReservedForAnotherLine()
+	{
+		final HuId huId1 = testHelper.prepareExistingHU()
+				.locatorId(locatorId)
+				.bestBeforeDate(LocalDate.of(2019, Month.SEPTEMBER, 1))
+				.productId(productId)
+				.qty(Quantity.of(10, uomKg))
+				.build();
+
+		final HuId huId2 = testHelper.prepareExistingHU()
+				.locatorId(locatorId)
+				.bestBeforeDate(LocalDate.of(2019, Month.SEPTEMBER, 2))
+				.productId(productId)
+				.qty(Quantity.of(10, uomKg))
+				.build();
+
+		final ShipmentScheduleId shipmentScheduleId2 = ShipmentScheduleId.ofRepoId(4);
+		final OrderLineId salesOrderLineId1 = OrderLineId.ofRepoId(11);
+		final OrderLineId salesOrderLineId2 = OrderLineId.ofRepoId(12);
+		createHUReservation(salesOrderLineId2, huId1, 10);
+
+		final PackageableRow packageableRow = createPackageableRow(
+				createPackageable(shipmentScheduleId, salesOrderLineId1, 10, 0, ShipmentAllocationBestBeforePolicy.Expiring_First),
+				createPackageable(shipmentScheduleId2, salesOrderLineId2, 10, 0, ShipmentAllocationBestBeforePolicy.Expiring_First));
+
+		final ProductsToPickRowsDataFactory productsToPickRowsDataFactory = testHelper.createProductsToPickRowsDataFactory();
+		final ImmutableList<ProductsToPickRow> rows = ImmutableList.copyOf(productsToPickRowsDataFactory.create(packageableRow).getTopLevelRows());
+		assertThat(rows).hasSize(2);
+
+		final ProductsToPickRow row1 = rows.get(0);
+		assertThat(row1.getShipmentScheduleId()).isEqualTo(shipmentScheduleId);
+		assertThat(row1.getType()).isEqualTo(ProductsToPickRowType.PICK_FROM_HU);
+		assertThat(row1.getPickFromHUId()).isEqualTo(huId2);
+		assertThat(row1.getQtyEffective()).isEqualTo(Quantity.of(10, uomKg));
+		assertThat(row1.isHuReservedForThisRow()).isFalse();
+
+		final ProductsToPickRow row2 = rows.get(1);
+		assertThat(row2.getShipmentScheduleId()).isEqualTo(shipmentScheduleId2);
+		assertThat(row2.getType()).isEqualTo(ProductsToPickRowType.PICK_FROM_HU);
+		assertThat(row2.getPickFromHUId()).isEqualTo(huId1);
+		assertThat(row2.getQtyEffective()).isEqualTo(Quantity.of(10, uomKg));
+		assertThat(row2.isHuReservedForThisRow()).isTrue();
+	}
 }
@@ -0,0 +1,221 @@
+package de.metas.ui.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WebSocketProducersRegistryTest
+{
+	/** producers start 1 second after the first subscription, so we wait longer than that */
+	private static final int TIMEOUT_MILLIS = 5000;
+
+	private WebsocketSender websocketSender;
+	private WebSocketProducersRegistry registry;
+
+	/** released at the end of each test, so that no producer stays blocked */
+	private final CountDownLatch testFinished = new CountDownLatch(1);
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		websocketSender = mock(WebsocketSender.class);
+		registry = new WebSocketProducersRegistry(websocketSender, 2);
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		testFinished.countDown();
+	}
+
+	private void registerProducerFactory(final String topicNamePrefix, final Function<String, WebSocketProducer> producerFactory)
+	{
+		registry.registerProducerFactory(new WebSocketProducerFactory()
+		{
+			@Override
+			public String getTopicNamePrefix()
+			{
+				return topicNamePrefix;
+			}
+
+			@Override
+			public WebSocketProducer createProducer(final String topicName)
+			{
+				return producerFactory.apply(topicName);
+			}
+		});
+	}
+
+	/**
+	 * A producer which notifies its changes and produces the number of the notified changes.
+	 */
+	private static class ChangeNotifyingProducer implements WebSocketProducer
+	{
+		private final AtomicInteger countChanges = new AtomicInteger();
+		private Runnable onChangeCallback;
+
+		@Override
+		public Object produceEvent(final JSONOptions jsonOpts)
+		{
+			return countChanges.get();
+		}
+
+		@Override
+		public boolean startNotifyingChanges(@NonNull final Runnable onChangeCallback)
+		{
+			this.onChangeCallback = onChangeCallback;
+			return true;
+		}
+
+		public void change()
+		{
+			countChanges.incrementAndGet();
+			onChangeCallback.run();
+		}
+	}
+
+	@Test
+	public void polledProducer_publishesOnlyChangedEvents()
+	{
+		registerProducerFactory("/polled", topicName -> jsonOpts -> "event");
+
+		registry.onTopicSubscribed("session1", "/polled/1");
+
+		verify(websocketSender, timeout(TIMEOUT_MILLIS)).convertAndSend("/polled/1", "event");
+		assertThat(registry.getStatistics()).hasSize(1);
+		assertThat(registry.getStatistics().get(0).getSubscribedSessions()).isEqualTo(1);
+
+		// wait for the next poll, which shall not publish the same event again
+		waitUntil(() -> registry.getStatistics().get(0).getCountSuppressed() > 0);
+		verify(websocketSender, times(1)).convertAndSend("/polled/1", "event");
+		assertThat(registry.getStatistics().get(0).getCountPublished()).isEqualTo(1);
+	}
+
+	@Test
+	public void changeNotifyingProducer_publishesAfterChanges()
+	{
+		final ChangeNotifyingProducer producer = new ChangeNotifyingProducer();
+		registerProducerFactory("/notifying", topicName -> producer);
+
+		registry.onTopicSubscribed("session1", "/notifying/1");
+		verify(websocketSender, timeout(TIMEOUT_MILLIS)).convertAndSend("/notifying/1", 0);
+
+		for (int i = 0; i < 100; i++)
+		{
+			producer.change();
+		}
+
+		verify(websocketSender, timeout(TIMEOUT_MILLIS)).convertAndSend("/notifying/1", 100);
+		assertThat(registry.getStatistics().get(0).isChangeNotified()).isTrue();
+	}
+
+	@Test
+	public void unsubscribed_stopsPublishing()
+	{
+		final ChangeNotifyingProducer producer = new ChangeNotifyingProducer();
+		registerProducerFactory("/notifying", topicName -> producer);
+
+		registry.onTopicSubscribed("session1", "/notifying/1");
+		verify(websocketSender, timeout(TIMEOUT_MILLIS)).convertAndSend("/notifying/1", 0);
+
+		registry.onSessionDisconnect("session1");
+		producer.change();
+
+		assertThat(registry.getStatistics().get(0).getSubscribedSessions()).isZero();
+		verify(websocketSender, after(1000).never()).convertAndSend("/notifying/1", 1);
+	}
+
+	/**
+	 * Verifies that a producer which is blocked does not prevent the other producers from publishing,
+	 * because the events are produced by a pool of threads.
+	 */
+	@Test
+	public void blockedProducer_doesNotBlockOtherProducers() throws Exception
+	{
+		final CountDownLatch blockedProducerStarted = new CountDownLatch(1);
+		registerProducerFactory("/blocked", topicName -> jsonOpts -> {
+			blockedProducerStarted.countDown();
+			try
+			{
+				testFinished.await();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return "blocked";
+		});
+		registerProducerFactory("/other", topicName -> jsonOpts -> "event-" + topicName);
+
+		registry.onTopicSubscribed("session1", "/blocked/1");
+		assertThat(blockedProducerStarted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+
+		registry.onTopicSubscribed("session1", "/other/1");
+		registry.onTopicSubscribed("session1", "/other/2");
+
+		verify(websocketSender, timeout(TIMEOUT_MILLIS)).convertAndSend("/other/1", "event-/other/1");
+		verify(websocketSender, timeout(TIMEOUT_MILLIS)).convertAndSend("/other/2", "event-/other/2");
+		verify(websocketSender, never()).convertAndSend(eq("/blocked/1"), any());
+	}
+
+	private static void waitUntil(final BooleanSupplier condition)
+	{
+		final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!condition.getAsBoolean())
+		{
+			assertThat(System.currentTimeMillis()).as("condition met before timeout").isLessThan(deadline);
+			try
+			{
+				Thread.sleep(50);
+			}
+			catch (final InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}